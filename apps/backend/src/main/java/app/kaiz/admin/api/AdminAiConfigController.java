@@ -2,20 +2,30 @@ package app.kaiz.admin.api;
 
 import app.kaiz.admin.application.AdminCommandCenterService;
 import app.kaiz.admin.application.dto.CommandCenterAdminDtos.*;
+import app.kaiz.command_center.application.LlmGateway;
+import app.kaiz.command_center.application.LlmGateway.GatewayMetrics;
+import app.kaiz.command_center.application.TokenLedger;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.DailySpend;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.ModeSpend;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.UserSpend;
 import app.kaiz.shared.util.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 /**
- * Admin endpoints for global AI configuration: settings (model params, rate limits) and feature
- * flags (toggles for AI sub-features).
+ * Admin endpoints for global AI configuration: settings (model params, rate limits), feature flags
+ * (toggles for AI sub-features), a snapshot of LLM gateway metrics and token spend from the
+ * ledger.
  *
  * <p>Delegates to the existing {@link AdminCommandCenterService} which already manages settings and
  * feature flags. This controller provides a focused, well-named API surface for AI config
@@ -29,7 +39,11 @@ import org.springframework.web.bind.annotation.*;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminAiConfigController {
 
+  private static final int SPEND_DEFAULT_DAYS = 30;
+
   private final AdminCommandCenterService commandCenterService;
+  private final LlmGateway llmGateway;
+  private final TokenLedger tokenLedger;
 
   // =============== Settings ===============
 
@@ -73,4 +87,53 @@ public class AdminAiConfigController {
     return ResponseEntity.ok(
         ApiResponse.success(commandCenterService.updateFeatureFlag(key, request)));
   }
+
+  // =============== Gateway Metrics ===============
+
+  @GetMapping("/gateway-metrics")
+  @Operation(summary = "Get LLM gateway metrics since the last reset")
+  public ResponseEntity<ApiResponse<GatewayMetrics>> getGatewayMetrics() {
+    return ResponseEntity.ok(ApiResponse.success(llmGateway.getMetrics()));
+  }
+
+  @PostMapping("/gateway-metrics/reset")
+  @Operation(summary = "Reset the LLM gateway metrics snapshot and circuit breaker")
+  public ResponseEntity<ApiResponse<GatewayMetrics>> resetGatewayMetrics() {
+    llmGateway.resetMetrics();
+    return ResponseEntity.ok(ApiResponse.success(llmGateway.getMetrics()));
+  }
+
+  // =============== Token Spend ===============
+
+  @GetMapping("/spend/daily")
+  @Operation(summary = "Get LLM token spend per day (defaults to the last 30 days)")
+  public ResponseEntity<ApiResponse<List<DailySpend>>> getDailySpend(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+    LocalDate start = from != null ? from : end.minusDays(SPEND_DEFAULT_DAYS);
+    return ResponseEntity.ok(ApiResponse.success(tokenLedger.dailySpend(start, end)));
+  }
+
+  @GetMapping("/spend/users")
+  @Operation(summary = "Get the users with the highest LLM token spend")
+  public ResponseEntity<ApiResponse<List<UserSpend>>> getTopSpenders(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(defaultValue = "20") int limit) {
+    LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+    LocalDate start = from != null ? from : end.minusDays(SPEND_DEFAULT_DAYS);
+    int capped = Math.max(1, Math.min(limit, 200));
+    return ResponseEntity.ok(ApiResponse.success(tokenLedger.topUsers(start, end, capped)));
+  }
+
+  @GetMapping("/spend/modes")
+  @Operation(summary = "Get LLM token spend per mode and model")
+  public ResponseEntity<ApiResponse<List<ModeSpend>>> getModeSpend(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+    LocalDate start = from != null ? from : end.minusDays(SPEND_DEFAULT_DAYS);
+    return ResponseEntity.ok(ApiResponse.success(tokenLedger.modeSpend(start, end)));
+  }
 }
@@ -2,6 +2,7 @@ package app.kaiz.admin.api;
 
 import app.kaiz.admin.application.AiFeedbackDashboardService;
 import app.kaiz.admin.application.AiFeedbackDashboardService.DashboardSnapshot;
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository.MetricCount;
 import app.kaiz.shared.util.ApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -15,7 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 /**
  * Admin dashboard endpoints for AI feedback analytics. Provides approval rates, correction
- * patterns, rejection trends, session counts, and weekly trend breakdowns.
+ * patterns, rejection trends, session counts, weekly trend breakdowns, and hourly activity.
  */
 @RestController
 @RequestMapping("/api/v1/admin/ai-feedback")
@@ -25,6 +26,9 @@ import org.springframework.web.bind.annotation.*;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminAiFeedbackController {
 
+  /** Hourly rows are kept for 14 days by default. */
+  private static final int MAX_HOURS = 14 * 24;
+
   private final AiFeedbackDashboardService dashboardService;
 
   @GetMapping("/dashboard")
@@ -40,4 +44,12 @@ public class AdminAiFeedbackController {
       @RequestParam(defaultValue = "4") int weeks) {
     return ResponseEntity.ok(ApiResponse.success(dashboardService.getWeeklyTrends(weeks)));
   }
+
+  @GetMapping("/activity/hourly")
+  @Operation(summary = "Get hourly AI activity counts")
+  public ResponseEntity<ApiResponse<List<MetricCount>>> getHourlyActivity(
+      @RequestParam(defaultValue = "48") int hours) {
+    int capped = Math.max(1, Math.min(hours, MAX_HOURS));
+    return ResponseEntity.ok(ApiResponse.success(dashboardService.getHourlyActivity(capped)));
+  }
 }
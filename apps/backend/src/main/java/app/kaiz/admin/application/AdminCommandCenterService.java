@@ -10,7 +10,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -31,6 +31,7 @@ public class AdminCommandCenterService {
   private final CommandCenterSettingRepository settingRepository;
   private final CommandCenterFeatureFlagRepository featureFlagRepository;
   private final ChatModelProvider chatModelProvider;
+  private final ApplicationEventPublisher eventPublisher;
 
   // =============== LLM Providers ===============
 
@@ -159,7 +160,6 @@ public class AdminCommandCenterService {
         .orElseThrow(() -> new ResourceNotFoundException("Prompt", key));
   }
 
-  @CacheEvict(value = "systemPrompts", allEntries = true)
   public SystemPromptResponse createPrompt(CreateSystemPromptRequest request) {
     log.info("Creating system prompt: {}", request.promptKey());
 
@@ -175,10 +175,11 @@ public class AdminCommandCenterService {
             .active(true)
             .build();
 
-    return toPromptResponse(systemPromptRepository.save(prompt));
+    SystemPrompt saved = systemPromptRepository.save(prompt);
+    eventPublisher.publishEvent(new SystemPromptsChanged(saved.getPromptKey()));
+    return toPromptResponse(saved);
   }
 
-  @CacheEvict(value = "systemPrompts", allEntries = true)
   public SystemPromptResponse updatePrompt(UUID id, UpdateSystemPromptRequest request) {
     log.info("Updating system prompt: {}", id);
 
@@ -196,11 +197,14 @@ public class AdminCommandCenterService {
     if (request.description() != null) prompt.setDescription(request.description());
     if (request.isActive() != null) prompt.setActive(request.isActive());
 
-    return toPromptResponse(systemPromptRepository.save(prompt));
+    SystemPrompt saved = systemPromptRepository.save(prompt);
+    eventPublisher.publishEvent(new SystemPromptsChanged(saved.getPromptKey()));
+    return toPromptResponse(saved);
   }
 
-  @CacheEvict(value = "systemPrompts", allEntries = true)
-  public void deletePrompt(UUID id) {}
+  public void deletePrompt(UUID id) {
+    eventPublisher.publishEvent(new SystemPromptsChanged(null));
+  }
 
   // =============== Test Attachments ===============
 
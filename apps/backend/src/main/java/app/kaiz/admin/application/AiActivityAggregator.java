@@ -0,0 +1,53 @@
+package app.kaiz.admin.application;
+
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository;
+import app.kaiz.command_center.application.RuleEvolutionService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the rollups behind {@link AiFeedbackDashboardService} current: every few minutes the
+ * hourly and daily activity rows and the daily feedback rollup of yesterday and today are rebuilt
+ * from the source tables. Older days are final. Each rebuild is one idempotent transaction, so
+ * several replicas running it at once only repeat work.
+ */
+@Component
+@Slf4j
+public class AiActivityAggregator {
+
+  private final AiActivityRollupRepository activityRepository;
+  private final RuleEvolutionService ruleEvolutionService;
+  private final Duration hourlyRetention;
+
+  public AiActivityAggregator(
+      AiActivityRollupRepository activityRepository,
+      RuleEvolutionService ruleEvolutionService,
+      @Value("${kaiz.admin.ai-dashboard.hourly-retention:14d}") Duration hourlyRetention) {
+    this.activityRepository = activityRepository;
+    this.ruleEvolutionService = ruleEvolutionService;
+    this.hourlyRetention = hourlyRetention;
+  }
+
+  @Scheduled(fixedDelayString = "${kaiz.admin.ai-dashboard.rollup-ms:300000}")
+  public void refresh() {
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    LocalDate yesterday = today.minusDays(1);
+    try {
+      activityRepository.rollUp(yesterday, today);
+      ruleEvolutionService.rollUp(yesterday, today);
+      int purged = activityRepository.purgeHoursBefore(Instant.now().minus(hourlyRetention));
+      if (purged > 0) {
+        log.debug("Purged {} hourly AI activity rows", purged);
+      }
+    } catch (DataAccessException e) {
+      log.warn("Failed to refresh AI activity rollups: {}", e.getMessage());
+    }
+  }
+}
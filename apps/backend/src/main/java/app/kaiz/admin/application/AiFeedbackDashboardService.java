@@ -1,16 +1,25 @@
 package app.kaiz.admin.application;
 
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository;
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository.MetricCount;
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository.WeeklyFeedback;
 import app.kaiz.command_center.application.RuleEvolutionService;
-import app.kaiz.command_center.infrastructure.ConversationSessionRepository;
-import app.kaiz.command_center.infrastructure.DraftFeedbackRecordRepository;
-import app.kaiz.command_center.infrastructure.PendingDraftRepository;
-import app.kaiz.sensai.infrastructure.InterventionRepository;
+import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
+import app.kaiz.command_center.infrastructure.FeedbackActionCount;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +27,10 @@ import org.springframework.transaction.annotation.Transactional;
  * Aggregates data across feedback records, conversation sessions, and interventions for the admin
  * AI dashboard. Provides high-level metrics: approval rates, session counts, intervention trends,
  * and user engagement statistics.
+ *
+ * <p>Everything is read from rollups that {@link AiActivityAggregator} keeps current, so a page
+ * view costs a few hundred rows regardless of history. Windows are whole UTC days ending today.
+ * Snapshots and trends are cached for the aggregator interval.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,11 +38,11 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class AiFeedbackDashboardService {
 
+  private static final int MAX_DAYS = 365;
+  private static final int MAX_WEEKS = 104;
+
   private final RuleEvolutionService ruleEvolutionService;
-  private final DraftFeedbackRecordRepository feedbackRepository;
-  private final ConversationSessionRepository sessionRepository;
-  private final PendingDraftRepository draftRepository;
-  private final InterventionRepository interventionRepository;
+  private final AiActivityRollupRepository activityRepository;
 
   /**
    * Get a full dashboard snapshot for the admin panel.
@@ -37,29 +50,37 @@ public class AiFeedbackDashboardService {
    * @param days number of days to look back (default 7)
    * @return comprehensive dashboard data
    */
+  @Cacheable(value = "aiFeedbackDashboard", key = "#days")
   public DashboardSnapshot getDashboard(int days) {
-    Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
+    int window = Math.max(1, Math.min(days, MAX_DAYS));
+    LocalDate to = LocalDate.now(ZoneOffset.UTC);
+    LocalDate from = to.minusDays(window - 1L);
 
-    Map<String, Object> feedbackRates = ruleEvolutionService.computeFeedbackRates(since);
-    double avgDecisionTime = ruleEvolutionService.computeAverageDecisionTime(since);
-    List<Map<String, Object>> topRejections = ruleEvolutionService.topRejectionReasons(since, 10);
+    Map<String, Object> feedbackRates = ruleEvolutionService.computeFeedbackRates(from, to);
+    double avgDecisionTime = ruleEvolutionService.computeAverageDecisionTime(from, to);
+    List<Map<String, Object>> topRejections =
+        ruleEvolutionService.topRejectionReasons(from, to, 10);
     List<Map<String, Object>> topUsers = ruleEvolutionService.topUsersByFeedback(20);
 
-    long totalSessions = sessionRepository.count();
-    long totalDrafts = draftRepository.count();
-    long totalFeedback = feedbackRepository.count();
-    long totalInterventions = interventionRepository.count();
+    Map<String, Long> totals = activityRepository.totals();
+    long totalSessions = totals.getOrDefault(AiActivityRollupRepository.SESSIONS, 0L);
+    long totalDrafts = totals.getOrDefault(AiActivityRollupRepository.DRAFTS, 0L);
+    long totalFeedback =
+        totals.getOrDefault(AiActivityRollupRepository.FEEDBACK_APPROVED, 0L)
+            + totals.getOrDefault(AiActivityRollupRepository.FEEDBACK_MODIFIED, 0L)
+            + totals.getOrDefault(AiActivityRollupRepository.FEEDBACK_REJECTED, 0L);
+    long totalInterventions = totals.getOrDefault(AiActivityRollupRepository.INTERVENTIONS, 0L);
 
     log.debug(
         "Dashboard snapshot: days={}, feedback={}, sessions={}, drafts={}, interventions={}",
-        days,
+        window,
         totalFeedback,
         totalSessions,
         totalDrafts,
         totalInterventions);
 
     return new DashboardSnapshot(
-        days,
+        window,
         feedbackRates,
         avgDecisionTime,
         topRejections,
@@ -77,19 +98,45 @@ public class AiFeedbackDashboardService {
    * @param weeks number of weeks to show
    * @return list of weekly summaries (newest first)
    */
+  @Cacheable(value = "aiFeedbackTrends", key = "#weeks")
   public List<Map<String, Object>> getWeeklyTrends(int weeks) {
-    return java.util.stream.IntStream.range(0, weeks)
-        .mapToObj(
-            i -> {
-              Instant weekEnd = Instant.now().minus((long) i * 7, ChronoUnit.DAYS);
-              Instant weekStart = weekEnd.minus(7, ChronoUnit.DAYS);
-              Map<String, Object> rates = ruleEvolutionService.computeFeedbackRates(weekStart);
-              rates = new java.util.HashMap<>(rates);
-              rates.put("weekStart", weekStart.toString());
-              rates.put("weekEnd", weekEnd.toString());
-              return rates;
-            })
-        .toList();
+    int count = Math.max(1, Math.min(weeks, MAX_WEEKS));
+    LocalDate today = LocalDate.now(ZoneOffset.UTC);
+    Map<LocalDate, WeeklyFeedback> byWeekEnd =
+        activityRepository.weeklyFeedback(today, count).stream()
+            .collect(Collectors.toMap(WeeklyFeedback::weekEnd, Function.identity()));
+
+    List<Map<String, Object>> trends = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDate weekEnd = today.minusDays(7L * i);
+      WeeklyFeedback week =
+          byWeekEnd.getOrDefault(
+              weekEnd, new WeeklyFeedback(weekEnd.minusDays(6), weekEnd, 0, 0, 0));
+      Map<String, Object> rates =
+          new HashMap<>(
+              RuleEvolutionService.feedbackRates(
+                  List.of(
+                      new FeedbackActionCount(FeedbackAction.APPROVED, week.approved(), 0, 0),
+                      new FeedbackActionCount(FeedbackAction.MODIFIED, week.modified(), 0, 0),
+                      new FeedbackActionCount(FeedbackAction.REJECTED, week.rejected(), 0, 0))));
+      rates.put("weekStart", week.weekStart().toString());
+      rates.put("weekEnd", week.weekEnd().toString());
+      trends.add(rates);
+    }
+    return trends;
+  }
+
+  /**
+   * Get hourly activity counts (sessions, drafts, interventions, feedback per action) for the
+   * last N hours, within the hourly retention.
+   *
+   * @param hours number of hours to show
+   * @return counts per hour and metric (oldest first)
+   */
+  public List<MetricCount> getHourlyActivity(int hours) {
+    Instant since =
+        Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(hours - 1L));
+    return activityRepository.hourly(since);
   }
 
   // ── DTOs ──
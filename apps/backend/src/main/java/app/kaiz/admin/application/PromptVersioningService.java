@@ -8,7 +8,7 @@ import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * <p>Each content update auto-increments the version number. Activation toggles control which
  * prompt version is live. Rollback creates a new version with the content of a previous one.
+ *
+ * <p>Every change publishes {@link SystemPromptsChanged}, which swaps the live prompt registry on
+ * this node after commit; other nodes pick the change up on their next version poll.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class PromptVersioningService {
 
   private final SystemPromptRepository promptRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Create a new version of a prompt by updating its content. Auto-increments version number.
@@ -36,7 +40,6 @@ public class PromptVersioningService {
    * @return the updated prompt with incremented version
    */
   @Transactional
-  @CacheEvict(value = "systemPrompts", allEntries = true)
   public SystemPrompt createNewVersion(UUID promptId, String newContent, String changeNote) {
     SystemPrompt prompt =
         promptRepository
@@ -56,6 +59,7 @@ public class PromptVersioningService {
     }
 
     SystemPrompt saved = promptRepository.save(prompt);
+    eventPublisher.publishEvent(new SystemPromptsChanged(saved.getPromptKey()));
     log.info(
         "Prompt versioned: key={}, v{} -> v{}",
         prompt.getPromptKey(),
@@ -71,7 +75,6 @@ public class PromptVersioningService {
    * @param active true to activate, false to deactivate
    */
   @Transactional
-  @CacheEvict(value = "systemPrompts", allEntries = true)
   public void setActive(UUID promptId, boolean active) {
     SystemPrompt prompt =
         promptRepository
@@ -80,6 +83,7 @@ public class PromptVersioningService {
 
     prompt.setActive(active);
     promptRepository.save(prompt);
+    eventPublisher.publishEvent(new SystemPromptsChanged(prompt.getPromptKey()));
     log.info(
         "Prompt {} {}: key={}",
         active ? "activated" : "deactivated",
@@ -100,7 +104,6 @@ public class PromptVersioningService {
    * @return the rolled-back prompt with a new version number
    */
   @Transactional
-  @CacheEvict(value = "systemPrompts", allEntries = true)
   public SystemPrompt rollbackFrom(UUID promptId, UUID sourcePromptId) {
     SystemPrompt target =
         promptRepository
@@ -134,6 +137,7 @@ public class PromptVersioningService {
             + source.getVersion());
 
     SystemPrompt saved = promptRepository.save(target);
+    eventPublisher.publishEvent(new SystemPromptsChanged(saved.getPromptKey()));
     log.info(
         "Prompt rolled back: key={}, v{} -> v{} (from source {})",
         target.getPromptKey(),
@@ -0,0 +1,9 @@
+package app.kaiz.admin.application;
+
+/**
+ * Published when a system prompt is created, edited, versioned, activated, deactivated or rolled
+ * back. The prompt registry reloads once the publishing transaction commits.
+ *
+ * @param promptKey the prompt that changed, or null when unknown
+ */
+public record SystemPromptsChanged(String promptKey) {}
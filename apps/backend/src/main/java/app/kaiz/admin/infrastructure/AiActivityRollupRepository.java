@@ -0,0 +1,148 @@
+package app.kaiz.admin.infrastructure;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Storage for {@code ai_activity_hourly} and {@code ai_activity_daily}. Plain JDBC: both are
+ * rebuilt with INSERT ... SELECT upserts, and reads only aggregate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AiActivityRollupRepository {
+
+  public static final String SESSIONS = "sessions";
+  public static final String DRAFTS = "drafts";
+  public static final String INTERVENTIONS = "interventions";
+  public static final String FEEDBACK_APPROVED = "feedback_approved";
+  public static final String FEEDBACK_MODIFIED = "feedback_modified";
+  public static final String FEEDBACK_REJECTED = "feedback_rejected";
+
+  private static final String HOUR_OF = "date_trunc('hour', created_at AT TIME ZONE 'UTC')";
+
+  private static final String ROLL_UP_HOURS =
+      "INSERT INTO ai_activity_hourly (hour, metric, value, updated_at)"
+          + " SELECT hour AT TIME ZONE 'UTC', metric, COUNT(*), NOW() FROM ("
+          + " SELECT "
+          + HOUR_OF
+          + " AS hour, 'sessions' AS metric FROM conversation_sessions"
+          + " WHERE created_at >= ? AND created_at < ?"
+          + " UNION ALL SELECT "
+          + HOUR_OF
+          + ", 'drafts' FROM command_center_drafts WHERE created_at >= ? AND created_at < ?"
+          + " UNION ALL SELECT "
+          + HOUR_OF
+          + ", 'feedback_' || LOWER(action) FROM draft_feedback_records"
+          + " WHERE created_at >= ? AND created_at < ?"
+          + " UNION ALL SELECT "
+          + HOUR_OF
+          + ", 'interventions' FROM sensai_interventions WHERE created_at >= ? AND created_at < ?"
+          + ") events GROUP BY hour, metric"
+          + " ON CONFLICT (hour, metric) DO UPDATE SET value = EXCLUDED.value,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  private static final String ROLL_UP_DAYS =
+      "INSERT INTO ai_activity_daily (day, metric, value, updated_at)"
+          + " SELECT (hour AT TIME ZONE 'UTC')::date, metric, SUM(value), NOW()"
+          + " FROM ai_activity_hourly WHERE hour >= ? AND hour < ?"
+          + " GROUP BY (hour AT TIME ZONE 'UTC')::date, metric"
+          + " ON CONFLICT (day, metric) DO UPDATE SET value = EXCLUDED.value,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Count of one metric in one time bucket. */
+  public record MetricCount(Instant bucket, String metric, long value) {}
+
+  /** Feedback per action for the seven days ending {@code weekEnd}. */
+  public record WeeklyFeedback(
+      LocalDate weekStart, LocalDate weekEnd, long approved, long modified, long rejected) {}
+
+  /**
+   * Recompute the hourly rows of the UTC days {@code from} through {@code to} from the source
+   * tables, then the daily rows from those hours. Idempotent; rows whose source rows are gone are
+   * removed.
+   */
+  @Transactional
+  public void rollUp(LocalDate from, LocalDate to) {
+    Timestamp start = Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant());
+    Timestamp end = Timestamp.from(to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    jdbcTemplate.update(ROLL_UP_HOURS, start, end, start, end, start, end, start, end);
+    // Rows upserted above carry this transaction's NOW(); anything older is stale
+    jdbcTemplate.update(
+        "DELETE FROM ai_activity_hourly WHERE hour >= ? AND hour < ? AND updated_at < NOW()",
+        start,
+        end);
+    jdbcTemplate.update(ROLL_UP_DAYS, start, end);
+    jdbcTemplate.update(
+        "DELETE FROM ai_activity_daily WHERE day BETWEEN ? AND ? AND updated_at < NOW()",
+        Date.valueOf(from),
+        Date.valueOf(to));
+  }
+
+  /** Drop hourly rows before {@code before}; daily rows are kept. */
+  public int purgeHoursBefore(Instant before) {
+    return jdbcTemplate.update(
+        "DELETE FROM ai_activity_hourly WHERE hour < ?", Timestamp.from(before));
+  }
+
+  /** Every metric summed over all days. */
+  public Map<String, Long> totals() {
+    Map<String, Long> totals = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        "SELECT metric, SUM(value) AS total FROM ai_activity_daily GROUP BY metric",
+        rs -> {
+          totals.put(rs.getString("metric"), rs.getLong("total"));
+        });
+    return totals;
+  }
+
+  /** Hourly counts from {@code since}, oldest first. */
+  public List<MetricCount> hourly(Instant since) {
+    return jdbcTemplate.query(
+        "SELECT hour, metric, value FROM ai_activity_hourly WHERE hour >= ? ORDER BY hour, metric",
+        (rs, row) ->
+            new MetricCount(
+                rs.getTimestamp("hour").toInstant(), rs.getString("metric"), rs.getLong("value")),
+        Timestamp.from(since));
+  }
+
+  /**
+   * Feedback per action in consecutive seven-day buckets ending {@code lastDay}, newest first. At
+   * most {@code weeks} × 7 × 3 daily rows are read; weeks without feedback are omitted.
+   */
+  public List<WeeklyFeedback> weeklyFeedback(LocalDate lastDay, int weeks) {
+    Date last = Date.valueOf(lastDay);
+    return jdbcTemplate.query(
+        "SELECT (?::date - day) / 7 AS week,"
+            + " SUM(value) FILTER (WHERE metric = 'feedback_approved') AS approved,"
+            + " SUM(value) FILTER (WHERE metric = 'feedback_modified') AS modified,"
+            + " SUM(value) FILTER (WHERE metric = 'feedback_rejected') AS rejected"
+            + " FROM ai_activity_daily WHERE day <= ? AND day > ?::date - ?"
+            + " AND metric IN ('feedback_approved', 'feedback_modified', 'feedback_rejected')"
+            + " GROUP BY 1 ORDER BY 1",
+        (rs, row) -> {
+          LocalDate weekEnd = lastDay.minusDays(7L * rs.getInt("week"));
+          return new WeeklyFeedback(
+              weekEnd.minusDays(6),
+              weekEnd,
+              rs.getLong("approved"),
+              rs.getLong("modified"),
+              rs.getLong("rejected"));
+        },
+        last,
+        last,
+        last,
+        7 * weeks);
+  }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -20,4 +21,15 @@ public interface SystemPromptRepository extends JpaRepository<SystemPrompt, UUID
   List<SystemPrompt> findByPromptCategoryAndActiveTrue(PromptCategory category);
 
   List<SystemPrompt> findAllByOrderByPromptCategoryAscPromptNameAsc();
+
+  /**
+   * Cheap summary of the table's state (row count, version sum, last update) that changes whenever
+   * a prompt is created, edited, toggled or deleted. Polled to detect changes made on other nodes.
+   */
+  @Query(
+      value =
+          "SELECT COUNT(*) || ':' || COALESCE(SUM(version), 0) || ':'"
+              + " || COALESCE(CAST(MAX(updated_at) AS TEXT), '') FROM system_prompts",
+      nativeQuery = true)
+  String findStateFingerprint();
 }
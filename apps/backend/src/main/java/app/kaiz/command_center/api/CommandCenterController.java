@@ -94,7 +94,8 @@ public class CommandCenterController {
       description =
           "Send text/attachments to AI and receive streaming response via Server-Sent Events. "
               + "Events: 'token' (incremental text), 'done' (complete JSON response), 'error' (failure). "
-              + "Use this for real-time UX — tokens arrive as Claude generates them.")
+              + "Use this for real-time UX — tokens arrive as Claude generates them. "
+              + "Returns 429 when the server already has too many streams open.")
   public SseEmitter streamSmartInput(
       @CurrentUser UUID userId, @Valid @RequestBody SmartInputRequest request) {
 
@@ -2,10 +2,17 @@ package app.kaiz.command_center.application;
 
 import app.kaiz.admin.domain.LlmProvider;
 import app.kaiz.admin.infrastructure.LlmProviderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.anthropic.AnthropicChatModel;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Component;
 
 /**
@@ -26,11 +33,22 @@ import org.springframework.stereotype.Component;
  * securely. Instead, we validate that the DB-configured default matches the auto-configured bean
  * and apply overridable parameters (model name, temperature, max tokens) where the Spring AI API
  * supports it.
+ *
+ * <p><b>Prompt caching.</b> {@link #buildPrompt} keeps the stable persona + mode block as the
+ * leading system message so the prompt prefix is byte-identical across requests. Spring AI 1.0.0's
+ * Anthropic client joins system messages into a single string and has no way to attach {@code
+ * cache_control}, so no cache breakpoint is sent yet; that needs a Spring AI release with Anthropic
+ * cache options. {@link #promptCacheUsage} reads back how many input tokens the provider reports as
+ * served from or written to its cache, which stays zero until then.
  */
 @Component
 @Slf4j
 public class ChatModelProvider {
 
+  private static final String ANTHROPIC = "anthropic";
+
+  private static final ObjectMapper USAGE_MAPPER = new ObjectMapper();
+
   private final AnthropicChatModel anthropicChatModel;
   private final LlmProviderRepository llmProviderRepository;
   private final AtomicReference<ResolvedModel> cachedModel = new AtomicReference<>();
@@ -67,6 +85,18 @@ public class ChatModelProvider {
     return resolveAndCache().modelName();
   }
 
+  /**
+   * Returns the provider actually serving calls (e.g. {@code anthropic}). Used to key per-provider
+   * limits, so it names the backing API rather than the admin-facing provider record.
+   */
+  public String getProviderName() {
+    ResolvedModel resolved = cachedModel.get();
+    if (resolved != null) {
+      return resolved.providerName();
+    }
+    return resolveAndCache().providerName();
+  }
+
   /**
    * Evicts the cached model so the next call to {@link #getChatModel()} re-reads from the DB. Call
    * this when the admin changes the default provider.
@@ -76,6 +106,51 @@ public class ChatModelProvider {
     log.info("Cached ChatModel evicted — next AI call will re-resolve from DB");
   }
 
+  /**
+   * Build a prompt from the system messages in order, stable prefix first, followed by the user
+   * message.
+   */
+  public Prompt buildPrompt(List<Message> systemMessages, Message userMessage) {
+    List<Message> messages = new ArrayList<>(systemMessages.size() + 1);
+    messages.addAll(systemMessages);
+    messages.add(userMessage);
+    return new Prompt(messages);
+  }
+
+  /** Provider prompt-cache token counts for a response; zero when the provider reports none. */
+  public record PromptCacheUsage(long cacheReadTokens, long cacheWriteTokens) {
+    public static final PromptCacheUsage NONE = new PromptCacheUsage(0, 0);
+  }
+
+  /**
+   * Read prompt-cache counters from the provider's native usage object ({@code
+   * cache_read_input_tokens} / {@code cache_creation_input_tokens} in Anthropic's API).
+   */
+  public static PromptCacheUsage promptCacheUsage(ChatResponse response) {
+    if (response.getMetadata() == null || response.getMetadata().getUsage() == null) {
+      return PromptCacheUsage.NONE;
+    }
+    Object nativeUsage = response.getMetadata().getUsage().getNativeUsage();
+    if (nativeUsage == null) {
+      return PromptCacheUsage.NONE;
+    }
+    try {
+      Map<?, ?> fields =
+          nativeUsage instanceof Map<?, ?> map
+              ? map
+              : USAGE_MAPPER.convertValue(nativeUsage, Map.class);
+      return new PromptCacheUsage(
+          asLong(fields.get("cache_read_input_tokens")),
+          asLong(fields.get("cache_creation_input_tokens")));
+    } catch (IllegalArgumentException e) {
+      return PromptCacheUsage.NONE;
+    }
+  }
+
+  private static long asLong(Object value) {
+    return value instanceof Number n ? n.longValue() : 0;
+  }
+
   private ResolvedModel resolveAndCache() {
     ResolvedModel resolved = resolveFromDb();
     cachedModel.set(resolved);
@@ -90,7 +165,7 @@ public class ChatModelProvider {
             () -> {
               log.warn(
                   "No default LLM provider configured in DB — falling back to Spring-auto-configured Anthropic model");
-              return new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514");
+              return new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514", ANTHROPIC);
             });
   }
 
@@ -110,7 +185,7 @@ public class ChatModelProvider {
                 ? provider.getDefaultModel()
                 : "claude-sonnet-4-20250514";
         log.info("Using Anthropic model: {}", modelName);
-        yield new ResolvedModel(anthropicChatModel, modelName);
+        yield new ResolvedModel(anthropicChatModel, modelName, ANTHROPIC);
       }
       case OPENAI, GOOGLE, AZURE_OPENAI -> {
         // These provider types require their respective Spring AI starters in the classpath.
@@ -121,15 +196,15 @@ public class ChatModelProvider {
                 + "appropriate spring-ai-starter-model-* dependency to pom.xml.",
             provider.getProviderType(),
             provider.getProviderType());
-        yield new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514");
+        yield new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514", ANTHROPIC);
       }
       case CUSTOM -> {
         log.warn("Custom provider type is not yet supported. Falling back to Anthropic.");
-        yield new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514");
+        yield new ResolvedModel(anthropicChatModel, "claude-sonnet-4-20250514", ANTHROPIC);
       }
     };
   }
 
-  /** Immutable record holding the resolved ChatModel and its human-readable model name. */
-  private record ResolvedModel(ChatModel model, String modelName) {}
+  /** Immutable record holding the resolved ChatModel, its model name and backing provider. */
+  private record ResolvedModel(ChatModel model, String modelName, String providerName) {}
 }
@@ -3,6 +3,7 @@ package app.kaiz.command_center.application;
 import app.kaiz.command_center.application.AIConversationLogger.AttachmentInfo;
 import app.kaiz.command_center.application.AIConversationLogger.ConversationLog;
 import app.kaiz.command_center.application.AIConversationLogger.ProviderInfo;
+import app.kaiz.command_center.application.LlmGateway.LlmBudgetExceededException;
 import app.kaiz.command_center.application.dto.CommandCenterAIResponse;
 import app.kaiz.command_center.application.dto.CommandCenterAIResponse.AttachmentSummary;
 import app.kaiz.command_center.domain.*;
@@ -22,8 +23,8 @@ import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Service;
@@ -41,7 +42,7 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class CommandCenterAIService {
 
-  private final ChatModelProvider chatModelProvider;
+  private final LlmGateway llmGateway;
   private final ObjectMapper objectMapper;
   private final PendingDraftRepository draftRepository;
   private final UserRepository userRepository;
@@ -49,6 +50,10 @@ public class CommandCenterAIService {
   private final SystemPromptService systemPromptService;
   private final AIResponseParser aiResponseParser;
 
+  // Gateway modes, for per-mode concurrency limits
+  private static final String SMART_INPUT_MODE = "SMART_INPUT";
+  private static final String OCR_MODE = "OCR";
+
   // Draft expiration time (24 hours)
   private static final long DRAFT_EXPIRATION_HOURS = 24;
 
@@ -107,7 +112,7 @@ public class CommandCenterAIService {
 
       // Call Claude AI
       long aiStartTime = System.currentTimeMillis();
-      String aiResponse = callClaudeInternal(systemPrompt, userPrompt);
+      String aiResponse = callClaudeInternal(userId, systemPrompt, userPrompt);
       long aiDuration = System.currentTimeMillis() - aiStartTime;
       conversation.logAIResponse(aiResponse, aiDuration);
 
@@ -172,16 +177,12 @@ public class CommandCenterAIService {
   }
 
   /** Internal method to call Claude AI - logging is handled by caller. */
-  private String callClaudeInternal(String systemPrompt, String userPrompt) {
+  private String callClaudeInternal(UUID userId, String systemPrompt, String userPrompt) {
     try {
-      var prompt =
-          new Prompt(
-              List.of(
-                  new org.springframework.ai.chat.messages.SystemMessage(systemPrompt),
-                  new UserMessage(userPrompt)));
-
-      var response = chatModelProvider.getChatModel().call(prompt);
-      return response.getResult().getOutput().getText();
+      return llmGateway.call(
+          userId, new SystemMessage(systemPrompt), new UserMessage(userPrompt), SMART_INPUT_MODE);
+    } catch (LlmBudgetExceededException e) {
+      throw e.toApiException();
     } catch (Exception e) {
       throw new AIProcessingException("Failed to process with AI: " + e.getMessage(), e);
     }
@@ -216,9 +217,7 @@ public class CommandCenterAIService {
       var userMessage = UserMessage.builder().text(OCR_PROMPT).media(media).build();
 
       long startTime = System.currentTimeMillis();
-      var prompt = new Prompt(List.of(userMessage));
-      var response = chatModelProvider.getChatModel().call(prompt);
-      String extractedText = response.getResult().getOutput().getText();
+      String extractedText = llmGateway.call(List.of(), userMessage, OCR_MODE);
       long duration = System.currentTimeMillis() - startTime;
 
       conversation.logOCRResponse(extractedText, duration);
@@ -264,9 +263,7 @@ public class CommandCenterAIService {
       var userMessage = UserMessage.builder().text(OCR_PROMPT).media(media).build();
 
       long startTime = System.currentTimeMillis();
-      var prompt = new Prompt(List.of(userMessage));
-      var response = chatModelProvider.getChatModel().call(prompt);
-      String extractedText = response.getResult().getOutput().getText();
+      String extractedText = llmGateway.call(List.of(), userMessage, OCR_MODE);
       long duration = System.currentTimeMillis() - startTime;
 
       conversation.logOCRResponse(extractedText, duration);
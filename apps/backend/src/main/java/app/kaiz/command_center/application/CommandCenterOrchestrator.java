@@ -3,7 +3,7 @@ package app.kaiz.command_center.application;
 import app.kaiz.command_center.application.DraftExtractor.ExtractionResult;
 import app.kaiz.command_center.application.InputNormalizer.NormalizedInput;
 import app.kaiz.command_center.application.IntentClassifier.Intent;
-import app.kaiz.command_center.domain.ConversationMessage;
+import app.kaiz.command_center.application.LlmGateway.LlmBudgetExceededException;
 import app.kaiz.command_center.domain.ConversationSession;
 import app.kaiz.command_center.domain.DraftStatus;
 import app.kaiz.command_center.domain.DraftType;
@@ -24,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * The main orchestrator for the Donyor Scrum Master chat pipeline. Wires together all Phase 5
@@ -41,7 +42,6 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class CommandCenterOrchestrator {
 
   private final InputNormalizer inputNormalizer;
@@ -52,9 +52,11 @@ public class CommandCenterOrchestrator {
   private final LlmGateway llmGateway;
   private final DraftExtractor draftExtractor;
   private final ConversationManager conversationManager;
+  private final ConversationHistoryManager historyManager;
   private final PendingDraftRepository draftRepository;
   private final UserRepository userRepository;
   private final SprintService sprintService;
+  private final TransactionTemplate transactionTemplate;
 
   /** Response from the orchestrated pipeline. */
   public record OrchestratedResponse(
@@ -74,15 +76,33 @@ public class CommandCenterOrchestrator {
   /** Summary of a saved draft for the response. */
   public record DraftSummary(UUID draftId, DraftType type, double confidence, String reasoning) {}
 
+  /** Everything the LLM and write phases need, captured by the read phase. */
+  private record PreparedTurn(
+      String denial,
+      String mode,
+      Intent intent,
+      ConversationSession session,
+      String userText,
+      List<Message> systemMessages,
+      Message userMessage) {
+
+    static PreparedTurn denied(String reason) {
+      return new PreparedTurn(reason, null, null, null, null, null, null);
+    }
+  }
+
   /**
    * Process a user message through the full pipeline.
    *
+   * <p>Runs in three phases so no database connection is held while the LLM responds: a short
+   * read transaction (mode, rules, session, context, prompt), the LLM call with no transaction,
+   * and a short write transaction (drafts and the conversation turn).
+   *
    * @param userId the authenticated user
    * @param rawInput the raw text input
    * @param explicitMode optional explicit mode override (may be null)
    * @return the orchestrated response
    */
-  @Transactional
   public OrchestratedResponse process(UUID userId, String rawInput, String explicitMode) {
     long startTime = System.currentTimeMillis();
     log.info(
@@ -96,21 +116,66 @@ public class CommandCenterOrchestrator {
       throw new BadRequestException("Message cannot be empty");
     }
 
+    // 2–8. Read phase
+    PreparedTurn turn =
+        transactionTemplate.execute(status -> prepare(userId, normalized, explicitMode));
+    if (turn.denial() != null) {
+      return OrchestratedResponse.denied(turn.denial());
+    }
+
+    // 9. Call LLM (no transaction, no pooled connection)
+    String llmResponse;
+    try {
+      llmResponse =
+          llmGateway.call(userId, turn.systemMessages(), turn.userMessage(), turn.mode());
+    } catch (LlmBudgetExceededException e) {
+      throw e.toApiException();
+    }
+
+    // 10. Extract drafts
+    ExtractionResult extraction = draftExtractor.extract(llmResponse);
+
+    // 11–12. Write phase
+    List<DraftSummary> savedDrafts =
+        transactionTemplate.execute(status -> persist(userId, turn, extraction));
+
+    long elapsed = System.currentTimeMillis() - startTime;
+    log.info(
+        "Pipeline complete: userId={}, mode={}, intent={}, drafts={}, elapsed={}ms",
+        userId,
+        turn.mode(),
+        turn.intent(),
+        savedDrafts.size(),
+        elapsed);
+
+    return new OrchestratedResponse(
+        turn.session().getId().toString(),
+        turn.mode(),
+        turn.intent().name(),
+        extraction.conversationalText(),
+        savedDrafts,
+        false,
+        null);
+  }
+
+  /** Read phase: everything up to the prompt, or a denial if a session rule rejects the message. */
+  private PreparedTurn prepare(UUID userId, NormalizedInput normalized, String explicitMode) {
     // 2. Resolve active sprint
     String activeSprintId = resolveActiveSprintId(userId);
 
-    // 3. Detect mode
-    String mode = modeDetector.detect(userId, normalized.text(), explicitMode, activeSprintId);
+    // 3. Detect mode (one keyword scan serves both mode and intent)
+    CueScanner.Scan cues = CueScanner.scan(normalized.text());
+    String mode = modeDetector.detect(userId, cues, explicitMode, activeSprintId);
 
     // 4. Check session rules (standup limit, planning limit, etc.)
     String denial = conversationManager.checkSessionRules(userId, mode);
     if (denial != null) {
       log.info("Session rule denied: mode={}, userId={}, reason={}", mode, userId, denial);
-      return OrchestratedResponse.denied(denial);
+      return PreparedTurn.denied(denial);
     }
 
     // 5. Classify intent
-    Intent intent = intentClassifier.classify(normalized.text(), mode);
+    Intent intent = intentClassifier.classify(normalized.text(), cues, mode);
 
     // 6. Get or create conversation session
     ConversationSession session = conversationManager.getOrCreateSession(userId, mode);
@@ -118,59 +183,38 @@ public class CommandCenterOrchestrator {
     // 7. Assemble context
     Map<String, String> context = contextAssembler.assemble(mode, userId, activeSprintId);
 
-    // Inject recent conversation history into context
-    List<ConversationMessage> history = conversationManager.getRecentHistory(session.getId(), 10);
+    // Inject conversation history (rolling summary plus recent turns, within the mode's budget)
+    String history = historyManager.render(session, mode);
     if (!history.isEmpty()) {
-      StringBuilder historyText = new StringBuilder();
-      for (ConversationMessage msg : history) {
-        String role = msg.getRole() == ConversationMessage.MessageRole.USER ? "User" : "Assistant";
-        historyText.append(role).append(": ").append(msg.getContent()).append("\n");
-      }
-      context.put("conversation_history", historyText.toString());
+      context.put("conversation_history", history);
     }
 
     // 8. Assemble prompt
-    Message systemMessage = promptAssembler.assembleSystemMessage(mode, context);
+    List<Message> systemMessages = promptAssembler.assembleSystemMessages(mode, context);
     Message userMessage =
         promptAssembler.assembleUserMessage(normalized.text(), normalized.attachmentInfo());
 
-    // 9. Call LLM
-    String llmResponse = llmGateway.call(systemMessage, userMessage);
-
-    // 10. Extract drafts
-    ExtractionResult extraction = draftExtractor.extract(llmResponse);
+    return new PreparedTurn(
+        null, mode, intent, session, normalized.text(), systemMessages, userMessage);
+  }
 
+  /** Write phase: save drafts and record the turn. */
+  private List<DraftSummary> persist(UUID userId, PreparedTurn turn, ExtractionResult extraction) {
     // 11. Save drafts to DB
     User user =
         userRepository
             .findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
-    List<DraftSummary> savedDrafts = saveDrafts(user, extraction, normalized.text());
+    List<DraftSummary> savedDrafts = saveDrafts(user, extraction, turn.userText());
 
     // 12. Record conversation turn
     conversationManager.addTurn(
-        session, normalized.text(), extraction.conversationalText(), intent.name());
-
-    long elapsed = System.currentTimeMillis() - startTime;
-    log.info(
-        "Pipeline complete: userId={}, mode={}, intent={}, drafts={}, elapsed={}ms",
-        userId,
-        mode,
-        intent,
-        savedDrafts.size(),
-        elapsed);
-
-    return new OrchestratedResponse(
-        session.getId().toString(),
-        mode,
-        intent.name(),
-        extraction.conversationalText(),
-        savedDrafts,
-        false,
-        null);
+        turn.session(), turn.userText(), extraction.conversationalText(), turn.intent().name());
+    return savedDrafts;
   }
 
   /** Close a session (e.g., user explicitly ends a ceremony). */
+  @Transactional
   public void closeSession(UUID userId, String mode) {
     conversationManager.closeSession(userId, mode);
   }
@@ -6,29 +6,70 @@ import app.kaiz.sensai.application.CeremonyService;
 import app.kaiz.sensai.application.StandupService;
 import app.kaiz.sensai.application.VelocityService;
 import app.kaiz.tasks.application.SprintService;
+import app.kaiz.tasks.application.TaskEvents;
 import app.kaiz.tasks.application.TaskService;
 import app.kaiz.tasks.application.dto.SprintDto;
 import app.kaiz.tasks.application.dto.TaskDto;
 import app.kaiz.tasks.domain.TaskStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
- * Assembles per-mode context that gets injected into the AI prompt. Each mode has its own builder
- * method that pulls only the data the LLM needs for that conversation type.
+ * Assembles per-mode context that gets injected into the AI prompt. Each mode has its own list of
+ * sources that pull only the data the LLM needs for that conversation type.
+ *
+ * <p>Sources are loaded concurrently on virtual threads, each with its own timeout; a source that
+ * fails or times out contributes nothing and the rest of the context is still used. A global
+ * permit count keeps the fan-out from draining the connection pool; waiting for a permit has its
+ * own, shorter budget so a busy pool fails a source fast. Fragments are merged in the mode's
+ * declared order, so the assembled map (and therefore the prompt) is stable.
+ *
+ * <p>Each source runs in its own read-only transaction whose timeout, the source timeout rounded up
+ * to whole seconds, becomes the JDBC query timeout. A source that is given up on is not
+ * interrupted, which would evict its pooled connection mid-query; its query timeout ends it soon
+ * after instead.
+ *
+ * <p>Complete results are kept as short-lived snapshots per (user, sprint, mode) so back-to-back
+ * chat turns reuse them. Snapshots are dropped when {@link TaskEvents} report that the user's
+ * tasks or sprint changed; partial results are never cached.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ContextAssembler {
 
+  private static final Map<String, String> EMPTY = Map.of();
+
+  private record SnapshotKey(UUID userId, String sprintId, String mode) {}
+
+  /** One independently loaded part of the context. */
+  private record Source(String name, Supplier<Map<String, String>> loader) {}
+
   private final SprintService sprintService;
   private final TaskService taskService;
   private final VelocityService velocityService;
@@ -37,6 +78,55 @@ public class ContextAssembler {
   private final UserPreferenceLearner preferenceLearner;
   private final UserCoachPreferenceRepository coachPreferenceRepository;
 
+  private final Duration sourceTimeout;
+  private final Duration permitTimeout;
+  private final Semaphore loadPermits;
+  private final TransactionTemplate sourceTransaction;
+  private final Cache<SnapshotKey, Map<String, String>> snapshots;
+  // Bumped on every invalidation; a build that overlaps one is not cached
+  private final AtomicLong invalidations = new AtomicLong();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public ContextAssembler(
+      SprintService sprintService,
+      TaskService taskService,
+      VelocityService velocityService,
+      StandupService standupService,
+      CeremonyService ceremonyService,
+      UserPreferenceLearner preferenceLearner,
+      UserCoachPreferenceRepository coachPreferenceRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${kaiz.command-center.context.source-timeout:800ms}") Duration sourceTimeout,
+      @Value("${kaiz.command-center.context.permit-timeout:200ms}") Duration permitTimeout,
+      @Value("${kaiz.command-center.context.max-concurrent-loads:4}") int maxConcurrentLoads,
+      @Value("${kaiz.command-center.context.snapshot-ttl:30s}") Duration snapshotTtl,
+      @Value("${kaiz.command-center.context.snapshot-max-entries:2000}") long snapshotMaxEntries) {
+    this.sprintService = sprintService;
+    this.taskService = taskService;
+    this.velocityService = velocityService;
+    this.standupService = standupService;
+    this.ceremonyService = ceremonyService;
+    this.preferenceLearner = preferenceLearner;
+    this.coachPreferenceRepository = coachPreferenceRepository;
+    this.sourceTimeout = sourceTimeout;
+    this.permitTimeout = permitTimeout;
+    this.loadPermits = new Semaphore(maxConcurrentLoads);
+    this.sourceTransaction = new TransactionTemplate(transactionManager);
+    this.sourceTransaction.setReadOnly(true);
+    this.sourceTransaction.setTimeout(
+        (int) Math.max(1, (sourceTimeout.toMillis() + 999) / 1000));
+    this.snapshots =
+        Caffeine.newBuilder()
+            .maximumSize(snapshotMaxEntries)
+            .expireAfterWrite(snapshotTtl)
+            .build();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
   /**
    * Build a context map for the given mode and user.
    *
@@ -46,183 +136,224 @@ public class ContextAssembler {
    * @return a key-value map of context to inject into the prompt
    */
   public Map<String, String> assemble(String mode, UUID userId, String activeSprintId) {
-    Map<String, String> ctx =
-        switch (mode) {
-          case "CAPTURE" -> assembleCapture(userId, activeSprintId);
-          case "PLANNING" -> assemblePlanning(userId, activeSprintId);
-          case "STANDUP" -> assembleStandup(userId, activeSprintId);
-          case "RETROSPECTIVE", "REVIEW" -> assembleRetrospective(userId, activeSprintId);
-          case "REFINEMENT" -> assembleRefinement(userId, activeSprintId);
-          default -> assembleFreeform(userId, activeSprintId);
-        };
-
-    // Inject user coaching preferences (correction patterns + preferred tone)
-    addUserPreferences(ctx, userId);
-
-    return ctx;
-  }
-
-  // ── Mode-specific context builders ──
-
-  private Map<String, String> assembleCapture(UUID userId, String activeSprintId) {
-    Map<String, String> ctx = newContext();
-    ctx.put("today", LocalDate.now().toString());
-
-    if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
+    SnapshotKey key = new SnapshotKey(userId, activeSprintId, mode);
+    Map<String, String> snapshot = snapshots.getIfPresent(key);
+    if (snapshot != null) {
+      log.debug("Context snapshot hit: mode={}, userId={}", mode, userId);
+      return new LinkedHashMap<>(snapshot);
     }
 
-    log.debug("Assembled CAPTURE context: {} keys for userId={}", ctx.size(), userId);
-    return ctx;
-  }
+    long generation = invalidations.get();
+    List<Source> sources = sourcesFor(mode, userId, activeSprintId);
+    List<CompletableFuture<Map<String, String>>> loads =
+        sources.stream().map(source -> load(source, userId)).toList();
 
-  private Map<String, String> assemblePlanning(UUID userId, String activeSprintId) {
     Map<String, String> ctx = newContext();
-    ctx.put("today", LocalDate.now().toString());
-
-    if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
-      addVelocityContext(ctx, userId, activeSprintId);
-    }
-
-    // Add in-progress tasks as carryover candidates
-    try {
-      List<TaskDto> inProgressTasks = taskService.getTasksByStatus(userId, TaskStatus.IN_PROGRESS);
-      if (!inProgressTasks.isEmpty()) {
-        StringBuilder sb = new StringBuilder();
-        inProgressTasks.stream()
-            .limit(10)
-            .forEach(
-                t ->
-                    sb.append("- ")
-                        .append(t.title())
-                        .append(" (")
-                        .append(t.storyPoints())
-                        .append(" pts)\n"));
-        ctx.put("carryover_tasks", sb.toString());
+    boolean complete = true;
+    for (CompletableFuture<Map<String, String>> load : loads) {
+      Map<String, String> fragment = load.join();
+      if (fragment == null) {
+        complete = false;
+      } else {
+        ctx.putAll(fragment);
       }
-    } catch (Exception e) {
-      log.warn("Could not fetch in-progress tasks for planning context: {}", e.getMessage());
     }
 
-    log.debug("Assembled PLANNING context: {} keys for userId={}", ctx.size(), userId);
+    if (complete && generation == invalidations.get()) {
+      snapshots.put(key, Collections.unmodifiableMap(new LinkedHashMap<>(ctx)));
+    }
+    log.debug(
+        "Assembled {} context: {} keys for userId={}{}",
+        mode,
+        ctx.size(),
+        userId,
+        complete ? "" : " (partial)");
     return ctx;
   }
 
-  private Map<String, String> assembleStandup(UUID userId, String activeSprintId) {
-    Map<String, String> ctx = newContext();
-    ctx.put("today", LocalDate.now().toString());
+  // ── Invalidation ──
 
-    if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
-
-      // Add standup streak for motivation
-      try {
-        LocalDate weekAgo = LocalDate.now().minusDays(7);
-        var standupHistory = standupService.getStandupHistory(userId, weekAgo, LocalDate.now());
-        ctx.put("standup_count", String.valueOf(standupHistory.size()));
-      } catch (Exception e) {
-        log.warn("Could not fetch standup history: {}", e.getMessage());
-      }
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTasksChanged(TaskEvents.TasksChanged event) {
+    evictUser(event.userId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSprintChanged(TaskEvents.SprintChanged event) {
+    if (event.userId() != null) {
+      evictUser(event.userId());
+    } else {
+      invalidations.incrementAndGet();
+      snapshots.invalidateAll();
     }
+  }
 
-    log.debug("Assembled STANDUP context: {} keys for userId={}", ctx.size(), userId);
-    return ctx;
+  private void evictUser(UUID userId) {
+    invalidations.incrementAndGet();
+    snapshots.asMap().keySet().removeIf(key -> key.userId().equals(userId));
   }
 
-  private Map<String, String> assembleRetrospective(UUID userId, String activeSprintId) {
-    Map<String, String> ctx = newContext();
+  // ── Mode-specific sources ──
 
+  private List<Source> sourcesFor(String mode, UUID userId, String activeSprintId) {
+    List<Source> sources = new ArrayList<>();
+    if (!"RETROSPECTIVE".equals(mode) && !"REVIEW".equals(mode) && !"REFINEMENT".equals(mode)) {
+      sources.add(new Source("today", () -> Map.of("today", LocalDate.now().toString())));
+    }
     if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
-      addVelocityContext(ctx, userId, activeSprintId);
-
-      // Add ceremony-specific data
-      try {
-        var reviewData = ceremonyService.getSprintReviewData(userId, activeSprintId);
-        if (reviewData != null) {
-          ctx.put("completed_tasks", String.valueOf(reviewData.tasksCompleted()));
-          ctx.put("total_points_done", String.valueOf(reviewData.pointsDelivered()));
-          ctx.put("total_tasks", String.valueOf(reviewData.tasksSelected()));
+      sources.add(new Source("sprint", () -> sprintSummary(activeSprintId)));
+    }
+    switch (mode) {
+      case "PLANNING" -> {
+        if (activeSprintId != null) {
+          sources.add(new Source("velocity", () -> velocityContext(userId)));
+        }
+        sources.add(new Source("carryover", () -> carryoverTasks(userId)));
+      }
+      case "STANDUP" -> {
+        if (activeSprintId != null) {
+          sources.add(new Source("standups", () -> standupCount(userId)));
+        }
+      }
+      case "RETROSPECTIVE", "REVIEW" -> {
+        if (activeSprintId != null) {
+          sources.add(new Source("velocity", () -> velocityContext(userId)));
+          sources.add(new Source("review", () -> sprintReview(userId, activeSprintId)));
         }
-      } catch (Exception e) {
-        log.warn("Could not fetch sprint review data: {}", e.getMessage());
       }
+      default -> {}
     }
-
-    log.debug("Assembled RETROSPECTIVE context: {} keys for userId={}", ctx.size(), userId);
-    return ctx;
+    // User coaching preferences (correction patterns + preferred tone)
+    sources.add(new Source("preferences", () -> userPreferences(userId)));
+    return sources;
   }
 
-  private Map<String, String> assembleRefinement(UUID userId, String activeSprintId) {
-    Map<String, String> ctx = newContext();
+  /**
+   * Load one source on a virtual thread. Completes with the fragment, an empty map when the source
+   * has nothing to add, or null when it failed or ran out of time. A source that runs out of time
+   * is cancelled without an interrupt: its query timeout ends it and gives its permit back.
+   */
+  private CompletableFuture<Map<String, String>> load(Source source, UUID userId) {
+    CompletableFuture<Map<String, String>> result = new CompletableFuture<>();
+    Future<?> task =
+        executor.submit(
+            () -> {
+              try {
+                result.complete(loadWithPermit(source));
+              } catch (InterruptedException | RuntimeException e) {
+                result.completeExceptionally(e);
+              }
+            });
+    return result
+        .orTimeout(sourceTimeout.toMillis(), TimeUnit.MILLISECONDS)
+        .whenComplete(
+            (fragment, error) -> {
+              if (error != null) {
+                task.cancel(false);
+              }
+            })
+        .exceptionally(
+            error -> {
+              Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+              log.warn(
+                  "Context source {} unavailable for userId={}: {}",
+                  source.name(),
+                  userId,
+                  cause instanceof TimeoutException ? "timed out" : cause.getMessage());
+              return null;
+            });
+  }
 
-    if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
+  private Map<String, String> loadWithPermit(Source source) throws InterruptedException {
+    if (!loadPermits.tryAcquire(permitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+      throw new IllegalStateException("no load permit");
+    }
+    try {
+      return sourceTransaction.execute(status -> source.loader().get());
+    } finally {
+      loadPermits.release();
     }
-
-    log.debug("Assembled REFINEMENT context: {} keys for userId={}", ctx.size(), userId);
-    return ctx;
   }
 
-  private Map<String, String> assembleFreeform(UUID userId, String activeSprintId) {
+  private Map<String, String> sprintSummary(String sprintId) {
+    SprintDto sprint = sprintService.getSprintById(sprintId);
+    if (sprint == null) {
+      return EMPTY;
+    }
     Map<String, String> ctx = newContext();
-    ctx.put("today", LocalDate.now().toString());
+    ctx.put("sprint_name", "Week " + sprint.weekNumber() + " (" + sprint.year() + ")");
+    ctx.put("sprint_goal", sprint.sprintGoal() != null ? sprint.sprintGoal() : "No goal set");
+    ctx.put("sprint_dates", sprint.startDate() + " → " + sprint.endDate());
+    return ctx;
+  }
 
-    if (activeSprintId != null) {
-      addSprintSummary(ctx, userId, activeSprintId);
+  private Map<String, String> velocityContext(UUID userId) {
+    var metrics = velocityService.getVelocityMetrics(userId);
+    if (metrics == null) {
+      return EMPTY;
     }
-
-    log.debug("Assembled FREEFORM context: {} keys for userId={}", ctx.size(), userId);
+    Map<String, String> ctx = newContext();
+    ctx.put("current_velocity", String.valueOf(metrics.currentSprintCompleted()));
+    ctx.put("average_velocity", String.valueOf(metrics.averageCompleted()));
+    ctx.put("completion_rate", metrics.averageCompletionRate() + "%");
     return ctx;
   }
 
-  // ── Shared helpers ──
-
-  private void addSprintSummary(Map<String, String> ctx, UUID userId, String sprintId) {
-    try {
-      SprintDto sprint = sprintService.getSprintById(sprintId);
-      if (sprint != null) {
-        ctx.put("sprint_name", "Week " + sprint.weekNumber() + " (" + sprint.year() + ")");
-        ctx.put("sprint_goal", sprint.sprintGoal() != null ? sprint.sprintGoal() : "No goal set");
-        ctx.put("sprint_dates", sprint.startDate() + " → " + sprint.endDate());
-      }
-    } catch (Exception e) {
-      log.warn("Could not fetch sprint summary for context: {}", e.getMessage());
+  /** In-progress tasks as carryover candidates. */
+  private Map<String, String> carryoverTasks(UUID userId) {
+    List<TaskDto> inProgressTasks = taskService.getTasksByStatus(userId, TaskStatus.IN_PROGRESS);
+    if (inProgressTasks.isEmpty()) {
+      return EMPTY;
     }
+    StringBuilder sb = new StringBuilder();
+    inProgressTasks.stream()
+        .limit(10)
+        .forEach(
+            t ->
+                sb.append("- ")
+                    .append(t.title())
+                    .append(" (")
+                    .append(t.storyPoints())
+                    .append(" pts)\n"));
+    return Map.of("carryover_tasks", sb.toString());
   }
 
-  private void addVelocityContext(Map<String, String> ctx, UUID userId, String sprintId) {
-    try {
-      var metrics = velocityService.getVelocityMetrics(userId);
-      if (metrics != null) {
-        ctx.put("current_velocity", String.valueOf(metrics.currentSprintCompleted()));
-        ctx.put("average_velocity", String.valueOf(metrics.averageCompleted()));
-        ctx.put("completion_rate", metrics.averageCompletionRate() + "%");
-      }
-    } catch (Exception e) {
-      log.warn("Could not fetch velocity context: {}", e.getMessage());
+  /** Standup streak for motivation. */
+  private Map<String, String> standupCount(UUID userId) {
+    LocalDate weekAgo = LocalDate.now().minusDays(7);
+    var standupHistory = standupService.getStandupHistory(userId, weekAgo, LocalDate.now());
+    return Map.of("standup_count", String.valueOf(standupHistory.size()));
+  }
+
+  private Map<String, String> sprintReview(UUID userId, String sprintId) {
+    var reviewData = ceremonyService.getSprintReviewData(userId, sprintId);
+    if (reviewData == null) {
+      return EMPTY;
     }
+    Map<String, String> ctx = newContext();
+    ctx.put("completed_tasks", String.valueOf(reviewData.tasksCompleted()));
+    ctx.put("total_points_done", String.valueOf(reviewData.pointsDelivered()));
+    ctx.put("total_tasks", String.valueOf(reviewData.tasksSelected()));
+    return ctx;
   }
 
-  private void addUserPreferences(Map<String, String> ctx, UUID userId) {
-    try {
-      // Inject correction patterns learned from past modifications
-      String patterns = preferenceLearner.getCorrectionPatternsText(userId);
-      if (!patterns.isBlank()) {
-        ctx.put("userCorrectionPatterns", patterns);
-      }
+  private Map<String, String> userPreferences(UUID userId) {
+    Map<String, String> ctx = newContext();
 
-      // Inject preferred tone
-      Optional<UserCoachPreference> prefOpt = coachPreferenceRepository.findByUserId(userId);
-      prefOpt.ifPresent(
-          pref -> {
-            ctx.put("preferredTone", pref.getPreferredTone().name());
-            ctx.put("totalInteractions", String.valueOf(pref.getTotalInteractions()));
-          });
-    } catch (Exception e) {
-      log.warn("Could not fetch user coaching preferences for context: {}", e.getMessage());
+    // Inject correction patterns learned from past modifications
+    String patterns = preferenceLearner.getCorrectionPatternsText(userId);
+    if (!patterns.isBlank()) {
+      ctx.put("userCorrectionPatterns", patterns);
     }
+
+    // Inject preferred tone
+    Optional<UserCoachPreference> prefOpt = coachPreferenceRepository.findByUserId(userId);
+    prefOpt.ifPresent(
+        pref -> {
+          ctx.put("preferredTone", pref.getPreferredTone().name());
+          ctx.put("totalInteractions", String.valueOf(pref.getTotalInteractions()));
+        });
+    return ctx;
   }
 
   private Map<String, String> newContext() {
@@ -0,0 +1,190 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.domain.ConversationMessage;
+import app.kaiz.command_center.domain.ConversationMessage.MessageRole;
+import app.kaiz.command_center.domain.ConversationSession;
+import app.kaiz.command_center.infrastructure.ConversationMessageRepository;
+import app.kaiz.command_center.infrastructure.ConversationSessionRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Conversation history for prompts, held to a token budget per mode ({@link
+ * ConversationHistoryProperties}).
+ *
+ * <p>The newest messages go into the prompt verbatim, newest first until the budget is spent.
+ * Older messages are folded into a rolling summary stored on the session, which leads the history
+ * block. The summary is refreshed off the request path after a turn is recorded, and only once
+ * enough messages have fallen out of the verbatim window, so a chat request never waits on the
+ * summarising LLM call. A message that is neither summarised yet nor within the budget is left out
+ * until the summary catches up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationHistoryManager {
+
+  static final String SUMMARY_MODE = "CONVERSATION_SUMMARY";
+
+  private static final String SUMMARY_PROMPT =
+      """
+      You maintain a running summary of a conversation between a user and their productivity \
+      coach. Merge the new messages into the existing summary. Keep decisions, commitments, \
+      dates, names, numbers and open questions; drop greetings and small talk. Write plain \
+      prose in the third person, at most %d words, and reply with the summary only.""";
+
+  private final ConversationSessionRepository sessionRepository;
+  private final ConversationMessageRepository messageRepository;
+  private final LlmGateway llmGateway;
+  private final ConversationHistoryProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  // Sessions with a refresh running on this node; other nodes are fenced by the summary update
+  private final Set<UUID> refreshing = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Render the history block for a prompt.
+   *
+   * @param session the current session
+   * @param mode the chat mode, which selects the token budget
+   * @return the summary and recent messages, or an empty string for a new session
+   */
+  public String render(ConversationSession session, String mode) {
+    String summary = session.getSummary();
+    int budget = properties.budgetFor(mode) - TokenEstimator.estimate(summary);
+    List<ConversationMessage> recent =
+        messageRepository.findRecentMessagesAfter(
+            session.getId(),
+            session.getSummarizedThrough(),
+            PageRequest.of(0, properties.maxMessages()));
+
+    StringBuilder history = new StringBuilder();
+    if (summary != null && !summary.isBlank()) {
+      history.append("Summary of earlier conversation: ").append(summary.strip()).append("\n\n");
+    }
+    for (String line : verbatim(recent, budget)) {
+      history.append(line).append('\n');
+    }
+    return history.toString();
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTurnRecorded(ConversationTurnRecorded event) {
+    refreshSummary(event.sessionId(), event.mode());
+  }
+
+  /**
+   * Fold messages that have left the verbatim window into the session's summary. No-op while fewer
+   * than {@code minFoldMessages} are waiting, or while another refresh of the session is running.
+   */
+  void refreshSummary(UUID sessionId, String mode) {
+    if (!refreshing.add(sessionId)) {
+      return;
+    }
+    try {
+      ConversationSession session = sessionRepository.findById(sessionId).orElse(null);
+      if (session == null) {
+        return;
+      }
+      int through = session.getSummarizedThrough();
+      List<ConversationMessage> recent =
+          messageRepository.findRecentMessagesAfter(
+              sessionId, through, PageRequest.of(0, properties.maxMessages()));
+      // Judge the window as if the summary were at its cap, so it stays put as the summary grows
+      int kept =
+          verbatim(recent, properties.budgetFor(mode) - properties.summaryMaxTokens()).size();
+      if (recent.size() - kept < properties.minFoldMessages()) {
+        return;
+      }
+      int firstKept =
+          kept > 0
+              ? recent.get(kept - 1).getSequenceNumber()
+              : recent.getFirst().getSequenceNumber() + 1;
+      List<ConversationMessage> fold =
+          messageRepository.findMessagesBetween(
+              sessionId, through, firstKept, PageRequest.of(0, properties.maxFoldMessages()));
+      if (fold.isEmpty()) {
+        return;
+      }
+
+      UUID userId = session.getUser() != null ? session.getUser().getId() : null;
+      String summary = summarize(userId, session.getSummary(), fold);
+      int foldedThrough = fold.getLast().getSequenceNumber();
+      Integer written =
+          transactionTemplate.execute(
+              status ->
+                  sessionRepository.updateSummary(sessionId, through, summary, foldedThrough));
+      if (written == null || written == 0) {
+        log.debug("Summary of session {} moved on concurrently; dropping this refresh", sessionId);
+      } else {
+        log.debug(
+            "Folded {} messages into the summary of session {} (through #{})",
+            fold.size(),
+            sessionId,
+            foldedThrough);
+      }
+    } catch (RuntimeException e) {
+      // The messages stay unsummarised and are picked up after the next turn
+      log.warn("Failed to refresh summary of session {}: {}", sessionId, e.getMessage());
+    } finally {
+      refreshing.remove(sessionId);
+    }
+  }
+
+  private String summarize(UUID userId, String previous, List<ConversationMessage> fold) {
+    StringBuilder input = new StringBuilder("Existing summary:\n");
+    input.append(previous != null && !previous.isBlank() ? previous.strip() : "(none)");
+    input.append("\n\nNew messages:\n");
+    for (ConversationMessage message : fold) {
+      input.append(line(message)).append('\n');
+    }
+    // Roughly three words per four tokens
+    int words = properties.summaryMaxTokens() * 3 / 4;
+    String summary =
+        llmGateway.call(
+            userId,
+            new SystemMessage(SUMMARY_PROMPT.formatted(words)),
+            new UserMessage(input.toString()),
+            SUMMARY_MODE);
+    return TokenEstimator.truncate(summary.strip(), properties.summaryMaxTokens());
+  }
+
+  /**
+   * Prompt lines for the newest messages that fit {@code budget}, oldest first. If even the newest
+   * message does not fit, it is cut to the budget rather than dropped.
+   */
+  static List<String> verbatim(List<ConversationMessage> newestFirst, int budget) {
+    List<String> lines = new ArrayList<>();
+    int remaining = budget;
+    for (ConversationMessage message : newestFirst) {
+      String line = line(message);
+      int tokens = TokenEstimator.estimate(line);
+      if (tokens > remaining) {
+        if (lines.isEmpty() && remaining > 0) {
+          lines.add(TokenEstimator.truncate(line, remaining));
+        }
+        break;
+      }
+      lines.add(line);
+      remaining -= tokens;
+    }
+    return lines.reversed();
+  }
+
+  private static String line(ConversationMessage message) {
+    String role = message.getRole() == MessageRole.USER ? "User" : "Assistant";
+    return role + ": " + message.getContent();
+  }
+}
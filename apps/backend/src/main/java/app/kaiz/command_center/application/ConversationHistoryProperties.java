@@ -0,0 +1,43 @@
+package app.kaiz.command_center.application;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Token budgets for conversation history in prompts, bound from {@code
+ * kaiz.command-center.history}.
+ *
+ * @param defaultTokenBudget history budget for modes not listed in {@code modeTokenBudgets},
+ *     rolling summary included
+ * @param modeTokenBudgets per-mode budgets, keyed by mode name
+ * @param summaryMaxTokens cap on the rolling summary; this much of every budget is held back for it
+ *     when deciding which messages to fold
+ * @param maxMessages most recent messages read per prompt
+ * @param minFoldMessages messages that must have fallen out of the verbatim window before the
+ *     summary is refreshed, so short sessions never pay for a summarising call
+ * @param maxFoldMessages messages folded into the summary per refresh
+ */
+@ConfigurationProperties(prefix = "kaiz.command-center.history")
+public record ConversationHistoryProperties(
+    int defaultTokenBudget,
+    Map<String, Integer> modeTokenBudgets,
+    int summaryMaxTokens,
+    int maxMessages,
+    int minFoldMessages,
+    int maxFoldMessages) {
+
+  public ConversationHistoryProperties {
+    defaultTokenBudget = defaultTokenBudget > 0 ? defaultTokenBudget : 1500;
+    modeTokenBudgets = modeTokenBudgets != null ? Map.copyOf(modeTokenBudgets) : Map.of();
+    summaryMaxTokens = summaryMaxTokens > 0 ? summaryMaxTokens : 300;
+    maxMessages = maxMessages > 0 ? maxMessages : 40;
+    minFoldMessages = minFoldMessages > 0 ? minFoldMessages : 6;
+    maxFoldMessages = maxFoldMessages > 0 ? maxFoldMessages : 40;
+  }
+
+  public int budgetFor(String mode) {
+    return mode != null
+        ? modeTokenBudgets.getOrDefault(mode, defaultTokenBudget)
+        : defaultTokenBudget;
+  }
+}
@@ -1,7 +1,6 @@
 package app.kaiz.command_center.application;
 
 import app.kaiz.command_center.domain.ConversationMessage;
-import app.kaiz.command_center.domain.ConversationMessage.MessageRole;
 import app.kaiz.command_center.domain.ConversationSession;
 import app.kaiz.command_center.domain.ConversationSession.ChatMode;
 import app.kaiz.command_center.domain.ConversationSession.SessionStatus;
@@ -19,10 +18,14 @@ import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Manages persistent conversation sessions backed by PostgreSQL. Enforces conversation rules:
@@ -43,10 +46,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class ConversationManager {
 
   private static final int MAX_FREEFORM_MESSAGES = 20;
+  private static final int CLEANUP_BATCH_SIZE = 500;
 
   private final ConversationSessionRepository sessionRepository;
   private final ConversationMessageRepository messageRepository;
   private final UserRepository userRepository;
+  private final AuditorAware<String> auditorAware;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Get or create a session for the given user and mode.
@@ -73,7 +80,6 @@ public class ConversationManager {
             MAX_FREEFORM_MESSAGES,
             userId);
         existing.close();
-        sessionRepository.save(existing);
         return createNewSession(userId, chatMode);
       }
 
@@ -115,38 +121,20 @@ public class ConversationManager {
 
   /**
    * Record a conversation turn: saves user message and AI response as separate
-   * ConversationMessages.
+   * ConversationMessages. Sequence numbers come from the session's counter, and both inserts and
+   * the counter update go to the database as one statement. Publishes {@link
+   * ConversationTurnRecorded} so the session's rolling summary can catch up.
    */
   @Transactional
   public void addTurn(
       ConversationSession session, String userMessage, String aiResponse, String intent) {
-    int nextSeq = messageRepository.findMaxSequenceNumber(session.getId()) + 1;
-
-    // Save user message
-    ConversationMessage userMsg =
-        ConversationMessage.builder()
-            .session(session)
-            .role(MessageRole.USER)
-            .content(userMessage)
-            .intent(intent)
-            .sequenceNumber(nextSeq)
-            .build();
-    messageRepository.save(userMsg);
-
-    // Save assistant response
-    ConversationMessage assistantMsg =
-        ConversationMessage.builder()
-            .session(session)
-            .role(MessageRole.ASSISTANT)
-            .content(aiResponse)
-            .sequenceNumber(nextSeq + 1)
-            .build();
-    messageRepository.save(assistantMsg);
-
-    // Update session counters
-    session.addMessage();
-    session.addMessage();
-    sessionRepository.save(session);
+    String actor = auditorAware.getCurrentAuditor().orElse(null);
+    messageRepository
+        .insertTurn(session.getId(), userMessage, aiResponse, intent, actor, Instant.now())
+        .orElseThrow(
+            () -> new ResourceNotFoundException("ConversationSession", session.getId().toString()));
+    eventPublisher.publishEvent(
+        new ConversationTurnRecorded(session.getId(), session.getMode().name()));
   }
 
   /**
@@ -163,26 +151,30 @@ public class ConversationManager {
     return recent.reversed();
   }
 
-  /** Expire stale sessions every 30 minutes. */
+  /** Expire stale sessions every 30 minutes, one bounded chunk per transaction. */
   @Scheduled(fixedRate = 1_800_000, zone = "UTC")
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public void cleanupExpiredSessions() {
     Instant now = Instant.now();
     Instant cutoff = now.minusSeconds(2 * 3600); // 2-hour TTL
-    int expired = sessionRepository.expireStaleSessions(now, cutoff);
-    if (expired > 0) {
-      log.info("Expired {} stale conversation sessions", expired);
+    int total = 0;
+    Integer expired;
+    do {
+      expired =
+          transactionTemplate.execute(
+              status -> sessionRepository.expireStaleSessions(now, cutoff, CLEANUP_BATCH_SIZE));
+      total += expired != null ? expired : 0;
+    } while (expired != null && expired == CLEANUP_BATCH_SIZE);
+    if (total > 0) {
+      log.info("Expired {} stale conversation sessions", total);
     }
   }
 
   // ── Helpers ──
 
   private ConversationSession createNewSession(UUID userId, ChatMode mode) {
-    User user =
-        userRepository
-            .findById(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
-
+    // A reference is enough for the foreign key; the caller is an authenticated user
+    User user = userRepository.getReferenceById(userId);
     ConversationSession session =
         ConversationSession.builder().user(user).mode(mode).status(SessionStatus.ACTIVE).build();
 
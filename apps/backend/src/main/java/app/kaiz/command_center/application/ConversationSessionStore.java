@@ -3,54 +3,46 @@ package app.kaiz.command_center.application;
 import app.kaiz.command_center.application.dto.SmartInputResponse.OriginalInput;
 import app.kaiz.command_center.domain.Draft;
 import app.kaiz.command_center.domain.DraftType;
+import app.kaiz.shared.exception.ApiException;
 import java.time.Instant;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Component;
+import org.springframework.http.HttpStatus;
 
 /**
- * Thread-safe in-memory session storage for multi-turn AI conversations. Isolates mutable state
- * from business logic. Ready to swap to Redis for horizontal scaling.
+ * Session storage for multi-turn Smart Input conversations (clarification and confirm-alternative
+ * flows). Isolates mutable state from business logic.
+ *
+ * <p>Implementations are selected with {@code kaiz.command-center.session-store}: {@code memory}
+ * ({@link InMemoryConversationSessionStore}, the default, single node only) or {@code jdbc} ({@link
+ * JdbcConversationSessionStore}, shared by every replica, so no sticky sessions are needed).
+ *
+ * <p>Sessions are versioned. {@link #get} returns a private copy; callers that change it write it
+ * back with {@link #update}, which fails with {@link SessionConflictException} if another request,
+ * possibly on another node, has written the session since it was read.
  */
-@Component
-@Slf4j
-public class ConversationSessionStore {
-
-  private final Map<UUID, ConversationSession> sessions = new ConcurrentHashMap<>();
-
-  /** Cleanup expired sessions every 15 minutes. Prevents memory leak from abandoned sessions. */
-  @Scheduled(fixedRate = 900_000, zone = "UTC")
-  public void cleanupExpiredSessions() {
-    int before = sessions.size();
-    Instant now = Instant.now();
-    sessions.entrySet().removeIf(entry -> entry.getValue().expiresAt().isBefore(now));
-    int removed = before - sessions.size();
-    if (removed > 0) {
-      log.info("Cleaned up {} expired AI sessions, {} remaining", removed, sessions.size());
-    }
-  }
+public interface ConversationSessionStore {
 
-  public ConversationSession get(UUID sessionId) {
-    return sessions.get(sessionId);
-  }
+  /** The live session, or null if it does not exist or has expired. */
+  ConversationSession get(UUID sessionId);
 
-  public void put(UUID sessionId, ConversationSession session) {
-    sessions.put(sessionId, session);
-  }
+  /** Create or overwrite a session. */
+  void put(UUID sessionId, ConversationSession session);
 
-  public void remove(UUID sessionId) {
-    sessions.remove(sessionId);
-  }
+  /**
+   * Write back a session obtained from {@link #get}. On success the session's version is advanced.
+   *
+   * @throws SessionConflictException if the session was written since it was read
+   * @throws IllegalStateException if the session no longer exists
+   */
+  void update(ConversationSession session);
 
-  public int size() {
-    return sessions.size();
-  }
+  void remove(UUID sessionId);
+
+  /** Number of live sessions. */
+  int size();
 
   /** Mutable session state for multi-turn AI conversations. */
-  public static class ConversationSession {
+  class ConversationSession {
     private final UUID sessionId;
     private final UUID userId;
     private DraftType intentType;
@@ -58,6 +50,7 @@ public class ConversationSessionStore {
     private final OriginalInput originalInput;
     private int questionCount;
     private final Instant expiresAt;
+    private long version;
 
     public ConversationSession(
         UUID sessionId,
@@ -104,6 +97,11 @@ public class ConversationSessionStore {
       return expiresAt;
     }
 
+    /** Version this copy was read at; maintained by the store. */
+    public long version() {
+      return version;
+    }
+
     public void intentType(DraftType type) {
       this.intentType = type;
     }
@@ -115,5 +113,38 @@ public class ConversationSessionStore {
     public void questionCount(int count) {
       this.questionCount = count;
     }
+
+    void version(long version) {
+      this.version = version;
+    }
+
+    boolean isExpired(Instant now) {
+      return !expiresAt.isAfter(now);
+    }
+
+    /** Shallow copy; drafts and the original input are immutable records. */
+    ConversationSession copy() {
+      ConversationSession copy =
+          new ConversationSession(
+              sessionId,
+              userId,
+              intentType,
+              partialDraft,
+              originalInput,
+              questionCount,
+              expiresAt);
+      copy.version = version;
+      return copy;
+    }
+  }
+
+  /** The session was changed by a concurrent request after it was read. */
+  class SessionConflictException extends ApiException {
+    public SessionConflictException(UUID sessionId) {
+      super(
+          HttpStatus.CONFLICT,
+          "SESSION_CONFLICT",
+          "Session " + sessionId + " was updated by another request; reload and try again");
+    }
   }
 }
@@ -0,0 +1,12 @@
+package app.kaiz.command_center.application;
+
+import java.util.UUID;
+
+/**
+ * Published when a user/assistant turn has been stored. The conversation history manager refreshes
+ * the session's rolling summary once the publishing transaction commits.
+ *
+ * @param sessionId the conversation session
+ * @param mode the session's chat mode
+ */
+public record ConversationTurnRecorded(UUID sessionId, String mode) {}
@@ -14,6 +14,11 @@ package app.kaiz.command_center.application;
  * $0.01 - With clarification flow: ~$0.003 - $0.007
  *
  * <p>AVERAGE: ~$0.004 per request
+ *
+ * <p>PROMPT CACHING: the persona + mode block (most of the system prompt) is sent as a stable
+ * prefix. Once a cache breakpoint can be sent for it (see {@link ChatModelProvider}), cache reads
+ * bill at ~10% of the input rate and cache writes at ~125%, so a warm prefix would cut the fixed
+ * system-prompt cost by roughly 90%.
  */
 public final class CostEstimation {
 
@@ -23,6 +28,10 @@ public final class CostEstimation {
   public static final double INPUT_COST_PER_MILLION = 3.00;
   public static final double OUTPUT_COST_PER_MILLION = 15.00;
 
+  // Prompt-cache pricing relative to the base input rate
+  public static final double CACHE_READ_MULTIPLIER = 0.10;
+  public static final double CACHE_WRITE_MULTIPLIER = 1.25;
+
   // Token estimates
   public static final int SYSTEM_PROMPT_TOKENS = 3500;
   public static final int AVG_USER_INPUT_TOKENS = 100;
@@ -41,6 +50,25 @@ public final class CostEstimation {
     return inputCost + outputCost;
   }
 
+  /**
+   * Calculate cost per request with prompt caching. {@code uncachedInputTokens} excludes tokens
+   * read from or written to the cache.
+   */
+  public static double calculateRequestCost(
+      int uncachedInputTokens, int cacheReadTokens, int cacheWriteTokens, int outputTokens) {
+    double inputTokens =
+        uncachedInputTokens
+            + cacheReadTokens * CACHE_READ_MULTIPLIER
+            + cacheWriteTokens * CACHE_WRITE_MULTIPLIER;
+    return (inputTokens / 1_000_000.0) * INPUT_COST_PER_MILLION
+        + (outputTokens / 1_000_000.0) * OUTPUT_COST_PER_MILLION;
+  }
+
+  /** Average text request cost when the system-prompt prefix is already cached. */
+  public static double averageCachedTextRequestCost() {
+    return calculateRequestCost(AVG_USER_INPUT_TOKENS, SYSTEM_PROMPT_TOKENS, 0, AVG_OUTPUT_TOKENS);
+  }
+
   /** Calculate average cost per request (text only). */
   public static double averageTextRequestCost() {
     int totalInput = SYSTEM_PROMPT_TOKENS + AVG_USER_INPUT_TOKENS;
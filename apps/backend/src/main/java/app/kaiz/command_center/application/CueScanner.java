@@ -0,0 +1,406 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.application.IntentClassifier.Intent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyword cues for intent classification and mode detection, compiled into one {@link
+ * KeywordAutomaton}.
+ *
+ * <p>A cue is a short phrase: terms (alternative keywords, optionally anchored at word boundaries)
+ * separated by gaps (whitespace, an optional article, one optional character, or anything on the
+ * same line). That is the part of regex syntax the old per-intent patterns used, so each cue below
+ * is a direct transcription of one regex alternative, with the same case-insensitive ASCII and
+ * {@code \b} semantics. Scanning finds every keyword in one pass, then checks each cue against the
+ * hits; cues whose keywords never occur cost nothing.
+ *
+ * <p>Candidates come back in a fixed priority order: intents in {@link Intent} declaration order
+ * (most specific first) and modes STANDUP, PLANNING, RETROSPECTIVE, CAPTURE. A candidate's score
+ * is the number of its cues that matched.
+ */
+final class CueScanner {
+
+  /** A label whose cues matched, and how many of them did. */
+  record Candidate<L>(L label, int score) {}
+
+  /** Everything one scan of the input found. */
+  record Scan(
+      List<Candidate<Intent>> intents, List<Candidate<String>> modes, boolean explicitCreate) {
+
+    static final Scan EMPTY = new Scan(List.of(), List.of(), false);
+
+    /** Highest-priority intent, or null when no intent cue matched. */
+    Intent topIntent() {
+      return intents.isEmpty() ? null : intents.getFirst().label();
+    }
+
+    /** Highest-priority mode, or null when no mode cue matched. */
+    String topMode() {
+      return modes.isEmpty() ? null : modes.getFirst().label();
+    }
+
+    boolean hasMode(String mode) {
+      for (Candidate<String> candidate : modes) {
+        if (candidate.label().equals(mode)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final String[] CEREMONIES = {
+    "retro", "planning", "review", "standup", "refinement", "ceremony"
+  };
+
+  private static final Map<Intent, List<Phrase>> INTENT_CUES = new LinkedHashMap<>();
+  private static final Map<String, List<Phrase>> MODE_CUES = new LinkedHashMap<>();
+  private static final List<Phrase> CREATE_CUES;
+
+  static {
+    intent(
+        Intent.CREATE_TASK,
+        phrase(word("add", "create", "new", "make")).then(space("a"), word("task")),
+        phrase(starting("task:", "todo:")).thenWhitespace());
+    intent(
+        Intent.CREATE_EPIC,
+        phrase(word("add", "create", "new", "make")).then(space("a", "an"), word("epic")),
+        phrase(starting("epic:")).thenWhitespace());
+    intent(
+        Intent.CREATE_CHALLENGE,
+        phrase(word("add", "create", "new", "start")).then(space("a"), word("challenge")),
+        phrase(starting("challenge:")).thenWhitespace());
+    intent(
+        Intent.CREATE_EVENT,
+        phrase(word("add", "create", "schedule", "new")).then(space("a", "an"), word("event")),
+        phrase(starting("event:", "meeting:")).thenWhitespace());
+    intent(
+        Intent.CREATE_BILL,
+        phrase(word("add", "create", "new", "log")).then(space("a"), word("bill")),
+        phrase(starting("bill:", "expense:")).thenWhitespace());
+    intent(
+        Intent.CREATE_NOTE,
+        phrase(word("add", "create", "write", "new")).then(space("a"), word("note")),
+        phrase(starting("note:")).thenWhitespace(),
+        phrase(word("jot")));
+    intent(
+        Intent.UPDATE_TASK,
+        phrase(word("update", "edit", "change", "modify", "move"))
+            .then(space("the"), word("task")));
+    intent(
+        Intent.COMPLETE_TASK,
+        phrase(word("complete", "finish", "done", "close")).then(space("the"), word("task")),
+        phrase(starting("check"))
+            .then(Gap.OPTIONAL_CHAR, anywhere("off"))
+            .then(space("the"), word("task")),
+        phrase(starting("mark")).then(Gap.SAME_LINE, anywhere("done", "complete")));
+    intent(
+        Intent.START_CEREMONY,
+        phrase(word("start", "begin", "open")).then(space("the"), word(CEREMONIES)),
+        phrase(starting("kick"))
+            .then(Gap.OPTIONAL_CHAR, anywhere("off"))
+            .then(space("the"), word(CEREMONIES)));
+    intent(
+        Intent.END_CEREMONY,
+        phrase(word("end", "finish", "close", "complete")).then(space("the"), word(CEREMONIES)),
+        phrase(starting("wrap"))
+            .then(Gap.OPTIONAL_CHAR, anywhere("up"))
+            .then(space("the"), word(CEREMONIES)));
+    intent(
+        Intent.STANDUP_REPORT,
+        phrase(word("standup", "daily")),
+        phrase(starting("stand")).then(Gap.OPTIONAL_CHAR, ending("up")),
+        phrase(starting("check")).then(Gap.OPTIONAL_CHAR, ending("in")),
+        phrase(starting("yesterday")).then(Gap.SAME_LINE, anywhere("today")),
+        phrase(starting("what")).then(Gap.SAME_LINE, anywhere("did", "done")));
+    intent(
+        Intent.SPRINT_STATUS,
+        phrase(word("sprint", "iteration"))
+            .then(space(), word("status", "progress", "health", "report")),
+        phrase(starting("how")).then(Gap.SAME_LINE, anywhere("sprint")));
+    intent(
+        Intent.VELOCITY_CHECK,
+        phrase(word("velocity", "burndown", "throughput", "capacity")),
+        phrase(starting("story")).then(Gap.OPTIONAL_CHAR, ending("point", "points")));
+    intent(
+        Intent.ASK_QUESTION,
+        phrase(
+                word(
+                    "what", "how", "why", "when", "where", "should", "can", "could", "would",
+                    "is", "are", "do", "does"))
+            .then(Gap.SAME_LINE, anywhere("?")));
+
+    mode(
+        "STANDUP",
+        phrase(word("standup", "stand-up", "daily", "yesterday", "blocker")),
+        phrase(starting("check")).then(Gap.OPTIONAL_CHAR, ending("in")),
+        phrase(starting("today")).then(Gap.OPTIONAL_CHAR, ending("plan")));
+    mode(
+        "PLANNING",
+        phrase(word("plan", "planning", "commit", "capacity", "backlog")),
+        phrase(starting("sprint")).then(Gap.OPTIONAL_CHAR, ending("plan")),
+        phrase(starting("next")).then(Gap.OPTIONAL_CHAR, ending("sprint")));
+    mode(
+        "RETROSPECTIVE",
+        phrase(word("retro", "retrospective", "improve", "review")),
+        phrase(starting("went")).then(Gap.OPTIONAL_CHAR, ending("well")),
+        phrase(starting("action")).then(Gap.OPTIONAL_CHAR, ending("item")));
+    mode(
+        "CAPTURE",
+        phrase(word("add", "create", "new", "quick", "capture", "task", "todo", "remind")));
+
+    CREATE_CUES =
+        List.of(phrase(word("add", "create", "new", "make", "schedule", "log", "write")));
+  }
+
+  private static final KeywordAutomaton AUTOMATON = KeywordAutomaton.compile(allKeywords());
+
+  private static final List<Compiled<Intent>> INTENTS = compileAll(INTENT_CUES);
+  private static final List<Compiled<String>> MODES = compileAll(MODE_CUES);
+  private static final List<Compiled<Boolean>> CREATE =
+      compileAll(Map.of(Boolean.TRUE, CREATE_CUES));
+
+  private CueScanner() {}
+
+  /** Scan the input once and score every intent and mode whose cues it contains. */
+  static Scan scan(String input) {
+    if (input == null || input.isEmpty()) {
+      return Scan.EMPTY;
+    }
+    KeywordAutomaton.Hits hits = AUTOMATON.scan(input);
+    return new Scan(
+        candidates(INTENTS, hits), candidates(MODES, hits), !candidates(CREATE, hits).isEmpty());
+  }
+
+  private static <L> List<Candidate<L>> candidates(
+      List<Compiled<L>> labels, KeywordAutomaton.Hits hits) {
+    List<Candidate<L>> found = new ArrayList<>(2);
+    for (Compiled<L> label : labels) {
+      int score = 0;
+      for (CompiledPhrase cue : label.cues()) {
+        if (cue.matches(hits)) {
+          score++;
+        }
+      }
+      if (score > 0) {
+        found.add(new Candidate<>(label.label(), score));
+      }
+    }
+    return found;
+  }
+
+  // ── Cue definitions ──
+
+  private static void intent(Intent intent, Phrase... cues) {
+    INTENT_CUES.put(intent, List.of(cues));
+  }
+
+  private static void mode(String mode, Phrase... cues) {
+    MODE_CUES.put(mode, List.of(cues));
+  }
+
+  private static Phrase phrase(Term first) {
+    return new Phrase(List.of(first), List.of(), false);
+  }
+
+  /** Keywords with a word boundary on both sides: {@code \b(a|b)\b}. */
+  private static Term word(String... keywords) {
+    return new Term(keywords, true, true);
+  }
+
+  /** Keywords with a word boundary before them only: {@code \b(a|b)}. */
+  private static Term starting(String... keywords) {
+    return new Term(keywords, true, false);
+  }
+
+  /** Keywords with a word boundary after them only: {@code (a|b)\b}. */
+  private static Term ending(String... keywords) {
+    return new Term(keywords, false, true);
+  }
+
+  /** Keywords anywhere, even inside a word: {@code (a|b)}. */
+  private static Term anywhere(String... keywords) {
+    return new Term(keywords, false, false);
+  }
+
+  /** Whitespace, optionally with one of the given words in it: {@code \s+((a|an)\s+)?}. */
+  private static Gap space(String... optionalWords) {
+    Set<String> words = Set.of(optionalWords);
+    return (hits, from, to) -> {
+      CharSequence text = hits.text();
+      int i = from;
+      while (i < to && isWhitespace(text.charAt(i))) {
+        i++;
+      }
+      if (i == from) {
+        return false;
+      }
+      if (i == to) {
+        return true;
+      }
+      int wordEnd = i;
+      while (wordEnd < to && !isWhitespace(text.charAt(wordEnd))) {
+        wordEnd++;
+      }
+      if (wordEnd == to || !words.contains(asciiLowerCase(text, i, wordEnd))) {
+        return false;
+      }
+      for (int j = wordEnd; j < to; j++) {
+        if (!isWhitespace(text.charAt(j))) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  // ── Cue model ──
+
+  /** What may lie between two terms of a phrase, as a test on {@code [from, to)}. */
+  @FunctionalInterface
+  private interface Gap {
+
+    /** {@code .?}: nothing, or one character (a whole surrogate pair) that is not a line break. */
+    Gap OPTIONAL_CHAR =
+        (hits, from, to) -> {
+          CharSequence text = hits.text();
+          return switch (to - from) {
+            case 0 -> true;
+            case 1 -> !KeywordAutomaton.isLineTerminator(text.charAt(from));
+            case 2 ->
+                Character.isHighSurrogate(text.charAt(from))
+                    && Character.isLowSurrogate(text.charAt(from + 1));
+            default -> false;
+          };
+        };
+
+    /** {@code .*}: anything without a line break. */
+    Gap SAME_LINE = KeywordAutomaton.Hits::sameLine;
+
+    boolean accepts(KeywordAutomaton.Hits hits, int from, int to);
+  }
+
+  private record Term(String[] keywords, boolean boundaryBefore, boolean boundaryAfter) {}
+
+  private record Phrase(List<Term> terms, List<Gap> gaps, boolean whitespaceAfter) {
+
+    Phrase then(Gap gap, Term next) {
+      List<Term> terms = new ArrayList<>(this.terms);
+      List<Gap> gaps = new ArrayList<>(this.gaps);
+      terms.add(next);
+      gaps.add(gap);
+      return new Phrase(List.copyOf(terms), List.copyOf(gaps), whitespaceAfter);
+    }
+
+    /** Require a whitespace character right after the last term: {@code ...\s}. */
+    Phrase thenWhitespace() {
+      return new Phrase(terms, gaps, true);
+    }
+  }
+
+  private record Compiled<L>(L label, List<CompiledPhrase> cues) {}
+
+  /** A phrase with its keywords resolved to automaton ids. */
+  private record CompiledPhrase(int[][] ids, Term[] terms, Gap[] gaps, boolean whitespaceAfter) {
+
+    boolean matches(KeywordAutomaton.Hits hits) {
+      return matchFrom(0, 0, hits);
+    }
+
+    /** Backtracking over hits; phrases are at most a few terms and hits are sparse. */
+    private boolean matchFrom(int term, int previousEnd, KeywordAutomaton.Hits hits) {
+      CharSequence text = hits.text();
+      Term spec = terms[term];
+      for (int id : ids[term]) {
+        for (int h = 0; h < hits.count(id); h++) {
+          int start = hits.start(id, h);
+          int end = hits.end(id, h);
+          if (term > 0
+              && (start < previousEnd || !gaps[term - 1].accepts(hits, previousEnd, start))) {
+            continue;
+          }
+          if ((spec.boundaryBefore() && !isBoundary(text, start))
+              || (spec.boundaryAfter() && !isBoundary(text, end))) {
+            continue;
+          }
+          if (term == terms.length - 1) {
+            if (!whitespaceAfter || (end < text.length() && isWhitespace(text.charAt(end)))) {
+              return true;
+            }
+          } else if (matchFrom(term + 1, end, hits)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  private static List<String> allKeywords() {
+    List<String> keywords = new ArrayList<>();
+    List<List<Phrase>> groups = new ArrayList<>(INTENT_CUES.values());
+    groups.addAll(MODE_CUES.values());
+    groups.add(CREATE_CUES);
+    for (List<Phrase> group : groups) {
+      for (Phrase phrase : group) {
+        for (Term term : phrase.terms()) {
+          keywords.addAll(Arrays.asList(term.keywords()));
+        }
+      }
+    }
+    return keywords;
+  }
+
+  private static <L> List<Compiled<L>> compileAll(Map<L, List<Phrase>> cues) {
+    List<Compiled<L>> compiled = new ArrayList<>(cues.size());
+    cues.forEach(
+        (label, phrases) -> {
+          List<CompiledPhrase> resolved = new ArrayList<>(phrases.size());
+          for (Phrase phrase : phrases) {
+            Term[] terms = phrase.terms().toArray(Term[]::new);
+            int[][] ids = new int[terms.length][];
+            for (int t = 0; t < terms.length; t++) {
+              ids[t] = Arrays.stream(terms[t].keywords()).mapToInt(AUTOMATON::id).toArray();
+            }
+            resolved.add(
+                new CompiledPhrase(
+                    ids, terms, phrase.gaps().toArray(Gap[]::new), phrase.whitespaceAfter()));
+          }
+          compiled.add(new Compiled<>(label, List.copyOf(resolved)));
+        });
+    return List.copyOf(compiled);
+  }
+
+  // ── Character classes, ASCII as in java.util.regex without UNICODE_CHARACTER_CLASS ──
+
+  /** {@code \s}. */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /** {@code \w}. */
+  private static boolean isWordChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  /** {@code \b} at an offset. */
+  private static boolean isBoundary(CharSequence text, int offset) {
+    boolean before = offset > 0 && isWordChar(text.charAt(offset - 1));
+    boolean after = offset < text.length() && isWordChar(text.charAt(offset));
+    return before != after;
+  }
+
+  private static String asciiLowerCase(CharSequence text, int from, int to) {
+    char[] chars = new char[to - from];
+    for (int i = from; i < to; i++) {
+      char c = text.charAt(i);
+      chars[i - from] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    return new String(chars);
+  }
+}
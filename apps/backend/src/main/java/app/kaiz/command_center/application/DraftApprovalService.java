@@ -35,7 +35,6 @@ public class DraftApprovalService {
   private final EpicService epicService;
   private final ChallengeService challengeService;
   private final DraftFeedbackCollector feedbackCollector;
-  private final UserPreferenceLearner preferenceLearner;
 
   // Note: EventService and BillService do not exist yet - will return placeholder IDs
 
@@ -104,9 +103,8 @@ public class DraftApprovalService {
     pendingDraft.markModified(entityId);
     draftRepository.save(pendingDraft);
 
-    // Record feedback + trigger pattern learning on modification
+    // Record feedback; this also queues the user for pattern learning
     recordFeedbackSafely(userId, pendingDraft.getId(), FeedbackAction.MODIFIED, null, null);
-    triggerLearning(userId);
 
     log.info("✏️ [Draft] Modified and created {} with ID: {}", modifiedDraft.type(), entityId);
 
@@ -147,18 +145,6 @@ public class DraftApprovalService {
     }
   }
 
-  /** Trigger preference learning asynchronously after a draft modification. */
-  private void triggerLearning(UUID userId) {
-    try {
-      int patterns = preferenceLearner.learnFromUser(userId);
-      if (patterns > 0) {
-        log.info("Detected {} correction patterns for userId={}", patterns, userId);
-      }
-    } catch (Exception e) {
-      log.warn("Failed to trigger preference learning for userId={}: {}", userId, e.getMessage());
-    }
-  }
-
   /**
    * Create the actual entity based on draft type. Uses Java 21 pattern matching for sealed types.
    */
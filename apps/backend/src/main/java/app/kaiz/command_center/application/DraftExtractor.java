@@ -3,6 +3,7 @@ package app.kaiz.command_center.application;
 import app.kaiz.command_center.domain.Draft;
 import app.kaiz.command_center.domain.DraftType;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -19,7 +20,8 @@ import org.springframework.stereotype.Component;
  *   <li><strong>JSON fallback</strong>: raw JSON objects with {@code "type"} field
  * </ol>
  *
- * <p>Delegates actual JSON → Draft conversion to the shared {@link AIResponseParser}.
+ * <p>Delegates actual JSON → Draft conversion to the shared {@link AIResponseParser}. For
+ * streamed output, {@link #newStream()} extracts fenced blocks incrementally as chunks arrive.
  */
 @Component
 @RequiredArgsConstructor
@@ -33,6 +35,7 @@ public class DraftExtractor {
       Pattern.compile("\\{[^{}]*\"type\"\\s*:\\s*\"\\w+\"[^{}]*}", Pattern.DOTALL);
 
   private final AIResponseParser aiResponseParser;
+  private final ObjectMapper objectMapper;
 
   /**
    * Result of draft extraction: contains drafts and the conversational text (non-draft portion).
@@ -78,6 +81,15 @@ public class DraftExtractor {
     return new ExtractionResult(drafts, conversationalText.trim());
   }
 
+  /**
+   * Start incremental extraction for one streamed response. The returned stream yields each fenced
+   * draft as soon as its closing fence arrives; the JSON fallback needs the whole output and is not
+   * applied.
+   */
+  DraftStream newStream() {
+    return new DraftStream(objectMapper, this::parseDraftFromJson);
+  }
+
   // ── Fenced block extraction ──
 
   private List<ExtractedDraft> extractFencedBlocks(String output) {
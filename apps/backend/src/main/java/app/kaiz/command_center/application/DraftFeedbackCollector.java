@@ -4,6 +4,7 @@ import app.kaiz.command_center.domain.*;
 import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
 import app.kaiz.command_center.infrastructure.DraftFeedbackRecordRepository;
 import app.kaiz.command_center.infrastructure.PendingDraftRepository;
+import app.kaiz.command_center.infrastructure.PreferenceLearningRepository;
 import app.kaiz.command_center.infrastructure.UserCoachPreferenceRepository;
 import app.kaiz.identity.domain.User;
 import app.kaiz.identity.infrastructure.UserRepository;
@@ -18,8 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Captures approve/modify/reject signals on AI-generated drafts. Records a {@link
- * DraftFeedbackRecord} and updates the user's {@link UserCoachPreference} counters so the
- * preference learner can detect correction patterns later.
+ * DraftFeedbackRecord} and updates the user's {@link UserCoachPreference} counters. A modification
+ * also queues the user for {@link UserPreferenceLearner}, which only visits queued users.
  */
 @Service
 @RequiredArgsConstructor
@@ -30,6 +31,7 @@ public class DraftFeedbackCollector {
   private final DraftFeedbackRecordRepository feedbackRepository;
   private final PendingDraftRepository draftRepository;
   private final UserCoachPreferenceRepository preferenceRepository;
+  private final PreferenceLearningRepository learningRepository;
   private final UserRepository userRepository;
   private final ObjectMapper objectMapper;
 
@@ -130,7 +132,13 @@ public class DraftFeedbackCollector {
       case REJECTED -> prefs.recordRejection();
     }
 
-    preferenceRepository.save(prefs);
+    if (action == FeedbackAction.MODIFIED) {
+      // Flushed first so the row exists for the flag update when it was created just now
+      preferenceRepository.saveAndFlush(prefs);
+      learningRepository.markPending(user.getId());
+    } else {
+      preferenceRepository.save(prefs);
+    }
   }
 
   private String serializeDraft(Draft draft) {
@@ -0,0 +1,244 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.application.DraftExtractor.ExtractedDraft;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Incremental counterpart of {@link DraftExtractor}'s fenced-block strategy, for streamed output.
+ *
+ * <p>Fed the response chunk by chunk, a small state machine finds the {@code >>>DRAFT} and {@code
+ * <<<DRAFT} fences even when they are split across chunks, and hands the block body to a
+ * non-blocking Jackson parser as it arrives. A draft is returned from {@link #accept} as soon as
+ * its closing fence is seen, so by then its JSON is already parsed. The fence rules match the
+ * batch regex: whitespace including a line break after the opening fence, and the first closing
+ * fence ends the block; an unclosed block yields nothing.
+ *
+ * <p>Not thread-safe: one instance per response, fed from one thread at a time.
+ */
+@Slf4j
+final class DraftStream {
+
+  private static final String OPEN = ">>>DRAFT";
+  private static final String CLOSE = "<<<DRAFT";
+
+  private enum State {
+    TEXT, // outside a block, looking for the opening fence
+    HEADER, // after the opening fence, in the whitespace before the body
+    BODY // inside a block, looking for the closing fence
+  }
+
+  private final ObjectMapper objectMapper;
+  private final Function<JsonNode, ExtractedDraft> toDraft;
+
+  private State state = State.TEXT;
+  private int fenceMatched;
+  private boolean headerNewline;
+  private BlockParser block;
+  private int blocks;
+
+  DraftStream(ObjectMapper objectMapper, Function<JsonNode, ExtractedDraft> toDraft) {
+    this.objectMapper = objectMapper;
+    this.toDraft = toDraft;
+  }
+
+  /**
+   * Feed the next chunk of the response.
+   *
+   * @return drafts whose closing fence is in this chunk, in order; usually empty
+   */
+  List<ExtractedDraft> accept(String chunk) {
+    List<ExtractedDraft> completed = new ArrayList<>(0);
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < chunk.length(); i++) {
+      char c = chunk.charAt(i);
+      switch (state) {
+        case TEXT -> {
+          fenceMatched = advance(OPEN, fenceMatched, c);
+          if (fenceMatched == OPEN.length()) {
+            state = State.HEADER;
+            fenceMatched = 0;
+            headerNewline = false;
+          }
+        }
+        case HEADER -> {
+          if (isRegexWhitespace(c)) {
+            headerNewline |= c == '\n';
+          } else if (headerNewline) {
+            state = State.BODY;
+            block = new BlockParser();
+            i--; // the body starts with this character
+          } else {
+            // Not a fence after all; look for the next one starting here
+            state = State.TEXT;
+            i--;
+          }
+        }
+        case BODY -> {
+          int before = fenceMatched;
+          fenceMatched = advance(CLOSE, before, c);
+          // Characters that no longer fit a partial closing fence are body text
+          int released = before + 1 - fenceMatched;
+          if (released > 0) {
+            String window = CLOSE.substring(0, before) + c;
+            body.append(window, 0, released);
+          }
+          if (fenceMatched == CLOSE.length()) {
+            block.feed(body);
+            body.setLength(0);
+            ExtractedDraft draft = block.finish();
+            if (draft != null) {
+              completed.add(draft);
+            }
+            block = null;
+            blocks++;
+            state = State.TEXT;
+            fenceMatched = 0;
+          }
+        }
+      }
+    }
+    if (state == State.BODY && !body.isEmpty()) {
+      block.feed(body);
+    }
+    return completed;
+  }
+
+  /** Closed blocks seen so far, including ones that did not parse into a draft. */
+  int blocks() {
+    return blocks;
+  }
+
+  /** Knuth-Morris-Pratt step for a fence; a fence only overlaps itself on its leading arrows. */
+  private static int advance(String fence, int matched, char c) {
+    while (true) {
+      if (fence.charAt(matched) == c) {
+        return matched + 1;
+      }
+      if (matched == 0) {
+        return 0;
+      }
+      matched = matched <= 3 ? matched - 1 : 0;
+    }
+  }
+
+  /** {@code \s} in java.util.regex. */
+  private static boolean isRegexWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /**
+   * Parses one block body as it arrives. Text before the first opening brace or bracket (such as a
+   * Markdown code fence) is skipped, and so is anything after the first complete JSON value.
+   */
+  private final class BlockParser {
+    private JsonParser parser;
+    private ByteArrayFeeder feeder;
+    private TokenBuffer tokens;
+    private int depth;
+    private boolean done;
+    private boolean failed;
+    private char pendingHighSurrogate;
+
+    void feed(CharSequence text) {
+      if (done || failed || text.isEmpty()) {
+        return;
+      }
+      int from = 0;
+      if (parser == null) {
+        while (from < text.length() && text.charAt(from) != '{' && text.charAt(from) != '[') {
+          from++;
+        }
+        if (from == text.length()) {
+          return;
+        }
+        start();
+        if (failed) {
+          return;
+        }
+      }
+      StringBuilder chars = new StringBuilder(text.length() - from + 1);
+      if (pendingHighSurrogate != 0) {
+        chars.append(pendingHighSurrogate);
+        pendingHighSurrogate = 0;
+      }
+      chars.append(text, from, text.length());
+      // Never encode half of a surrogate pair; keep it for the next chunk
+      if (Character.isHighSurrogate(chars.charAt(chars.length() - 1))) {
+        pendingHighSurrogate = chars.charAt(chars.length() - 1);
+        chars.setLength(chars.length() - 1);
+      }
+      if (chars.isEmpty()) {
+        return;
+      }
+      byte[] bytes = chars.toString().getBytes(StandardCharsets.UTF_8);
+      try {
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    private void start() {
+      try {
+        parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        tokens = new TokenBuffer(parser);
+      } catch (IOException e) {
+        fail(e);
+      }
+    }
+
+    private void drain() throws IOException {
+      JsonToken token;
+      while (!done && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+        tokens.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+          depth++;
+        } else if (token.isStructEnd() && --depth == 0) {
+          done = true;
+        }
+      }
+    }
+
+    private void fail(IOException e) {
+      failed = true;
+      log.warn("Failed to parse streamed draft block: {}", e.getMessage());
+    }
+
+    /** The draft, once the closing fence is seen; null when the body held none. */
+    ExtractedDraft finish() {
+      if (parser != null) {
+        try {
+          parser.close();
+        } catch (IOException ignored) {
+          // Nothing to release for a byte-array feeder
+        }
+      }
+      if (!done) {
+        if (parser != null && !failed) {
+          log.warn("Streamed draft block ended before its JSON was complete");
+        }
+        return null;
+      }
+      try {
+        JsonNode node = objectMapper.readTree(tokens.asParser(objectMapper));
+        return node != null && node.isObject() ? toDraft.apply(node) : null;
+      } catch (IOException e) {
+        log.warn("Failed to read streamed draft block: {}", e.getMessage());
+        return null;
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package app.kaiz.command_center.application;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Thread-safe in-memory {@link ConversationSessionStore}. The default; sessions are local to the
+ * JVM, so with several replicas it needs sticky sessions (use the {@code jdbc} store instead).
+ */
+@Component
+@ConditionalOnProperty(
+    name = "kaiz.command-center.session-store",
+    havingValue = "memory",
+    matchIfMissing = true)
+@Slf4j
+public class InMemoryConversationSessionStore implements ConversationSessionStore {
+
+  private final Map<UUID, ConversationSession> sessions = new ConcurrentHashMap<>();
+
+  /** Cleanup expired sessions every 15 minutes. Prevents memory leak from abandoned sessions. */
+  @Scheduled(fixedRate = 900_000, zone = "UTC")
+  public void cleanupExpiredSessions() {
+    int before = sessions.size();
+    Instant now = Instant.now();
+    sessions.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+    int removed = before - sessions.size();
+    if (removed > 0) {
+      log.info("Cleaned up {} expired AI sessions, {} remaining", removed, sessions.size());
+    }
+  }
+
+  @Override
+  public ConversationSession get(UUID sessionId) {
+    ConversationSession stored = sessions.get(sessionId);
+    return stored != null && !stored.isExpired(Instant.now()) ? stored.copy() : null;
+  }
+
+  @Override
+  public void put(UUID sessionId, ConversationSession session) {
+    ConversationSession stored = session.copy();
+    stored.version(0);
+    sessions.put(sessionId, stored);
+    session.version(0);
+  }
+
+  @Override
+  public void update(ConversationSession session) {
+    sessions.compute(
+        session.sessionId(),
+        (id, current) -> {
+          if (current == null || current.isExpired(Instant.now())) {
+            throw new IllegalStateException("Session not found or expired: " + id);
+          }
+          if (current.version() != session.version()) {
+            throw new SessionConflictException(id);
+          }
+          ConversationSession next = session.copy();
+          next.version(current.version() + 1);
+          return next;
+        });
+    session.version(session.version() + 1);
+  }
+
+  @Override
+  public void remove(UUID sessionId) {
+    sessions.remove(sessionId);
+  }
+
+  @Override
+  public int size() {
+    return sessions.size();
+  }
+}
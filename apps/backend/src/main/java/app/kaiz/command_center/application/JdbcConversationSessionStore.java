@@ -0,0 +1,172 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.application.dto.SmartInputResponse.OriginalInput;
+import app.kaiz.command_center.domain.Draft;
+import app.kaiz.command_center.domain.DraftType;
+import app.kaiz.command_center.domain.SmartInputSessionEntry;
+import app.kaiz.command_center.infrastructure.SmartInputSessionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Postgres-backed {@link ConversationSessionStore} ({@code smart_input_sessions}), so any replica
+ * can serve any turn of a clarification flow.
+ *
+ * <p>A small near-cache keeps recently used sessions on this node. A cached session is only
+ * returned after a primary-key lookup confirms its version is still current, so a write from
+ * another node is never hidden; the cache saves fetching and deserialising the payload. Updates
+ * are a compare-and-set on the version, which turns a lost update into a {@link
+ * SessionConflictException}.
+ */
+@Component
+@ConditionalOnProperty(name = "kaiz.command-center.session-store", havingValue = "jdbc")
+@Slf4j
+public class JdbcConversationSessionStore implements ConversationSessionStore {
+
+  private static final int PURGE_BATCH_SIZE = 1000;
+
+  /** The mutable part of a session, stored as jsonb. */
+  record Payload(
+      DraftType intentType, Draft partialDraft, OriginalInput originalInput, int questionCount) {}
+
+  private final SmartInputSessionRepository repository;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final Cache<UUID, ConversationSession> nearCache;
+
+  public JdbcConversationSessionStore(
+      SmartInputSessionRepository repository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${kaiz.command-center.session-near-cache.max-entries:1000}") long maxEntries,
+      @Value("${kaiz.command-center.session-near-cache.ttl:5m}") Duration ttl) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.nearCache = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+  }
+
+  @Override
+  public ConversationSession get(UUID sessionId) {
+    Instant now = Instant.now();
+    ConversationSession cached = nearCache.getIfPresent(sessionId);
+    if (cached != null) {
+      Optional<Long> version = repository.findLiveVersion(sessionId, now);
+      if (version.isEmpty()) {
+        nearCache.invalidate(sessionId);
+        return null;
+      }
+      if (version.get() == cached.version()) {
+        return cached.copy();
+      }
+    }
+
+    Optional<ConversationSession> loaded =
+        repository.findBySessionIdAndExpiresAtAfter(sessionId, now).map(this::toSession);
+    if (loaded.isEmpty()) {
+      nearCache.invalidate(sessionId);
+      return null;
+    }
+    nearCache.put(sessionId, loaded.get());
+    return loaded.get().copy();
+  }
+
+  @Override
+  public void put(UUID sessionId, ConversationSession session) {
+    String payload = serialize(session);
+    transactionTemplate.executeWithoutResult(
+        status ->
+            repository.upsert(
+                sessionId, session.userId(), payload, session.expiresAt(), Instant.now()));
+    // An overwrite may have bumped the version past 0; let the next read load it
+    nearCache.invalidate(sessionId);
+    session.version(0);
+  }
+
+  @Override
+  public void update(ConversationSession session) {
+    UUID sessionId = session.sessionId();
+    String payload = serialize(session);
+    Integer updated =
+        transactionTemplate.execute(
+            status ->
+                repository.compareAndSet(sessionId, session.version(), payload, Instant.now()));
+    if (updated == null || updated == 0) {
+      nearCache.invalidate(sessionId);
+      if (repository.findLiveVersion(sessionId, Instant.now()).isEmpty()) {
+        throw new IllegalStateException("Session not found or expired: " + sessionId);
+      }
+      throw new SessionConflictException(sessionId);
+    }
+    session.version(session.version() + 1);
+    nearCache.put(sessionId, session.copy());
+  }
+
+  @Override
+  public void remove(UUID sessionId) {
+    transactionTemplate.executeWithoutResult(status -> repository.deleteBySessionId(sessionId));
+    nearCache.invalidate(sessionId);
+  }
+
+  @Override
+  public int size() {
+    return (int) repository.countByExpiresAtAfter(Instant.now());
+  }
+
+  /** Purge expired sessions in bounded batches. */
+  @Scheduled(fixedDelayString = "${kaiz.command-center.session-purge-ms:900000}")
+  public void purgeExpired() {
+    int total = 0;
+    Integer deleted;
+    do {
+      deleted =
+          transactionTemplate.execute(
+              status -> repository.deleteExpired(Instant.now(), PURGE_BATCH_SIZE));
+      total += deleted != null ? deleted : 0;
+    } while (deleted != null && deleted == PURGE_BATCH_SIZE);
+    if (total > 0) {
+      log.info("Purged {} expired Smart Input sessions", total);
+    }
+  }
+
+  private String serialize(ConversationSession session) {
+    try {
+      return objectMapper.writeValueAsString(
+          new Payload(
+              session.intentType(),
+              session.partialDraft(),
+              session.originalInput(),
+              session.questionCount()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialise session " + session.sessionId(), e);
+    }
+  }
+
+  private ConversationSession toSession(SmartInputSessionEntry entry) {
+    Payload payload = objectMapper.convertValue(entry.getPayload(), Payload.class);
+    ConversationSession session =
+        new ConversationSession(
+            entry.getSessionId(),
+            entry.getUserId(),
+            payload.intentType(),
+            payload.partialDraft(),
+            payload.originalInput(),
+            payload.questionCount(),
+            entry.getExpiresAt());
+    session.version(entry.getVersion());
+    return session;
+  }
+}
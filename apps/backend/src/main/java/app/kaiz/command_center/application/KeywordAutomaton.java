@@ -0,0 +1,235 @@
+package app.kaiz.command_center.application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed set of lowercase ASCII keywords.
+ *
+ * <p>One left-to-right pass over the input reports every occurrence of every keyword, overlapping
+ * ones included, with one table lookup per character. ASCII letters match case-insensitively and
+ * nothing else is folded, the same as {@link java.util.regex.Pattern#CASE_INSENSITIVE} without
+ * {@code UNICODE_CASE}. The pass also records line terminators so callers can check whether two
+ * hits are on the same line.
+ */
+final class KeywordAutomaton {
+
+  private final String[] keywords;
+  private final Map<String, Integer> ids;
+  private final int[] symbolOf; // ASCII char -> alphabet symbol, -1 when no keyword uses it
+  private final int symbols;
+  private final int[] next; // state * symbols + symbol -> state, failure links folded in
+  private final int[][] outputs; // state -> ids of the keywords ending in that state
+
+  private KeywordAutomaton(
+      String[] keywords,
+      Map<String, Integer> ids,
+      int[] symbolOf,
+      int symbols,
+      int[] next,
+      int[][] outputs) {
+    this.keywords = keywords;
+    this.ids = ids;
+    this.symbolOf = symbolOf;
+    this.symbols = symbols;
+    this.next = next;
+    this.outputs = outputs;
+  }
+
+  /**
+   * Compile an automaton. Duplicates are ignored.
+   *
+   * @throws IllegalArgumentException if a keyword is empty or not lowercase ASCII
+   */
+  static KeywordAutomaton compile(Iterable<String> keywords) {
+    List<String> distinct = new ArrayList<>();
+    Map<String, Integer> ids = new HashMap<>();
+    int[] symbolOf = new int[128];
+    Arrays.fill(symbolOf, -1);
+    int symbols = 0;
+    for (String keyword : keywords) {
+      if (ids.containsKey(keyword)) {
+        continue;
+      }
+      if (keyword.isEmpty()) {
+        throw new IllegalArgumentException("Keywords must not be empty");
+      }
+      for (int i = 0; i < keyword.length(); i++) {
+        char c = keyword.charAt(i);
+        if (c >= 128 || (c >= 'A' && c <= 'Z')) {
+          throw new IllegalArgumentException("Keywords must be lowercase ASCII: " + keyword);
+        }
+        if (symbolOf[c] < 0) {
+          symbolOf[c] = symbols++;
+        }
+      }
+      ids.put(keyword, distinct.size());
+      distinct.add(keyword);
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      symbolOf[c] = symbolOf[Character.toLowerCase(c)];
+    }
+
+    // Trie
+    List<int[]> children = new ArrayList<>();
+    List<List<Integer>> ending = new ArrayList<>();
+    children.add(emptyNode(symbols));
+    ending.add(new ArrayList<>());
+    for (int id = 0; id < distinct.size(); id++) {
+      String keyword = distinct.get(id);
+      int state = 0;
+      for (int i = 0; i < keyword.length(); i++) {
+        int symbol = symbolOf[keyword.charAt(i)];
+        if (children.get(state)[symbol] < 0) {
+          children.get(state)[symbol] = children.size();
+          children.add(emptyNode(symbols));
+          ending.add(new ArrayList<>());
+        }
+        state = children.get(state)[symbol];
+      }
+      ending.get(state).add(id);
+    }
+
+    // Failure links, breadth first, folded into a full transition table
+    int states = children.size();
+    int[] fail = new int[states];
+    int[] next = new int[states * symbols];
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int symbol = 0; symbol < symbols; symbol++) {
+      int child = children.get(0)[symbol];
+      next[symbol] = Math.max(child, 0);
+      if (child > 0) {
+        queue.add(child);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      ending.get(state).addAll(ending.get(fail[state]));
+      for (int symbol = 0; symbol < symbols; symbol++) {
+        int child = children.get(state)[symbol];
+        int viaFailure = next[fail[state] * symbols + symbol];
+        if (child < 0) {
+          next[state * symbols + symbol] = viaFailure;
+        } else {
+          next[state * symbols + symbol] = child;
+          fail[child] = viaFailure;
+          queue.add(child);
+        }
+      }
+    }
+
+    int[][] outputs = new int[states][];
+    for (int state = 0; state < states; state++) {
+      outputs[state] = ending.get(state).stream().mapToInt(Integer::intValue).toArray();
+    }
+    return new KeywordAutomaton(
+        distinct.toArray(String[]::new), Map.copyOf(ids), symbolOf, symbols, next, outputs);
+  }
+
+  private static int[] emptyNode(int symbols) {
+    int[] node = new int[symbols];
+    Arrays.fill(node, -1);
+    return node;
+  }
+
+  /** Id of a keyword this automaton was compiled with. */
+  int id(String keyword) {
+    Integer id = ids.get(keyword);
+    if (id == null) {
+      throw new IllegalArgumentException("Unknown keyword: " + keyword);
+    }
+    return id;
+  }
+
+  int keywordCount() {
+    return keywords.length;
+  }
+
+  /** Find every keyword occurrence in the text in a single pass. */
+  Hits scan(CharSequence text) {
+    Hits hits = new Hits(text, keywords);
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (isLineTerminator(c)) {
+        hits.addLineBreak(i);
+      }
+      int symbol = c < 128 ? symbolOf[c] : -1;
+      // A character no keyword contains can only restart the match
+      state = symbol < 0 ? 0 : next[state * symbols + symbol];
+      for (int id : outputs[state]) {
+        hits.add(id, i + 1 - keywords[id].length());
+      }
+    }
+    return hits;
+  }
+
+  /** The characters {@code .} does not match in a regex without {@code DOTALL}. */
+  static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  /** Keyword occurrences in one input, by keyword id, each in order of start offset. */
+  static final class Hits {
+
+    private static final int[] NONE = new int[0];
+
+    private final CharSequence text;
+    private final String[] keywords;
+    private final int[][] starts;
+    private final int[] counts;
+    private int[] lineBreaks = NONE;
+    private int lineBreakCount;
+
+    private Hits(CharSequence text, String[] keywords) {
+      this.text = text;
+      this.keywords = keywords;
+      this.starts = new int[keywords.length][];
+      this.counts = new int[keywords.length];
+    }
+
+    private void add(int id, int start) {
+      int[] current = starts[id];
+      if (current == null) {
+        current = starts[id] = new int[4];
+      } else if (counts[id] == current.length) {
+        current = starts[id] = Arrays.copyOf(current, current.length * 2);
+      }
+      current[counts[id]++] = start;
+    }
+
+    private void addLineBreak(int offset) {
+      if (lineBreakCount == lineBreaks.length) {
+        lineBreaks = Arrays.copyOf(lineBreaks, Math.max(4, lineBreakCount * 2));
+      }
+      lineBreaks[lineBreakCount++] = offset;
+    }
+
+    CharSequence text() {
+      return text;
+    }
+
+    int count(int id) {
+      return counts[id];
+    }
+
+    int start(int id, int index) {
+      return starts[id][index];
+    }
+
+    int end(int id, int index) {
+      return starts[id][index] + keywords[id].length();
+    }
+
+    /** True when no line terminator lies in {@code [from, to)}. */
+    boolean sameLine(int from, int to) {
+      int index = Arrays.binarySearch(lineBreaks, 0, lineBreakCount, from);
+      int firstAtOrAfter = index >= 0 ? index : -index - 1;
+      return firstAtOrAfter == lineBreakCount || lineBreaks[firstAtOrAfter] >= to;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.application.LlmGateway.LlmCapacityException;
+import app.kaiz.command_center.application.LlmGateway.LlmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking concurrency limits for {@link LlmGateway}: one pool of permits per provider and one
+ * per pipeline mode.
+ *
+ * <p>Acquiring returns a future instead of parking the caller. Waiters are served in arrival order;
+ * a bulkhead with a full queue rejects immediately and a waiter that is not served within the
+ * queue timeout fails, so a slow provider turns into fast, visible errors rather than an unbounded
+ * pile of in-flight calls.
+ */
+final class LlmBulkhead {
+
+  /** Both permits held by one call; release exactly once. */
+  record Lease(Permits mode, Permits provider) {
+    void release() {
+      provider.release();
+      mode.release();
+    }
+  }
+
+  private final Map<String, Permits> providers = new ConcurrentHashMap<>();
+  private final Map<String, Permits> modes = new ConcurrentHashMap<>();
+  private final LlmGatewayProperties.Concurrency config;
+
+  LlmBulkhead(LlmGatewayProperties.Concurrency config) {
+    this.config = config;
+  }
+
+  /**
+   * Acquire a mode permit, then a provider permit. The narrower mode pool is taken first so a busy
+   * mode never holds provider capacity while it waits. Both waits share one queue timeout.
+   */
+  CompletableFuture<Lease> acquire(String provider, String mode) {
+    Permits modePermits = modePermits(mode);
+    Permits providerPermits = providerPermits(provider);
+    long deadline = System.nanoTime() + config.queueTimeout().toNanos();
+    return modePermits
+        .acquire(config.queueTimeout())
+        .thenCompose(
+            ignored ->
+                providerPermits
+                    .acquire(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())))
+                    .handle(
+                        (ok, error) -> {
+                          if (error != null) {
+                            modePermits.release();
+                            Throwable cause = LlmGateway.unwrap(error);
+                            throw cause instanceof RuntimeException re
+                                ? re
+                                : new LlmException(cause.getMessage(), cause);
+                          }
+                          return new Lease(modePermits, providerPermits);
+                        }));
+  }
+
+  /** Take a provider permit only if one is free right now (used for hedged requests). */
+  boolean tryAcquireProvider(String provider) {
+    return providerPermits(provider).tryAcquire();
+  }
+
+  void releaseProvider(String provider) {
+    providerPermits(provider).release();
+  }
+
+  /** Provider permits in use, across providers. */
+  int inFlight() {
+    return providers.values().stream().mapToInt(Permits::inUse).sum();
+  }
+
+  /** Callers waiting for a permit, across all bulkheads. */
+  int queued() {
+    return providers.values().stream().mapToInt(Permits::queued).sum()
+        + modes.values().stream().mapToInt(Permits::queued).sum();
+  }
+
+  private Permits providerPermits(String provider) {
+    return providers.computeIfAbsent(
+        provider, p -> new Permits("provider " + p, config.providerPermits(), config.maxQueue()));
+  }
+
+  private Permits modePermits(String mode) {
+    String key = mode != null ? mode : "DEFAULT";
+    return modes.computeIfAbsent(
+        key, m -> new Permits("mode " + m, config.permitsFor(mode), config.maxQueue()));
+  }
+
+  /** Counting semaphore whose waiters are futures rather than parked threads. */
+  static final class Permits {
+    private final String name;
+    private final int limit;
+    private final int maxQueue;
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+
+    Permits(String name, int limit, int maxQueue) {
+      this.name = name;
+      this.limit = limit;
+      this.maxQueue = maxQueue;
+      this.available = limit;
+    }
+
+    synchronized boolean tryAcquire() {
+      if (available > 0) {
+        available--;
+        return true;
+      }
+      return false;
+    }
+
+    CompletableFuture<Void> acquire(Duration timeout) {
+      CompletableFuture<Void> waiter;
+      synchronized (this) {
+        if (available > 0) {
+          available--;
+          return CompletableFuture.completedFuture(null);
+        }
+        if (waiters.size() >= maxQueue) {
+          return CompletableFuture.failedFuture(
+              new LlmCapacityException("LLM capacity exhausted for " + name + "; try again later"));
+        }
+        waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+      }
+      waiter.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      return waiter.exceptionallyCompose(
+          error -> {
+            synchronized (this) {
+              waiters.remove(waiter);
+            }
+            return CompletableFuture.failedFuture(
+                error instanceof TimeoutException
+                    ? new LlmCapacityException("Timed out waiting for LLM capacity (" + name + ")")
+                    : error);
+          });
+    }
+
+    /** Hand the permit to the oldest live waiter, or return it to the pool. */
+    void release() {
+      while (true) {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+          next = waiters.poll();
+          if (next == null) {
+            available = Math.min(limit, available + 1);
+            return;
+          }
+        }
+        // A waiter that already timed out refuses the permit; try the next one
+        if (next.complete(null)) {
+          return;
+        }
+      }
+    }
+
+    synchronized int inUse() {
+      return limit - available;
+    }
+
+    synchronized int queued() {
+      return waiters.size();
+    }
+  }
+}
@@ -1,49 +1,123 @@
 package app.kaiz.command_center.application;
 
+import app.kaiz.command_center.application.ChatModelProvider.PromptCacheUsage;
+import app.kaiz.shared.exception.ApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-import lombok.RequiredArgsConstructor;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.anthropic.AnthropicChatOptions;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.DefaultChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 /**
  * Gateway to the LLM layer. Wraps {@link ChatModelProvider} with:
  *
  * <ul>
- *   <li>Retry logic (3 attempts with exponential backoff)
+ *   <li>Non-blocking API ({@link #callAsync}) plus a blocking facade ({@link #call}) for
+ *       synchronous services
+ *   <li>Bulkheads: bounded concurrency per provider and per mode, with a bounded, deadline-limited
+ *       wait queue ({@link LlmBulkhead})
+ *   <li>Retries with jittered exponential backoff, scheduled rather than slept, within a per-call
+ *       deadline
+ *   <li>Optional hedged requests when an attempt outlives the mode's recent p95 latency
  *   <li>Circuit breaker (trips after 5 consecutive failures, resets after 60s)
- *   <li>Token usage tracking (input/output/total)
- *   <li>Latency metrics
+ *   <li>Micrometer metrics ({@link LlmMetrics}): latency histograms and token distributions per
+ *       model and mode, retries, hedges, plus circuit-breaker and bulkhead gauges
+ *   <li>Opt-in exact-match response cache ({@link LlmResponseCache}), per mode
+ *   <li>Per-user token ledger and daily budget ({@link TokenLedger}): calls made for a user are
+ *       checked against the user's remaining budget before they are sent, and their reported usage
+ *       is booked afterwards
  * </ul>
  *
- * <p>Bucket4j rate limiting is applied at the controller level, not here.
+ * <p>Provider requests are blocking HTTP calls, so each attempt runs on its own virtual thread;
+ * callers of {@link #callAsync} never block and waiting for capacity or a retry holds no thread.
+ * Bucket4j rate limiting is applied at the controller level, not here.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class LlmGateway {
 
-  private static final int MAX_RETRIES = 3;
-  private static final long INITIAL_BACKOFF_MS = 500;
   private static final int CIRCUIT_BREAKER_THRESHOLD = 5;
   private static final long CIRCUIT_BREAKER_RESET_MS = 60_000;
+  private static final int DEFAULT_MAX_TOKENS = 4096;
 
   private final ChatModelProvider chatModelProvider;
+  private final LlmResponseCache responseCache;
+  private final LlmGatewayProperties.Concurrency concurrency;
+  private final LlmGatewayProperties.Retry retry;
+  private final LlmGatewayProperties.Hedging hedging;
+  private final LlmBulkhead bulkhead;
+  private final TokenLedger tokenLedger;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Map<String, LatencyWindow> latencyByMode = new ConcurrentHashMap<>();
 
   // Circuit breaker state
   private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
   private volatile long circuitOpenedAt = 0;
 
-  // Metrics (simple in-memory counters — Phase 8 exposes via /admin API)
-  private final AtomicLong totalCalls = new AtomicLong(0);
-  private final AtomicLong totalFailures = new AtomicLong(0);
-  private final AtomicLong totalInputTokens = new AtomicLong(0);
-  private final AtomicLong totalOutputTokens = new AtomicLong(0);
-  private final AtomicLong totalLatencyMs = new AtomicLong(0);
+  // Metrics live in Micrometer; the admin snapshot is read back from the meters
+  private final LlmMetrics metrics;
+  private volatile LlmMetrics.Totals metricsBaseline = LlmMetrics.Totals.ZERO;
+
+  public LlmGateway(
+      ChatModelProvider chatModelProvider,
+      LlmResponseCache responseCache,
+      LlmGatewayProperties properties,
+      LlmMetrics metrics,
+      TokenLedger tokenLedger) {
+    this.chatModelProvider = chatModelProvider;
+    this.responseCache = responseCache;
+    this.concurrency = properties.concurrency();
+    this.retry = properties.retry();
+    this.hedging = properties.hedging();
+    this.bulkhead = new LlmBulkhead(concurrency);
+    this.metrics = metrics;
+    this.tokenLedger = tokenLedger;
+
+    MeterRegistry registry = metrics.registry();
+    Gauge.builder("kaiz.llm.circuit.open", this, g -> g.isCircuitOpen() ? 1 : 0)
+        .description("1 while the LLM circuit breaker is open")
+        .register(registry);
+    Gauge.builder("kaiz.llm.circuit.consecutive.failures", consecutiveFailures, AtomicInteger::get)
+        .description("Consecutive failed LLM calls")
+        .register(registry);
+    Gauge.builder("kaiz.llm.inflight", bulkhead, LlmBulkhead::inFlight)
+        .description("LLM calls holding a provider permit")
+        .register(registry);
+    Gauge.builder("kaiz.llm.queued", bulkhead, LlmBulkhead::queued)
+        .description("LLM calls waiting for a permit")
+        .register(registry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
 
   /**
    * Call the LLM with retry and circuit breaker protection.
@@ -54,111 +128,509 @@ public class LlmGateway {
    * @throws LlmException if all retries are exhausted or circuit is open
    */
   public String call(Message systemMessage, Message userMessage) {
-    checkCircuitBreaker();
+    return call(systemMessage, userMessage, null);
+  }
+
+  /**
+   * Call the LLM for a pipeline mode. Identical requests in a mode with a configured cache TTL are
+   * served from {@link LlmResponseCache} without contacting the provider.
+   *
+   * @param mode pipeline mode used to pick the cache TTL and concurrency limit; null uses the
+   *     default limit and bypasses the cache
+   */
+  public String call(Message systemMessage, Message userMessage, String mode) {
+    return call(null, List.of(systemMessage), userMessage, mode);
+  }
+
+  /** Call the LLM for a pipeline mode on behalf of a user, within the user's token budget. */
+  public String call(UUID userId, Message systemMessage, Message userMessage, String mode) {
+    return call(userId, List.of(systemMessage), userMessage, mode);
+  }
+
+  /** Blocking call not made on behalf of a user; see {@link #call(UUID, List, Message, String)}. */
+  public String call(List<Message> systemMessages, Message userMessage, String mode) {
+    return call(null, systemMessages, userMessage, mode);
+  }
 
-    totalCalls.incrementAndGet();
+  /**
+   * Blocking facade over {@link #callAsync(UUID, List, Message, String)} for synchronous services.
+   *
+   * @throws LlmException if the call is rejected, times out, or all retries fail
+   * @throws LlmBudgetExceededException if the user's daily token budget cannot cover the call
+   */
+  public String call(
+      UUID userId, List<Message> systemMessages, Message userMessage, String mode) {
+    try {
+      return callAsync(userId, systemMessages, userMessage, mode).join();
+    } catch (CompletionException e) {
+      Throwable cause = unwrap(e);
+      throw cause instanceof LlmException le ? le : new LlmException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Call the LLM with a layered system prompt without blocking the caller. The first system
+   * message is the stable prefix (see {@link ChatModelProvider#buildPrompt}); the list may be empty
+   * for user-only prompts.
+   *
+   * @param systemMessages static block first, then volatile context
+   * @param mode pipeline mode used to pick the cache TTL and concurrency limit; null uses the
+   *     default limit and bypasses the response cache
+   * @return the response text, or a future failed with {@link LlmException}
+   */
+  public CompletableFuture<String> callAsync(
+      List<Message> systemMessages, Message userMessage, String mode) {
+    return callAsync(null, systemMessages, userMessage, mode);
+  }
+
+  /**
+   * As {@link #callAsync(List, Message, String)}, on behalf of a user. Before anything is sent the
+   * prompt size is estimated locally and checked against the user's remaining daily budget: the
+   * call is rejected with {@link LlmBudgetExceededException}, or its output is capped, when the
+   * budget cannot cover it in full. Usage is booked to the user in {@link TokenLedger}.
+   *
+   * @param userId the user the call is made for; null skips the budget check and books the usage
+   *     as unattributed
+   */
+  public CompletableFuture<String> callAsync(
+      UUID userId, List<Message> systemMessages, Message userMessage, String mode) {
     String modelName = chatModelProvider.getModelName();
-    log.info("LLM call: model={}", modelName);
+    Optional<LlmResponseCache.Key> cacheKey =
+        hasMedia(userMessage)
+            ? Optional.empty()
+            : responseCache.keyFor(
+                mode,
+                modelName,
+                defaultTemperature(),
+                systemMessages.stream().map(Message::getText).collect(Collectors.joining("\n")),
+                userMessage.getText());
+    if (cacheKey.isPresent()) {
+      Optional<LlmResponseCache.CachedResponse> cached = responseCache.get(cacheKey.get());
+      if (cached.isPresent()) {
+        metrics.recordResponseCacheHit(
+            modelName, mode, cached.get().inputTokens(), cached.get().outputTokens());
+        log.info("LLM cache hit: model={}, mode={}", modelName, mode);
+        return CompletableFuture.completedFuture(cached.get().text());
+      }
+      metrics.recordResponseCacheMiss(modelName, mode);
+    }
+
+    try {
+      checkCircuitBreaker();
+    } catch (LlmException e) {
+      return CompletableFuture.failedFuture(e);
+    }
 
-    Exception lastException = null;
-    for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-      long startTime = System.currentTimeMillis();
+    Prompt built = chatModelProvider.buildPrompt(systemMessages, userMessage);
+    Prompt prompt = built;
+    if (userId != null) {
       try {
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
-        ChatResponse response = chatModelProvider.getChatModel().call(prompt);
-
-        long elapsed = System.currentTimeMillis() - startTime;
-        totalLatencyMs.addAndGet(elapsed);
-
-        // Track token usage
-        if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
-          var usage = response.getMetadata().getUsage();
-          totalInputTokens.addAndGet(usage.getPromptTokens());
-          totalOutputTokens.addAndGet(usage.getCompletionTokens());
-          log.info(
-              "LLM response: model={}, inputTokens={}, outputTokens={}, elapsed={}ms",
-              modelName,
-              usage.getPromptTokens(),
-              usage.getCompletionTokens(),
-              elapsed);
-        } else {
-          log.info(
-              "LLM response: model={}, elapsed={}ms (no token usage metadata)", modelName, elapsed);
-        }
-
-        // Reset circuit breaker on success
-        consecutiveFailures.set(0);
-
-        String text =
-            response.getResult() != null && response.getResult().getOutput() != null
-                ? response.getResult().getOutput().getText()
-                : "";
-        return text;
-
-      } catch (Exception e) {
-        lastException = e;
-        long elapsed = System.currentTimeMillis() - startTime;
-        log.warn(
-            "LLM call failed: model={}, attempt={}/{}, elapsed={}ms, error={}",
+        prompt = withinBudget(userId, built, mode);
+      } catch (LlmBudgetExceededException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+    // The key has no output cap in it, so a downgraded answer must not be served to the next caller
+    Optional<LlmResponseCache.Key> storeKey = prompt == built ? cacheKey : Optional.empty();
+
+    log.info("LLM call: model={}, mode={}", modelName, mode);
+    long startNanos = System.nanoTime();
+
+    Invocation invocation =
+        new Invocation(
+            chatModelProvider.getProviderName(),
             modelName,
-            attempt,
-            MAX_RETRIES,
-            elapsed,
-            e.getMessage());
-
-        if (attempt < MAX_RETRIES) {
-          long backoff = INITIAL_BACKOFF_MS * (1L << (attempt - 1)); // Exponential backoff
-          try {
-            Thread.sleep(backoff);
-          } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new LlmException("LLM call interrupted", ie);
-          }
-        }
+            mode,
+            userId,
+            prompt,
+            startNanos + retry.deadline().toNanos());
+
+    return bulkhead
+        .acquire(invocation.provider(), mode)
+        .exceptionallyCompose(
+            error -> {
+              log.warn("LLM call rejected: mode={}, reason={}", mode, unwrap(error).getMessage());
+              return CompletableFuture.failedFuture(unwrap(error));
+            })
+        .thenComposeAsync(
+            lease -> {
+              CompletableFuture<ChatResponse> result = new CompletableFuture<>();
+              result.whenComplete((response, error) -> lease.release());
+              attempt(invocation, 1, result);
+              return result;
+            },
+            executor)
+        .handle(
+            (response, error) -> {
+              long elapsed = System.nanoTime() - startNanos;
+              if (error != null) {
+                Throwable cause = unwrap(error);
+                metrics.recordCall(
+                    modelName,
+                    mode,
+                    cause instanceof LlmCapacityException ? "rejected" : "failure",
+                    elapsed);
+                throw recordFailure(invocation, cause);
+              }
+              metrics.recordCall(modelName, mode, "success", elapsed);
+              String text = recordSuccess(invocation, response);
+              if (storeKey.isPresent()) {
+                responseCache.put(
+                    storeKey.get(), text, promptTokens(response), completionTokens(response));
+              }
+              return text;
+            });
+  }
+
+  /** One logical call: the prompt plus what is needed to route, retry and report it. */
+  private record Invocation(
+      String provider,
+      String modelName,
+      String mode,
+      UUID userId,
+      Prompt prompt,
+      long deadlineNanos) {}
+
+  /**
+   * Pre-flight budget check; returns the prompt to send, which is the same instance unless it was
+   * downgraded to an output cap.
+   */
+  private Prompt withinBudget(UUID userId, Prompt prompt, String mode) {
+    int maxCompletion = maxTokens(chatModelProvider.getChatModel());
+    TokenLedger.Preflight preflight = tokenLedger.preflight(userId, prompt, maxCompletion);
+    switch (preflight.decision()) {
+      case REJECT -> {
+        log.info(
+            "LLM call rejected by token budget: userId={}, mode={}, remaining={}",
+            userId,
+            mode,
+            preflight.remainingTokens());
+        metrics.recordCall(chatModelProvider.getModelName(), mode, "over_budget", 0);
+        throw new LlmBudgetExceededException();
       }
+      case DOWNGRADE -> {
+        log.info(
+            "LLM call downgraded by token budget: userId={}, mode={}, maxTokens {} -> {}",
+            userId,
+            mode,
+            maxCompletion,
+            preflight.maxCompletionTokens());
+        return withMaxTokens(prompt, preflight.maxCompletionTokens());
+      }
+      default -> {
+        return prompt;
+      }
+    }
+  }
+
+  /** Run one attempt; on failure schedule the next one after a jittered backoff. */
+  private void attempt(Invocation invocation, int attempt, CompletableFuture<ChatResponse> result) {
+    hedged(invocation)
+        .whenComplete(
+            (response, error) -> {
+              if (error == null) {
+                result.complete(response);
+                return;
+              }
+              Throwable cause = unwrap(error);
+              Duration backoff = backoff(attempt);
+              boolean retryable =
+                  attempt < retry.maxAttempts()
+                      && System.nanoTime() + backoff.toNanos() < invocation.deadlineNanos();
+              log.warn(
+                  "LLM call failed: model={}, mode={}, attempt={}/{}, error={}",
+                  invocation.modelName(),
+                  invocation.mode(),
+                  attempt,
+                  retry.maxAttempts(),
+                  cause.toString());
+              if (!retryable) {
+                result.completeExceptionally(cause);
+                return;
+              }
+              metrics.recordRetry(invocation.modelName(), invocation.mode());
+              CompletableFuture.delayedExecutor(
+                      backoff.toMillis(), TimeUnit.MILLISECONDS, executor)
+                  .execute(() -> attempt(invocation, attempt + 1, result));
+            });
+  }
+
+  /**
+   * Send the request and, if hedging is on and the mode has enough history, send a duplicate once
+   * the first has been running for longer than the mode's latency percentile. The first success
+   * wins and the other request is interrupted; the attempt fails only when every request failed.
+   * A hedge needs a free provider permit and is skipped otherwise.
+   */
+  private CompletableFuture<ChatResponse> hedged(Invocation invocation) {
+    CompletableFuture<ChatResponse> winner = new CompletableFuture<>();
+    AtomicInteger outstanding = new AtomicInteger(1);
+    send(invocation, winner, outstanding);
+
+    Optional<Duration> hedgeAfter = hedgeDelay(invocation.mode());
+    if (hedgeAfter.isPresent()) {
+      CompletableFuture.delayedExecutor(
+              hedgeAfter.get().toMillis(), TimeUnit.MILLISECONDS, executor)
+          .execute(
+              () -> {
+                if (winner.isDone() || !bulkhead.tryAcquireProvider(invocation.provider())) {
+                  return;
+                }
+                outstanding.incrementAndGet();
+                metrics.recordHedge(invocation.modelName(), invocation.mode());
+                log.info(
+                    "LLM hedge: model={}, mode={}, after={}ms",
+                    invocation.modelName(),
+                    invocation.mode(),
+                    hedgeAfter.get().toMillis());
+                send(invocation, winner, outstanding)
+                    .whenComplete((r, e) -> bulkhead.releaseProvider(invocation.provider()));
+              });
     }
+    return winner;
+  }
+
+  /** One provider request on a virtual thread, bounded by the attempt timeout. */
+  private CompletableFuture<ChatResponse> send(
+      Invocation invocation, CompletableFuture<ChatResponse> winner, AtomicInteger outstanding) {
+    long startNanos = System.nanoTime();
+    CompletableFuture<ChatResponse> request = new CompletableFuture<>();
+    Future<?> task =
+        executor.submit(
+            () -> {
+              try {
+                request.complete(chatModelProvider.getChatModel().call(invocation.prompt()));
+              } catch (Throwable t) {
+                request.completeExceptionally(t);
+              }
+            });
+    request.orTimeout(concurrency.attemptTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    // Interrupt the request once it has timed out or another request already won
+    request.whenComplete((r, e) -> task.cancel(true));
+    winner.whenComplete((r, e) -> request.cancel(false));
+
+    request.whenComplete(
+        (response, error) -> {
+          long elapsed = System.nanoTime() - startNanos;
+          metrics.recordRequest(
+              invocation.modelName(),
+              invocation.mode(),
+              error == null
+                  ? "success"
+                  : error instanceof TimeoutException ? "timeout" : "error",
+              elapsed);
+          if (error == null) {
+            latency(invocation.mode()).record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            winner.complete(response);
+          } else if (outstanding.decrementAndGet() == 0) {
+            winner.completeExceptionally(
+                error instanceof TimeoutException ? attemptTimedOut() : error);
+          }
+        });
+    return request;
+  }
+
+  private LlmException attemptTimedOut() {
+    return new LlmException(
+        "LLM request timed out after " + concurrency.attemptTimeout().toSeconds() + "s");
+  }
 
-    // All retries exhausted
-    totalFailures.incrementAndGet();
-    int failures = consecutiveFailures.incrementAndGet();
-    if (failures >= CIRCUIT_BREAKER_THRESHOLD) {
-      circuitOpenedAt = System.currentTimeMillis();
-      log.error(
-          "Circuit breaker OPENED after {} consecutive failures. Will reset in {}s",
-          failures,
-          CIRCUIT_BREAKER_RESET_MS / 1000);
+  private String recordSuccess(Invocation invocation, ChatResponse response) {
+    if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
+      var usage = response.getMetadata().getUsage();
+      PromptCacheUsage promptCache = ChatModelProvider.promptCacheUsage(response);
+      tokenLedger.record(
+          invocation.userId(),
+          invocation.mode(),
+          invocation.modelName(),
+          usage.getPromptTokens() != null ? usage.getPromptTokens() : 0,
+          usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+      metrics.recordTokens(
+          invocation.modelName(),
+          invocation.mode(),
+          usage.getPromptTokens(),
+          usage.getCompletionTokens(),
+          promptCache.cacheReadTokens(),
+          promptCache.cacheWriteTokens());
+      log.info(
+          "LLM response: model={}, mode={}, inputTokens={}, cachedInputTokens={},"
+              + " outputTokens={}",
+          invocation.modelName(),
+          invocation.mode(),
+          usage.getPromptTokens(),
+          promptCache.cacheReadTokens(),
+          usage.getCompletionTokens());
+    } else {
+      log.info(
+          "LLM response: model={}, mode={} (no token usage metadata)",
+          invocation.modelName(),
+          invocation.mode());
     }
 
-    throw new LlmException("LLM call failed after " + MAX_RETRIES + " attempts", lastException);
+    // Reset circuit breaker on success
+    consecutiveFailures.set(0);
+
+    return response.getResult() != null && response.getResult().getOutput() != null
+        ? response.getResult().getOutput().getText()
+        : "";
   }
 
-  /** Get current gateway metrics (for admin dashboard). */
+  private LlmException recordFailure(Invocation invocation, Throwable cause) {
+    // Capacity rejections say nothing about provider health
+    if (!(cause instanceof LlmCapacityException)) {
+      int failures = consecutiveFailures.incrementAndGet();
+      if (failures >= CIRCUIT_BREAKER_THRESHOLD) {
+        circuitOpenedAt = System.currentTimeMillis();
+        log.error(
+            "Circuit breaker OPENED after {} consecutive failures. Will reset in {}s",
+            failures,
+            CIRCUIT_BREAKER_RESET_MS / 1000);
+      }
+    }
+    return cause instanceof LlmException le
+        ? le
+        : new LlmException(
+            "LLM call failed after " + retry.maxAttempts() + " attempts (mode "
+                + invocation.mode() + ")",
+            cause);
+  }
+
+  /**
+   * Get current gateway metrics (for admin dashboard). Totals are read back from the Micrometer
+   * meters and are relative to the last {@link #resetMetrics()}.
+   */
   public GatewayMetrics getMetrics() {
+    LlmMetrics.Totals totals = metrics.totals().minus(metricsBaseline);
     return new GatewayMetrics(
-        totalCalls.get(),
-        totalFailures.get(),
-        totalInputTokens.get(),
-        totalOutputTokens.get(),
-        totalLatencyMs.get(),
+        totals.calls(),
+        totals.failures(),
+        totals.inputTokens(),
+        totals.outputTokens(),
+        totals.successLatencyMs(),
+        totals.successfulCalls(),
         consecutiveFailures.get(),
-        circuitOpenedAt > 0
-            && (System.currentTimeMillis() - circuitOpenedAt) < CIRCUIT_BREAKER_RESET_MS);
+        isCircuitOpen(),
+        totals.cacheHits(),
+        totals.cacheMisses(),
+        totals.savedInputTokens(),
+        totals.savedOutputTokens(),
+        totals.cacheReadTokens(),
+        totals.cacheWriteTokens(),
+        totals.retries(),
+        totals.hedges(),
+        totals.rejected(),
+        bulkhead.inFlight(),
+        bulkhead.queued());
   }
 
-  /** Reset metrics (for testing or admin reset). */
+  /**
+   * Reset the admin snapshot and the circuit breaker. Micrometer meters are cumulative and keep
+   * counting; the snapshot is re-based on their current values instead.
+   */
   public void resetMetrics() {
-    totalCalls.set(0);
-    totalFailures.set(0);
-    totalInputTokens.set(0);
-    totalOutputTokens.set(0);
-    totalLatencyMs.set(0);
+    metricsBaseline = metrics.totals();
     consecutiveFailures.set(0);
     circuitOpenedAt = 0;
     log.info("LLM gateway metrics reset");
   }
 
+  private boolean isCircuitOpen() {
+    return circuitOpenedAt > 0
+        && (System.currentTimeMillis() - circuitOpenedAt) < CIRCUIT_BREAKER_RESET_MS;
+  }
+
   // ── Internal ──
 
+  /** Strip the {@link CompletionException} wrappers added by future composition. */
+  static Throwable unwrap(Throwable error) {
+    Throwable current = error;
+    while (current instanceof CompletionException && current.getCause() != null) {
+      current = current.getCause();
+    }
+    return current;
+  }
+
+  /** Full jitter over the upper half of an exponentially growing, capped ceiling. */
+  private Duration backoff(int attempt) {
+    long ceiling =
+        Math.min(
+            retry.maxBackoff().toMillis(),
+            retry.initialBackoff().toMillis() << Math.min(attempt - 1, 20));
+    return Duration.ofMillis(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+  }
+
+  private Optional<Duration> hedgeDelay(String mode) {
+    if (!hedging.enabled()) {
+      return Optional.empty();
+    }
+    return latency(mode)
+        .percentile(hedging.percentile(), hedging.minSamples())
+        .map(ms -> Duration.ofMillis(Math.max(ms, hedging.minDelay().toMillis())));
+  }
+
+  private LatencyWindow latency(String mode) {
+    return latencyByMode.computeIfAbsent(mode != null ? mode : "DEFAULT", m -> new LatencyWindow());
+  }
+
+  private static boolean hasMedia(Message message) {
+    return message instanceof UserMessage user && !user.getMedia().isEmpty();
+  }
+
+  private static long promptTokens(ChatResponse response) {
+    return response.getMetadata() != null && response.getMetadata().getUsage() != null
+        ? response.getMetadata().getUsage().getPromptTokens()
+        : 0;
+  }
+
+  private static long completionTokens(ChatResponse response) {
+    return response.getMetadata() != null && response.getMetadata().getUsage() != null
+        ? response.getMetadata().getUsage().getCompletionTokens()
+        : 0;
+  }
+
+  /** The output cap a call runs with when its prompt sets none. */
+  static int maxTokens(ChatModel model) {
+    ChatOptions options = model.getDefaultOptions();
+    return options != null && options.getMaxTokens() != null
+        ? options.getMaxTokens()
+        : DEFAULT_MAX_TOKENS;
+  }
+
+  /** The same prompt and options, with only the output cap replaced. */
+  static Prompt withMaxTokens(Prompt prompt, int maxTokens) {
+    ChatOptions original = prompt.getOptions();
+    ChatOptions options;
+    if (original instanceof AnthropicChatOptions anthropic) {
+      AnthropicChatOptions copy = anthropic.copy();
+      copy.setMaxTokens(maxTokens);
+      options = copy;
+    } else if (original instanceof DefaultChatOptions defaults) {
+      DefaultChatOptions copy = defaults.copy();
+      copy.setMaxTokens(maxTokens);
+      options = copy;
+    } else if (original != null) {
+      // Unknown options type: keep the portable settings
+      options =
+          ChatOptions.builder()
+              .model(original.getModel())
+              .frequencyPenalty(original.getFrequencyPenalty())
+              .presencePenalty(original.getPresencePenalty())
+              .stopSequences(original.getStopSequences())
+              .temperature(original.getTemperature())
+              .topK(original.getTopK())
+              .topP(original.getTopP())
+              .maxTokens(maxTokens)
+              .build();
+    } else {
+      options = ChatOptions.builder().maxTokens(maxTokens).build();
+    }
+    return new Prompt(prompt.getInstructions(), options);
+  }
+
+  private Double defaultTemperature() {
+    ChatOptions options = chatModelProvider.getChatModel().getDefaultOptions();
+    return options != null ? options.getTemperature() : null;
+  }
+
   private void checkCircuitBreaker() {
     if (circuitOpenedAt > 0) {
       long elapsed = System.currentTimeMillis() - circuitOpenedAt;
@@ -176,6 +648,29 @@ public class LlmGateway {
     }
   }
 
+  /** Latencies of the most recent successful requests of one mode. */
+  private static final class LatencyWindow {
+    private static final int SIZE = 256;
+    private final long[] samples = new long[SIZE];
+    private int count;
+    private int next;
+
+    synchronized void record(long millis) {
+      samples[next] = millis;
+      next = (next + 1) % SIZE;
+      count = Math.min(count + 1, SIZE);
+    }
+
+    synchronized Optional<Long> percentile(double p, int minSamples) {
+      if (count < Math.min(minSamples, SIZE)) {
+        return Optional.empty();
+      }
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      return Optional.of(sorted[(int) Math.min(count - 1, Math.ceil(p * count) - 1)]);
+    }
+  }
+
   /** Gateway metrics snapshot. */
   public record GatewayMetrics(
       long totalCalls,
@@ -183,16 +678,40 @@ public class LlmGateway {
       long totalInputTokens,
       long totalOutputTokens,
       long totalLatencyMs,
+      long successfulCalls,
       int consecutiveFailures,
-      boolean circuitOpen) {
+      boolean circuitOpen,
+      long cacheHits,
+      long cacheMisses,
+      long savedInputTokens,
+      long savedOutputTokens,
+      long cachedInputTokens,
+      long cacheWriteInputTokens,
+      long retries,
+      long hedgedRequests,
+      long rejectedCalls,
+      int inFlight,
+      int queued) {
+
+    /** Share of prompt tokens served from the provider's prompt cache. */
+    public double promptCacheRate() {
+      long prompt = totalInputTokens + cachedInputTokens + cacheWriteInputTokens;
+      return prompt > 0 ? (double) cachedInputTokens / prompt : 0;
+    }
 
+    /** Mean end-to-end latency of successful calls; use the histograms for percentiles. */
     public double avgLatencyMs() {
-      return totalCalls > 0 ? (double) totalLatencyMs / totalCalls : 0;
+      return successfulCalls > 0 ? (double) totalLatencyMs / successfulCalls : 0;
     }
 
     public double failureRate() {
       return totalCalls > 0 ? (double) totalFailures / totalCalls : 0;
     }
+
+    public double cacheHitRate() {
+      long lookups = cacheHits + cacheMisses;
+      return lookups > 0 ? (double) cacheHits / lookups : 0;
+    }
   }
 
   /** Unchecked exception for LLM failures. */
@@ -205,4 +724,24 @@ public class LlmGateway {
       super(message, cause);
     }
   }
+
+  /** The call was refused because the gateway had no capacity for it within the queue timeout. */
+  public static class LlmCapacityException extends LlmException {
+    public LlmCapacityException(String message) {
+      super(message);
+    }
+  }
+
+  /** The call was refused before it was sent because the user's daily token budget is spent. */
+  public static class LlmBudgetExceededException extends LlmException {
+    public LlmBudgetExceededException() {
+      super("Daily AI usage limit reached; it resets at midnight UTC");
+    }
+
+    /** The 429 a request handler answers with when it cannot fall back without the model. */
+    public ApiException toApiException() {
+      return new ApiException(
+          HttpStatus.TOO_MANY_REQUESTS, "AI_BUDGET_EXCEEDED", getMessage(), this);
+    }
+  }
 }
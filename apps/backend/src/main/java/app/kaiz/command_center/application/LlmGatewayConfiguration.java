@@ -0,0 +1,13 @@
+package app.kaiz.command_center.application;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Binds the LLM gateway, conversation history and token budget properties. */
+@Configuration
+@EnableConfigurationProperties({
+  LlmGatewayProperties.class,
+  ConversationHistoryProperties.class,
+  TokenBudgetProperties.class
+})
+public class LlmGatewayConfiguration {}
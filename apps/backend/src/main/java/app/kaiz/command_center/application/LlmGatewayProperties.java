@@ -0,0 +1,158 @@
+package app.kaiz.command_center.application;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Tuning for {@link LlmGateway}, bound from {@code kaiz.ai.gateway}. */
+@ConfigurationProperties(prefix = "kaiz.ai.gateway")
+public record LlmGatewayProperties(
+    ResponseCache responseCache,
+    Concurrency concurrency,
+    Retry retry,
+    Hedging hedging,
+    Streaming streaming) {
+
+  public LlmGatewayProperties {
+    if (responseCache == null) {
+      responseCache = new ResponseCache(false, 1000, Duration.ZERO, Map.of(), false);
+    }
+    if (concurrency == null) {
+      concurrency = new Concurrency(0, 0, Map.of(), 0, null, null);
+    }
+    if (retry == null) {
+      retry = new Retry(0, null, null, null);
+    }
+    if (hedging == null) {
+      hedging = new Hedging(false, 0, 0, null);
+    }
+    if (streaming == null) {
+      streaming = new Streaming(0, null, 0, null);
+    }
+  }
+
+  /**
+   * Bulkheads around provider calls. A call holds one mode permit and one provider permit for its
+   * whole retry sequence; callers that cannot get both within {@code queueTimeout} fail fast
+   * instead of piling up behind a slow provider.
+   *
+   * @param providerPermits concurrent calls per provider
+   * @param defaultModePermits concurrent calls for modes not listed in {@code modePermits}
+   * @param modePermits per-mode limits, keyed by mode name
+   * @param maxQueue callers allowed to wait per bulkhead; beyond that calls are rejected
+   * @param queueTimeout longest wait for a permit
+   * @param attemptTimeout longest single provider request
+   */
+  public record Concurrency(
+      int providerPermits,
+      int defaultModePermits,
+      Map<String, Integer> modePermits,
+      int maxQueue,
+      Duration queueTimeout,
+      Duration attemptTimeout) {
+
+    public Concurrency {
+      providerPermits = providerPermits > 0 ? providerPermits : 16;
+      defaultModePermits = defaultModePermits > 0 ? defaultModePermits : 8;
+      modePermits = modePermits != null ? Map.copyOf(modePermits) : Map.of();
+      maxQueue = maxQueue >= 0 ? maxQueue : 0;
+      queueTimeout = queueTimeout != null ? queueTimeout : Duration.ofSeconds(5);
+      attemptTimeout = attemptTimeout != null ? attemptTimeout : Duration.ofSeconds(60);
+    }
+
+    public int permitsFor(String mode) {
+      return mode != null ? modePermits.getOrDefault(mode, defaultModePermits) : defaultModePermits;
+    }
+  }
+
+  /**
+   * Retries of failed provider requests, scheduled with jittered exponential backoff.
+   *
+   * @param maxAttempts attempts per call, including the first
+   * @param initialBackoff backoff ceiling after the first failure; doubles per attempt
+   * @param maxBackoff cap on the backoff ceiling
+   * @param deadline no retry is started later than this after the call was accepted
+   */
+  public record Retry(
+      int maxAttempts, Duration initialBackoff, Duration maxBackoff, Duration deadline) {
+
+    public Retry {
+      maxAttempts = maxAttempts > 0 ? maxAttempts : 3;
+      initialBackoff = initialBackoff != null ? initialBackoff : Duration.ofMillis(500);
+      maxBackoff = maxBackoff != null ? maxBackoff : Duration.ofSeconds(8);
+      deadline = deadline != null ? deadline : Duration.ofMinutes(2);
+    }
+  }
+
+  /**
+   * Hedged requests: when an attempt is still running after the mode's recent latency percentile,
+   * a second identical request is sent and the first response wins. Doubles spend on slow calls,
+   * so it is off by default.
+   *
+   * @param enabled master switch
+   * @param percentile latency percentile that triggers the hedge (e.g. 0.95)
+   * @param minSamples successful calls a mode needs before it is hedged
+   * @param minDelay lower bound on the hedge delay
+   */
+  public record Hedging(boolean enabled, double percentile, int minSamples, Duration minDelay) {
+
+    public Hedging {
+      percentile = percentile > 0 && percentile < 1 ? percentile : 0.95;
+      minSamples = minSamples > 0 ? minSamples : 50;
+      minDelay = minDelay != null ? minDelay : Duration.ofSeconds(2);
+    }
+  }
+
+  /**
+   * SSE streaming from {@link StreamingAIService}. Streams hold a connection for their whole
+   * lifetime, so they are capped separately from gateway calls; tokens are coalesced into frames
+   * that are flushed when either bound is reached.
+   *
+   * @param maxConcurrent open streams across the node; further requests get a 429
+   * @param timeout longest stream before the emitter times out and the upstream is cancelled
+   * @param frameMaxChunks provider chunks per SSE frame
+   * @param frameInterval longest a chunk waits before its frame is flushed
+   */
+  public record Streaming(
+      int maxConcurrent, Duration timeout, int frameMaxChunks, Duration frameInterval) {
+
+    public Streaming {
+      maxConcurrent = maxConcurrent > 0 ? maxConcurrent : 64;
+      timeout = timeout != null ? timeout : Duration.ofMinutes(2);
+      frameMaxChunks = frameMaxChunks > 0 ? frameMaxChunks : 16;
+      frameInterval = frameInterval != null ? frameInterval : Duration.ofMillis(50);
+    }
+  }
+
+  /**
+   * Exact-match response cache. Opt-in; a mode is cached only if it has a positive TTL (from
+   * {@code modeTtl}, else {@code defaultTtl}).
+   *
+   * @param enabled master switch
+   * @param maxEntries bound on the in-memory tier
+   * @param defaultTtl TTL for modes not listed in {@code modeTtl}
+   * @param modeTtl per-mode TTLs, keyed by mode name (e.g. CAPTURE, SPRINT_QUICK_ADD)
+   * @param persistent also keep entries in {@code llm_response_cache} so they survive restarts and
+   *     are shared across replicas
+   */
+  public record ResponseCache(
+      boolean enabled,
+      int maxEntries,
+      Duration defaultTtl,
+      Map<String, Duration> modeTtl,
+      boolean persistent) {
+
+    public ResponseCache {
+      defaultTtl = defaultTtl != null ? defaultTtl : Duration.ZERO;
+      modeTtl = modeTtl != null ? Map.copyOf(modeTtl) : Map.of();
+      maxEntries = maxEntries > 0 ? maxEntries : 1000;
+    }
+
+    public Duration ttlFor(String mode) {
+      if (!enabled || mode == null) {
+        return Duration.ZERO;
+      }
+      return modeTtl.getOrDefault(mode, defaultTtl);
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package app.kaiz.command_center.application;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters for LLM traffic. All meters are tagged by {@code model} and {@code mode} (the
+ * pipeline mode, {@code none} when the caller gave none), so p95/p99 can be alerted on per model
+ * and mode from Prometheus.
+ *
+ * <ul>
+ *   <li>{@code kaiz.llm.call}: end-to-end gateway call including queueing and retries, by {@code
+ *       outcome} (success, failure, rejected, over_budget)
+ *   <li>{@code kaiz.llm.request}: a single provider request, by {@code outcome} (success, error,
+ *       timeout)
+ *   <li>{@code kaiz.llm.tokens}: tokens per successful call, by {@code type} (input, output,
+ *       cache_read, cache_write)
+ *   <li>{@code kaiz.llm.retries}, {@code kaiz.llm.hedges}: extra attempts and hedged requests
+ *   <li>{@code kaiz.llm.response.cache}: response-cache lookups by {@code result}, and {@code
+ *       kaiz.llm.tokens.saved} by {@code type}
+ *   <li>{@code kaiz.llm.stream.first.token} and {@code kaiz.llm.stream}: streaming time to first
+ *       token and total stream duration, by {@code outcome} (success, failure, aborted)
+ *   <li>{@code kaiz.llm.stream.aborted}: streams cancelled before the provider finished, by {@code
+ *       reason}, and {@code kaiz.llm.stream.tokens.avoided}, the estimated output tokens that were
+ *       not generated because the upstream was cancelled
+ * </ul>
+ *
+ * <p>Circuit-breaker and bulkhead gauges are registered by {@link LlmGateway}.
+ */
+@Component
+public class LlmMetrics {
+
+  static final String CALL = "kaiz.llm.call";
+  static final String REQUEST = "kaiz.llm.request";
+  static final String TOKENS = "kaiz.llm.tokens";
+  static final String TOKENS_SAVED = "kaiz.llm.tokens.saved";
+  static final String RETRIES = "kaiz.llm.retries";
+  static final String HEDGES = "kaiz.llm.hedges";
+  static final String RESPONSE_CACHE = "kaiz.llm.response.cache";
+  static final String STREAM = "kaiz.llm.stream";
+  static final String STREAM_FIRST_TOKEN = "kaiz.llm.stream.first.token";
+  static final String STREAM_ABORTED = "kaiz.llm.stream.aborted";
+  static final String STREAM_TOKENS_AVOIDED = "kaiz.llm.stream.tokens.avoided";
+
+  private final MeterRegistry registry;
+
+  public LlmMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  MeterRegistry registry() {
+    return registry;
+  }
+
+  public void recordCall(String model, String mode, String outcome, long nanos) {
+    timer(CALL, "LLM gateway call, including queueing and retries", model, mode, outcome)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordRequest(String model, String mode, String outcome, long nanos) {
+    timer(REQUEST, "Single provider request", model, mode, outcome)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordTokens(
+      String model, String mode, long input, long output, long cacheRead, long cacheWrite) {
+    tokens(model, mode, "input").record(input);
+    tokens(model, mode, "output").record(output);
+    if (cacheRead > 0 || cacheWrite > 0) {
+      tokens(model, mode, "cache_read").record(cacheRead);
+      tokens(model, mode, "cache_write").record(cacheWrite);
+    }
+  }
+
+  public void recordRetry(String model, String mode) {
+    counter(RETRIES, "LLM attempts after the first", model, mode).increment();
+  }
+
+  public void recordHedge(String model, String mode) {
+    counter(HEDGES, "Hedged LLM requests", model, mode).increment();
+  }
+
+  public void recordResponseCacheHit(
+      String model, String mode, long savedInputTokens, long savedOutputTokens) {
+    responseCache(model, mode, "hit").increment();
+    savedTokens(model, mode, "input").increment(savedInputTokens);
+    savedTokens(model, mode, "output").increment(savedOutputTokens);
+  }
+
+  public void recordResponseCacheMiss(String model, String mode) {
+    responseCache(model, mode, "miss").increment();
+  }
+
+  public void recordTimeToFirstToken(String model, String mode, long nanos) {
+    Timer.builder(STREAM_FIRST_TOKEN)
+        .description("Time from starting a stream to its first token")
+        .tags("model", tag(model), "mode", tag(mode))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordStream(String model, String mode, String outcome, long nanos) {
+    timer(STREAM, "Streaming LLM response, start to last token", model, mode, outcome)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordStreamAborted(String model, String mode, String reason, long avoidedTokens) {
+    Counter.builder(STREAM_ABORTED)
+        .description("Streams cancelled before the provider finished")
+        .tags("model", tag(model), "mode", tag(mode), "reason", reason)
+        .register(registry)
+        .increment();
+    Counter.builder(STREAM_TOKENS_AVOIDED)
+        .description("Estimated output tokens not generated because a stream was cancelled")
+        .baseUnit("tokens")
+        .tags("model", tag(model), "mode", tag(mode))
+        .register(registry)
+        .increment(avoidedTokens);
+  }
+
+  /** Mean output tokens of successful calls for a model and mode, or 0 before the first one. */
+  public double meanOutputTokens(String model, String mode) {
+    DistributionSummary summary =
+        registry
+            .find(TOKENS)
+            .tags("model", tag(model), "mode", tag(mode), "type", "output")
+            .summary();
+    return summary != null ? summary.mean() : 0;
+  }
+
+  // ── Totals for the admin snapshot ──
+
+  /** Cumulative totals across all models and modes, read back from the meters. */
+  record Totals(
+      long calls,
+      long failures,
+      long rejected,
+      long successLatencyMs,
+      long successfulCalls,
+      long inputTokens,
+      long outputTokens,
+      long cacheReadTokens,
+      long cacheWriteTokens,
+      long cacheHits,
+      long cacheMisses,
+      long savedInputTokens,
+      long savedOutputTokens,
+      long retries,
+      long hedges) {
+
+    static final Totals ZERO = new Totals(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    Totals minus(Totals base) {
+      return new Totals(
+          calls - base.calls,
+          failures - base.failures,
+          rejected - base.rejected,
+          successLatencyMs - base.successLatencyMs,
+          successfulCalls - base.successfulCalls,
+          inputTokens - base.inputTokens,
+          outputTokens - base.outputTokens,
+          cacheReadTokens - base.cacheReadTokens,
+          cacheWriteTokens - base.cacheWriteTokens,
+          cacheHits - base.cacheHits,
+          cacheMisses - base.cacheMisses,
+          savedInputTokens - base.savedInputTokens,
+          savedOutputTokens - base.savedOutputTokens,
+          retries - base.retries,
+          hedges - base.hedges);
+    }
+  }
+
+  Totals totals() {
+    long success = timerCount(registry.find(CALL).tag("outcome", "success"));
+    long failure = timerCount(registry.find(CALL).tag("outcome", "failure"));
+    long rejected = timerCount(registry.find(CALL).tag("outcome", "rejected"));
+    long successMs =
+        (long)
+            registry.find(CALL).tag("outcome", "success").timers().stream()
+                .mapToDouble(t -> t.totalTime(TimeUnit.MILLISECONDS))
+                .sum();
+    return new Totals(
+        success + failure + rejected,
+        failure + rejected,
+        rejected,
+        successMs,
+        success,
+        tokenTotal(TOKENS, "input"),
+        tokenTotal(TOKENS, "output"),
+        tokenTotal(TOKENS, "cache_read"),
+        tokenTotal(TOKENS, "cache_write"),
+        counterTotal(registry.find(RESPONSE_CACHE).tag("result", "hit")),
+        counterTotal(registry.find(RESPONSE_CACHE).tag("result", "miss")),
+        counterTotal(registry.find(TOKENS_SAVED).tag("type", "input")),
+        counterTotal(registry.find(TOKENS_SAVED).tag("type", "output")),
+        counterTotal(registry.find(RETRIES)),
+        counterTotal(registry.find(HEDGES)));
+  }
+
+  private static long timerCount(Search search) {
+    return search.timers().stream().mapToLong(Timer::count).sum();
+  }
+
+  private static long counterTotal(Search search) {
+    return (long) search.counters().stream().mapToDouble(Counter::count).sum();
+  }
+
+  private long tokenTotal(String name, String type) {
+    return (long)
+        registry.find(name).tag("type", type).summaries().stream()
+            .mapToDouble(DistributionSummary::totalAmount)
+            .sum();
+  }
+
+  // ── Meter lookup (register is idempotent and returns the existing meter) ──
+
+  private Timer timer(String name, String description, String model, String mode, String outcome) {
+    return Timer.builder(name)
+        .description(description)
+        .tags("model", tag(model), "mode", tag(mode), "outcome", outcome)
+        .publishPercentileHistogram()
+        .maximumExpectedValue(Duration.ofMinutes(3))
+        .register(registry);
+  }
+
+  private DistributionSummary tokens(String model, String mode, String type) {
+    return DistributionSummary.builder(TOKENS)
+        .description("Tokens per successful LLM call")
+        .baseUnit("tokens")
+        .tags("model", tag(model), "mode", tag(mode), "type", type)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  private Counter counter(String name, String description, String model, String mode) {
+    return Counter.builder(name)
+        .description(description)
+        .tags("model", tag(model), "mode", tag(mode))
+        .register(registry);
+  }
+
+  private Counter responseCache(String model, String mode, String result) {
+    return Counter.builder(RESPONSE_CACHE)
+        .description("LLM response cache lookups")
+        .tags("model", tag(model), "mode", tag(mode), "result", result)
+        .register(registry);
+  }
+
+  private Counter savedTokens(String model, String mode, String type) {
+    return Counter.builder(TOKENS_SAVED)
+        .description("Tokens not spent because the response was cached")
+        .baseUnit("tokens")
+        .tags("model", tag(model), "mode", tag(mode), "type", type)
+        .register(registry);
+  }
+
+  private static String tag(String value) {
+    return value != null ? value : "none";
+  }
+}
@@ -0,0 +1,167 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.domain.LlmResponseCacheEntry;
+import app.kaiz.command_center.infrastructure.LlmResponseCacheRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Exact-match cache of LLM responses, keyed by a hash of model, temperature, system message and
+ * user message. Only modes with a positive TTL are cached, so nothing is cached unless configured.
+ *
+ * <p>The in-memory tier is a size-bounded Caffeine cache with per-entry expiry (the TTL depends on
+ * the mode). The optional persistent tier is read on a local miss and written through on store;
+ * failures there are logged and otherwise ignored, since the cache is only an optimisation.
+ */
+@Component
+@Slf4j
+public class LlmResponseCache {
+
+  /** A cached response and the tokens the original call consumed. */
+  public record CachedResponse(
+      String text, long inputTokens, long outputTokens, Instant expiresAt) {}
+
+  /** Cache key plus what is needed to store an entry under it. */
+  public record Key(String hash, String mode, String modelName, Duration ttl) {}
+
+  private final LlmGatewayProperties.ResponseCache config;
+  private final LlmResponseCacheRepository repository;
+  private final Cache<String, CachedResponse> local;
+
+  public LlmResponseCache(LlmGatewayProperties properties, LlmResponseCacheRepository repository) {
+    this.config = properties.responseCache();
+    this.repository = repository;
+    this.local =
+        Caffeine.newBuilder()
+            .maximumSize(config.maxEntries())
+            .expireAfter(
+                new Expiry<String, CachedResponse>() {
+                  @Override
+                  public long expireAfterCreate(String key, CachedResponse value, long now) {
+                    return Math.max(
+                        0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(
+                      String key, CachedResponse value, long now, long remaining) {
+                    return expireAfterCreate(key, value, now);
+                  }
+
+                  @Override
+                  public long expireAfterRead(
+                      String key, CachedResponse value, long now, long remaining) {
+                    return remaining;
+                  }
+                })
+            .build();
+  }
+
+  /** Key for this request, or empty if the mode is not cached. */
+  public Optional<Key> keyFor(
+      String mode, String modelName, Double temperature, String system, String user) {
+    Duration ttl = config.ttlFor(mode);
+    if (ttl.isZero() || ttl.isNegative()) {
+      return Optional.empty();
+    }
+    return Optional.of(new Key(hash(modelName, temperature, system, user), mode, modelName, ttl));
+  }
+
+  public Optional<CachedResponse> get(Key key) {
+    CachedResponse hit = local.getIfPresent(key.hash());
+    if (hit != null || !config.persistent()) {
+      return Optional.ofNullable(hit);
+    }
+    try {
+      Optional<CachedResponse> stored =
+          repository
+              .findByCacheKeyAndExpiresAtAfter(key.hash(), Instant.now())
+              .map(
+                  e ->
+                      new CachedResponse(
+                          e.getResponseText(),
+                          e.getInputTokens(),
+                          e.getOutputTokens(),
+                          e.getExpiresAt()));
+      stored.ifPresent(r -> local.put(key.hash(), r));
+      return stored;
+    } catch (DataAccessException e) {
+      log.warn("LLM response cache read failed: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  public void put(Key key, String text, long inputTokens, long outputTokens) {
+    if (text == null || text.isBlank()) {
+      return;
+    }
+    CachedResponse response =
+        new CachedResponse(text, inputTokens, outputTokens, Instant.now().plus(key.ttl()));
+    local.put(key.hash(), response);
+    if (!config.persistent()) {
+      return;
+    }
+    try {
+      repository.save(
+          LlmResponseCacheEntry.builder()
+              .cacheKey(key.hash())
+              .modelName(key.modelName())
+              .mode(key.mode())
+              .responseText(text)
+              .inputTokens(inputTokens)
+              .outputTokens(outputTokens)
+              .expiresAt(response.expiresAt())
+              .build());
+    } catch (DataAccessException e) {
+      log.warn("LLM response cache write failed: {}", e.getMessage());
+    }
+  }
+
+  public long size() {
+    return local.estimatedSize();
+  }
+
+  public void invalidateAll() {
+    local.invalidateAll();
+  }
+
+  /** Drop expired persistent entries. */
+  @Scheduled(cron = "0 45 * * * *", zone = "UTC")
+  @Transactional
+  public void purgeExpired() {
+    if (!config.persistent()) {
+      return;
+    }
+    int deleted = repository.deleteExpired(Instant.now());
+    if (deleted > 0) {
+      log.info("Purged {} expired LLM response cache entries", deleted);
+    }
+  }
+
+  static String hash(String modelName, Double temperature, String system, String user) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (String part :
+          new String[] {modelName, String.valueOf(temperature), system, user}) {
+        digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
@@ -9,7 +9,6 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -21,7 +20,7 @@ import org.springframework.stereotype.Component;
  *   <li>Explicit override (user or system requested a specific mode)
  *   <li>Active ceremony (an in-progress sprint ceremony)
  *   <li>Day/time heuristic (e.g., morning = standup, Sunday = planning)
- *   <li>Input keyword matching
+ *   <li>Input keyword matching (see {@link CueScanner})
  *   <li>Fallback: FREEFORM
  * </ol>
  */
@@ -32,23 +31,6 @@ public class ModeDetector {
 
   private final SprintCeremonyRepository ceremonyRepository;
 
-  // Keyword patterns for mode detection (case-insensitive)
-  private static final Pattern STANDUP_PATTERN =
-      Pattern.compile(
-          "\\b(standup|stand-up|daily|check.?in|yesterday|today.?plan|blocker)\\b",
-          Pattern.CASE_INSENSITIVE);
-  private static final Pattern PLANNING_PATTERN =
-      Pattern.compile(
-          "\\b(plan|planning|sprint.?plan|commit|capacity|next.?sprint|backlog)\\b",
-          Pattern.CASE_INSENSITIVE);
-  private static final Pattern RETRO_PATTERN =
-      Pattern.compile(
-          "\\b(retro|retrospective|went.?well|improve|action.?item|review)\\b",
-          Pattern.CASE_INSENSITIVE);
-  private static final Pattern CAPTURE_PATTERN =
-      Pattern.compile(
-          "\\b(add|create|new|quick|capture|task|todo|remind)\\b", Pattern.CASE_INSENSITIVE);
-
   private static final Set<String> VALID_MODES =
       Set.of("STANDUP", "PLANNING", "RETROSPECTIVE", "CAPTURE", "FREEFORM", "REVIEW", "REFINEMENT");
 
@@ -62,6 +44,11 @@ public class ModeDetector {
    * @return the detected chat mode string
    */
   public String detect(UUID userId, String input, String explicitMode, String activeSprintId) {
+    return detect(userId, CueScanner.scan(input), explicitMode, activeSprintId);
+  }
+
+  /** Detect from a scan of the input that intent classification reuses. */
+  String detect(UUID userId, CueScanner.Scan cues, String explicitMode, String activeSprintId) {
     // 1. Explicit override
     if (explicitMode != null && !explicitMode.isBlank()) {
       String normalized = explicitMode.toUpperCase().trim();
@@ -88,27 +75,16 @@ public class ModeDetector {
     if (timeBasedMode != null) {
       log.debug("Mode detected via day/time heuristic: {}", timeBasedMode);
       // Don't force time-based — only suggest if keywords also match
-      if (inputMatchesMode(input, timeBasedMode)) {
+      if (cues.hasMode(timeBasedMode)) {
         return timeBasedMode;
       }
     }
 
-    // 4. Keyword matching
-    if (STANDUP_PATTERN.matcher(input).find()) {
-      log.debug("Mode detected via keywords: STANDUP");
-      return "STANDUP";
-    }
-    if (PLANNING_PATTERN.matcher(input).find()) {
-      log.debug("Mode detected via keywords: PLANNING");
-      return "PLANNING";
-    }
-    if (RETRO_PATTERN.matcher(input).find()) {
-      log.debug("Mode detected via keywords: RETROSPECTIVE");
-      return "RETROSPECTIVE";
-    }
-    if (CAPTURE_PATTERN.matcher(input).find()) {
-      log.debug("Mode detected via keywords: CAPTURE");
-      return "CAPTURE";
+    // 4. Keyword matching, in priority order STANDUP, PLANNING, RETROSPECTIVE, CAPTURE
+    String keywordMode = cues.topMode();
+    if (keywordMode != null) {
+      log.debug("Mode detected via keywords: {} (candidates={})", keywordMode, cues.modes());
+      return keywordMode;
     }
 
     // 5. Fallback
@@ -143,15 +119,6 @@ public class ModeDetector {
     return null;
   }
 
-  private boolean inputMatchesMode(String input, String mode) {
-    return switch (mode) {
-      case "STANDUP" -> STANDUP_PATTERN.matcher(input).find();
-      case "PLANNING" -> PLANNING_PATTERN.matcher(input).find();
-      case "RETROSPECTIVE" -> RETRO_PATTERN.matcher(input).find();
-      default -> false;
-    };
-  }
-
   private String mapCeremonyTypeToMode(String ceremonyType) {
     return switch (ceremonyType) {
       case "PLANNING" -> "PLANNING";
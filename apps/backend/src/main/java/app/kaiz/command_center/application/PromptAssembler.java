@@ -1,6 +1,8 @@
 package app.kaiz.command_center.application;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.Message;
@@ -18,7 +20,10 @@ import org.springframework.stereotype.Component;
  *   <li><strong>User message</strong> — the raw input
  * </ol>
  *
- * Supports {@code {{variable}}} placeholder substitution in prompt templates.
+ * Layers 1–2 and layer 3 are separate system messages so the first can be reused as a cached
+ * prompt prefix. Persona and mode prompts are compiled {@link PromptTemplate}s; their {@code
+ * {{variable}}} placeholders are filled from the context and the built-in date variables in a
+ * single pass.
  */
 @Component
 @RequiredArgsConstructor
@@ -35,45 +40,71 @@ public class PromptAssembler {
   public static final String KEY_REFINEMENT = "scrum_master_refinement";
   public static final String KEY_FREEFORM = "scrum_master_freeform";
 
+  private static final String CONTEXT_HEADER = "--- CONTEXT ---\n";
+  private static final String CONTEXT_FOOTER = "--- END CONTEXT ---\n";
+
+  // Room for the mode header and substituted values in the prefix buffer
+  private static final int PREFIX_SLACK = 256;
+
   private final SystemPromptService systemPromptService;
 
   /**
-   * Assemble the system message combining persona + mode instructions + context.
+   * Assemble the system messages: a static persona + mode block first, then the volatile context.
+   *
+   * <p>The first message depends only on the prompt versions and the mode, so it is byte-identical
+   * across users and turns and forms a cacheable prompt prefix (see {@link ChatModelProvider} for
+   * what the current client can send). Templates should keep per-user {@code {{placeholders}}} out
+   * of the persona and mode prompts, since substituting them there breaks the shared prefix.
    *
    * @param mode the detected chat mode
    * @param context context key-value pairs from {@link ContextAssembler}
-   * @return a Spring AI SystemMessage
+   * @return the static block, followed by the context block when there is context
    */
-  public Message assembleSystemMessage(String mode, Map<String, String> context) {
+  public List<Message> assembleSystemMessages(String mode, Map<String, String> context) {
     // 1. Base persona
-    String persona =
-        systemPromptService.getPromptByKey(KEY_BASE_PERSONA, "Scrum Master AI persona");
+    PromptTemplate persona =
+        systemPromptService.getTemplate(KEY_BASE_PERSONA, "Scrum Master AI persona");
 
     // 2. Mode-specific instructions
     String modeKey = getModePromptKey(mode);
-    String modeInstructions =
-        systemPromptService.getPromptByKey(modeKey, mode + " mode instructions");
-
-    // 3. Compose layered prompt
-    StringBuilder systemPrompt = new StringBuilder();
-    systemPrompt.append(persona).append("\n\n");
-    systemPrompt.append("--- MODE: ").append(mode).append(" ---\n");
-    systemPrompt.append(modeInstructions).append("\n\n");
-
-    // 4. Inject context variables
-    if (context != null && !context.isEmpty()) {
-      systemPrompt.append("--- CONTEXT ---\n");
-      for (var entry : context.entrySet()) {
-        systemPrompt.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
-      }
-      systemPrompt.append("--- END CONTEXT ---\n");
+    PromptTemplate modeInstructions =
+        systemPromptService.getTemplate(modeKey, mode + " mode instructions");
+
+    // 3. Static block (stable prefix)
+    Function<String, String> variables = resolver(context);
+    StringBuilder staticBlock =
+        new StringBuilder(
+            persona.literalLength() + modeInstructions.literalLength() + PREFIX_SLACK);
+    persona.renderTo(staticBlock, variables);
+    staticBlock.append("\n\n");
+    staticBlock.append("--- MODE: ").append(mode).append(" ---\n");
+    modeInstructions.renderTo(staticBlock, variables);
+    staticBlock.append("\n");
+    String prefix = staticBlock.toString();
+
+    // 4. Volatile context block
+    if (context == null || context.isEmpty()) {
+      log.debug("Assembled system prompt: mode={}, prefixLength={}", mode, prefix.length());
+      return List.of(new SystemMessage(prefix));
     }
-
-    // 5. Replace any remaining {{placeholders}}
-    String finalPrompt = replacePlaceholders(systemPrompt.toString(), context);
-
-    log.debug("Assembled system prompt: mode={}, length={}", mode, finalPrompt.length());
-    return new SystemMessage(finalPrompt);
+    int contextLength = CONTEXT_HEADER.length() + CONTEXT_FOOTER.length();
+    for (var entry : context.entrySet()) {
+      contextLength += entry.getKey().length() + entry.getValue().length() + 3;
+    }
+    StringBuilder contextBlock = new StringBuilder(contextLength);
+    contextBlock.append(CONTEXT_HEADER);
+    for (var entry : context.entrySet()) {
+      contextBlock.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+    }
+    contextBlock.append(CONTEXT_FOOTER);
+    String volatilePart = contextBlock.toString();
+
+    log.debug(
+        "Assembled system prompt: mode={}, prefixLength={}, contextLength={}",
+        mode,
+        prefix.length(),
+        volatilePart.length());
+    return List.of(new SystemMessage(prefix), new SystemMessage(volatilePart));
   }
 
   /**
@@ -108,17 +139,15 @@ public class PromptAssembler {
     };
   }
 
-  private String replacePlaceholders(String template, Map<String, String> context) {
-    if (context == null || template == null) {
-      return template;
+  /** Context values first, then the built-in date variables. */
+  private Function<String, String> resolver(Map<String, String> context) {
+    Map<String, String> builtIns = systemPromptService.builtInVariables();
+    if (context == null || context.isEmpty()) {
+      return builtIns::get;
     }
-    String result = template;
-    for (var entry : context.entrySet()) {
-      String placeholder = "{{" + entry.getKey() + "}}";
-      if (result.contains(placeholder)) {
-        result = result.replace(placeholder, entry.getValue());
-      }
-    }
-    return result;
+    return name -> {
+      String value = context.get(name);
+      return value != null ? value : builtIns.get(name);
+    };
   }
 }
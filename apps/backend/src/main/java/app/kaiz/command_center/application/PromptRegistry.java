@@ -0,0 +1,146 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.admin.application.SystemPromptsChanged;
+import app.kaiz.admin.domain.SystemPrompt;
+import app.kaiz.admin.infrastructure.SystemPromptRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory registry of the active system prompts, compiled into {@link PromptTemplate}s.
+ *
+ * <p>Readers get an immutable snapshot from a single atomic reference, so a lookup never touches
+ * the database. The snapshot is loaded at startup and replaced as a whole: on this node right
+ * after an admin change commits ({@link SystemPromptsChanged}), and on other nodes when a periodic
+ * poll of a one-row table fingerprint sees that it changed. Templates whose key and version are
+ * unchanged are carried over instead of recompiled.
+ */
+@Component
+@Slf4j
+public class PromptRegistry {
+
+  /** The active prompts and the table fingerprint they were loaded at. */
+  private record Snapshot(Map<String, PromptTemplate> active, String fingerprint) {}
+
+  private static final Snapshot EMPTY = new Snapshot(Map.of(), null);
+
+  private final SystemPromptRepository repository;
+  private final ObjectMapper objectMapper;
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+  public PromptRegistry(SystemPromptRepository repository, ObjectMapper objectMapper) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+  }
+
+  /** The active template for a key, or null when the key has no active prompt. */
+  public PromptTemplate find(String promptKey) {
+    Snapshot current = snapshot.get();
+    if (current == null) {
+      refresh();
+      current = snapshot.get();
+    }
+    return current.active().get(promptKey);
+  }
+
+  /** Number of active prompts in the current snapshot. */
+  public int size() {
+    Snapshot current = snapshot.get();
+    return current != null ? current.active().size() : 0;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onStartup() {
+    refresh();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPromptsChanged(SystemPromptsChanged event) {
+    log.info("System prompt changed (key={}); reloading prompt registry", event.promptKey());
+    refresh();
+  }
+
+  /** Reload when another node has changed the prompts since the current snapshot. */
+  @Scheduled(fixedDelayString = "${kaiz.prompts.refresh-poll-ms:15000}")
+  public void pollForChanges() {
+    Snapshot current = snapshot.get();
+    try {
+      String fingerprint = repository.findStateFingerprint();
+      if (current == null || !Objects.equals(fingerprint, current.fingerprint())) {
+        refresh();
+      }
+    } catch (DataAccessException e) {
+      log.warn("Could not poll system prompt state: {}", e.getMessage());
+    }
+  }
+
+  /** Load all active prompts and swap them in. Keeps the current snapshot if loading fails. */
+  public synchronized void refresh() {
+    Snapshot previous = snapshot.get();
+    try {
+      // Read the fingerprint first: a change that lands mid-load shows up on the next poll
+      String fingerprint = repository.findStateFingerprint();
+      List<SystemPrompt> prompts = repository.findByActiveTrue();
+
+      Map<String, PromptTemplate> active = new HashMap<>(prompts.size() * 2);
+      for (SystemPrompt prompt : prompts) {
+        active.put(prompt.getPromptKey(), compile(prompt, previous));
+      }
+      snapshot.set(new Snapshot(Map.copyOf(active), fingerprint));
+      log.info("Prompt registry loaded: {} active prompts", active.size());
+    } catch (DataAccessException e) {
+      log.error("Could not load system prompts, keeping current registry: {}", e.getMessage());
+      if (previous == null) {
+        snapshot.set(EMPTY);
+      }
+    }
+  }
+
+  private PromptTemplate compile(SystemPrompt prompt, Snapshot previous) {
+    String key = prompt.getPromptKey();
+    int version = prompt.getVersion() != null ? prompt.getVersion() : 1;
+    PromptTemplate existing = previous != null ? previous.active().get(key) : null;
+    if (existing != null && existing.version() == version) {
+      return existing;
+    }
+    PromptTemplate template =
+        PromptTemplate.compile(
+            key,
+            version,
+            prompt.getPromptContent(),
+            declaredVariables(key, prompt.getVariables()));
+    for (String diagnostic : template.diagnostics()) {
+      log.warn("Prompt '{}' version {}: {}", key, version, diagnostic);
+    }
+    return template;
+  }
+
+  /** Variables listed in the prompt's {@code variables} column, plus the built-ins. */
+  private Set<String> declaredVariables(String promptKey, String variablesJson) {
+    Set<String> known = new HashSet<>(SystemPromptService.BUILT_IN_VARIABLES);
+    if (variablesJson == null || variablesJson.isBlank()) {
+      return known;
+    }
+    try {
+      known.addAll(objectMapper.readValue(variablesJson, new TypeReference<List<String>>() {}));
+    } catch (JsonProcessingException e) {
+      log.warn("Prompt '{}' has an unreadable variables list: {}", promptKey, e.getMessage());
+    }
+    return known;
+  }
+}
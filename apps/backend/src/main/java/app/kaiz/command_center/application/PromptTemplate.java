@@ -0,0 +1,215 @@
+package app.kaiz.command_center.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A prompt template compiled once into literal and {@code {{variable}}} segments.
+ *
+ * <p>Rendering walks the segments once and writes into a buffer sized from the literal length and
+ * the resolved values, instead of scanning the whole prompt once per variable. A variable with no
+ * value renders as its original {@code {{name}}} text, as the old string replacement did.
+ *
+ * <p>Problems are found when the template is compiled, not on every call: placeholders that are
+ * neither declared nor built in, and an opening brace pair with no closing pair. They are reported
+ * through {@link #diagnostics()}.
+ */
+public final class PromptTemplate {
+
+  private static final String OPEN = "{{";
+  private static final String CLOSE = "}}";
+
+  private sealed interface Segment permits Literal, Slot {}
+
+  private record Literal(String text) implements Segment {}
+
+  private record Slot(String name) implements Segment {}
+
+  private final String key;
+  private final int version;
+  private final List<Segment> segments;
+  private final Set<String> variables;
+  private final List<String> diagnostics;
+  private final int literalLength;
+
+  private PromptTemplate(
+      String key,
+      int version,
+      List<Segment> segments,
+      Set<String> variables,
+      List<String> diagnostics,
+      int literalLength) {
+    this.key = key;
+    this.version = version;
+    this.segments = segments;
+    this.variables = variables;
+    this.diagnostics = diagnostics;
+    this.literalLength = literalLength;
+  }
+
+  /** Compile a template without checking its placeholders against a declared variable list. */
+  public static PromptTemplate compile(String key, int version, String source) {
+    return compile(key, version, source, null);
+  }
+
+  /**
+   * Compile a template.
+   *
+   * @param key the prompt key, for diagnostics
+   * @param version the prompt version the source belongs to
+   * @param source the template text
+   * @param knownVariables variables a caller may supply; placeholders outside this set are
+   *     reported. Null skips the check.
+   */
+  public static PromptTemplate compile(
+      String key, int version, String source, Collection<String> knownVariables) {
+    String text = source != null ? source : "";
+    List<Segment> segments = new ArrayList<>();
+    Set<String> variables = new LinkedHashSet<>();
+    List<String> diagnostics = new ArrayList<>();
+    int literalLength = 0;
+
+    int pos = 0;
+    while (pos < text.length()) {
+      int open = text.indexOf(OPEN, pos);
+      if (open < 0) {
+        break;
+      }
+      int close = text.indexOf(CLOSE, open + OPEN.length());
+      if (close < 0) {
+        diagnostics.add("Unterminated placeholder at offset " + open);
+        break;
+      }
+      String name = text.substring(open + OPEN.length(), close);
+      if (name.isBlank() || name.contains(OPEN)) {
+        // Not a placeholder; keep "{{" as literal text and look again just after it
+        int literalEnd = open + OPEN.length();
+        segments.add(new Literal(text.substring(pos, literalEnd)));
+        literalLength += literalEnd - pos;
+        pos = literalEnd;
+        continue;
+      }
+      if (open > pos) {
+        segments.add(new Literal(text.substring(pos, open)));
+        literalLength += open - pos;
+      }
+      segments.add(new Slot(name));
+      variables.add(name);
+      pos = close + CLOSE.length();
+    }
+    if (pos < text.length()) {
+      segments.add(new Literal(text.substring(pos)));
+      literalLength += text.length() - pos;
+    }
+
+    if (knownVariables != null) {
+      for (String variable : variables) {
+        if (!knownVariables.contains(variable)) {
+          diagnostics.add("Undeclared variable {{" + variable + "}}");
+        }
+      }
+    }
+
+    return new PromptTemplate(
+        key,
+        version,
+        List.copyOf(mergeLiterals(segments)),
+        Set.copyOf(variables),
+        List.copyOf(diagnostics),
+        literalLength);
+  }
+
+  public String key() {
+    return key;
+  }
+
+  public int version() {
+    return version;
+  }
+
+  /** Placeholder names used by this template. */
+  public Set<String> variables() {
+    return variables;
+  }
+
+  /** Problems found at compile time; empty for a clean template. */
+  public List<String> diagnostics() {
+    return diagnostics;
+  }
+
+  /** Length of the template without its placeholders; a lower bound on the rendered length. */
+  public int literalLength() {
+    return literalLength;
+  }
+
+  public String render(Map<String, String> values) {
+    return render(values::get);
+  }
+
+  /** Render in one pass into a buffer sized for the result. */
+  public String render(Function<String, String> resolver) {
+    if (variables.isEmpty()) {
+      return segments.isEmpty() ? "" : ((Literal) segments.getFirst()).text();
+    }
+    String[] resolved = new String[segments.size()];
+    int length = literalLength;
+    for (int i = 0; i < resolved.length; i++) {
+      if (segments.get(i) instanceof Slot slot) {
+        String value = resolver.apply(slot.name());
+        resolved[i] = value != null ? value : OPEN + slot.name() + CLOSE;
+        length += resolved[i].length();
+      }
+    }
+    StringBuilder out = new StringBuilder(length);
+    for (int i = 0; i < resolved.length; i++) {
+      out.append(resolved[i] != null ? resolved[i] : ((Literal) segments.get(i)).text());
+    }
+    return out.toString();
+  }
+
+  /** Render onto the end of an existing buffer, e.g. when composing several templates. */
+  public void renderTo(StringBuilder out, Function<String, String> resolver) {
+    for (Segment segment : segments) {
+      switch (segment) {
+        case Literal literal -> out.append(literal.text());
+        case Slot slot -> {
+          String value = resolver.apply(slot.name());
+          if (value != null) {
+            out.append(value);
+          } else {
+            out.append(OPEN).append(slot.name()).append(CLOSE);
+          }
+        }
+      }
+    }
+  }
+
+  private static List<Segment> mergeLiterals(List<Segment> segments) {
+    List<Segment> merged = new ArrayList<>(segments.size());
+    StringBuilder pending = null;
+    for (Segment segment : segments) {
+      if (segment instanceof Literal literal) {
+        if (pending == null) {
+          pending = new StringBuilder(literal.text());
+        } else {
+          pending.append(literal.text());
+        }
+      } else {
+        if (pending != null) {
+          merged.add(new Literal(pending.toString()));
+          pending = null;
+        }
+        merged.add(segment);
+      }
+    }
+    if (pending != null) {
+      merged.add(new Literal(pending.toString()));
+    }
+    return merged;
+  }
+}
@@ -1,15 +1,21 @@
 package app.kaiz.command_center.application;
 
-import app.kaiz.command_center.domain.DraftFeedbackRecord;
 import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
 import app.kaiz.command_center.infrastructure.DraftFeedbackRecordRepository;
+import app.kaiz.command_center.infrastructure.DraftFeedbackRollupRepository;
+import app.kaiz.command_center.infrastructure.DraftFeedbackRollupRepository.DraftTypeCount;
+import app.kaiz.command_center.infrastructure.FeedbackActionCount;
+import app.kaiz.command_center.infrastructure.FeedbackReasonCount;
 import app.kaiz.command_center.infrastructure.UserCoachPreferenceRepository;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,16 +26,30 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * <p>The aggregated data is queried on-demand by {@link
  * app.kaiz.admin.application.AiFeedbackDashboardService} — this service provides the computation
- * methods.
+ * methods. Windowed figures are GROUP BY queries over the indexed {@code created_at} column, so no
+ * feedback records are loaded; the weekly report reads the {@code draft_feedback_daily} rollup,
+ * which a nightly job rebuilds for the most recent days.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class RuleEvolutionService {
 
   private final DraftFeedbackRecordRepository feedbackRepository;
   private final UserCoachPreferenceRepository preferenceRepository;
+  private final DraftFeedbackRollupRepository rollupRepository;
+  private final int rollupDays;
+
+  public RuleEvolutionService(
+      DraftFeedbackRecordRepository feedbackRepository,
+      UserCoachPreferenceRepository preferenceRepository,
+      DraftFeedbackRollupRepository rollupRepository,
+      @Value("${kaiz.ai.feedback-rollup.days:3}") int rollupDays) {
+    this.feedbackRepository = feedbackRepository;
+    this.preferenceRepository = preferenceRepository;
+    this.rollupRepository = rollupRepository;
+    this.rollupDays = rollupDays;
+  }
 
   /**
    * Compute global approval/modification/rejection rates for a given time window.
@@ -38,31 +58,7 @@ public class RuleEvolutionService {
    * @return map with keys "approvalRate", "modificationRate", "rejectionRate", "totalFeedback"
    */
   public Map<String, Object> computeFeedbackRates(Instant since) {
-    List<DraftFeedbackRecord> allFeedback = feedbackRepository.findAll();
-
-    List<DraftFeedbackRecord> filtered =
-        allFeedback.stream()
-            .filter(f -> f.getCreatedAt() != null && f.getCreatedAt().isAfter(since))
-            .toList();
-
-    long total = filtered.size();
-    if (total == 0) {
-      return Map.of(
-          "approvalRate", 0.0,
-          "modificationRate", 0.0,
-          "rejectionRate", 0.0,
-          "totalFeedback", 0L);
-    }
-
-    long approved = filtered.stream().filter(f -> f.getAction() == FeedbackAction.APPROVED).count();
-    long modified = filtered.stream().filter(f -> f.getAction() == FeedbackAction.MODIFIED).count();
-    long rejected = filtered.stream().filter(f -> f.getAction() == FeedbackAction.REJECTED).count();
-
-    return Map.of(
-        "approvalRate", (double) approved / total * 100,
-        "modificationRate", (double) modified / total * 100,
-        "rejectionRate", (double) rejected / total * 100,
-        "totalFeedback", total);
+    return feedbackRates(feedbackRepository.countByActionSince(since));
   }
 
   /**
@@ -72,14 +68,7 @@ public class RuleEvolutionService {
    * @return average milliseconds, or 0 if no data
    */
   public double computeAverageDecisionTime(Instant since) {
-    List<DraftFeedbackRecord> allFeedback = feedbackRepository.findAll();
-
-    return allFeedback.stream()
-        .filter(f -> f.getCreatedAt() != null && f.getCreatedAt().isAfter(since))
-        .filter(f -> f.getTimeToDecideMs() != null)
-        .mapToLong(DraftFeedbackRecord::getTimeToDecideMs)
-        .average()
-        .orElse(0.0);
+    return averageDecisionTime(feedbackRepository.countByActionSince(since));
   }
 
   /**
@@ -90,19 +79,36 @@ public class RuleEvolutionService {
    * @return list of maps with "reason" and "count"
    */
   public List<Map<String, Object>> topRejectionReasons(Instant since, int limit) {
-    List<DraftFeedbackRecord> allFeedback = feedbackRepository.findAll();
-
-    return allFeedback.stream()
-        .filter(f -> f.getCreatedAt() != null && f.getCreatedAt().isAfter(since))
-        .filter(f -> f.getAction() == FeedbackAction.REJECTED)
-        .filter(f -> f.getUserComment() != null && !f.getUserComment().isBlank())
-        .collect(Collectors.groupingBy(DraftFeedbackRecord::getUserComment, Collectors.counting()))
-        .entrySet()
-        .stream()
-        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-        .limit(limit)
-        .map(e -> Map.<String, Object>of("reason", e.getKey(), "count", e.getValue()))
-        .toList();
+    return reasons(feedbackRepository.topRejectionReasonsSince(since, PageRequest.of(0, limit)));
+  }
+
+  /**
+   * Approval/modification/rejection rates over whole UTC days, read from the daily rollup.
+   *
+   * @param from first day, inclusive
+   * @param to last day, inclusive
+   * @return same keys as {@link #computeFeedbackRates(Instant)}
+   */
+  public Map<String, Object> computeFeedbackRates(LocalDate from, LocalDate to) {
+    return feedbackRates(rollupRepository.countByAction(from, to));
+  }
+
+  /** Average time-to-decide over whole UTC days, read from the daily rollup. */
+  public double computeAverageDecisionTime(LocalDate from, LocalDate to) {
+    return averageDecisionTime(rollupRepository.countByAction(from, to));
+  }
+
+  /** Most common rejection reasons over whole UTC days, read from the daily rollup. */
+  public List<Map<String, Object>> topRejectionReasons(LocalDate from, LocalDate to, int limit) {
+    return reasons(rollupRepository.topRejectionReasons(from, to, limit));
+  }
+
+  /** Rebuild the daily rollup rows of {@code from} through {@code to}, e.g. to include today. */
+  @Transactional
+  public void rollUp(LocalDate from, LocalDate to) {
+    for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+      rollupRepository.rollUp(day);
+    }
   }
 
   /**
@@ -112,10 +118,9 @@ public class RuleEvolutionService {
    * @return list of user summaries
    */
   public List<Map<String, Object>> topUsersByFeedback(int limit) {
-    return preferenceRepository.findAll().stream()
-        .filter(p -> p.getTotalInteractions() > 0)
-        .sorted(Comparator.comparingInt(p -> -p.getTotalInteractions()))
-        .limit(limit)
+    return preferenceRepository
+        .findByTotalInteractionsGreaterThanOrderByTotalInteractionsDesc(0, PageRequest.of(0, limit))
+        .stream()
         .map(
             p ->
                 Map.<String, Object>of(
@@ -127,12 +132,35 @@ public class RuleEvolutionService {
         .toList();
   }
 
-  /** Weekly log of feedback evolution — runs every Monday at 2 AM UTC. */
+  /**
+   * Roll up the last {@code kaiz.ai.feedback-rollup.days} UTC days, so a missed run or feedback
+   * recorded around midnight is still counted. Runs daily shortly after midnight UTC.
+   */
+  @Scheduled(cron = "0 15 0 * * *", zone = "UTC")
+  @Transactional
+  public void rollUpRecentDays() {
+    LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    rollUp(yesterday.minusDays(rollupDays - 1), yesterday);
+  }
+
+  /**
+   * Weekly log of feedback evolution over the last seven complete UTC days, read from the daily
+   * rollup — runs every Monday at 2 AM UTC.
+   */
   @Scheduled(cron = "0 0 2 * * MON", zone = "UTC")
+  @Transactional
   public void weeklyEvolutionReport() {
-    Instant oneWeekAgo = Instant.now().minus(7, ChronoUnit.DAYS);
-    Map<String, Object> rates = computeFeedbackRates(oneWeekAgo);
-    double avgDecision = computeAverageDecisionTime(oneWeekAgo);
+    LocalDate to = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+    LocalDate from = to.minusDays(6);
+    for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+      if (!rollupRepository.hasDay(day)) {
+        rollupRepository.rollUp(day);
+      }
+    }
+
+    List<FeedbackActionCount> counts = rollupRepository.countByAction(from, to);
+    Map<String, Object> rates = feedbackRates(counts);
+    double avgDecision = averageDecisionTime(counts);
 
     log.info(
         "Weekly AI feedback report: total={}, approvalRate={}%, modRate={}%, "
@@ -142,5 +170,52 @@ public class RuleEvolutionService {
         String.format("%.1f", rates.get("modificationRate")),
         String.format("%.1f", rates.get("rejectionRate")),
         String.format("%.0f", avgDecision));
+    for (DraftTypeCount type : rollupRepository.countByDraftType(from, to)) {
+      log.info(
+          "Weekly AI feedback by draft type: type={}, approved={}, modified={}, rejected={}",
+          type.draftType(),
+          type.approved(),
+          type.modified(),
+          type.rejected());
+    }
+    log.info(
+        "Weekly top rejection reasons: {}",
+        reasons(rollupRepository.topRejectionReasons(from, to, 5)));
+  }
+
+  /** Rates in percent plus the total, keyed as returned by {@link #computeFeedbackRates}. */
+  public static Map<String, Object> feedbackRates(List<FeedbackActionCount> counts) {
+    long total = counts.stream().mapToLong(FeedbackActionCount::total).sum();
+    if (total == 0) {
+      return Map.of(
+          "approvalRate", 0.0,
+          "modificationRate", 0.0,
+          "rejectionRate", 0.0,
+          "totalFeedback", 0L);
+    }
+
+    Map<FeedbackAction, Long> byAction = new EnumMap<>(FeedbackAction.class);
+    counts.forEach(c -> byAction.merge(c.action(), c.total(), Long::sum));
+    long approved = byAction.getOrDefault(FeedbackAction.APPROVED, 0L);
+    long modified = byAction.getOrDefault(FeedbackAction.MODIFIED, 0L);
+    long rejected = byAction.getOrDefault(FeedbackAction.REJECTED, 0L);
+
+    return Map.of(
+        "approvalRate", (double) approved / total * 100,
+        "modificationRate", (double) modified / total * 100,
+        "rejectionRate", (double) rejected / total * 100,
+        "totalFeedback", total);
+  }
+
+  static double averageDecisionTime(List<FeedbackActionCount> counts) {
+    long decided = counts.stream().mapToLong(FeedbackActionCount::decided).sum();
+    long sum = counts.stream().mapToLong(FeedbackActionCount::decideMsSum).sum();
+    return decided == 0 ? 0.0 : (double) sum / decided;
+  }
+
+  private static List<Map<String, Object>> reasons(List<FeedbackReasonCount> counts) {
+    return counts.stream()
+        .map(c -> Map.<String, Object>of("reason", c.reason(), "count", c.total()))
+        .toList();
   }
 }
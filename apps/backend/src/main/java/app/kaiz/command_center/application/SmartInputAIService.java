@@ -11,14 +11,12 @@ import app.kaiz.command_center.application.dto.SmartInputResponse.*;
 import app.kaiz.command_center.domain.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,8 +31,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class SmartInputAIService {
 
   private static final int MAX_QUESTIONS = 5;
+  private static final String SMART_INPUT_MODE = "SMART_INPUT";
 
-  private final ChatModelProvider chatModelProvider;
+  private final LlmGateway llmGateway;
   private final ConversationSessionStore sessionStore;
   private final SmartInputResponseParser responseParser;
   private final DraftPersistenceService draftPersistenceService;
@@ -44,7 +43,7 @@ public class SmartInputAIService {
   private final Duration draftExpirationDuration;
 
   public SmartInputAIService(
-      ChatModelProvider chatModelProvider,
+      LlmGateway llmGateway,
       ConversationSessionStore sessionStore,
       SmartInputResponseParser responseParser,
       DraftPersistenceService draftPersistenceService,
@@ -53,7 +52,7 @@ public class SmartInputAIService {
       SystemPromptService systemPromptService,
       @Value("${kaiz.command-center.draft-expiration-hours:24}") int expirationHours) {
 
-    this.chatModelProvider = chatModelProvider;
+    this.llmGateway = llmGateway;
     this.sessionStore = sessionStore;
     this.responseParser = responseParser;
     this.draftPersistenceService = draftPersistenceService;
@@ -86,12 +85,13 @@ public class SmartInputAIService {
     String currentSystemPrompt = systemPromptService.getPromptForInputType(hasImage, hasVoice);
     log.debug("Using prompt for input type - hasImage: {}, hasVoice: {}", hasImage, hasVoice);
 
-    List<Message> messages =
-        List.of(new SystemMessage(currentSystemPrompt), new UserMessage(userPrompt));
-
     try {
-      ChatResponse response = chatModelProvider.getChatModel().call(new Prompt(messages));
-      String aiContent = response.getResult().getOutput().getText();
+      String aiContent =
+          llmGateway.call(
+              userId,
+              new SystemMessage(currentSystemPrompt),
+              new UserMessage(userPrompt),
+              SMART_INPUT_MODE);
 
       return handleParsedResponse(sessionId, userId, aiContent, originalInput);
 
@@ -120,6 +120,7 @@ public class SmartInputAIService {
 
       session.questionCount(session.questionCount() + followUp.questions().size());
       session.partialDraft(updatedDraft);
+      sessionStore.update(session);
 
       return SmartInputResponse.needsClarification(
           request.sessionId(),
@@ -287,14 +288,9 @@ public class SmartInputAIService {
   }
 
   private String buildUserPrompt(UUID userId, SmartInputRequest request) {
-    StringBuilder prompt = new StringBuilder();
-    prompt.append("User input: \"").append(request.text()).append("\"");
-
-    if (request.attachments() != null && !request.attachments().isEmpty()) {
-      prompt.append("\n\nAttachments:");
+    List<String> attachmentLines = new ArrayList<>();
+    if (request.attachments() != null) {
       for (var attachment : request.attachments()) {
-        prompt.append("\n- Type: ").append(attachment.mimeType());
-
         String extractedText = attachment.extractedText();
 
         if (attachment.isTestAttachment()) {
@@ -315,27 +311,14 @@ public class SmartInputAIService {
           }
         }
 
-        if (extractedText != null) {
-          prompt.append(", Extracted text: \"").append(extractedText).append("\"");
-        }
-        if (attachment.metadata() != null) {
-          prompt.append(", Metadata: ").append(attachment.metadata());
-        }
+        attachmentLines.add(
+            SmartInputPrompts.attachmentLine(
+                attachment.mimeType(), extractedText, attachment.metadata()));
       }
     }
 
-    if (request.voiceTranscription() != null) {
-      prompt
-          .append("\n\nVoice transcription: \"")
-          .append(request.voiceTranscription())
-          .append("\"");
-    }
-
-    prompt.append("\n\nContext: User ID=").append(userId);
-    prompt.append(", Current time=").append(Instant.now());
-    prompt.append(", Timezone=").append(java.time.ZoneId.systemDefault());
-
-    return prompt.toString();
+    return SmartInputPrompts.userPrompt(
+        userId, request.text(), attachmentLines, request.voiceTranscription());
   }
 
   private OriginalInput captureOriginalInput(SmartInputRequest request) {
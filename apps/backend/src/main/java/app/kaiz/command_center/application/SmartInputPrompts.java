@@ -0,0 +1,68 @@
+package app.kaiz.command_center.application;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * User-prompt templates for Smart Input, shared by the blocking and streaming paths. Compiled once
+ * at class load; optional sections render as empty strings when absent.
+ */
+final class SmartInputPrompts {
+
+  private static final PromptTemplate USER_PROMPT =
+      PromptTemplate.compile(
+          "smart_input_user",
+          1,
+          "User input: \"{{text}}\"{{attachments}}{{voice}}\n\n"
+              + "Context: User ID={{userId}}, Current time={{now}}, Timezone={{timezone}}");
+
+  private static final PromptTemplate ATTACHMENT =
+      PromptTemplate.compile(
+          "smart_input_attachment", 1, "\n- Type: {{mimeType}}{{extractedText}}{{metadata}}");
+
+  private static final PromptTemplate EXTRACTED_TEXT =
+      PromptTemplate.compile("smart_input_extracted", 1, ", Extracted text: \"{{text}}\"");
+
+  private static final PromptTemplate VOICE =
+      PromptTemplate.compile("smart_input_voice", 1, "\n\nVoice transcription: \"{{text}}\"");
+
+  private static final String ATTACHMENTS_HEADER = "\n\nAttachments:";
+
+  private SmartInputPrompts() {}
+
+  /**
+   * Render the user prompt.
+   *
+   * @param attachmentLines lines from {@link #attachmentLine}, empty when there are none
+   * @param voiceTranscription transcription, or null
+   */
+  static String userPrompt(
+      UUID userId, String text, List<String> attachmentLines, String voiceTranscription) {
+    String attachments =
+        attachmentLines.isEmpty() ? "" : ATTACHMENTS_HEADER + String.join("", attachmentLines);
+    String voice =
+        voiceTranscription != null ? VOICE.render(Map.of("text", voiceTranscription)) : "";
+    return USER_PROMPT.render(
+        Map.of(
+            "text", String.valueOf(text),
+            "attachments", attachments,
+            "voice", voice,
+            "userId", String.valueOf(userId),
+            "now", Instant.now().toString(),
+            "timezone", ZoneId.systemDefault().toString()));
+  }
+
+  static String attachmentLine(
+      String mimeType, String extractedText, Map<String, Object> metadata) {
+    String extracted =
+        extractedText != null ? EXTRACTED_TEXT.render(Map.of("text", extractedText)) : "";
+    return ATTACHMENT.render(
+        Map.of(
+            "mimeType", String.valueOf(mimeType),
+            "extractedText", extracted,
+            "metadata", metadata != null ? ", Metadata: " + metadata : ""));
+  }
+}
@@ -15,7 +15,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Service;
 
 /**
@@ -29,8 +28,9 @@ import org.springframework.stereotype.Service;
 public class SprintQuickAddAIService {
 
   public static final String SPRINT_QUICK_ADD_PROMPT_KEY = "sprint_quick_add";
+  static final String SPRINT_QUICK_ADD_MODE = "SPRINT_QUICK_ADD";
 
-  private final ChatModelProvider chatModelProvider;
+  private final LlmGateway llmGateway;
   private final AIResponseParser aiResponseParser;
   private final AIConversationLogger aiLogger;
   private final SystemPromptService systemPromptService;
@@ -60,7 +60,7 @@ public class SprintQuickAddAIService {
 
       // Call Claude
       long startTime = System.currentTimeMillis();
-      String aiResponse = callClaude(systemPrompt, userPrompt);
+      String aiResponse = callClaude(userId, systemPrompt, userPrompt);
       long duration = System.currentTimeMillis() - startTime;
       conversation.logAIResponse(aiResponse, duration);
 
@@ -98,10 +98,13 @@ public class SprintQuickAddAIService {
     return sb.toString();
   }
 
-  private String callClaude(String systemPrompt, String userPrompt) {
-    var prompt = new Prompt(List.of(new SystemMessage(systemPrompt), new UserMessage(userPrompt)));
-    var response = chatModelProvider.getChatModel().call(prompt);
-    return response.getResult().getOutput().getText();
+  private String callClaude(UUID userId, String systemPrompt, String userPrompt) {
+    // Quick-add phrases repeat verbatim, so this mode is a good fit for the response cache
+    return llmGateway.call(
+        userId,
+        new SystemMessage(systemPrompt),
+        new UserMessage(userPrompt),
+        SPRINT_QUICK_ADD_MODE);
   }
 
   private List<TaskDraftSuggestion> parseResponse(String aiResponse, List<String> originalLines) {
@@ -1,176 +1,355 @@
 package app.kaiz.command_center.application;
 
+import app.kaiz.command_center.application.DraftExtractor.ExtractedDraft;
+import app.kaiz.command_center.application.LlmGateway.LlmBudgetExceededException;
 import app.kaiz.command_center.application.dto.SmartInputRequest;
-import app.kaiz.shared.exception.AIProcessingException;
+import app.kaiz.shared.exception.ApiException;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatModel;
-import org.springframework.ai.chat.model.StreamingChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
- * SSE streaming service for Command Center AI. Streams AI responses token-by-token to the client
- * via Server-Sent Events for real-time UX.
+ * SSE streaming service for Command Center AI. Streams AI responses to the client via Server-Sent
+ * Events for real-time UX.
  *
  * <p>Uses Spring AI's built-in streaming support with Anthropic and Spring MVC's SseEmitter (no
- * WebFlux dependency needed).
+ * WebFlux dependency needed). The provider stream is subscribed to rather than blocked on: prompt
+ * building and SSE writes run on Reactor's shared bounded-elastic scheduler, and the subscription
+ * is disposed as soon as the emitter completes, times out or errors, so a client that disconnects
+ * stops provider generation (and spend) instead of draining the stream to the end.
+ *
+ * <p>Provider chunks are coalesced into frames of up to {@code frameMaxChunks} chunks or {@code
+ * frameInterval}, whichever comes first. Open streams are capped node-wide; beyond the cap a
+ * request is rejected with 429 before any emitter is created.
+ *
+ * <p>Each stream is checked against the user's daily token budget before it starts and booked to
+ * the {@link TokenLedger} when it completes; an exhausted budget ends the stream with an "error"
+ * event.
+ *
+ * <p>Frames also feed a {@link DraftStream}: each {@code >>>DRAFT} block is sent as a typed "draft"
+ * event right after the frame that closes it, before the rest of the response has arrived.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class StreamingAIService {
 
-  private static final long SSE_TIMEOUT_MS = 120_000; // 2 minutes
+  private static final String STREAM_MODE = "SMART_INPUT";
 
   private final ChatModelProvider chatModelProvider;
   private final SystemPromptService systemPromptService;
+  private final LlmMetrics llmMetrics;
+  private final DraftExtractor draftExtractor;
+  private final TokenLedger tokenLedger;
+  private final LlmGatewayProperties.Streaming config;
+  private final Semaphore streams;
 
-  // Virtual threads (Java 21) for non-blocking SSE emission
-  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  public StreamingAIService(
+      ChatModelProvider chatModelProvider,
+      SystemPromptService systemPromptService,
+      LlmMetrics llmMetrics,
+      DraftExtractor draftExtractor,
+      TokenLedger tokenLedger,
+      LlmGatewayProperties properties) {
+    this.chatModelProvider = chatModelProvider;
+    this.systemPromptService = systemPromptService;
+    this.llmMetrics = llmMetrics;
+    this.draftExtractor = draftExtractor;
+    this.tokenLedger = tokenLedger;
+    this.config = properties.streaming();
+    this.streams = new Semaphore(config.maxConcurrent());
+  }
 
   /**
-   * Stream AI response for smart input. Sends token-by-token SSE events, then a final "done" event
-   * with the complete response for JSON parsing by the client.
+   * Stream AI response for smart input. Sends "token" SSE events carrying one or more coalesced
+   * chunks, a JSON "draft" event for each fenced draft block as soon as it closes, then a final
+   * "done" event with the complete response for JSON parsing by the client.
    *
    * @param userId the user making the request
    * @param request the smart input request
    * @return SseEmitter that streams AI tokens
+   * @throws ApiException 429 when the node already has the maximum number of open streams
    */
   public SseEmitter streamSmartInput(UUID userId, SmartInputRequest request) {
-    SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
-
-    executor.submit(
-        () -> {
-          StringBuilder fullResponse = new StringBuilder();
-          try {
-            String userPrompt = buildUserPrompt(userId, request);
-
-            boolean hasImage =
-                request.attachments() != null
-                    && request.attachments().stream()
-                        .anyMatch(
-                            a -> a.type() != null && a.type().toLowerCase().contains("image"));
-            boolean hasVoice =
-                request.attachments() != null
-                    && request.attachments().stream()
-                        .anyMatch(
-                            a ->
-                                a.type() != null
-                                    && (a.type().toLowerCase().contains("audio")
-                                        || a.type().toLowerCase().contains("voice")));
-
-            String systemPrompt = systemPromptService.getPromptForInputType(hasImage, hasVoice);
-
-            var prompt =
-                new Prompt(List.of(new SystemMessage(systemPrompt), new UserMessage(userPrompt)));
-
-            // Stream using Spring AI's Flux-based streaming, consumed imperatively
-            ChatModel model = chatModelProvider.getChatModel();
-            if (!(model instanceof StreamingChatModel streamingModel)) {
-              throw new AIProcessingException("Configured ChatModel does not support streaming");
-            }
-            streamingModel.stream(prompt)
-                .doOnNext(
-                    response -> {
-                      try {
-                        String token = response.getResult().getOutput().getText();
-                        if (token != null && !token.isEmpty()) {
-                          fullResponse.append(token);
-                          emitter.send(SseEmitter.event().name("token").data(token));
-                        }
-                      } catch (Exception e) {
-                        log.debug("Failed to send SSE token: {}", e.getMessage());
-                      }
-                    })
-                .doOnComplete(
-                    () -> {
-                      try {
-                        // Send the complete response as a "done" event for client-side parsing
-                        emitter.send(SseEmitter.event().name("done").data(fullResponse.toString()));
-                        emitter.complete();
-                        log.debug(
-                            "Streaming completed for user {}, total length: {}",
-                            userId,
-                            fullResponse.length());
-                      } catch (Exception e) {
-                        log.debug("Failed to send completion event: {}", e.getMessage());
-                      }
-                    })
-                .doOnError(
-                    error -> {
-                      log.error("Streaming error for user {}: {}", userId, error.getMessage());
-                      try {
-                        emitter.send(
-                            SseEmitter.event()
-                                .name("error")
-                                .data("AI processing failed: " + error.getMessage()));
-                        emitter.completeWithError(error);
-                      } catch (Exception e) {
-                        log.debug("Failed to send error event: {}", e.getMessage());
-                      }
-                    })
-                .blockLast(); // Block in the virtual thread — safe with Java 21 virtual threads
-
-          } catch (Exception e) {
-            log.error("Failed to start streaming for user {}: {}", userId, e.getMessage(), e);
-            try {
-              emitter.send(
-                  SseEmitter.event()
-                      .name("error")
-                      .data("Failed to start AI processing: " + e.getMessage()));
-              emitter.completeWithError(e);
-            } catch (Exception ex) {
-              log.debug("Failed to send error to SSE emitter: {}", ex.getMessage());
-            }
-          }
-        });
-
-    emitter.onTimeout(() -> log.warn("SSE connection timed out for user {}", userId));
-    emitter.onCompletion(() -> log.debug("SSE connection completed for user {}", userId));
-
-    return emitter;
+    if (!streams.tryAcquire()) {
+      log.warn("Rejecting stream for user {}: {} streams open", userId, config.maxConcurrent());
+      throw new ApiException(
+          HttpStatus.TOO_MANY_REQUESTS,
+          "STREAM_CAPACITY_EXCEEDED",
+          "Too many AI responses are streaming right now; please retry shortly");
+    }
+
+    ActiveStream stream;
+    try {
+      SseEmitter emitter = newEmitter(config.timeout());
+      stream = new ActiveStream(userId, emitter, chatModelProvider.getModelName());
+      emitter.onTimeout(
+          () -> {
+            log.warn("SSE connection timed out for user {}", userId);
+            stream.abort("timeout");
+          });
+      emitter.onError(error -> stream.abort("client_error"));
+      emitter.onCompletion(() -> stream.abort("client_closed"));
+    } catch (RuntimeException e) {
+      streams.release();
+      throw e;
+    }
+
+    ChatModel model = chatModelProvider.getChatModel();
+    stream.start(
+        Mono.fromCallable(
+                () -> stream.sending(withinBudget(userId, buildPrompt(userId, request), model)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapMany(model::stream));
+    return stream.emitter;
+  }
+
+  /** Open streams on this node. */
+  public int activeStreams() {
+    return config.maxConcurrent() - streams.availablePermits();
+  }
+
+  SseEmitter newEmitter(Duration timeout) {
+    return new SseEmitter(timeout.toMillis());
+  }
+
+  private Prompt buildPrompt(UUID userId, SmartInputRequest request) {
+    String userPrompt = buildUserPrompt(userId, request);
+
+    boolean hasImage =
+        request.attachments() != null
+            && request.attachments().stream()
+                .anyMatch(a -> a.type() != null && a.type().toLowerCase().contains("image"));
+    boolean hasVoice =
+        request.attachments() != null
+            && request.attachments().stream()
+                .anyMatch(
+                    a ->
+                        a.type() != null
+                            && (a.type().toLowerCase().contains("audio")
+                                || a.type().toLowerCase().contains("voice")));
+
+    String systemPrompt = systemPromptService.getPromptForInputType(hasImage, hasVoice);
+    return new Prompt(List.of(new SystemMessage(systemPrompt), new UserMessage(userPrompt)));
+  }
+
+  /** Same pre-flight as {@link LlmGateway}: reject, or cap the output to what the budget leaves. */
+  private Prompt withinBudget(UUID userId, Prompt prompt, ChatModel model) {
+    TokenLedger.Preflight preflight =
+        tokenLedger.preflight(userId, prompt, LlmGateway.maxTokens(model));
+    return switch (preflight.decision()) {
+      case REJECT -> throw new LlmBudgetExceededException();
+      case DOWNGRADE -> LlmGateway.withMaxTokens(prompt, preflight.maxCompletionTokens());
+      case ALLOW -> prompt;
+    };
+  }
+
+  private static String text(ChatResponse response) {
+    return response.getResult() != null && response.getResult().getOutput() != null
+        ? response.getResult().getOutput().getText()
+        : null;
   }
 
   /**
-   * Build user prompt from smart input request. Reuses the same prompt format as
-   * SmartInputAIService.
+   * One stream from subscription to termination. Exactly one of complete, fail or abort wins; the
+   * stream permit is returned exactly once, whichever path gets there first.
    */
-  private String buildUserPrompt(UUID userId, SmartInputRequest request) {
-    StringBuilder prompt = new StringBuilder();
-    prompt.append("User input: \"").append(request.text()).append("\"");
-
-    if (request.attachments() != null && !request.attachments().isEmpty()) {
-      prompt.append("\n\nAttachments:");
-      for (var attachment : request.attachments()) {
-        prompt.append("\n- Type: ").append(attachment.mimeType());
-        if (attachment.extractedText() != null) {
-          prompt.append(", Extracted text: \"").append(attachment.extractedText()).append("\"");
+  private final class ActiveStream {
+    private final UUID userId;
+    private final SseEmitter emitter;
+    private final String modelName;
+    private final long startNanos = System.nanoTime();
+    private final Disposable.Swap subscription = Disposables.swap();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final AtomicInteger chunks = new AtomicInteger();
+    // Written on the upstream thread, read on the frame thread after completion
+    private volatile Usage usage;
+    // Set once the prompt passes the budget check; zero means nothing was sent
+    private volatile long promptEstimate;
+    // Only touched from the frame thread (publishOn serialises onNext/onComplete/onError)
+    private final StringBuilder fullResponse = new StringBuilder();
+    private final DraftStream drafts = draftExtractor.newStream();
+
+    private ActiveStream(UUID userId, SseEmitter emitter, String modelName) {
+      this.userId = userId;
+      this.emitter = emitter;
+      this.modelName = modelName;
+    }
+
+    void start(Flux<ChatResponse> responses) {
+      subscription.update(
+          responses
+              .doOnNext(this::captureUsage)
+              .mapNotNull(StreamingAIService::text)
+              .filter(token -> !token.isEmpty())
+              .doOnNext(this::onChunk)
+              .bufferTimeout(config.frameMaxChunks(), config.frameInterval())
+              .publishOn(Schedulers.boundedElastic())
+              .subscribe(this::sendFrame, this::fail, this::complete));
+    }
+
+    private Prompt sending(Prompt prompt) {
+      promptEstimate = tokenLedger.estimate(prompt);
+      return prompt;
+    }
+
+    private void captureUsage(ChatResponse response) {
+      if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
+        Usage reported = response.getMetadata().getUsage();
+        if (reported.getCompletionTokens() != null && reported.getCompletionTokens() > 0) {
+          usage = reported;
         }
-        if (attachment.metadata() != null) {
-          prompt.append(", Metadata: ").append(attachment.metadata());
+      }
+    }
+
+    private void onChunk(String token) {
+      if (chunks.getAndIncrement() == 0) {
+        llmMetrics.recordTimeToFirstToken(modelName, STREAM_MODE, System.nanoTime() - startNanos);
+      }
+    }
+
+    private void sendFrame(List<String> frame) {
+      String text = String.join("", frame);
+      fullResponse.append(text);
+      List<ExtractedDraft> closed = drafts.accept(text);
+      try {
+        emitter.send(SseEmitter.event().name("token").data(text));
+        for (ExtractedDraft draft : closed) {
+          emitter.send(SseEmitter.event().name("draft").data(draft, MediaType.APPLICATION_JSON));
         }
+      } catch (IOException | IllegalStateException e) {
+        // The client is gone; stop paying for tokens nobody will read
+        log.debug("Failed to send SSE frame for user {}: {}", userId, e.getMessage());
+        abort("client_gone");
       }
     }
 
-    if (request.voiceTranscription() != null) {
-      prompt
-          .append("\n\nVoice transcription: \"")
-          .append(request.voiceTranscription())
-          .append("\"");
+    private void complete() {
+      if (!finished.compareAndSet(false, true)) {
+        return;
+      }
+      llmMetrics.recordStream(modelName, STREAM_MODE, "success", System.nanoTime() - startNanos);
+      Usage reported = usage;
+      if (reported != null) {
+        int promptTokens = reported.getPromptTokens() != null ? reported.getPromptTokens() : 0;
+        llmMetrics.recordTokens(
+            modelName, STREAM_MODE, promptTokens, reported.getCompletionTokens(), 0, 0);
+      }
+      recordUsage();
+      release();
+      try {
+        // Send the complete response as a "done" event for client-side parsing
+        emitter.send(SseEmitter.event().name("done").data(fullResponse.toString()));
+        emitter.complete();
+        log.debug(
+            "Streaming completed for user {}, total length: {}, draft blocks: {}",
+            userId,
+            fullResponse.length(),
+            drafts.blocks());
+      } catch (Exception e) {
+        log.debug("Failed to send completion event: {}", e.getMessage());
+      }
     }
 
-    prompt.append("\n\nContext: User ID=").append(userId);
-    prompt.append(", Current time=").append(java.time.Instant.now());
-    prompt.append(", Timezone=").append(java.time.ZoneId.systemDefault());
+    private void fail(Throwable error) {
+      if (!finished.compareAndSet(false, true)) {
+        return;
+      }
+      String outcome = error instanceof LlmBudgetExceededException ? "over_budget" : "failure";
+      llmMetrics.recordStream(modelName, STREAM_MODE, outcome, System.nanoTime() - startNanos);
+      log.error("Streaming error for user {}: {}", userId, error.getMessage());
+      recordUsage();
+      release();
+      try {
+        emitter.send(
+            SseEmitter.event().name("error").data("AI processing failed: " + error.getMessage()));
+        emitter.completeWithError(error);
+      } catch (Exception e) {
+        log.debug("Failed to send error event: {}", e.getMessage());
+      }
+    }
+
+    /** Cancel the upstream if it is still running. Also the normal-completion callback. */
+    void abort(String reason) {
+      if (finished.compareAndSet(false, true)) {
+        subscription.dispose();
+        int emitted = chunks.get();
+        // Chunks are close to one token each; the mean of finished streams stands in for the rest
+        long avoided =
+            Math.max(0, Math.round(llmMetrics.meanOutputTokens(modelName, STREAM_MODE)) - emitted);
+        llmMetrics.recordStream(modelName, STREAM_MODE, "aborted", System.nanoTime() - startNanos);
+        llmMetrics.recordStreamAborted(modelName, STREAM_MODE, reason, avoided);
+        recordUsage();
+        log.info(
+            "Stream for user {} aborted ({}) after {} chunks; ~{} output tokens avoided",
+            userId,
+            reason,
+            emitted,
+            avoided);
+      }
+      release();
+    }
+
+    /**
+     * Book the stream against the user's budget, however it ended. Failed and aborted streams
+     * rarely carry usage, so those fall back to the prompt estimate plus one token per chunk
+     * emitted. Token metrics stay with completed streams, whose output mean sizes aborted ones.
+     */
+    private void recordUsage() {
+      Usage reported = usage;
+      long promptTokens;
+      long completionTokens;
+      if (reported != null) {
+        promptTokens = reported.getPromptTokens() != null ? reported.getPromptTokens() : 0;
+        completionTokens = reported.getCompletionTokens();
+      } else if (promptEstimate > 0) {
+        promptTokens = promptEstimate;
+        completionTokens = chunks.get();
+      } else {
+        return;
+      }
+      tokenLedger.record(userId, STREAM_MODE, modelName, promptTokens, completionTokens);
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        streams.release();
+      }
+    }
+  }
 
-    return prompt.toString();
+  /** Build user prompt from smart input request, in the same format as SmartInputAIService. */
+  private String buildUserPrompt(UUID userId, SmartInputRequest request) {
+    List<String> attachmentLines =
+        request.attachments() == null
+            ? List.of()
+            : request.attachments().stream()
+                .map(
+                    a ->
+                        SmartInputPrompts.attachmentLine(
+                            a.mimeType(), a.extractedText(), a.metadata()))
+                .toList();
+    return SmartInputPrompts.userPrompt(
+        userId, request.text(), attachmentLines, request.voiceTranscription());
   }
 }
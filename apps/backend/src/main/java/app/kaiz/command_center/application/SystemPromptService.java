@@ -1,16 +1,18 @@
 package app.kaiz.command_center.application;
 
-import app.kaiz.admin.domain.SystemPrompt;
-import app.kaiz.admin.infrastructure.SystemPromptRepository;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 /**
- * Service to fetch system prompts from the database. Falls back to hardcoded prompts if database
- * prompts are not available.
+ * Service to fetch system prompts. Active prompts come from the in-memory {@link PromptRegistry};
+ * falls back to hardcoded prompts if a prompt is missing or inactive in the database.
+ *
+ * <p>Prompts are compiled {@link PromptTemplate}s rendered per call; the built-in date variables
+ * are filled in at render time, so they are always current.
  */
 @Slf4j
 @Service
@@ -22,10 +24,23 @@ public class SystemPromptService {
   public static final String VOICE_TRANSCRIPTION_MAIN = "voice_transcription_main";
   public static final String CLARIFICATION_MAIN = "clarification_main";
 
-  private final SystemPromptRepository systemPromptRepository;
+  // Built-in variables, available to every prompt
+  public static final String TOMORROW_DATE = "TOMORROW_DATE";
+  public static final String TODAY_DATE = "TODAY_DATE";
+  public static final String CURRENT_YEAR = "CURRENT_YEAR";
 
-  public SystemPromptService(SystemPromptRepository systemPromptRepository) {
-    this.systemPromptRepository = systemPromptRepository;
+  static final Set<String> BUILT_IN_VARIABLES = Set.of(TOMORROW_DATE, TODAY_DATE, CURRENT_YEAR);
+
+  /** Version used for the hardcoded fallbacks; database versions start at 1. */
+  private static final int FALLBACK_VERSION = 0;
+
+  private final PromptRegistry promptRegistry;
+
+  // Compiled fallbacks by prompt key; their content never changes at runtime
+  private final Map<String, PromptTemplate> fallbacks = new ConcurrentHashMap<>();
+
+  public SystemPromptService(PromptRegistry promptRegistry) {
+    this.promptRegistry = promptRegistry;
   }
 
   /**
@@ -60,80 +75,73 @@ public class SystemPromptService {
    * @param fallbackDescription description for logging if fallback is used
    * @return the prompt content with date variables replaced
    */
-  @Cacheable(value = "systemPrompts", key = "#promptKey")
   public String getPromptByKey(String promptKey, String fallbackDescription) {
-    try {
-      Optional<SystemPrompt> promptOpt = systemPromptRepository.findByPromptKey(promptKey);
-
-      if (promptOpt.isPresent() && promptOpt.get().isActive()) {
-        String content = promptOpt.get().getPromptContent();
-        log.info(
-            "Using DATABASE prompt: {} (version {}, length={})",
-            promptKey,
-            promptOpt.get().getVersion(),
-            content.length());
-        return replaceDateVariables(content);
-      } else {
-        log.warn(
-            "Prompt '{}' not found or inactive in database, using fallback for {}",
-            promptKey,
-            fallbackDescription);
-        return getFallbackPrompt(promptKey);
-      }
-    } catch (org.springframework.dao.DataAccessException e) {
-      log.error("Error fetching prompt '{}' from database: {}", promptKey, e.getMessage());
-      return getFallbackPrompt(promptKey);
-    }
+    return getTemplate(promptKey, fallbackDescription).render(builtInVariables());
   }
 
   /**
-   * Get the clarification prompt.
+   * Get the compiled template for a prompt, for callers that render it with their own variables.
+   * Built-in variables are not filled in; resolve them from {@link #builtInVariables()}.
    *
-   * @return the clarification prompt content
+   * @param promptKey the prompt key
+   * @param fallbackDescription description for logging if fallback is used
+   * @return the compiled template of the active version, or of the hardcoded fallback
    */
-  public String getClarificationPrompt() {
-    return getPromptByKey(CLARIFICATION_MAIN, "clarification");
+  public PromptTemplate getTemplate(String promptKey, String fallbackDescription) {
+    PromptTemplate template = promptRegistry.find(promptKey);
+    if (template != null) {
+      return template;
+    }
+    // Warn once per key; the fallback is memoised until the key shows up in the registry
+    return fallbacks.computeIfAbsent(
+        promptKey,
+        key -> {
+          log.warn(
+              "Prompt '{}' not found or inactive in database, using fallback for {}",
+              key,
+              fallbackDescription);
+          return getFallbackTemplate(key);
+        });
+  }
+
+  /** Values of the built-in date variables for today. */
+  public Map<String, String> builtInVariables() {
+    LocalDate today = LocalDate.now();
+    return Map.of(
+        TOMORROW_DATE, today.plusDays(1).toString(),
+        TODAY_DATE, today.toString(),
+        CURRENT_YEAR, String.valueOf(today.getYear()));
   }
 
   /**
-   * Replace date variables in the prompt content.
+   * Get the clarification prompt.
    *
-   * @param content the prompt content
-   * @return content with date variables replaced
+   * @return the clarification prompt content
    */
-  private String replaceDateVariables(String content) {
-    if (content == null) return "";
-
-    String tomorrowDate = LocalDate.now().plusDays(1).toString();
-    String todayDate = LocalDate.now().toString();
-    String currentYear = String.valueOf(LocalDate.now().getYear());
-
-    return content
-        .replace("{{TOMORROW_DATE}}", tomorrowDate)
-        .replace("{{TODAY_DATE}}", todayDate)
-        .replace("{{CURRENT_YEAR}}", currentYear);
+  public String getClarificationPrompt() {
+    return getPromptByKey(CLARIFICATION_MAIN, "clarification");
   }
 
   /**
    * Get fallback hardcoded prompt if database is unavailable.
    *
    * @param promptKey the prompt key
-   * @return hardcoded prompt content
+   * @return compiled hardcoded prompt
    */
-  private String getFallbackPrompt(String promptKey) {
-    String tomorrowDate = LocalDate.now().plusDays(1).toString();
-
+  private PromptTemplate getFallbackTemplate(String promptKey) {
     // Minimal fallback prompts - database prompts should be preferred
-    return switch (promptKey) {
-      case SMART_INPUT_MAIN -> getFallbackSmartInputPrompt(tomorrowDate);
-      case IMAGE_ANALYSIS_MAIN -> getFallbackImageAnalysisPrompt();
-      case VOICE_TRANSCRIPTION_MAIN -> getFallbackVoicePrompt();
-      case CLARIFICATION_MAIN -> getFallbackClarificationPrompt();
-      default -> getFallbackSmartInputPrompt(tomorrowDate);
-    };
+    String content =
+        switch (promptKey) {
+          case SMART_INPUT_MAIN -> getFallbackSmartInputPrompt();
+          case IMAGE_ANALYSIS_MAIN -> getFallbackImageAnalysisPrompt();
+          case VOICE_TRANSCRIPTION_MAIN -> getFallbackVoicePrompt();
+          case CLARIFICATION_MAIN -> getFallbackClarificationPrompt();
+          default -> getFallbackSmartInputPrompt();
+        };
+    return PromptTemplate.compile(promptKey, FALLBACK_VERSION, content, BUILT_IN_VARIABLES);
   }
 
-  private String getFallbackSmartInputPrompt(String tomorrowDate) {
+  private String getFallbackSmartInputPrompt() {
     return """
         You are Kaiz AI, a productivity assistant. Transform user inputs into structured entities.
 
@@ -157,9 +165,8 @@ public class SystemPromptService {
           "clarificationFlow": null | { "questions": [...] }
         }
 
-        Tomorrow's date: %s
-        """
-        .formatted(tomorrowDate);
+        Tomorrow's date: {{TOMORROW_DATE}}
+        """;
   }
 
   private String getFallbackImageAnalysisPrompt() {
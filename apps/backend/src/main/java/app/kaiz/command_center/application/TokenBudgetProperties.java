@@ -0,0 +1,41 @@
+package app.kaiz.command_center.application;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Daily LLM token budgets enforced by {@link TokenLedger}, bound from {@code kaiz.ai.budget}.
+ *
+ * @param enabled master switch for pre-flight checks; usage is recorded either way
+ * @param defaultDailyTokens budget for tiers not listed in {@code dailyTokens}; zero or less means
+ *     unlimited
+ * @param dailyTokens prompt plus completion tokens per user per UTC day, keyed by subscription tier
+ * @param minCompletionTokens smallest output cap a call is downgraded to; below it the call is
+ *     rejected
+ * @param imageTokens prompt tokens assumed per image attachment
+ * @param tierCacheTtl how long a user's subscription tier is cached
+ * @param spendCacheTtl how long a user's persisted total for the day is reused between checks
+ */
+@ConfigurationProperties(prefix = "kaiz.ai.budget")
+public record TokenBudgetProperties(
+    boolean enabled,
+    long defaultDailyTokens,
+    Map<String, Long> dailyTokens,
+    int minCompletionTokens,
+    int imageTokens,
+    Duration tierCacheTtl,
+    Duration spendCacheTtl) {
+
+  public TokenBudgetProperties {
+    dailyTokens = dailyTokens != null ? Map.copyOf(dailyTokens) : Map.of();
+    minCompletionTokens = minCompletionTokens > 0 ? minCompletionTokens : 256;
+    imageTokens = imageTokens > 0 ? imageTokens : 1600;
+    tierCacheTtl = tierCacheTtl != null ? tierCacheTtl : Duration.ofMinutes(5);
+    spendCacheTtl = spendCacheTtl != null ? spendCacheTtl : Duration.ofSeconds(30);
+  }
+
+  public long dailyTokensFor(String tier) {
+    return tier != null ? dailyTokens.getOrDefault(tier, defaultDailyTokens) : defaultDailyTokens;
+  }
+}
@@ -0,0 +1,75 @@
+package app.kaiz.command_center.application;
+
+/**
+ * Local token estimate for prompt budgeting, without a provider tokenizer round trip.
+ *
+ * <p>Approximates BPE tokenizers: a run of letters or digits costs one token per four characters
+ * (at least one), ideographs and other symbols cost one each, and whitespace is free. It is not
+ * exact, but it tracks provider counts closely enough for chat text to keep prompts near a budget.
+ */
+final class TokenEstimator {
+
+  private static final int CHARS_PER_TOKEN = 4;
+
+  private TokenEstimator() {}
+
+  static int estimate(CharSequence text) {
+    if (text == null) {
+      return 0;
+    }
+    int tokens = 0;
+    int run = 0;
+    for (int i = 0; i < text.length(); ) {
+      int cp = Character.codePointAt(text, i);
+      i += Character.charCount(cp);
+      if (isWordChar(cp)) {
+        run++;
+        continue;
+      }
+      tokens += runTokens(run);
+      run = 0;
+      if (!Character.isWhitespace(cp)) {
+        tokens++;
+      }
+    }
+    return tokens + runTokens(run);
+  }
+
+  /** The longest prefix of {@code text} estimated at no more than {@code maxTokens}, with "…". */
+  static String truncate(String text, int maxTokens) {
+    if (estimate(text) <= maxTokens) {
+      return text;
+    }
+    int budget = maxTokens - 1; // the ellipsis
+    int tokens = 0;
+    int run = 0;
+    int end = 0;
+    for (int i = 0; i < text.length(); ) {
+      int cp = text.codePointAt(i);
+      int cost;
+      if (isWordChar(cp)) {
+        // Each fourth character of a run starts a new token
+        cost = run % CHARS_PER_TOKEN == 0 ? 1 : 0;
+        run++;
+      } else {
+        run = 0;
+        cost = Character.isWhitespace(cp) ? 0 : 1;
+      }
+      if (tokens + cost > budget) {
+        break;
+      }
+      tokens += cost;
+      i += Character.charCount(cp);
+      end = i;
+    }
+    return end > 0 ? text.substring(0, end).stripTrailing() + "…" : "";
+  }
+
+  private static boolean isWordChar(int cp) {
+    return Character.isLetterOrDigit(cp) && !Character.isIdeographic(cp);
+  }
+
+  private static int runTokens(int run) {
+    return (run + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+  }
+}
@@ -0,0 +1,281 @@
+package app.kaiz.command_center.application;
+
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.DailySpend;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.Delta;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.ModeSpend;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.UserSpend;
+import app.kaiz.identity.infrastructure.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user, per-day ledger of LLM token usage, and the pre-flight budget check that reads it.
+ *
+ * <p>{@link #record} only adds to striped counters in a concurrent map, so concurrent calls never
+ * wait on each other or on the database. A scheduled flush drains the counters and writes them as
+ * one batch of upserts; if the write fails the amounts are put back for the next flush.
+ *
+ * <p>{@link #preflight} weighs a call's estimated prompt against what is left of the user's daily
+ * budget for their subscription tier ({@link TokenBudgetProperties}): the call goes ahead, goes
+ * ahead with its output capped to what remains, or is rejected before anything is paid for. The
+ * spent figure is the persisted total, reused for {@code spendCacheTtl}, plus this node's unflushed
+ * usage; it can trail other nodes by a flush interval, so a budget is a spending guard rather than
+ * an exact quota.
+ */
+@Component
+@Slf4j
+public class TokenLedger {
+
+  /** Ledger user for calls that are not made on behalf of a user. */
+  public static final UUID UNATTRIBUTED = new UUID(0, 0);
+
+  private static final Comparator<Delta> LOCK_ORDER =
+      Comparator.comparing(Delta::userId)
+          .thenComparing(Delta::usageDate)
+          .thenComparing(Delta::mode)
+          .thenComparing(Delta::model);
+
+  public enum Decision {
+    ALLOW,
+    DOWNGRADE,
+    REJECT
+  }
+
+  /**
+   * Outcome of a pre-flight check.
+   *
+   * @param maxCompletionTokens output cap for a downgraded call; 0 otherwise
+   * @param remainingTokens what was left of the day's budget before the call; -1 when unlimited
+   */
+  public record Preflight(Decision decision, int maxCompletionTokens, long remainingTokens) {
+    static final Preflight UNLIMITED = new Preflight(Decision.ALLOW, 0, -1);
+  }
+
+  private record Key(UUID userId, LocalDate day, String mode, String model) {}
+
+  private record UserDay(UUID userId, LocalDate day) {}
+
+  private static final class Usage {
+    final LongAdder calls = new LongAdder();
+    final LongAdder promptTokens = new LongAdder();
+    final LongAdder completionTokens = new LongAdder();
+  }
+
+  private final TokenLedgerRepository repository;
+  private final UserRepository userRepository;
+  private final TokenBudgetProperties properties;
+  private final Map<Key, Usage> pending = new ConcurrentHashMap<>();
+  // This node's tokens per user and day that are not in the database yet
+  private final Map<UserDay, LongAdder> unflushed = new ConcurrentHashMap<>();
+  private final Cache<UserDay, Long> persisted;
+  private final Cache<UUID, String> tiers;
+
+  public TokenLedger(
+      TokenLedgerRepository repository,
+      UserRepository userRepository,
+      TokenBudgetProperties properties) {
+    this.repository = repository;
+    this.userRepository = userRepository;
+    this.properties = properties;
+    this.persisted =
+        Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(properties.spendCacheTtl())
+            .build();
+    this.tiers =
+        Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(properties.tierCacheTtl())
+            .build();
+  }
+
+  /**
+   * Book the provider-reported usage of one call.
+   *
+   * @param userId the user the call was made for, or null for {@link #UNATTRIBUTED}
+   */
+  public void record(
+      UUID userId, String mode, String model, long promptTokens, long completionTokens) {
+    Key key =
+        new Key(
+            userId != null ? userId : UNATTRIBUTED,
+            today(),
+            mode != null ? mode : "DEFAULT",
+            model != null ? model : "unknown");
+    Usage usage = pending.get(key);
+    if (usage == null) {
+      usage = pending.computeIfAbsent(key, k -> new Usage());
+    }
+    usage.calls.increment();
+    usage.promptTokens.add(promptTokens);
+    usage.completionTokens.add(completionTokens);
+    unflushed
+        .computeIfAbsent(new UserDay(key.userId(), key.day()), k -> new LongAdder())
+        .add(promptTokens + completionTokens);
+  }
+
+  /**
+   * Decide whether a call fits the user's remaining budget for today. Fails open: if the ledger
+   * cannot be read the call is allowed.
+   *
+   * @param userId the user the call is for; null is never limited
+   * @param estimatedPromptTokens local estimate of the prompt
+   * @param maxCompletionTokens the output cap the call would otherwise run with
+   */
+  public Preflight preflight(UUID userId, long estimatedPromptTokens, int maxCompletionTokens) {
+    if (!properties.enabled() || userId == null) {
+      return Preflight.UNLIMITED;
+    }
+    try {
+      long budget = properties.dailyTokensFor(tier(userId));
+      if (budget <= 0) {
+        return Preflight.UNLIMITED;
+      }
+      long remaining = budget - spentToday(userId);
+      long forOutput = remaining - estimatedPromptTokens;
+      if (forOutput >= maxCompletionTokens) {
+        return new Preflight(Decision.ALLOW, 0, remaining);
+      }
+      if (forOutput >= properties.minCompletionTokens()) {
+        return new Preflight(Decision.DOWNGRADE, (int) forOutput, remaining);
+      }
+      return new Preflight(Decision.REJECT, 0, remaining);
+    } catch (DataAccessException e) {
+      log.warn("Token budget check failed for user {}; allowing call: {}", userId, e.getMessage());
+      return Preflight.UNLIMITED;
+    }
+  }
+
+  /** {@link #preflight(UUID, long, int)} for a built prompt, estimated with {@link #estimate}. */
+  public Preflight preflight(UUID userId, Prompt prompt, int maxCompletionTokens) {
+    if (!properties.enabled() || userId == null) {
+      return Preflight.UNLIMITED;
+    }
+    return preflight(userId, estimate(prompt), maxCompletionTokens);
+  }
+
+  /**
+   * Local estimate of a prompt's input tokens: {@link TokenEstimator} over each message plus {@code
+   * imageTokens} per media attachment.
+   */
+  public long estimate(Prompt prompt) {
+    long estimate = 0;
+    for (Message message : prompt.getInstructions()) {
+      estimate += TokenEstimator.estimate(message.getText() != null ? message.getText() : "");
+      if (message instanceof UserMessage user) {
+        estimate += (long) user.getMedia().size() * properties.imageTokens();
+      }
+    }
+    return estimate;
+  }
+
+  /** Tokens booked for a user today, including this node's unflushed usage. */
+  public long spentToday(UUID userId) {
+    UserDay userDay = new UserDay(userId, today());
+    Long stored = persisted.get(userDay, k -> repository.totalTokens(k.userId(), k.day()));
+    LongAdder local = unflushed.get(userDay);
+    return (stored != null ? stored : 0) + (local != null ? local.sum() : 0);
+  }
+
+  /** Write pending usage to the database as one batch of upserts. */
+  @Scheduled(fixedDelayString = "${kaiz.ai.budget.flush-ms:5000}")
+  public synchronized void flush() {
+    LocalDate today = today();
+    List<Delta> deltas = new ArrayList<>();
+    for (Map.Entry<Key, Usage> entry : pending.entrySet()) {
+      Key key = entry.getKey();
+      Usage usage = entry.getValue();
+      long calls = usage.calls.sumThenReset();
+      long prompt = usage.promptTokens.sumThenReset();
+      long completion = usage.completionTokens.sumThenReset();
+      if (calls == 0 && prompt == 0 && completion == 0) {
+        // Calls still in flight at midnight can book against yesterday, but not the day before
+        if (key.day().isBefore(today.minusDays(1))) {
+          pending.remove(key, usage);
+        }
+        continue;
+      }
+      deltas.add(
+          new Delta(key.userId(), key.day(), key.mode(), key.model(), calls, prompt, completion));
+    }
+    unflushed.keySet().removeIf(userDay -> userDay.day().isBefore(today.minusDays(1)));
+    if (deltas.isEmpty()) {
+      return;
+    }
+
+    deltas.sort(LOCK_ORDER);
+    try {
+      repository.upsert(deltas);
+    } catch (RuntimeException e) {
+      log.warn(
+          "Token ledger flush of {} rows failed; will retry: {}", deltas.size(), e.getMessage());
+      deltas.forEach(this::restore);
+      return;
+    }
+    for (Delta delta : deltas) {
+      UserDay userDay = new UserDay(delta.userId(), delta.usageDate());
+      LongAdder local = unflushed.get(userDay);
+      if (local != null) {
+        local.add(-(delta.promptTokens() + delta.completionTokens()));
+      }
+      persisted.invalidate(userDay);
+    }
+    log.debug("Flushed {} token ledger rows", deltas.size());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+
+  // ── Admin spend views (persisted usage; the last flush interval may be missing) ──
+
+  public List<DailySpend> dailySpend(LocalDate from, LocalDate to) {
+    return repository.dailySpend(from, to);
+  }
+
+  public List<UserSpend> topUsers(LocalDate from, LocalDate to, int limit) {
+    return repository.topUsers(from, to, limit);
+  }
+
+  public List<ModeSpend> modeSpend(LocalDate from, LocalDate to) {
+    return repository.modeSpend(from, to);
+  }
+
+  private void restore(Delta delta) {
+    Usage usage =
+        pending.computeIfAbsent(
+            new Key(delta.userId(), delta.usageDate(), delta.mode(), delta.model()),
+            k -> new Usage());
+    usage.calls.add(delta.calls());
+    usage.promptTokens.add(delta.promptTokens());
+    usage.completionTokens.add(delta.completionTokens());
+  }
+
+  private String tier(UUID userId) {
+    return tiers.get(
+        userId, id -> userRepository.findSubscriptionTierById(id).map(Enum::name).orElse(null));
+  }
+
+  private static LocalDate today() {
+    return LocalDate.now(ZoneOffset.UTC);
+  }
+}
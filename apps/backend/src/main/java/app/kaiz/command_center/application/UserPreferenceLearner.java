@@ -3,18 +3,30 @@ package app.kaiz.command_center.application;
 import app.kaiz.command_center.domain.DraftFeedbackRecord;
 import app.kaiz.command_center.domain.UserCoachPreference;
 import app.kaiz.command_center.infrastructure.DraftFeedbackRecordRepository;
+import app.kaiz.command_center.infrastructure.PreferenceLearningRepository;
+import app.kaiz.command_center.infrastructure.PreferenceLearningRepository.LearningState;
 import app.kaiz.command_center.infrastructure.UserCoachPreferenceRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Learns user preferences from recurring draft modifications. Analyzes MODIFIED feedback to detect
@@ -22,10 +34,14 @@ import org.springframework.transaction.annotation.Transactional;
  * UserCoachPreference#getCorrectionPatterns()} so future AI prompts can include {@code
  * {{userCorrectionPatterns}}}.
  *
- * <p>Runs daily via {@code @Scheduled} and can also be invoked on-demand after each modification.
+ * <p>Learning is incremental. {@link DraftFeedbackCollector} queues a user when a modification is
+ * recorded; a periodic run visits only queued users, reads their modifications since the stored
+ * watermark and merges the field changes into the stored counts, from which the patterns are
+ * re-derived. Users are learned in parallel batches, a bounded number at a time, each in its own
+ * transaction. Modifications younger than the settle delay are left for the next run, so a
+ * feedback transaction still in flight is not skipped by the watermark.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
 public class UserPreferenceLearner {
@@ -36,82 +52,59 @@ public class UserPreferenceLearner {
   /** Maximum number of correction patterns stored per user. */
   private static final int MAX_PATTERNS = 20;
 
+  /**
+   * Distinct values counted per field. Free-text fields would otherwise grow without bound; when
+   * full, the oldest of the least frequent values is dropped.
+   */
+  private static final int MAX_TRACKED_VALUES = 50;
+
+  private static final TypeReference<Map<String, Map<String, Integer>>> COUNTS_TYPE =
+      new TypeReference<>() {};
+
   private final DraftFeedbackRecordRepository feedbackRepository;
   private final UserCoachPreferenceRepository preferenceRepository;
+  private final PreferenceLearningRepository learningRepository;
   private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration settleDelay;
+  private final int batchSize;
+  private final Semaphore learnPermits;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public UserPreferenceLearner(
+      DraftFeedbackRecordRepository feedbackRepository,
+      UserCoachPreferenceRepository preferenceRepository,
+      PreferenceLearningRepository learningRepository,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${kaiz.ai.preference-learning.settle-delay:60s}") Duration settleDelay,
+      @Value("${kaiz.ai.preference-learning.batch-size:200}") int batchSize,
+      @Value("${kaiz.ai.preference-learning.max-concurrent:4}") int maxConcurrent) {
+    this.feedbackRepository = feedbackRepository;
+    this.preferenceRepository = preferenceRepository;
+    this.learningRepository = learningRepository;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.settleDelay = settleDelay;
+    this.batchSize = batchSize;
+    this.learnPermits = new Semaphore(maxConcurrent);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
 
   /**
-   * Analyze modifications for a specific user and update their correction patterns.
+   * Merge a user's modifications since the last run into their correction counts and update their
+   * correction patterns.
    *
    * @param userId the user to learn from
-   * @return number of new patterns detected
+   * @return number of correction patterns derived, or 0 if there was nothing new to merge
    */
   @Transactional
   public int learnFromUser(UUID userId) {
-    List<DraftFeedbackRecord> modifications = feedbackRepository.findModificationsByUser(userId);
-
-    if (modifications.size() < PATTERN_THRESHOLD) {
-      log.debug(
-          "Not enough modifications for userId={} (have {}, need {})",
-          userId,
-          modifications.size(),
-          PATTERN_THRESHOLD);
-      return 0;
-    }
-
-    // Extract field-level diffs from original vs modified JSON
-    Map<String, Map<String, Integer>> fieldChangeCounts = new HashMap<>();
-
-    for (DraftFeedbackRecord record : modifications) {
-      if (record.getOriginalDraftJson() == null || record.getModifiedDraftJson() == null) {
-        continue;
-      }
-      extractDiffs(record.getOriginalDraftJson(), record.getModifiedDraftJson(), fieldChangeCounts);
-    }
-
-    // Find patterns that exceed the threshold
-    List<CorrectionPattern> patterns =
-        fieldChangeCounts.entrySet().stream()
-            .flatMap(
-                fieldEntry ->
-                    fieldEntry.getValue().entrySet().stream()
-                        .filter(change -> change.getValue() >= PATTERN_THRESHOLD)
-                        .map(
-                            change ->
-                                new CorrectionPattern(
-                                    fieldEntry.getKey(), change.getKey(), change.getValue())))
-            .sorted(Comparator.comparingInt(CorrectionPattern::count).reversed())
-            .limit(MAX_PATTERNS)
-            .toList();
-
-    if (patterns.isEmpty()) {
-      log.debug("No recurring correction patterns found for userId={}", userId);
-      return 0;
-    }
-
-    // Persist to user preferences
-    Optional<UserCoachPreference> prefOpt = preferenceRepository.findByUserId(userId);
-    if (prefOpt.isEmpty()) {
-      log.debug("No coach preferences found for userId={}, skipping pattern save", userId);
-      return 0;
-    }
-
-    UserCoachPreference prefs = prefOpt.get();
-    try {
-      String patternsJson = objectMapper.writeValueAsString(patterns);
-      prefs.setCorrectionPatterns(patternsJson);
-      preferenceRepository.save(prefs);
-      log.info(
-          "Updated {} correction patterns for userId={}: {}",
-          patterns.size(),
-          userId,
-          patterns.stream().map(CorrectionPattern::field).distinct().toList());
-    } catch (JsonProcessingException e) {
-      log.error(
-          "Failed to serialize correction patterns for userId={}: {}", userId, e.getMessage());
-    }
-
-    return patterns.size();
+    return learn(userId, Instant.now().minus(settleDelay));
   }
 
   /**
@@ -148,36 +141,148 @@ public class UserPreferenceLearner {
     }
   }
 
-  /** Daily scheduled job: re-learn patterns for all users who have MODIFIED feedback. */
-  @Scheduled(cron = "0 0 3 * * *", zone = "UTC")
-  @Transactional
-  public void dailyPatternLearning() {
-    log.info("Starting daily correction pattern learning");
-    List<UserCoachPreference> allPrefs = preferenceRepository.findAll();
-    int totalPatterns = 0;
+  /**
+   * Periodic job: learn every queued user, in keyset-paged batches whose users are learned in
+   * parallel. A user that fails stays queued for the next run.
+   */
+  @Scheduled(fixedDelayString = "${kaiz.ai.preference-learning.interval-ms:900000}")
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void learnPendingUsers() {
+    Instant through = Instant.now().minus(settleDelay);
+    int usersVisited = 0;
     int usersUpdated = 0;
+    int failures = 0;
 
-    for (UserCoachPreference pref : allPrefs) {
-      if (pref.getTotalDraftsModified() >= PATTERN_THRESHOLD) {
-        int count = learnFromUser(pref.getUser().getId());
-        if (count > 0) {
-          totalPatterns += count;
+    UUID after = new UUID(0, 0);
+    List<UUID> batch;
+    do {
+      batch = learningRepository.findPendingUserIds(after, batchSize);
+      List<CompletableFuture<Integer>> results =
+          batch.stream()
+              .map(
+                  userId ->
+                      CompletableFuture.supplyAsync(() -> learnQueued(userId, through), executor))
+              .toList();
+      for (CompletableFuture<Integer> result : results) {
+        int patterns = result.join();
+        if (patterns < 0) {
+          failures++;
+        } else if (patterns > 0) {
           usersUpdated++;
         }
       }
+      usersVisited += batch.size();
+      if (!batch.isEmpty()) {
+        after = batch.getLast();
+      }
+    } while (batch.size() == batchSize);
+
+    if (usersVisited > 0) {
+      log.info(
+          "Pattern learning complete: {} users visited, {} updated, {} failed",
+          usersVisited,
+          usersUpdated,
+          failures);
+    }
+  }
+
+  /** Learn one queued user in its own transaction; -1 if it failed. */
+  private int learnQueued(UUID userId, Instant through) {
+    learnPermits.acquireUninterruptibly();
+    try {
+      Integer patterns = transactionTemplate.execute(status -> learn(userId, through));
+      return patterns != null ? patterns : 0;
+    } catch (RuntimeException e) {
+      log.warn("Pattern learning failed for userId={}: {}", userId, e.getMessage());
+      return -1;
+    } finally {
+      learnPermits.release();
+    }
+  }
+
+  private int learn(UUID userId, Instant through) {
+    Optional<LearningState> state = learningRepository.lockState(userId);
+    if (state.isEmpty()) {
+      log.debug("No coach preferences found for userId={}, skipping pattern learning", userId);
+      return 0;
+    }
+    Instant after =
+        state.get().learnedThrough() != null ? state.get().learnedThrough() : Instant.EPOCH;
+    if (!after.isBefore(through)) {
+      return 0;
+    }
+
+    List<DraftFeedbackRecord> modifications =
+        feedbackRepository.findModificationsByUserBetween(userId, after, through);
+    if (modifications.isEmpty()) {
+      learningRepository.advance(userId, through);
+      return 0;
+    }
+
+    // Merge field-level diffs from original vs modified JSON into the stored counts
+    Map<String, Map<String, Integer>> fieldChangeCounts = readCounts(state.get().countsJson());
+    for (DraftFeedbackRecord record : modifications) {
+      if (record.getOriginalDraftJson() == null || record.getModifiedDraftJson() == null) {
+        continue;
+      }
+      extractDiffs(record.getOriginalDraftJson(), record.getModifiedDraftJson(), fieldChangeCounts);
     }
 
-    log.info(
-        "Daily pattern learning complete: {} users updated, {} total patterns",
-        usersUpdated,
-        totalPatterns);
+    List<CorrectionPattern> patterns = patterns(fieldChangeCounts);
+    try {
+      learningRepository.saveState(
+          userId,
+          objectMapper.writeValueAsString(fieldChangeCounts),
+          objectMapper.writeValueAsString(patterns),
+          through);
+    } catch (JsonProcessingException e) {
+      log.error(
+          "Failed to serialize correction patterns for userId={}: {}", userId, e.getMessage());
+      return 0;
+    }
+    log.debug(
+        "Merged {} modifications for userId={}: {} patterns {}",
+        modifications.size(),
+        userId,
+        patterns.size(),
+        patterns.stream().map(CorrectionPattern::field).distinct().toList());
+    return patterns.size();
   }
 
   // ── Helpers ──
 
+  /** Patterns that reach the threshold, most frequent first. */
+  static List<CorrectionPattern> patterns(Map<String, Map<String, Integer>> fieldChangeCounts) {
+    return fieldChangeCounts.entrySet().stream()
+        .flatMap(
+            fieldEntry ->
+                fieldEntry.getValue().entrySet().stream()
+                    .filter(change -> change.getValue() >= PATTERN_THRESHOLD)
+                    .map(
+                        change ->
+                            new CorrectionPattern(
+                                fieldEntry.getKey(), change.getKey(), change.getValue())))
+        .sorted(Comparator.comparingInt(CorrectionPattern::count).reversed())
+        .limit(MAX_PATTERNS)
+        .toList();
+  }
+
+  private Map<String, Map<String, Integer>> readCounts(String json) {
+    if (json == null || json.isBlank()) {
+      return new LinkedHashMap<>();
+    }
+    try {
+      Map<String, Map<String, Integer>> counts = objectMapper.readValue(json, COUNTS_TYPE);
+      return counts != null ? counts : new LinkedHashMap<>();
+    } catch (JsonProcessingException e) {
+      log.warn("Discarding unreadable correction counts: {}", e.getMessage());
+      return new LinkedHashMap<>();
+    }
+  }
+
   /**
    * Extract field-level diffs between original and modified draft JSON. Tracks how many times each
-   * field was changed to a specific value.
+   * field was changed to a specific value, up to {@link #MAX_TRACKED_VALUES} values per field.
    */
   private void extractDiffs(
       String originalJson,
@@ -195,9 +300,12 @@ public class UserPreferenceLearner {
 
         if (modValue != null && !modValue.equals(origValue)) {
           String newValueStr = modValue.isTextual() ? modValue.asText() : modValue.toString();
-          fieldChangeCounts
-              .computeIfAbsent(field, k -> new HashMap<>())
-              .merge(newValueStr, 1, Integer::sum);
+          Map<String, Integer> values =
+              fieldChangeCounts.computeIfAbsent(field, k -> new LinkedHashMap<>());
+          if (!values.containsKey(newValueStr) && values.size() >= MAX_TRACKED_VALUES) {
+            evictLeastFrequent(values);
+          }
+          values.merge(newValueStr, 1, Integer::sum);
         }
       }
     } catch (JsonProcessingException e) {
@@ -205,6 +313,19 @@ public class UserPreferenceLearner {
     }
   }
 
+  /** Drop the first (oldest) of the values with the lowest count. */
+  private static void evictLeastFrequent(Map<String, Integer> values) {
+    String victim = null;
+    int min = Integer.MAX_VALUE;
+    for (Map.Entry<String, Integer> entry : values.entrySet()) {
+      if (entry.getValue() < min) {
+        min = entry.getValue();
+        victim = entry.getKey();
+      }
+    }
+    values.remove(victim);
+  }
+
   /** Immutable record representing a detected correction pattern. */
   public record CorrectionPattern(String field, String preferredValue, int count) {}
 }
@@ -33,10 +33,31 @@ public class ConversationSession extends BaseEntity {
   @Builder.Default
   private SessionStatus status = SessionStatus.ACTIVE;
 
-  @Column(name = "message_count", nullable = false)
+  /**
+   * The turn counters below are only ever bumped in SQL when a turn is stored, so entity saves
+   * must not write back the values loaded earlier.
+   */
+  @Column(name = "message_count", nullable = false, updatable = false)
   @Builder.Default
   private int messageCount = 0;
 
+  /** Highest message sequence number handed out in this session; bumped when a turn is stored. */
+  @Column(name = "last_sequence_number", nullable = false, updatable = false)
+  @Builder.Default
+  private int lastSequenceNumber = 0;
+
+  /**
+   * Rolling summary of messages up to {@link #summarizedThrough}; null until the first fold. Like
+   * the counters, written only by {@code ConversationSessionRepository.updateSummary}.
+   */
+  @Column(name = "summary", columnDefinition = "TEXT", updatable = false)
+  private String summary;
+
+  /** Sequence number of the newest message folded into {@link #summary}. */
+  @Column(name = "summarized_through", nullable = false, updatable = false)
+  @Builder.Default
+  private int summarizedThrough = 0;
+
   @Column(name = "started_at", nullable = false)
   @Builder.Default
   private Instant startedAt = Instant.now();
@@ -44,7 +65,7 @@ public class ConversationSession extends BaseEntity {
   @Column(name = "ended_at")
   private Instant endedAt;
 
-  @Column(name = "last_message_at", nullable = false)
+  @Column(name = "last_message_at", nullable = false, updatable = false)
   @Builder.Default
   private Instant lastMessageAt = Instant.now();
 
@@ -53,11 +74,6 @@ public class ConversationSession extends BaseEntity {
 
   // ── Business methods ──
 
-  public void addMessage() {
-    this.messageCount++;
-    this.lastMessageAt = Instant.now();
-  }
-
   public void close() {
     this.status = SessionStatus.CLOSED;
     this.endedAt = Instant.now();
@@ -0,0 +1,46 @@
+package app.kaiz.command_center.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * Persistent tier of the LLM response cache. Keyed by the SHA-256 of the exact request, so an
+ * entry is only ever reused for a byte-identical prompt.
+ */
+@Entity
+@Table(name = "llm_response_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LlmResponseCacheEntry {
+
+  @Id
+  @Column(name = "cache_key", length = 64)
+  private String cacheKey;
+
+  @Column(name = "model_name", nullable = false, length = 100)
+  private String modelName;
+
+  @Column(name = "mode", nullable = false, length = 50)
+  private String mode;
+
+  @Column(name = "response_text", nullable = false, columnDefinition = "TEXT")
+  private String responseText;
+
+  @Column(name = "input_tokens", nullable = false)
+  private long inputTokens;
+
+  @Column(name = "output_tokens", nullable = false)
+  private long outputTokens;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+}
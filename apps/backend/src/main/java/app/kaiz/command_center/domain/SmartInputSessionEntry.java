@@ -0,0 +1,44 @@
+package app.kaiz.command_center.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Persistent Smart Input session, shared by all replicas. The mutable session state lives in the
+ * jsonb {@code payload}; {@code version} is bumped on every write and guards concurrent updates.
+ * Rows past {@code expiresAt} are ignored on read and purged in the background.
+ */
+@Entity
+@Table(name = "smart_input_sessions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SmartInputSessionEntry {
+
+  @Id
+  @Column(name = "session_id")
+  private UUID sessionId;
+
+  @Column(name = "user_id", nullable = false)
+  private UUID userId;
+
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+  private Map<String, Object> payload;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+}
@@ -33,8 +33,9 @@ public class UserCoachPreference extends BaseEntity {
   @Builder.Default
   private ConversationSession.ChatMode defaultMode = ConversationSession.ChatMode.FREEFORM;
 
+  // Written by UserPreferenceLearner through PreferenceLearningRepository only
   @JdbcTypeCode(SqlTypes.JSON)
-  @Column(name = "correction_patterns", columnDefinition = "jsonb")
+  @Column(name = "correction_patterns", columnDefinition = "jsonb", updatable = false)
   @Builder.Default
   private String correctionPatterns = "[]";
 
@@ -1,7 +1,9 @@
 package app.kaiz.command_center.infrastructure;
 
 import app.kaiz.command_center.domain.ConversationMessage;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -23,12 +25,61 @@ public interface ConversationMessageRepository extends JpaRepository<Conversatio
   List<ConversationMessage> findRecentMessages(
       @Param("sessionId") UUID sessionId, Pageable pageable);
 
+  /** Newest messages after {@code afterSequence}, newest first. */
+  @Query(
+      "SELECT m FROM ConversationMessage m WHERE m.session.id = :sessionId "
+          + "AND m.sequenceNumber > :afterSequence ORDER BY m.sequenceNumber DESC")
+  List<ConversationMessage> findRecentMessagesAfter(
+      @Param("sessionId") UUID sessionId,
+      @Param("afterSequence") int afterSequence,
+      Pageable pageable);
+
+  /** Oldest messages strictly between two sequence numbers, oldest first. */
+  @Query(
+      "SELECT m FROM ConversationMessage m WHERE m.session.id = :sessionId "
+          + "AND m.sequenceNumber > :afterSequence AND m.sequenceNumber < :beforeSequence "
+          + "ORDER BY m.sequenceNumber")
+  List<ConversationMessage> findMessagesBetween(
+      @Param("sessionId") UUID sessionId,
+      @Param("afterSequence") int afterSequence,
+      @Param("beforeSequence") int beforeSequence,
+      Pageable pageable);
+
   /** Count messages in a session. */
   long countBySessionId(UUID sessionId);
 
-  /** Get the max sequence number in a session. */
+  /**
+   * Store one user/assistant turn in a single statement. The session row is updated first: its
+   * sequence counter and message count go up by two and its last-message time moves to {@code
+   * now}; both messages are then inserted with the two sequence numbers that update handed out.
+   * The row lock taken by the update orders concurrent turns on the same session.
+   *
+   * <p>Runs behind the persistence context's back, so a loaded {@code ConversationSession} does not
+   * see the new counters.
+   *
+   * @return the assistant message's sequence number, or empty if the session does not exist
+   */
   @Query(
-      "SELECT COALESCE(MAX(m.sequenceNumber), 0) FROM ConversationMessage m "
-          + "WHERE m.session.id = :sessionId")
-  int findMaxSequenceNumber(@Param("sessionId") UUID sessionId);
+      value =
+          "WITH s AS (UPDATE conversation_sessions SET"
+              + " last_sequence_number = last_sequence_number + 2,"
+              + " message_count = message_count + 2, last_message_at = :now, updated_at = :now"
+              + " WHERE id = :sessionId RETURNING last_sequence_number),"
+              + " m AS (INSERT INTO conversation_messages (id, session_id, role, content, intent,"
+              + " sequence_number, created_at, updated_at, created_by, updated_by)"
+              + " SELECT gen_random_uuid(), :sessionId, 'USER', :userContent,"
+              + " CAST(:intent AS VARCHAR), s.last_sequence_number - 1, :now, :now,"
+              + " CAST(:actor AS VARCHAR), CAST(:actor AS VARCHAR) FROM s"
+              + " UNION ALL SELECT gen_random_uuid(), :sessionId, 'ASSISTANT', :assistantContent,"
+              + " NULL, s.last_sequence_number, :now, :now,"
+              + " CAST(:actor AS VARCHAR), CAST(:actor AS VARCHAR) FROM s)"
+              + " SELECT last_sequence_number FROM s",
+      nativeQuery = true)
+  Optional<Integer> insertTurn(
+      @Param("sessionId") UUID sessionId,
+      @Param("userContent") String userContent,
+      @Param("assistantContent") String assistantContent,
+      @Param("intent") String intent,
+      @Param("actor") String actor,
+      @Param("now") Instant now);
 }
@@ -31,10 +31,37 @@ public interface ConversationSessionRepository extends JpaRepository<Conversatio
   /** Find sessions linked to a ceremony. */
   Optional<ConversationSession> findByCeremonyIdAndStatus(UUID ceremonyId, SessionStatus status);
 
-  /** Expire stale sessions older than cutoff. */
+  /**
+   * Replace a session's rolling summary, provided nobody else has moved it past {@code
+   * expectedThrough} in the meantime.
+   *
+   * <p>Native SQL, because the entity maps both columns as not updatable.
+   *
+   * @return 1 if the summary was written, 0 if it changed concurrently
+   */
   @Modifying
   @Query(
-      "UPDATE ConversationSession s SET s.status = 'EXPIRED', s.endedAt = :now "
-          + "WHERE s.status = 'ACTIVE' AND s.lastMessageAt < :cutoff")
-  int expireStaleSessions(@Param("now") Instant now, @Param("cutoff") Instant cutoff);
+      value =
+          "UPDATE conversation_sessions SET summary = :summary, summarized_through = :through"
+              + " WHERE id = :sessionId AND summarized_through = :expectedThrough",
+      nativeQuery = true)
+  int updateSummary(
+      @Param("sessionId") UUID sessionId,
+      @Param("expectedThrough") int expectedThrough,
+      @Param("summary") String summary,
+      @Param("through") int through);
+
+  /**
+   * Expire up to {@code limit} active sessions idle since before {@code cutoff}. Sessions locked by
+   * an in-flight turn are skipped and picked up by a later run.
+   */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE conversation_sessions SET status = 'EXPIRED', ended_at = :now, updated_at = :now"
+              + " WHERE id IN (SELECT id FROM conversation_sessions WHERE status = 'ACTIVE'"
+              + " AND last_message_at < :cutoff LIMIT :limit FOR UPDATE SKIP LOCKED)",
+      nativeQuery = true)
+  int expireStaleSessions(
+      @Param("now") Instant now, @Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -5,6 +5,7 @@ import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,4 +36,29 @@ public interface DraftFeedbackRecordRepository extends JpaRepository<DraftFeedba
       "SELECT f FROM DraftFeedbackRecord f WHERE f.user.id = :userId "
           + "AND f.action = 'MODIFIED' ORDER BY f.createdAt DESC")
   List<DraftFeedbackRecord> findModificationsByUser(@Param("userId") UUID userId);
+
+  /** Get modification feedback created in {@code (after, through]}, oldest first. */
+  @Query(
+      "SELECT f FROM DraftFeedbackRecord f WHERE f.user.id = :userId AND f.action = 'MODIFIED'"
+          + " AND f.createdAt > :after AND f.createdAt <= :through ORDER BY f.createdAt")
+  List<DraftFeedbackRecord> findModificationsByUserBetween(
+      @Param("userId") UUID userId,
+      @Param("after") Instant after,
+      @Param("through") Instant through);
+
+  /** Per-action totals since {@code since}, aggregated in the database. */
+  @Query(
+      "SELECT new app.kaiz.command_center.infrastructure.FeedbackActionCount(f.action, COUNT(f),"
+          + " COUNT(f.timeToDecideMs), COALESCE(SUM(f.timeToDecideMs), 0L))"
+          + " FROM DraftFeedbackRecord f WHERE f.createdAt > :since GROUP BY f.action")
+  List<FeedbackActionCount> countByActionSince(@Param("since") Instant since);
+
+  /** Most frequent rejection comments since {@code since}. */
+  @Query(
+      "SELECT new app.kaiz.command_center.infrastructure.FeedbackReasonCount(f.userComment,"
+          + " COUNT(f)) FROM DraftFeedbackRecord f WHERE f.createdAt > :since"
+          + " AND f.action = 'REJECTED' AND f.userComment IS NOT NULL"
+          + " AND TRIM(f.userComment) <> '' GROUP BY f.userComment ORDER BY COUNT(f) DESC")
+  List<FeedbackReasonCount> topRejectionReasonsSince(
+      @Param("since") Instant since, Pageable pageable);
 }
@@ -0,0 +1,121 @@
+package app.kaiz.command_center.infrastructure;
+
+import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Storage for {@code draft_feedback_daily}, the per-day rollup of {@code draft_feedback_records}.
+ * Plain JDBC: a day is rebuilt with one INSERT ... SELECT, and reads only aggregate. Rolled-up
+ * days are recorded in {@code draft_feedback_rollup_days}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DraftFeedbackRollupRepository {
+
+  private static final String ROLL_UP =
+      "INSERT INTO draft_feedback_daily (day, action, draft_type, reason, feedback_count,"
+          + " decided_count, decide_ms_sum, updated_at)"
+          + " SELECT ?, f.action, d.draft_type,"
+          + " CASE WHEN f.action = 'REJECTED' THEN COALESCE(LEFT(BTRIM(f.user_comment), 200), '')"
+          + " ELSE '' END AS reason,"
+          + " COUNT(*), COUNT(f.time_to_decide_ms), COALESCE(SUM(f.time_to_decide_ms), 0), NOW()"
+          + " FROM draft_feedback_records f JOIN command_center_drafts d ON d.id = f.draft_id"
+          + " WHERE f.created_at >= ? AND f.created_at < ?"
+          + " GROUP BY f.action, d.draft_type, reason"
+          + " ON CONFLICT (day, action, draft_type, reason) DO UPDATE SET"
+          + " feedback_count = EXCLUDED.feedback_count,"
+          + " decided_count = EXCLUDED.decided_count,"
+          + " decide_ms_sum = EXCLUDED.decide_ms_sum,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Feedback for one draft type over a date range. */
+  public record DraftTypeCount(String draftType, long approved, long modified, long rejected) {}
+
+  /**
+   * Recompute the rollup rows of one UTC day from the raw records. Idempotent, so late feedback and
+   * missed runs are picked up by rolling a day up again; rows whose records are gone are removed.
+   *
+   * @return number of rollup rows written
+   */
+  @Transactional
+  public int rollUp(LocalDate day) {
+    Timestamp from = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    Timestamp to = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    int written = jdbcTemplate.update(ROLL_UP, Date.valueOf(day), from, to);
+    // Rows upserted above carry this transaction's NOW(); anything older is stale
+    jdbcTemplate.update(
+        "DELETE FROM draft_feedback_daily WHERE day = ? AND updated_at < NOW()",
+        Date.valueOf(day));
+    jdbcTemplate.update(
+        "INSERT INTO draft_feedback_rollup_days (day) VALUES (?)"
+            + " ON CONFLICT (day) DO UPDATE SET rolled_up_at = NOW()",
+        Date.valueOf(day));
+    return written;
+  }
+
+  /** Whether {@code day} has been rolled up, including days without any feedback. */
+  public boolean hasDay(LocalDate day) {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM draft_feedback_rollup_days WHERE day = ?)",
+            Boolean.class,
+            Date.valueOf(day)));
+  }
+
+  /** Per-action totals for the days {@code from} through {@code to}. */
+  public List<FeedbackActionCount> countByAction(LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+        "SELECT action, SUM(feedback_count) AS total, SUM(decided_count) AS decided,"
+            + " SUM(decide_ms_sum) AS decide_ms_sum FROM draft_feedback_daily"
+            + " WHERE day BETWEEN ? AND ? GROUP BY action",
+        (rs, row) ->
+            new FeedbackActionCount(
+                FeedbackAction.valueOf(rs.getString("action")),
+                rs.getLong("total"),
+                rs.getLong("decided"),
+                rs.getLong("decide_ms_sum")),
+        Date.valueOf(from),
+        Date.valueOf(to));
+  }
+
+  /** Most frequent rejection reasons for the days {@code from} through {@code to}. */
+  public List<FeedbackReasonCount> topRejectionReasons(LocalDate from, LocalDate to, int limit) {
+    return jdbcTemplate.query(
+        "SELECT reason, SUM(feedback_count) AS total FROM draft_feedback_daily"
+            + " WHERE day BETWEEN ? AND ? AND action = 'REJECTED' AND reason <> ''"
+            + " GROUP BY reason ORDER BY SUM(feedback_count) DESC LIMIT ?",
+        (rs, row) -> new FeedbackReasonCount(rs.getString("reason"), rs.getLong("total")),
+        Date.valueOf(from),
+        Date.valueOf(to),
+        limit);
+  }
+
+  /** Per-draft-type action counts for the days {@code from} through {@code to}. */
+  public List<DraftTypeCount> countByDraftType(LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+        "SELECT draft_type,"
+            + " SUM(feedback_count) FILTER (WHERE action = 'APPROVED') AS approved,"
+            + " SUM(feedback_count) FILTER (WHERE action = 'MODIFIED') AS modified,"
+            + " SUM(feedback_count) FILTER (WHERE action = 'REJECTED') AS rejected"
+            + " FROM draft_feedback_daily WHERE day BETWEEN ? AND ?"
+            + " GROUP BY draft_type ORDER BY SUM(feedback_count) DESC",
+        (rs, row) ->
+            new DraftTypeCount(
+                rs.getString("draft_type"),
+                rs.getLong("approved"),
+                rs.getLong("modified"),
+                rs.getLong("rejected")),
+        Date.valueOf(from),
+        Date.valueOf(to));
+  }
+}
@@ -0,0 +1,10 @@
+package app.kaiz.command_center.infrastructure;
+
+import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
+
+/**
+ * Feedback totals for one action over a window: how many records, how many of them carry a
+ * time-to-decide, and the sum of those times.
+ */
+public record FeedbackActionCount(
+    FeedbackAction action, long total, long decided, long decideMsSum) {}
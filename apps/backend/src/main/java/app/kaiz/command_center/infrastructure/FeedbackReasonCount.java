@@ -0,0 +1,4 @@
+package app.kaiz.command_center.infrastructure;
+
+/** How often one rejection reason was given over a window. */
+public record FeedbackReasonCount(String reason, long total) {}
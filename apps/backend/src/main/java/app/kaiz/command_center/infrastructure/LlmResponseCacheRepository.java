@@ -0,0 +1,20 @@
+package app.kaiz.command_center.infrastructure;
+
+import app.kaiz.command_center.domain.LlmResponseCacheEntry;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LlmResponseCacheRepository extends JpaRepository<LlmResponseCacheEntry, String> {
+
+  Optional<LlmResponseCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, Instant now);
+
+  @Modifying
+  @Query("DELETE FROM LlmResponseCacheEntry e WHERE e.expiresAt <= :now")
+  int deleteExpired(@Param("now") Instant now);
+}
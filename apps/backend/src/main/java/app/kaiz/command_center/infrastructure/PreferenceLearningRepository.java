@@ -0,0 +1,103 @@
+package app.kaiz.command_center.infrastructure;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Learning state on {@code user_coach_preferences}: the pending flag, the watermark and the merged
+ * correction counts. Written with plain JDBC so entity saves of the same row (feedback counters)
+ * never overwrite it; {@code correction_patterns} is read-only on the entity for the same reason.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PreferenceLearningRepository {
+
+  private static final String PENDING_AFTER =
+      " EXISTS (SELECT 1 FROM draft_feedback_records f WHERE f.user_id = ?"
+          + " AND f.action = 'MODIFIED' AND f.created_at > ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * A user's learning state.
+   *
+   * @param countsJson per-field, per-value correction counts merged so far
+   * @param learnedThrough modifications up to this instant are in the counts; null if none yet
+   */
+  public record LearningState(String countsJson, Instant learnedThrough) {}
+
+  /** Queue a user for the next learning run. */
+  public void markPending(UUID userId) {
+    jdbcTemplate.update(
+        "UPDATE user_coach_preferences SET patterns_pending = TRUE WHERE user_id = ?", userId);
+  }
+
+  /** Pending users in id order, after {@code after}, for keyset paging. */
+  public List<UUID> findPendingUserIds(UUID after, int limit) {
+    return jdbcTemplate.queryForList(
+        "SELECT user_id FROM user_coach_preferences WHERE patterns_pending AND user_id > ?"
+            + " ORDER BY user_id LIMIT ?",
+        UUID.class,
+        after,
+        limit);
+  }
+
+  /**
+   * Read and row-lock a user's state until the transaction ends, so two nodes learning the same
+   * user take turns and the second one starts from the first one's watermark.
+   */
+  public Optional<LearningState> lockState(UUID userId) {
+    return jdbcTemplate
+        .query(
+            "SELECT correction_counts, patterns_learned_through FROM user_coach_preferences"
+                + " WHERE user_id = ? FOR UPDATE",
+            (rs, row) -> {
+              Timestamp through = rs.getTimestamp("patterns_learned_through");
+              return new LearningState(
+                  rs.getString("correction_counts"),
+                  through != null ? through.toInstant() : null);
+            },
+            userId)
+        .stream()
+        .findFirst();
+  }
+
+  /**
+   * Store merged counts and the patterns derived from them, and move the watermark to {@code
+   * through}. The user stays pending if modifications newer than the watermark already exist.
+   */
+  public void saveState(UUID userId, String countsJson, String patternsJson, Instant through) {
+    Timestamp watermark = Timestamp.from(through);
+    jdbcTemplate.update(
+        "UPDATE user_coach_preferences SET correction_counts = ?::jsonb,"
+            + " correction_patterns = ?::jsonb, patterns_learned_through = ?,"
+            + " patterns_pending ="
+            + PENDING_AFTER
+            + ", updated_at = NOW() WHERE user_id = ?",
+        countsJson,
+        patternsJson,
+        watermark,
+        userId,
+        watermark,
+        userId);
+  }
+
+  /** Move the watermark to {@code through} when there was nothing new to merge. */
+  public void advance(UUID userId, Instant through) {
+    Timestamp watermark = Timestamp.from(through);
+    jdbcTemplate.update(
+        "UPDATE user_coach_preferences SET patterns_learned_through = ?, patterns_pending ="
+            + PENDING_AFTER
+            + " WHERE user_id = ?",
+        watermark,
+        userId,
+        watermark,
+        userId);
+  }
+}
@@ -0,0 +1,71 @@
+package app.kaiz.command_center.infrastructure;
+
+import app.kaiz.command_center.domain.SmartInputSessionEntry;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SmartInputSessionRepository extends JpaRepository<SmartInputSessionEntry, UUID> {
+
+  Optional<SmartInputSessionEntry> findBySessionIdAndExpiresAtAfter(UUID sessionId, Instant now);
+
+  /** Version of a live session; a primary-key lookup that skips the payload. */
+  @Query(
+      "SELECT e.version FROM SmartInputSessionEntry e "
+          + "WHERE e.sessionId = :sessionId AND e.expiresAt > :now")
+  Optional<Long> findLiveVersion(@Param("sessionId") UUID sessionId, @Param("now") Instant now);
+
+  long countByExpiresAtAfter(Instant now);
+
+  /** Create a session, or overwrite it and bump its version if the id already exists. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO smart_input_sessions (session_id, user_id, version, payload, expires_at,"
+              + " updated_at)"
+              + " VALUES (:sessionId, :userId, 0, CAST(:payload AS jsonb), :expiresAt, :now)"
+              + " ON CONFLICT (session_id) DO UPDATE SET user_id = EXCLUDED.user_id,"
+              + " payload = EXCLUDED.payload, expires_at = EXCLUDED.expires_at,"
+              + " updated_at = EXCLUDED.updated_at, version = smart_input_sessions.version + 1",
+      nativeQuery = true)
+  int upsert(
+      @Param("sessionId") UUID sessionId,
+      @Param("userId") UUID userId,
+      @Param("payload") String payload,
+      @Param("expiresAt") Instant expiresAt,
+      @Param("now") Instant now);
+
+  /** Compare-and-set write; returns 0 if the session changed since {@code expectedVersion}. */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE smart_input_sessions SET payload = CAST(:payload AS jsonb),"
+              + " version = version + 1, updated_at = :now"
+              + " WHERE session_id = :sessionId AND version = :expectedVersion"
+              + " AND expires_at > :now",
+      nativeQuery = true)
+  int compareAndSet(
+      @Param("sessionId") UUID sessionId,
+      @Param("expectedVersion") long expectedVersion,
+      @Param("payload") String payload,
+      @Param("now") Instant now);
+
+  @Modifying
+  @Query("DELETE FROM SmartInputSessionEntry e WHERE e.sessionId = :sessionId")
+  int deleteBySessionId(@Param("sessionId") UUID sessionId);
+
+  /** Delete up to {@code limit} expired sessions; uses the expires_at index. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM smart_input_sessions WHERE session_id IN (SELECT session_id"
+              + " FROM smart_input_sessions WHERE expires_at <= :now LIMIT :limit)",
+      nativeQuery = true)
+  int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
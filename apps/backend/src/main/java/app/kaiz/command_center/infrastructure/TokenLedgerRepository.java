@@ -0,0 +1,133 @@
+package app.kaiz.command_center.infrastructure;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Storage for {@code llm_token_ledger}. Plain JDBC: the write side is a batch of upserts, and the
+ * read side only aggregates, so neither needs entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenLedgerRepository {
+
+  private static final String UPSERT =
+      "INSERT INTO llm_token_ledger (user_id, usage_date, mode, model, calls, prompt_tokens,"
+          + " completion_tokens, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, NOW())"
+          + " ON CONFLICT (user_id, usage_date, mode, model) DO UPDATE SET"
+          + " calls = llm_token_ledger.calls + EXCLUDED.calls,"
+          + " prompt_tokens = llm_token_ledger.prompt_tokens + EXCLUDED.prompt_tokens,"
+          + " completion_tokens = llm_token_ledger.completion_tokens + EXCLUDED.completion_tokens,"
+          + " updated_at = EXCLUDED.updated_at";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Usage to add to one ledger row. */
+  public record Delta(
+      UUID userId,
+      LocalDate usageDate,
+      String mode,
+      String model,
+      long calls,
+      long promptTokens,
+      long completionTokens) {}
+
+  /** Spend across all users for one day. */
+  public record DailySpend(
+      LocalDate day, long users, long calls, long promptTokens, long completionTokens) {}
+
+  /** Spend of one user over a date range. */
+  public record UserSpend(UUID userId, long calls, long promptTokens, long completionTokens) {}
+
+  /** Spend of one mode and model over a date range. */
+  public record ModeSpend(
+      String mode, String model, long calls, long promptTokens, long completionTokens) {}
+
+  /**
+   * Add {@code deltas} to the ledger as one JDBC batch. Callers pass them in key order, so
+   * concurrent flushes from several nodes lock rows in the same order.
+   */
+  public void upsert(List<Delta> deltas) {
+    jdbcTemplate.batchUpdate(
+        UPSERT,
+        deltas,
+        deltas.size(),
+        (ps, delta) -> {
+          ps.setObject(1, delta.userId());
+          ps.setDate(2, Date.valueOf(delta.usageDate()));
+          ps.setString(3, delta.mode());
+          ps.setString(4, delta.model());
+          ps.setLong(5, delta.calls());
+          ps.setLong(6, delta.promptTokens());
+          ps.setLong(7, delta.completionTokens());
+        });
+  }
+
+  /** Prompt plus completion tokens booked for a user on a day. */
+  public long totalTokens(UUID userId, LocalDate day) {
+    Long total =
+        jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(prompt_tokens + completion_tokens), 0) FROM llm_token_ledger"
+                + " WHERE user_id = ? AND usage_date = ?",
+            Long.class,
+            userId,
+            Date.valueOf(day));
+    return total != null ? total : 0;
+  }
+
+  public List<DailySpend> dailySpend(LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+        "SELECT usage_date, COUNT(DISTINCT user_id) AS users, SUM(calls) AS calls,"
+            + " SUM(prompt_tokens) AS prompt_tokens, SUM(completion_tokens) AS completion_tokens"
+            + " FROM llm_token_ledger WHERE usage_date BETWEEN ? AND ?"
+            + " GROUP BY usage_date ORDER BY usage_date",
+        (rs, row) ->
+            new DailySpend(
+                rs.getDate("usage_date").toLocalDate(),
+                rs.getLong("users"),
+                rs.getLong("calls"),
+                rs.getLong("prompt_tokens"),
+                rs.getLong("completion_tokens")),
+        Date.valueOf(from),
+        Date.valueOf(to));
+  }
+
+  public List<UserSpend> topUsers(LocalDate from, LocalDate to, int limit) {
+    return jdbcTemplate.query(
+        "SELECT user_id, SUM(calls) AS calls, SUM(prompt_tokens) AS prompt_tokens,"
+            + " SUM(completion_tokens) AS completion_tokens"
+            + " FROM llm_token_ledger WHERE usage_date BETWEEN ? AND ?"
+            + " GROUP BY user_id ORDER BY SUM(prompt_tokens + completion_tokens) DESC LIMIT ?",
+        (rs, row) ->
+            new UserSpend(
+                rs.getObject("user_id", UUID.class),
+                rs.getLong("calls"),
+                rs.getLong("prompt_tokens"),
+                rs.getLong("completion_tokens")),
+        Date.valueOf(from),
+        Date.valueOf(to),
+        limit);
+  }
+
+  public List<ModeSpend> modeSpend(LocalDate from, LocalDate to) {
+    return jdbcTemplate.query(
+        "SELECT mode, model, SUM(calls) AS calls, SUM(prompt_tokens) AS prompt_tokens,"
+            + " SUM(completion_tokens) AS completion_tokens"
+            + " FROM llm_token_ledger WHERE usage_date BETWEEN ? AND ?"
+            + " GROUP BY mode, model ORDER BY SUM(prompt_tokens + completion_tokens) DESC",
+        (rs, row) ->
+            new ModeSpend(
+                rs.getString("mode"),
+                rs.getString("model"),
+                rs.getLong("calls"),
+                rs.getLong("prompt_tokens"),
+                rs.getLong("completion_tokens")),
+        Date.valueOf(from),
+        Date.valueOf(to));
+  }
+}
@@ -1,8 +1,10 @@
 package app.kaiz.command_center.infrastructure;
 
 import app.kaiz.command_center.domain.UserCoachPreference;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,4 +17,8 @@ public interface UserCoachPreferenceRepository extends JpaRepository<UserCoachPr
 
   /** Check if preferences exist for a user. */
   boolean existsByUserId(UUID userId);
+
+  /** Users with the most feedback interactions, most active first. */
+  List<UserCoachPreference> findByTotalInteractionsGreaterThanOrderByTotalInteractionsDesc(
+      int minInteractions, Pageable pageable);
 }
@@ -4,6 +4,8 @@ import app.kaiz.identity.domain.User;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +14,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByEmail(String email);
 
   boolean existsByEmail(String email);
+
+  @Query("SELECT u.timezone FROM User u WHERE u.id = :id")
+  Optional<String> findTimezoneById(@Param("id") UUID id);
+
+  @Query("SELECT u.subscriptionTier FROM User u WHERE u.id = :id")
+  Optional<User.SubscriptionTier> findSubscriptionTierById(@Param("id") UUID id);
 }
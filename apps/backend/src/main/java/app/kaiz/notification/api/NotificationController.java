@@ -1,9 +1,11 @@
 package app.kaiz.notification.api;
 
+import app.kaiz.notification.application.InboxBucket;
 import app.kaiz.notification.application.NotificationService;
 import app.kaiz.notification.application.dto.CreateNotificationRequest;
 import app.kaiz.notification.application.dto.NotificationDto;
 import app.kaiz.notification.application.dto.NotificationDto.GroupedNotificationsDto;
+import app.kaiz.notification.application.dto.NotificationDto.NotificationBucketDto;
 import app.kaiz.notification.application.dto.NotificationDto.UnreadCountDto;
 import app.kaiz.notification.application.dto.NotificationPreferencesDto;
 import app.kaiz.notification.application.dto.UpdatePreferencesRequest;
@@ -60,9 +62,30 @@ public class NotificationController {
   @Operation(
       summary = "Get grouped notifications",
       description =
-          "Retrieve notifications grouped by time period (today, yesterday, this week, older)")
-  public ResponseEntity<GroupedNotificationsDto> getGroupedNotifications(@CurrentUser UUID userId) {
-    return ResponseEntity.ok(notificationService.getGroupedNotifications(userId));
+          "Retrieve notifications grouped by time period (today, yesterday, this week, older)"
+              + " in the user's time zone. Each bucket holds at most `limit` items; use"
+              + " nextCursors with /grouped/{bucket} to page further.")
+  public ResponseEntity<GroupedNotificationsDto> getGroupedNotifications(
+      @CurrentUser UUID userId,
+      @RequestParam(defaultValue = "20") @Parameter(description = "Max items per bucket")
+          int limit) {
+    return ResponseEntity.ok(notificationService.getGroupedNotifications(userId, limit));
+  }
+
+  @GetMapping("/grouped/{bucket}")
+  @Operation(
+      summary = "Get next page of a notification bucket",
+      description =
+          "Continue a grouped-inbox bucket (today, yesterday, thisWeek, older) from a cursor")
+  public ResponseEntity<NotificationBucketDto> getNotificationBucket(
+      @CurrentUser UUID userId,
+      @PathVariable @Parameter(description = "Bucket id") String bucket,
+      @RequestParam(required = false) @Parameter(description = "Cursor from a previous page")
+          String cursor,
+      @RequestParam(defaultValue = "20") @Parameter(description = "Max items") int limit) {
+    return ResponseEntity.ok(
+        notificationService.getNotificationBucket(
+            userId, InboxBucket.fromId(bucket), cursor, limit));
   }
 
   @GetMapping("/archived")
@@ -94,12 +117,17 @@ public class NotificationController {
   @GetMapping("/search")
   @Operation(
       summary = "Search notifications",
-      description = "Search notifications by title or content")
+      description =
+          "Search notifications by title or content. Ranked mode (default) uses full-text"
+              + " prefix matching ordered by relevance; ranked=false does a substring match.")
   public ResponseEntity<Page<NotificationDto>> searchNotifications(
       @CurrentUser UUID userId,
       @RequestParam @Parameter(description = "Search query") String query,
+      @RequestParam(defaultValue = "true") @Parameter(description = "Rank by relevance")
+          boolean ranked,
       @PageableDefault(size = 20) Pageable pageable) {
-    return ResponseEntity.ok(notificationService.searchNotifications(userId, query, pageable));
+    return ResponseEntity.ok(
+        notificationService.searchNotifications(userId, query, ranked, pageable));
   }
 
   // ============ Count Endpoints ============
@@ -0,0 +1,59 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.shared.exception.BadRequestException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Time buckets of the grouped notification inbox. Boundaries are computed from the user's local
+ * calendar day so "today" means today where the user is, not where the server runs.
+ */
+public enum InboxBucket {
+  TODAY("today"),
+  YESTERDAY("yesterday"),
+  THIS_WEEK("thisWeek"),
+  OLDER("older");
+
+  /** How far back the "older" bucket reaches beyond the week window. */
+  static final int OLDER_HORIZON_DAYS = 30;
+
+  private final String id;
+
+  InboxBucket(String id) {
+    this.id = id;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public static InboxBucket fromId(String id) {
+    for (InboxBucket bucket : values()) {
+      if (bucket.id.equalsIgnoreCase(id) || bucket.name().equalsIgnoreCase(id)) {
+        return bucket;
+      }
+    }
+    throw new BadRequestException("INVALID_BUCKET", "Unknown inbox bucket: " + id);
+  }
+
+  /** Inclusive start of this bucket for the given local day. */
+  Instant start(LocalDate today, ZoneId zone) {
+    return switch (this) {
+      case TODAY -> today.atStartOfDay(zone).toInstant();
+      case YESTERDAY -> today.minusDays(1).atStartOfDay(zone).toInstant();
+      case THIS_WEEK -> today.minusDays(7).atStartOfDay(zone).toInstant();
+      case OLDER -> today.minusDays(7 + OLDER_HORIZON_DAYS).atStartOfDay(zone).toInstant();
+    };
+  }
+
+  /** Exclusive end of this bucket for the given local day. */
+  Instant end(LocalDate today, ZoneId zone) {
+    return switch (this) {
+      case TODAY -> today.plusDays(1).atStartOfDay(zone).toInstant();
+      case YESTERDAY -> TODAY.start(today, zone);
+      case THIS_WEEK -> YESTERDAY.start(today, zone);
+      case OLDER -> THIS_WEEK.start(today, zone);
+    };
+  }
+}
@@ -0,0 +1,32 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.shared.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor for inbox pagination: the (createdAt, id) of the last notification the
+ * client has seen. Encoded as URL-safe base64 so clients treat it as a token.
+ */
+record InboxCursor(Instant createdAt, UUID id) {
+
+  String encode() {
+    String raw = createdAt.toString() + "|" + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static InboxCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      return new InboxCursor(
+          Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+    } catch (RuntimeException e) {
+      throw new BadRequestException("INVALID_CURSOR", "Malformed inbox cursor");
+    }
+  }
+}
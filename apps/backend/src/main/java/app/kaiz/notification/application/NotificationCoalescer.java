@@ -0,0 +1,205 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.dto.CreateNotificationRequest;
+import app.kaiz.notification.domain.NotificationPriority;
+import app.kaiz.notification.domain.NotificationType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-window coalescing of bursty notifications.
+ *
+ * <p>Notifications of the same (user, type, grouping key) that arrive within the window are held
+ * and emitted as one aggregated notification ("12 Tasks Created") with merged metadata. Only
+ * LOW/MEDIUM priority types listed in {@link #RULES} are held; everything else passes straight
+ * through. This class decides what coalesces and how a window is aggregated; the held items are
+ * stored by {@link PendingNotificationService}, in the transaction of whatever produced them.
+ */
+@Component
+public class NotificationCoalescer {
+
+  /**
+   * How a type coalesces.
+   *
+   * @param groupKey metadata key that splits windows (e.g. one window per post), or null
+   * @param titleFormat aggregated title, {@code %d} is the count; ignored when latestWins
+   * @param deepLink link used when the held items point at different targets
+   * @param latestWins emit only the newest item (streak counters supersede each other)
+   */
+  record Rule(String groupKey, String titleFormat, String deepLink, boolean latestWins) {}
+
+  static final Map<NotificationType, Rule> RULES = new EnumMap<>(NotificationType.class);
+
+  static {
+    RULES.put(NotificationType.TASK_CREATED, new Rule(null, "%d Tasks Created", "/tasks", false));
+    RULES.put(
+        NotificationType.TASK_COMPLETED, new Rule(null, "%d Tasks Completed! 🎉", "/tasks", false));
+    RULES.put(NotificationType.CHALLENGE_STREAK, new Rule("challengeId", null, null, true));
+    RULES.put(NotificationType.CHALLENGE_MILESTONE, new Rule("challengeId", null, null, true));
+    RULES.put(NotificationType.ESSENTIA_STREAK, new Rule(null, null, null, true));
+    RULES.put(NotificationType.COMMUNITY_LIKE, new Rule("postId", "%d New Likes", null, false));
+    RULES.put(
+        NotificationType.COMMUNITY_NEW_FOLLOWER,
+        new Rule(null, "%d New Followers", "/community", false));
+    RULES.put(
+        NotificationType.FRIEND_ACHIEVEMENT,
+        new Rule(null, "%d Friend Achievements", "/community", false));
+  }
+
+  /** Number of individual lines kept in an aggregated notification's content. */
+  private static final int PREVIEW_LINES = 3;
+
+  private final Duration window;
+  private final int maxBatch;
+
+  public NotificationCoalescer(
+      @Value("${kaiz.notifications.coalesce-window-seconds:30}") long windowSeconds,
+      @Value("${kaiz.notifications.coalesce-max-batch:100}") int maxBatch) {
+    this.window = Duration.ofSeconds(windowSeconds);
+    this.maxBatch = maxBatch;
+  }
+
+  /**
+   * The window the request is held in: type plus grouping value, unique per user. Null if the
+   * caller should deliver it now.
+   */
+  public String windowKey(CreateNotificationRequest request) {
+    Rule rule = RULES.get(request.type());
+    if (rule == null || window.isZero() || !isLowUrgency(request.priority())) {
+      return null;
+    }
+    Object groupValue =
+        rule.groupKey() != null && request.metadata() != null
+            ? request.metadata().get(rule.groupKey())
+            : null;
+    return groupValue != null ? request.type().name() + ":" + groupValue : request.type().name();
+  }
+
+  /** How long a window stays open after its first item. */
+  public Duration window() {
+    return window;
+  }
+
+  /** Items after which a window closes early. */
+  public int maxBatch() {
+    return maxBatch;
+  }
+
+  static CreateNotificationRequest aggregate(
+      NotificationType type, List<CreateNotificationRequest> items) {
+    CreateNotificationRequest latest = items.get(items.size() - 1);
+    if (items.size() == 1) {
+      return latest;
+    }
+
+    Rule rule = RULES.get(type);
+    Map<String, Object> metadata =
+        rule.latestWins() && latest.metadata() != null
+            ? new LinkedHashMap<>(latest.metadata())
+            : mergeMetadata(items);
+    metadata.put("coalescedCount", items.size());
+
+    if (rule.latestWins()) {
+      return copyWith(
+          latest, latest.title(), latest.content(), latest.deepLink(), metadata, true);
+    }
+
+    String deepLink =
+        allSame(items, CreateNotificationRequest::deepLink) ? latest.deepLink() : rule.deepLink();
+    return copyWith(
+        latest,
+        String.format(rule.titleFormat(), items.size()),
+        preview(items),
+        deepLink,
+        metadata,
+        false);
+  }
+
+  private static CreateNotificationRequest copyWith(
+      CreateNotificationRequest base,
+      String title,
+      String content,
+      String deepLink,
+      Map<String, Object> metadata,
+      boolean keepDetails) {
+    return new CreateNotificationRequest(
+        base.userId(),
+        base.type(),
+        base.category(),
+        base.priority(),
+        title,
+        content,
+        base.icon(),
+        deepLink,
+        base.expiresAt(),
+        keepDetails ? base.senderId() : null,
+        keepDetails ? base.senderName() : null,
+        keepDetails ? base.senderAvatar() : null,
+        metadata,
+        keepDetails ? base.actions() : null);
+  }
+
+  /**
+   * Merge metadata across items. Keys whose values agree keep a single value; keys that differ
+   * become a list of the distinct values in arrival order.
+   */
+  private static Map<String, Object> mergeMetadata(List<CreateNotificationRequest> items) {
+    Map<String, Set<Object>> values = new LinkedHashMap<>();
+    for (CreateNotificationRequest item : items) {
+      if (item.metadata() == null) {
+        continue;
+      }
+      item.metadata()
+          .forEach((k, v) -> values.computeIfAbsent(k, x -> new LinkedHashSet<>()).add(v));
+    }
+
+    Map<String, Object> merged = new LinkedHashMap<>();
+    values.forEach(
+        (k, v) -> merged.put(k, v.size() == 1 ? v.iterator().next() : new ArrayList<>(v)));
+    return merged;
+  }
+
+  private static String preview(List<CreateNotificationRequest> items) {
+    StringBuilder sb = new StringBuilder();
+    int shown = Math.min(PREVIEW_LINES, items.size());
+    for (int i = items.size() - 1; i >= items.size() - shown; i--) {
+      if (!sb.isEmpty()) {
+        sb.append('\n');
+      }
+      CreateNotificationRequest item = items.get(i);
+      sb.append(item.content() != null ? item.content() : item.title());
+    }
+    if (items.size() > shown) {
+      sb.append("\n…and ").append(items.size() - shown).append(" more");
+    }
+    return sb.toString();
+  }
+
+  private static boolean allSame(
+      List<CreateNotificationRequest> items,
+      Function<CreateNotificationRequest, Object> field) {
+    Object first = field.apply(items.get(0));
+    for (CreateNotificationRequest item : items) {
+      if (!Objects.equals(first, field.apply(item))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isLowUrgency(NotificationPriority priority) {
+    return priority == null
+        || priority == NotificationPriority.LOW
+        || priority == NotificationPriority.MEDIUM;
+  }
+}
@@ -0,0 +1,108 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.dto.CreateNotificationRequest;
+import app.kaiz.notification.application.dto.NotificationDto;
+import app.kaiz.notification.domain.DigestMode;
+import app.kaiz.notification.domain.NotificationCategory;
+import app.kaiz.notification.domain.NotificationPreferences;
+import app.kaiz.notification.domain.NotificationPriority;
+import app.kaiz.notification.infrastructure.PendingGroup;
+import java.time.ZonedDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Single entry point between notification triggers and persistence.
+ *
+ * <p>Requests the {@link NotificationCoalescer} holds are parked in their coalescing window. What
+ * passes through, and each window once it closes, is either parked for a digest, if the user chose
+ * one for the category, or created in the inbox right away. HIGH and URGENT notifications are never
+ * held for a digest.
+ *
+ * <p>Anything that would be created immediately during the user's quiet hours (evaluated in the
+ * user's own time zone) is held until the window ends, except URGENT notifications.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+  private final NotificationService notificationService;
+  private final NotificationCoalescer coalescer;
+  private final PendingNotificationService pendingNotificationService;
+  private final UserZoneResolver userZoneResolver;
+  private final TransactionTemplate transactionTemplate;
+
+  /** Dispatch a request. Returns the created notification, or null if held back or disabled. */
+  public NotificationDto dispatch(CreateNotificationRequest request) {
+    String windowKey = coalescer.windowKey(request);
+    if (windowKey != null) {
+      pendingNotificationService.enqueueCoalesced(
+          request, windowKey, coalescer.window(), coalescer.maxBatch());
+      return null;
+    }
+    return deliver(request);
+  }
+
+  private NotificationDto deliver(CreateNotificationRequest request) {
+    if (request.priority() == NotificationPriority.URGENT) {
+      return notificationService.createNotification(request);
+    }
+    NotificationPreferences prefs =
+        notificationService.findPreferences(request.userId()).orElse(null);
+    if (prefs == null) {
+      return notificationService.createNotification(request);
+    }
+
+    if (request.priority() != NotificationPriority.HIGH) {
+      NotificationCategory category =
+          request.category() != null ? request.category() : request.type().getCategory();
+      DigestMode mode = prefs.getDigestMode(category);
+      if (mode != DigestMode.IMMEDIATE) {
+        pendingNotificationService.enqueueDigest(request, mode);
+        return null;
+      }
+    }
+
+    if (prefs.isQuietHoursEnabled()) {
+      ZonedDateTime now = ZonedDateTime.now(userZoneResolver.resolve(request.userId()));
+      ZonedDateTime quietEnd = prefs.quietHoursEndAfter(now);
+      if (quietEnd != null) {
+        pendingNotificationService.enqueueQuietHours(request, quietEnd);
+        return null;
+      }
+    }
+    return notificationService.createNotification(request);
+  }
+
+  /**
+   * Emit coalesced notifications whose window has closed. Each window is removed and its
+   * notification written in a transaction of its own, so a failure leaves only that window for the
+   * next tick.
+   */
+  @Scheduled(fixedDelayString = "${kaiz.notifications.coalesce-flush-ms:5000}")
+  public void flushCoalesced() {
+    for (PendingGroup window : pendingNotificationService.findDueCoalesced()) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              List<CreateNotificationRequest> items =
+                  pendingNotificationService.takeCoalesced(window);
+              if (!items.isEmpty()) {
+                deliver(NotificationCoalescer.aggregate(items.get(0).type(), items));
+              }
+            });
+      } catch (RuntimeException e) {
+        log.warn(
+            "Failed to flush coalescing window {} for user {}: {}",
+            window.coalesceKey(),
+            window.userId(),
+            e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.NotificationEvents.BaseNotificationEvent;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Converts {@link NotificationEvents} to and from the JSON payload stored in the outbox.
+ *
+ * <p>The payload holds exactly the event's constructor arguments (minus {@code source}), read from
+ * the fields of the same name, so adding an event type needs no codec changes. Relies on the
+ * compiler's {@code -parameters} flag, which the Spring Boot parent enables.
+ */
+@Component
+class NotificationEventCodec {
+
+  private final ObjectMapper objectMapper;
+  private final Map<String, Constructor<?>> constructors = new HashMap<>();
+
+  NotificationEventCodec(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    for (Class<?> type : NotificationEvents.class.getDeclaredClasses()) {
+      if (BaseNotificationEvent.class.isAssignableFrom(type)
+          && !Modifier.isAbstract(type.getModifiers())) {
+        constructors.put(type.getSimpleName(), creatorOf(type));
+      }
+    }
+  }
+
+  String typeOf(BaseNotificationEvent event) {
+    return event.getClass().getSimpleName();
+  }
+
+  Map<String, Object> encode(BaseNotificationEvent event) {
+    Constructor<?> constructor = constructors.get(typeOf(event));
+    if (constructor == null) {
+      throw new IllegalArgumentException("Unknown notification event " + typeOf(event));
+    }
+    Map<String, Object> payload = new LinkedHashMap<>();
+    Parameter[] params = constructor.getParameters();
+    for (int i = 1; i < params.length; i++) {
+      Field field = ReflectionUtils.findField(event.getClass(), params[i].getName());
+      if (field == null) {
+        throw new IllegalStateException(
+            typeOf(event) + " has no field for constructor argument " + params[i].getName());
+      }
+      ReflectionUtils.makeAccessible(field);
+      payload.put(params[i].getName(), ReflectionUtils.getField(field, event));
+    }
+    return payload;
+  }
+
+  BaseNotificationEvent decode(String eventType, Map<String, Object> payload, Object source) {
+    Constructor<?> constructor = constructors.get(eventType);
+    if (constructor == null) {
+      throw new IllegalArgumentException("Unknown notification event " + eventType);
+    }
+    Parameter[] params = constructor.getParameters();
+    Object[] args = new Object[params.length];
+    args[0] = source;
+    for (int i = 1; i < params.length; i++) {
+      JavaType type = objectMapper.constructType(params[i].getParameterizedType());
+      Object value = payload.get(params[i].getName());
+      if (value == null && type.isPrimitive()) {
+        throw new IllegalArgumentException(
+            eventType + " payload is missing " + params[i].getName());
+      }
+      args[i] = objectMapper.convertValue(value, type);
+    }
+    try {
+      return (BaseNotificationEvent) constructor.newInstance(args);
+    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Cannot rebuild " + eventType, e);
+    }
+  }
+
+  private static Constructor<?> creatorOf(Class<?> type) {
+    Constructor<?>[] candidates = type.getConstructors();
+    if (candidates.length != 1) {
+      throw new IllegalStateException(type.getSimpleName() + " needs exactly one constructor");
+    }
+    Constructor<?> constructor = candidates[0];
+    Parameter[] params = constructor.getParameters();
+    if (params.length == 0 || params[0].getType() != Object.class) {
+      throw new IllegalStateException(type.getSimpleName() + " must take source first");
+    }
+    if (!params[0].isNamePresent()) {
+      throw new IllegalStateException("Compile with -parameters to store notification events");
+    }
+    return constructor;
+  }
+}
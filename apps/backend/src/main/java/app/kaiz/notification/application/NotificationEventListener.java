@@ -3,19 +3,19 @@ package app.kaiz.notification.application;
 import app.kaiz.notification.application.NotificationEvents.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
- * Listens for application events and triggers appropriate notifications.
+ * Turns application events into notifications.
  *
- * <p>This decouples notification creation from the business logic. Services just publish events,
- * and this listener handles the notification creation asynchronously.
+ * <p>This decouples notification creation from the business logic. Services just publish events;
+ * {@link NotificationOutbox} records them in the publisher's transaction and {@link
+ * NotificationOutboxRelay} calls {@link #handle} for each one after commit, inside the relay's own
+ * transaction, so a failed handler is retried rather than lost.
  *
- * <p>Benefits: - Services don't need to know about notifications - Notifications are created
- * asynchronously (non-blocking) - Easy to add/modify notification behavior without changing
- * services - Testable in isolation
+ * <p>Benefits: - Services don't need to know about notifications - Notifications are created off
+ * the request path - Easy to add/modify notification behavior without changing services - Testable
+ * in isolation
  */
 @Component
 @RequiredArgsConstructor
@@ -24,36 +24,55 @@ public class NotificationEventListener {
 
   private final NotificationTriggerService notificationTrigger;
 
+  /** Route an event to its handler. */
+  public void handle(BaseNotificationEvent event) {
+    switch (event) {
+      case TaskCreated e -> handleTaskCreated(e);
+      case TaskCompleted e -> handleTaskCompleted(e);
+      case TaskAssigned e -> handleTaskAssigned(e);
+      case TaskShared e -> handleTaskShared(e);
+      case ChallengeStarted e -> handleChallengeStarted(e);
+      case ChallengeCompleted e -> handleChallengeCompleted(e);
+      case ChallengeMilestone e -> handleChallengeMilestone(e);
+      case ChallengeInvite e -> handleChallengeInvite(e);
+      case ChallengeStreak e -> handleChallengeStreak(e);
+      case NewFollower e -> handleNewFollower(e);
+      case PostLiked e -> handlePostLiked(e);
+      case PostCommented e -> handlePostCommented(e);
+      case UserMentioned e -> handleUserMentioned(e);
+      case EventInvite e -> handleEventInvite(e);
+      case AchievementUnlocked e -> handleAchievementUnlocked(e);
+      case LevelUp e -> handleLevelUp(e);
+      case LessonCompleted e -> handleLessonCompleted(e);
+      case LearningStreak e -> handleLearningStreak(e);
+      default ->
+          throw new IllegalArgumentException(
+              "No handler for notification event " + event.getClass().getSimpleName());
+    }
+  }
+
   // ============================================================
   // TASK EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleTaskCreated(TaskCreated event) {
     log.debug("Handling TaskCreated event for user {}", event.getUserId());
     notificationTrigger.notifyTaskCreated(
         event.getUserId(), event.getTaskId(), event.getTaskTitle());
   }
 
-  @Async
-  @EventListener
   public void handleTaskCompleted(TaskCompleted event) {
     log.debug("Handling TaskCompleted event for user {}", event.getUserId());
     notificationTrigger.notifyTaskCompleted(
         event.getUserId(), event.getTaskId(), event.getTaskTitle(), event.getXpEarned());
   }
 
-  @Async
-  @EventListener
   public void handleTaskAssigned(TaskAssigned event) {
     log.debug("Handling TaskAssigned event for user {}", event.getUserId());
     notificationTrigger.notifyTaskAssigned(
         event.getUserId(), event.getTaskId(), event.getTaskTitle(), event.getAssignedBy());
   }
 
-  @Async
-  @EventListener
   public void handleTaskShared(TaskShared event) {
     log.debug("Handling TaskShared event for user {}", event.getUserId());
     notificationTrigger.notifyTaskShared(
@@ -68,24 +87,18 @@ public class NotificationEventListener {
   // CHALLENGE EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleChallengeStarted(ChallengeStarted event) {
     log.debug("Handling ChallengeStarted event for user {}", event.getUserId());
     notificationTrigger.notifyChallengeStarted(
         event.getUserId(), event.getChallengeId(), event.getChallengeTitle());
   }
 
-  @Async
-  @EventListener
   public void handleChallengeCompleted(ChallengeCompleted event) {
     log.debug("Handling ChallengeCompleted event for user {}", event.getUserId());
     notificationTrigger.notifyChallengeCompleted(
         event.getUserId(), event.getChallengeId(), event.getChallengeTitle(), event.getXpEarned());
   }
 
-  @Async
-  @EventListener
   public void handleChallengeMilestone(ChallengeMilestone event) {
     log.debug("Handling ChallengeMilestone event for user {}", event.getUserId());
     notificationTrigger.notifyChallengeMilestone(
@@ -96,8 +109,6 @@ public class NotificationEventListener {
         event.getTotal());
   }
 
-  @Async
-  @EventListener
   public void handleChallengeInvite(ChallengeInvite event) {
     log.debug("Handling ChallengeInvite event for user {}", event.getUserId());
     notificationTrigger.notifyChallengeInvite(
@@ -108,8 +119,6 @@ public class NotificationEventListener {
         event.getInvitedByAvatar());
   }
 
-  @Async
-  @EventListener
   public void handleChallengeStreak(ChallengeStreak event) {
     log.debug("Handling ChallengeStreak event for user {}", event.getUserId());
     notificationTrigger.notifyChallengeStreak(
@@ -123,8 +132,6 @@ public class NotificationEventListener {
   // COMMUNITY EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleNewFollower(NewFollower event) {
     log.debug("Handling NewFollower event for user {}", event.getUserId());
     notificationTrigger.notifyNewFollower(
@@ -134,8 +141,6 @@ public class NotificationEventListener {
         event.getFollowerAvatar());
   }
 
-  @Async
-  @EventListener
   public void handlePostLiked(PostLiked event) {
     log.debug("Handling PostLiked event for user {}", event.getUserId());
     notificationTrigger.notifyPostLike(
@@ -146,8 +151,6 @@ public class NotificationEventListener {
         event.getLikerAvatar());
   }
 
-  @Async
-  @EventListener
   public void handlePostCommented(PostCommented event) {
     log.debug("Handling PostCommented event for user {}", event.getUserId());
     notificationTrigger.notifyPostComment(
@@ -159,8 +162,6 @@ public class NotificationEventListener {
         event.getCommentPreview());
   }
 
-  @Async
-  @EventListener
   public void handleUserMentioned(UserMentioned event) {
     log.debug("Handling UserMentioned event for user {}", event.getUserId());
     notificationTrigger.notifyMention(
@@ -175,8 +176,6 @@ public class NotificationEventListener {
   // EVENT EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleEventInvite(EventInvite event) {
     log.debug("Handling EventInvite event for user {}", event.getUserId());
     notificationTrigger.notifyEventInvite(
@@ -191,8 +190,6 @@ public class NotificationEventListener {
   // ACHIEVEMENT EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleAchievementUnlocked(AchievementUnlocked event) {
     log.debug("Handling AchievementUnlocked event for user {}", event.getUserId());
     notificationTrigger.notifyAchievementUnlocked(
@@ -203,8 +200,6 @@ public class NotificationEventListener {
         event.getXpEarned());
   }
 
-  @Async
-  @EventListener
   public void handleLevelUp(LevelUp event) {
     log.debug("Handling LevelUp event for user {}", event.getUserId());
     notificationTrigger.notifyLevelUp(
@@ -215,16 +210,12 @@ public class NotificationEventListener {
   // LEARNING EVENT HANDLERS
   // ============================================================
 
-  @Async
-  @EventListener
   public void handleLessonCompleted(LessonCompleted event) {
     log.debug("Handling LessonCompleted event for user {}", event.getUserId());
     notificationTrigger.notifyLessonCompleted(
         event.getUserId(), event.getLessonId(), event.getLessonTitle(), event.getXpEarned());
   }
 
-  @Async
-  @EventListener
   public void handleLearningStreak(LearningStreak event) {
     log.debug("Handling LearningStreak event for user {}", event.getUserId());
     notificationTrigger.notifyLearningStreak(event.getUserId(), event.getStreakDays());
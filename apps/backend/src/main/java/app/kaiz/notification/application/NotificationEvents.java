@@ -8,7 +8,10 @@ import org.springframework.context.ApplicationEvent;
  * Application events that trigger notifications.
  *
  * <p>When something happens in the app (task created, challenge joined, etc.), the relevant service
- * publishes an event. The NotificationEventListener listens and creates appropriate notifications.
+ * publishes an event. {@link NotificationOutbox} writes it to the outbox table inside the
+ * publisher's transaction, and {@link NotificationOutboxRelay} later hands it to
+ * NotificationEventListener, which creates the appropriate notifications. Events therefore survive
+ * a crash and are never acted on before the publishing transaction commits.
  *
  * <p>Usage in other services:
  *
@@ -40,11 +43,20 @@ public final class NotificationEvents {
   @Getter
   public abstract static class BaseNotificationEvent extends ApplicationEvent {
     private final UUID userId;
+    private final UUID eventId = UUID.randomUUID();
 
     protected BaseNotificationEvent(Object source, UUID userId) {
       super(source);
       this.userId = userId;
     }
+
+    /**
+     * Key used to drop duplicate publishes in the outbox. Unique per event instance by default;
+     * events that can only happen once per subject override it with a natural key.
+     */
+    public String getIdempotencyKey() {
+      return getClass().getSimpleName() + ":" + eventId;
+    }
   }
 
   // ============================================================
@@ -143,6 +155,11 @@ public final class NotificationEvents {
       this.challengeTitle = challengeTitle;
       this.xpEarned = xpEarned;
     }
+
+    @Override
+    public String getIdempotencyKey() {
+      return "ChallengeCompleted:" + getUserId() + ":" + challengeId;
+    }
   }
 
   @Getter
@@ -165,6 +182,11 @@ public final class NotificationEvents {
       this.milestone = milestone;
       this.total = total;
     }
+
+    @Override
+    public String getIdempotencyKey() {
+      return "ChallengeMilestone:" + getUserId() + ":" + challengeId + ":" + milestone;
+    }
   }
 
   @Getter
@@ -342,6 +364,11 @@ public final class NotificationEvents {
       this.achievementDescription = achievementDescription;
       this.xpEarned = xpEarned;
     }
+
+    @Override
+    public String getIdempotencyKey() {
+      return "AchievementUnlocked:" + getUserId() + ":" + achievementId;
+    }
   }
 
   @Getter
@@ -355,6 +382,11 @@ public final class NotificationEvents {
       this.newLevel = newLevel;
       this.unlockedFeatures = unlockedFeatures;
     }
+
+    @Override
+    public String getIdempotencyKey() {
+      return "LevelUp:" + getUserId() + ":" + newLevel;
+    }
   }
 
   // ============================================================
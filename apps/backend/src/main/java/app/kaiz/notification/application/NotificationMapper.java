@@ -5,6 +5,7 @@ import app.kaiz.notification.application.dto.NotificationDto.ActionDto;
 import app.kaiz.notification.application.dto.NotificationDto.SenderDto;
 import app.kaiz.notification.application.dto.NotificationPreferencesDto;
 import app.kaiz.notification.application.dto.NotificationPreferencesDto.CategoryPreferenceDto;
+import app.kaiz.notification.domain.DigestMode;
 import app.kaiz.notification.domain.Notification;
 import app.kaiz.notification.domain.Notification.NotificationAction;
 import app.kaiz.notification.domain.NotificationPreferences;
@@ -57,7 +58,12 @@ public interface NotificationMapper {
         CategoryPreference cp = entry.getValue();
         categorySettings.put(
             entry.getKey(),
-            new CategoryPreferenceDto(cp.isEnabled(), cp.isPush(), cp.isEmail(), cp.isInApp()));
+            new CategoryPreferenceDto(
+                cp.isEnabled(),
+                cp.isPush(),
+                cp.isEmail(),
+                cp.isInApp(),
+                cp.getDigest() != null ? cp.getDigest() : DigestMode.IMMEDIATE));
       }
     }
 
@@ -0,0 +1,51 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.NotificationEvents.BaseNotificationEvent;
+import app.kaiz.notification.infrastructure.NotificationOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes published {@link NotificationEvents} to the outbox table.
+ *
+ * <p>The listener runs synchronously on the publisher's thread and joins its transaction, so the
+ * event is committed or rolled back together with the business change that caused it. Delivery is
+ * left to {@link NotificationOutboxRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutbox {
+
+  private final NotificationOutboxRepository outboxRepository;
+  private final NotificationEventCodec codec;
+  private final ObjectMapper objectMapper;
+
+  @EventListener
+  @Transactional
+  public void append(BaseNotificationEvent event) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(codec.encode(event));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + codec.typeOf(event), e);
+    }
+
+    int inserted =
+        outboxRepository.append(
+            codec.typeOf(event),
+            event.getUserId(),
+            event.getIdempotencyKey(),
+            payload,
+            Instant.now());
+    if (inserted == 0) {
+      log.debug("Dropped duplicate notification event {}", event.getIdempotencyKey());
+    }
+  }
+}
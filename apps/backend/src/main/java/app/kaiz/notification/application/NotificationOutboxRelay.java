@@ -0,0 +1,221 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.NotificationEvents.BaseNotificationEvent;
+import app.kaiz.notification.domain.NotificationOutboxEvent;
+import app.kaiz.notification.domain.OutboxStatus;
+import app.kaiz.notification.infrastructure.NotificationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the notification outbox into {@link NotificationEventListener}.
+ *
+ * <p>Each tick claims a batch of due events in publish order (SKIP LOCKED, so replicas never
+ * share a row) and leases it for a short period. Every event is then handled in its own
+ * transaction that also marks the row processed, so a notification is written (or parked in a
+ * coalescing window or digest queue) exactly when its outbox row is closed. A failure rolls both
+ * back and the row is retried with exponential backoff and jitter; if a relay dies mid-batch the
+ * lease expires and another relay picks the rows up.
+ * Delivery is therefore at least once, and duplicate publishes are already dropped on insert by
+ * the idempotency key.
+ *
+ * <p>Metrics: {@code kaiz.notification.outbox.events} (by outcome), {@code
+ * kaiz.notification.outbox.lag} (publish to delivery), {@code kaiz.notification.outbox.backlog}
+ * and {@code kaiz.notification.outbox.oldest.age} (seconds since the oldest pending publish).
+ */
+@Component
+@Slf4j
+public class NotificationOutboxRelay {
+
+  private static final Duration BASE_BACKOFF = Duration.ofSeconds(5);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private final NotificationOutboxRepository outboxRepository;
+  private final NotificationEventCodec codec;
+  private final NotificationEventListener listener;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration lease;
+  private final Duration retention;
+
+  private final Counter delivered;
+  private final Counter retried;
+  private final Counter deadLettered;
+  private final Timer lag;
+  private final AtomicLong backlog = new AtomicLong();
+  private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+  public NotificationOutboxRelay(
+      NotificationOutboxRepository outboxRepository,
+      NotificationEventCodec codec,
+      NotificationEventListener listener,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${kaiz.notifications.outbox.batch-size:100}") int batchSize,
+      @Value("${kaiz.notifications.outbox.max-attempts:8}") int maxAttempts,
+      @Value("${kaiz.notifications.outbox.lease-seconds:60}") long leaseSeconds,
+      @Value("${kaiz.notifications.outbox.retention-days:7}") long retentionDays) {
+    this.outboxRepository = outboxRepository;
+    this.codec = codec;
+    this.listener = listener;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.lease = Duration.ofSeconds(leaseSeconds);
+    this.retention = Duration.ofDays(retentionDays);
+
+    this.delivered = outcomeCounter(meterRegistry, "delivered");
+    this.retried = outcomeCounter(meterRegistry, "retried");
+    this.deadLettered = outcomeCounter(meterRegistry, "dead_lettered");
+    this.lag =
+        Timer.builder("kaiz.notification.outbox.lag")
+            .description("Time from publishing an event to delivering it")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    Gauge.builder("kaiz.notification.outbox.backlog", backlog, AtomicLong::get)
+        .description("Pending outbox events")
+        .register(meterRegistry);
+    Gauge.builder("kaiz.notification.outbox.oldest.age", oldestAgeSeconds, AtomicLong::get)
+        .description("Seconds since the oldest pending event was published")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  private static Counter outcomeCounter(MeterRegistry registry, String outcome) {
+    return Counter.builder("kaiz.notification.outbox.events")
+        .description("Outbox events handled by the relay")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  /** Drain due events until a batch comes back short. */
+  @Scheduled(fixedDelayString = "${kaiz.notifications.outbox.poll-ms:1000}")
+  public void drain() {
+    List<NotificationOutboxEvent> claimed;
+    do {
+      claimed = claimBatch();
+      for (NotificationOutboxEvent event : claimed) {
+        deliver(event);
+      }
+    } while (claimed.size() == batchSize);
+    refreshGauges();
+  }
+
+  private List<NotificationOutboxEvent> claimBatch() {
+    return transactionTemplate.execute(
+        status -> {
+          Instant now = Instant.now();
+          List<NotificationOutboxEvent> due =
+              outboxRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+          if (!due.isEmpty()) {
+            outboxRepository.lease(
+                due.stream().map(NotificationOutboxEvent::getId).toList(), now.plus(lease));
+          }
+          return due;
+        });
+  }
+
+  private void deliver(NotificationOutboxEvent event) {
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            BaseNotificationEvent decoded =
+                codec.decode(event.getEventType(), event.getPayload(), this);
+            listener.handle(decoded);
+            outboxRepository.markProcessed(
+                event.getId(), Instant.now(), OutboxStatus.PROCESSED, OutboxStatus.PENDING);
+          });
+      delivered.increment();
+      lag.record(Duration.between(event.getCreatedAt(), Instant.now()));
+    } catch (RuntimeException e) {
+      recordFailure(event, e);
+    }
+  }
+
+  private void recordFailure(NotificationOutboxEvent event, RuntimeException error) {
+    // The claim already counted this attempt.
+    int attempts = event.getAttempts() + 1;
+    boolean exhausted = attempts >= maxAttempts;
+    String message = String.valueOf(error.getMessage());
+    transactionTemplate.executeWithoutResult(
+        status ->
+            outboxRepository
+                .findById(event.getId())
+                .ifPresent(
+                    row -> {
+                      row.setLastError(
+                          message.length() > MAX_ERROR_LENGTH
+                              ? message.substring(0, MAX_ERROR_LENGTH)
+                              : message);
+                      if (exhausted) {
+                        row.setStatus(OutboxStatus.FAILED);
+                      } else {
+                        row.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+                      }
+                    }));
+
+    if (exhausted) {
+      deadLettered.increment();
+      log.error(
+          "Notification event {} ({}) failed after {} attempts",
+          event.getId(),
+          event.getEventType(),
+          attempts,
+          error);
+    } else {
+      retried.increment();
+      log.warn(
+          "Notification event {} ({}) failed on attempt {}: {}",
+          event.getId(),
+          event.getEventType(),
+          attempts,
+          message);
+    }
+  }
+
+  /** Exponential backoff, capped at {@link #MAX_BACKOFF}, jittered over the upper half. */
+  static Duration backoff(int attempts) {
+    long ceiling =
+        Math.min(MAX_BACKOFF.toMillis(), BASE_BACKOFF.toMillis() << Math.min(attempts - 1, 20));
+    return Duration.ofMillis(
+        ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+  }
+
+  private void refreshGauges() {
+    backlog.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+    oldestAgeSeconds.set(
+        outboxRepository
+            .findFirstByStatusOrderByCreatedAtAsc(OutboxStatus.PENDING)
+            .map(e -> Duration.between(e.getCreatedAt(), Instant.now()).toSeconds())
+            .orElse(0L));
+  }
+
+  /** Processed rows are only kept for troubleshooting. */
+  @Scheduled(cron = "0 30 * * * *", zone = "UTC")
+  public void purgeProcessed() {
+    Integer deleted =
+        transactionTemplate.execute(
+            status ->
+                outboxRepository.deleteProcessedBefore(
+                    OutboxStatus.PROCESSED, Instant.now().minus(retention)));
+    if (deleted != null && deleted > 0) {
+      log.info("Purged {} processed notification outbox events", deleted);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package app.kaiz.notification.application;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Turns free-form user search input into a prefix-matching {@code to_tsquery} expression.
+ *
+ * <p>Only letter and digit runs survive, so the result never contains tsquery operators supplied
+ * by the caller. Each term gets a {@code :*} suffix and terms are AND-ed: {@code "sprint rev"}
+ * becomes {@code "sprint:* & rev:*"}.
+ */
+final class NotificationSearchQuery {
+
+  /** Upper bound on terms so a pasted paragraph cannot build a pathological query. */
+  static final int MAX_TERMS = 8;
+
+  private NotificationSearchQuery() {}
+
+  /** Returns the tsquery expression, or {@code null} if the input has no searchable terms. */
+  static String toPrefixTsQuery(String input) {
+    if (input == null || input.isBlank()) {
+      return null;
+    }
+
+    StringJoiner joiner = new StringJoiner(" & ");
+    int terms = 0;
+    int length = input.length();
+    int i = 0;
+    while (i < length && terms < MAX_TERMS) {
+      while (i < length && !Character.isLetterOrDigit(input.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < length && Character.isLetterOrDigit(input.charAt(i))) {
+        i++;
+      }
+      if (i > start) {
+        joiner.add(input.substring(start, i).toLowerCase(Locale.ROOT) + ":*");
+        terms++;
+      }
+    }
+    return terms == 0 ? null : joiner.toString();
+  }
+}
@@ -5,6 +5,7 @@ import app.kaiz.identity.infrastructure.UserRepository;
 import app.kaiz.notification.application.dto.CreateNotificationRequest;
 import app.kaiz.notification.application.dto.NotificationDto;
 import app.kaiz.notification.application.dto.NotificationDto.GroupedNotificationsDto;
+import app.kaiz.notification.application.dto.NotificationDto.NotificationBucketDto;
 import app.kaiz.notification.application.dto.NotificationDto.UnreadCountDto;
 import app.kaiz.notification.application.dto.NotificationPreferencesDto;
 import app.kaiz.notification.application.dto.UpdatePreferencesRequest;
@@ -19,16 +20,19 @@ import app.kaiz.shared.exception.ResourceNotFoundException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -44,6 +48,10 @@ public class NotificationService {
   private final NotificationPreferencesRepository preferencesRepository;
   private final UserRepository userRepository;
   private final NotificationMapper notificationMapper;
+  private final UserZoneResolver userZoneResolver;
+
+  /** Hard cap on rows returned per inbox bucket page. */
+  static final int MAX_BUCKET_LIMIT = 100;
 
   // ============ Notification Retrieval ============
 
@@ -77,44 +85,94 @@ public class NotificationService {
         notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId));
   }
 
-  public GroupedNotificationsDto getGroupedNotifications(UUID userId) {
-    LocalDate today = LocalDate.now();
-    ZoneId zone = ZoneId.systemDefault();
-
-    Instant todayStart = today.atStartOfDay(zone).toInstant();
-    Instant yesterdayStart = today.minusDays(1).atStartOfDay(zone).toInstant();
-    Instant weekStart = today.minusDays(7).atStartOfDay(zone).toInstant();
-
-    List<Notification> allRecent =
-        notificationRepository.findRecentNotifications(
-            userId, weekStart.minus(30, ChronoUnit.DAYS));
-
-    List<NotificationDto> todayList = new ArrayList<>();
-    List<NotificationDto> yesterdayList = new ArrayList<>();
-    List<NotificationDto> thisWeekList = new ArrayList<>();
-    List<NotificationDto> olderList = new ArrayList<>();
-
-    for (Notification notification : allRecent) {
-      NotificationDto dto = notificationMapper.toNotificationDto(notification);
-      Instant createdAt = notification.getCreatedAt();
-
-      if (createdAt.isAfter(todayStart)) {
-        todayList.add(dto);
-      } else if (createdAt.isAfter(yesterdayStart)) {
-        yesterdayList.add(dto);
-      } else if (createdAt.isAfter(weekStart)) {
-        thisWeekList.add(dto);
-      } else {
-        olderList.add(dto);
+  /**
+   * Grouped inbox served by one bounded query per bucket. Bucket boundaries follow the user's own
+   * time zone; each bucket returns at most {@code limit} rows plus a cursor for the next page.
+   */
+  public GroupedNotificationsDto getGroupedNotifications(UUID userId, int limit) {
+    ZoneId zone = userZoneResolver.resolve(userId);
+    LocalDate today = LocalDate.now(zone);
+
+    Map<String, String> nextCursors = new HashMap<>();
+    Map<InboxBucket, List<NotificationDto>> buckets = new EnumMap<>(InboxBucket.class);
+    for (InboxBucket bucket : InboxBucket.values()) {
+      NotificationBucketDto page = fetchBucket(userId, bucket, zone, today, null, limit);
+      buckets.put(bucket, page.notifications());
+      if (page.nextCursor() != null) {
+        nextCursors.put(bucket.getId(), page.nextCursor());
       }
     }
 
-    return new GroupedNotificationsDto(todayList, yesterdayList, thisWeekList, olderList);
+    return new GroupedNotificationsDto(
+        buckets.get(InboxBucket.TODAY),
+        buckets.get(InboxBucket.YESTERDAY),
+        buckets.get(InboxBucket.THIS_WEEK),
+        buckets.get(InboxBucket.OLDER),
+        nextCursors);
+  }
+
+  /** Next page of a single inbox bucket, continuing from a cursor returned earlier. */
+  public NotificationBucketDto getNotificationBucket(
+      UUID userId, InboxBucket bucket, String cursor, int limit) {
+    ZoneId zone = userZoneResolver.resolve(userId);
+    InboxCursor after = cursor != null && !cursor.isBlank() ? InboxCursor.decode(cursor) : null;
+    return fetchBucket(userId, bucket, zone, LocalDate.now(zone), after, limit);
+  }
+
+  private NotificationBucketDto fetchBucket(
+      UUID userId,
+      InboxBucket bucket,
+      ZoneId zone,
+      LocalDate today,
+      InboxCursor after,
+      int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_BUCKET_LIMIT));
+    Instant start = bucket.start(today, zone);
+    Instant end = bucket.end(today, zone);
+    // Fetch one extra row to know whether another page exists without a COUNT query
+    Pageable probe = PageRequest.of(0, pageSize + 1);
+
+    List<Notification> rows =
+        after == null
+            ? notificationRepository.findInboxBucket(userId, start, end, probe)
+            : notificationRepository.findInboxBucketAfter(
+                userId, start, end, after.createdAt(), after.id(), probe);
+
+    String nextCursor = null;
+    if (rows.size() > pageSize) {
+      rows = rows.subList(0, pageSize);
+      Notification last = rows.get(pageSize - 1);
+      nextCursor = new InboxCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    return new NotificationBucketDto(
+        bucket.getId(), notificationMapper.toNotificationDtoList(rows), nextCursor);
   }
 
   public Page<NotificationDto> searchNotifications(UUID userId, String query, Pageable pageable) {
+    return searchNotifications(userId, query, true, pageable);
+  }
+
+  /**
+   * Search notifications by title or content. Ranked mode uses the GIN-indexed full-text column
+   * with prefix matching; otherwise falls back to the legacy substring scan.
+   */
+  public Page<NotificationDto> searchNotifications(
+      UUID userId, String query, boolean ranked, Pageable pageable) {
+    if (!ranked) {
+      return notificationRepository
+          .searchNotifications(userId, query, pageable)
+          .map(notificationMapper::toNotificationDto);
+    }
+
+    String tsQuery = NotificationSearchQuery.toPrefixTsQuery(query);
+    if (tsQuery == null) {
+      return Page.empty(pageable);
+    }
+    // Relevance defines the order; client-supplied sorts would clash with the native ORDER BY
+    Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
     return notificationRepository
-        .searchNotifications(userId, query, pageable)
+        .searchNotificationsRanked(userId, tsQuery, unsorted)
         .map(notificationMapper::toNotificationDto);
   }
 
@@ -271,6 +329,47 @@ public class NotificationService {
       return null;
     }
 
+    Notification notification = buildNotification(user, request, category);
+    return notificationMapper.toNotificationDto(notificationRepository.save(notification));
+  }
+
+  /**
+   * Create many notifications in one transaction with batched inserts. Used by release workers, so
+   * users are referenced by id without loading them and preferences are read in one query.
+   *
+   * @return number of notifications created (disabled categories are skipped)
+   */
+  @Transactional
+  public int createNotifications(List<CreateNotificationRequest> requests) {
+    if (requests.isEmpty()) {
+      return 0;
+    }
+
+    Set<UUID> userIds =
+        requests.stream().map(CreateNotificationRequest::userId).collect(Collectors.toSet());
+    Map<UUID, NotificationPreferences> prefsByUser = new HashMap<>();
+    for (NotificationPreferences prefs : preferencesRepository.findByUserIdIn(userIds)) {
+      prefsByUser.put(prefs.getUser().getId(), prefs);
+    }
+
+    List<Notification> batch = new ArrayList<>(requests.size());
+    for (CreateNotificationRequest request : requests) {
+      NotificationCategory category =
+          request.category() != null ? request.category() : request.type().getCategory();
+      NotificationPreferences prefs = prefsByUser.get(request.userId());
+      if (prefs != null && !prefs.isCategoryEnabled(category)) {
+        continue;
+      }
+      batch.add(
+          buildNotification(userRepository.getReferenceById(request.userId()), request, category));
+    }
+
+    notificationRepository.saveAll(batch);
+    return batch.size();
+  }
+
+  private Notification buildNotification(
+      User user, CreateNotificationRequest request, NotificationCategory category) {
     // Map actions if provided
     List<Notification.NotificationAction> actions = null;
     if (request.actions() != null && !request.actions().isEmpty()) {
@@ -287,25 +386,22 @@ public class NotificationService {
               .collect(Collectors.toList());
     }
 
-    Notification notification =
-        Notification.builder()
-            .user(user)
-            .type(request.type())
-            .category(category)
-            .priority(request.priority() != null ? request.priority() : NotificationPriority.MEDIUM)
-            .title(request.title())
-            .content(request.content())
-            .icon(request.icon() != null ? request.icon() : request.type().getDefaultIcon())
-            .deepLink(request.deepLink())
-            .expiresAt(request.expiresAt())
-            .senderId(request.senderId())
-            .senderName(request.senderName())
-            .senderAvatar(request.senderAvatar())
-            .metadata(request.metadata())
-            .actions(actions)
-            .build();
-
-    return notificationMapper.toNotificationDto(notificationRepository.save(notification));
+    return Notification.builder()
+        .user(user)
+        .type(request.type())
+        .category(category)
+        .priority(request.priority() != null ? request.priority() : NotificationPriority.MEDIUM)
+        .title(request.title())
+        .content(request.content())
+        .icon(request.icon() != null ? request.icon() : request.type().getDefaultIcon())
+        .deepLink(request.deepLink())
+        .expiresAt(request.expiresAt())
+        .senderId(request.senderId())
+        .senderName(request.senderName())
+        .senderAvatar(request.senderAvatar())
+        .metadata(request.metadata())
+        .actions(actions)
+        .build();
   }
 
   // ============ Preferences Management ============
@@ -315,6 +411,11 @@ public class NotificationService {
     return notificationMapper.toPreferencesDto(prefs);
   }
 
+  /** Stored preferences, without creating defaults for users who have none. */
+  public Optional<NotificationPreferences> findPreferences(UUID userId) {
+    return preferencesRepository.findByUserId(userId);
+  }
+
   @Transactional
   public NotificationPreferencesDto updatePreferences(
       UUID userId, UpdatePreferencesRequest request) {
@@ -346,6 +447,7 @@ public class NotificationService {
                 .push(catReq.push() != null ? catReq.push() : existing.isPush())
                 .email(catReq.email() != null ? catReq.email() : existing.isEmail())
                 .inApp(catReq.inApp() != null ? catReq.inApp() : existing.isInApp())
+                .digest(catReq.digest() != null ? catReq.digest() : existing.getDigest())
                 .build();
 
         prefs.setCategoryPreference(category, updated);
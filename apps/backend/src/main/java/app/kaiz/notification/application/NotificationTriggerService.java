@@ -10,24 +10,26 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for triggering notifications based on app events. This service is called from other
- * services when events occur.
+ * services when events occur. Requests go through {@link NotificationDispatcher}, which coalesces
+ * bursts and honours per-category digest preferences.
+ *
+ * <p>Calls are synchronous: event-driven notifications already run on the outbox relay, and the
+ * scheduler runs on its own thread, so neither blocks a request. Running in the caller's
+ * transaction lets the relay retry an event whose notification could not be written, so write
+ * failures are left to propagate.
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class NotificationTriggerService {
 
-  private final NotificationService notificationService;
+  private final NotificationDispatcher notificationDispatcher;
 
   // ============ Task Notifications ============
 
-  @Async
   public void notifyTaskCreated(UUID userId, UUID taskId, String taskTitle) {
     createNotification(
         userId,
@@ -39,7 +41,6 @@ public class NotificationTriggerService {
         Map.of("taskId", taskId.toString()));
   }
 
-  @Async
   public void notifyTaskCompleted(UUID userId, UUID taskId, String taskTitle, int xpEarned) {
     createNotification(
         userId,
@@ -56,7 +57,6 @@ public class NotificationTriggerService {
                 "dismiss", "Dismiss", "dismiss", "secondary")));
   }
 
-  @Async
   public void notifyTaskDueSoon(UUID userId, UUID taskId, String taskTitle, int hoursUntilDue) {
     NotificationPriority priority =
         hoursUntilDue <= 1
@@ -79,7 +79,6 @@ public class NotificationTriggerService {
                 "snooze", "Snooze", "snooze_task", "secondary")));
   }
 
-  @Async
   public void notifyTaskOverdue(UUID userId, UUID taskId, String taskTitle) {
     createNotification(
         userId,
@@ -96,7 +95,6 @@ public class NotificationTriggerService {
                 "reschedule", "Reschedule", "reschedule_task", "secondary")));
   }
 
-  @Async
   public void notifyTaskAssigned(UUID userId, UUID taskId, String taskTitle, String assignedBy) {
     createNotificationWithSender(
         userId,
@@ -111,7 +109,6 @@ public class NotificationTriggerService {
         null);
   }
 
-  @Async
   public void notifyTaskShared(
       UUID userId, UUID taskId, String taskTitle, String sharedBy, String sharedByAvatar) {
     createNotificationWithSender(
@@ -129,7 +126,6 @@ public class NotificationTriggerService {
 
   // ============ Challenge Notifications ============
 
-  @Async
   public void notifyChallengeStarted(UUID userId, UUID challengeId, String challengeTitle) {
     createNotification(
         userId,
@@ -141,7 +137,6 @@ public class NotificationTriggerService {
         Map.of("challengeId", challengeId.toString()));
   }
 
-  @Async
   public void notifyChallengeMilestone(
       UUID userId, UUID challengeId, String challengeTitle, int milestone, int total) {
     createNotification(
@@ -154,7 +149,6 @@ public class NotificationTriggerService {
         Map.of("challengeId", challengeId.toString(), "milestone", milestone, "total", total));
   }
 
-  @Async
   public void notifyChallengeCompleted(
       UUID userId, UUID challengeId, String challengeTitle, int xpEarned) {
     createNotification(
@@ -173,7 +167,6 @@ public class NotificationTriggerService {
                 "view", "View Details", "view_challenge", "secondary")));
   }
 
-  @Async
   public void notifyChallengeStreak(
       UUID userId, UUID challengeId, String challengeTitle, int streakDays) {
     createNotification(
@@ -187,7 +180,6 @@ public class NotificationTriggerService {
         Map.of("challengeId", challengeId.toString(), "streakDays", streakDays));
   }
 
-  @Async
   public void notifyDailyChallengeReminder(UUID userId, UUID challengeId, String challengeTitle) {
     createNotification(
         userId,
@@ -202,7 +194,6 @@ public class NotificationTriggerService {
                 "checkin", "Check In", "challenge_checkin", "primary")));
   }
 
-  @Async
   public void notifyChallengeInvite(
       UUID userId,
       UUID challengeId,
@@ -224,7 +215,6 @@ public class NotificationTriggerService {
 
   // ============ Community Notifications ============
 
-  @Async
   public void notifyNewFollower(
       UUID userId, UUID followerId, String followerName, String followerAvatar) {
     createNotificationWithSender(
@@ -240,7 +230,6 @@ public class NotificationTriggerService {
         followerAvatar);
   }
 
-  @Async
   public void notifyPostLike(
       UUID userId, UUID postId, UUID likerId, String likerName, String likerAvatar) {
     createNotificationWithSender(
@@ -256,7 +245,6 @@ public class NotificationTriggerService {
         likerAvatar);
   }
 
-  @Async
   public void notifyPostComment(
       UUID userId,
       UUID postId,
@@ -277,7 +265,6 @@ public class NotificationTriggerService {
         commenterAvatar);
   }
 
-  @Async
   public void notifyMention(
       UUID userId, UUID postId, UUID mentionerId, String mentionerName, String mentionerAvatar) {
     createNotificationWithSender(
@@ -293,7 +280,6 @@ public class NotificationTriggerService {
         mentionerAvatar);
   }
 
-  @Async
   public void notifyFriendAchievement(
       UUID userId, UUID friendId, String friendName, String friendAvatar, String achievement) {
     createNotificationWithSender(
@@ -311,7 +297,6 @@ public class NotificationTriggerService {
 
   // ============ Event Notifications ============
 
-  @Async
   public void notifyBirthdayReminder(
       UUID userId, String friendName, String friendAvatar, UUID friendId) {
     createNotificationWithSender(
@@ -327,7 +312,6 @@ public class NotificationTriggerService {
         friendAvatar);
   }
 
-  @Async
   public void notifyEventReminder(UUID userId, UUID eventId, String eventTitle, int minutesUntil) {
     NotificationPriority priority =
         minutesUntil <= 15
@@ -349,7 +333,6 @@ public class NotificationTriggerService {
         Map.of("eventId", eventId.toString(), "minutesUntil", minutesUntil));
   }
 
-  @Async
   public void notifyEventInvite(
       UUID userId, UUID eventId, String eventTitle, String invitedBy, String invitedByAvatar) {
     createNotificationWithSender(
@@ -367,7 +350,6 @@ public class NotificationTriggerService {
 
   // ============ Essentia (Learning) Notifications ============
 
-  @Async
   public void notifyNewLesson(UUID userId, UUID lessonId, String lessonTitle, String topic) {
     createNotification(
         userId,
@@ -379,7 +361,6 @@ public class NotificationTriggerService {
         Map.of("lessonId", lessonId.toString(), "topic", topic));
   }
 
-  @Async
   public void notifyLessonCompleted(UUID userId, UUID lessonId, String lessonTitle, int xpEarned) {
     createNotification(
         userId,
@@ -391,7 +372,6 @@ public class NotificationTriggerService {
         Map.of("lessonId", lessonId.toString(), "xpEarned", xpEarned));
   }
 
-  @Async
   public void notifyLearningStreak(UUID userId, int streakDays) {
     createNotification(
         userId,
@@ -404,7 +384,6 @@ public class NotificationTriggerService {
         Map.of("streakDays", streakDays));
   }
 
-  @Async
   public void notifyQuizResult(UUID userId, UUID quizId, int score, int total, boolean passed) {
     String emoji = passed ? "✅" : "📝";
     String message =
@@ -424,7 +403,6 @@ public class NotificationTriggerService {
 
   // ============ AI Notifications ============
 
-  @Async
   public void notifyAiInsight(
       UUID userId, String insightTitle, String insightContent, String category) {
     createNotification(
@@ -437,7 +415,6 @@ public class NotificationTriggerService {
         Map.of("category", category));
   }
 
-  @Async
   public void notifyAiSuggestion(UUID userId, String suggestion, String context) {
     createNotification(
         userId,
@@ -449,7 +426,6 @@ public class NotificationTriggerService {
         Map.of("context", context));
   }
 
-  @Async
   public void notifyWeeklyReport(
       UUID userId, int tasksCompleted, int challengeProgress, int xpEarned) {
     createNotification(
@@ -474,7 +450,6 @@ public class NotificationTriggerService {
 
   // ============ System Notifications ============
 
-  @Async
   public void notifySystemUpdate(UUID userId, String version, String changelog) {
     createNotification(
         userId,
@@ -486,7 +461,6 @@ public class NotificationTriggerService {
         Map.of("version", version));
   }
 
-  @Async
   public void notifyLevelUp(UUID userId, int newLevel, List<String> unlockedFeatures) {
     String featuresText =
         unlockedFeatures.isEmpty()
@@ -506,7 +480,6 @@ public class NotificationTriggerService {
                 "share", "Share Achievement", "share_level", "primary")));
   }
 
-  @Async
   public void notifyAchievementUnlocked(
       UUID userId,
       String achievementId,
@@ -529,7 +502,6 @@ public class NotificationTriggerService {
                 "view", "View All", "view_achievements", "secondary")));
   }
 
-  @Async
   public void notifySecurityAlert(UUID userId, String alertType, String details) {
     createNotification(
         userId,
@@ -592,29 +564,24 @@ public class NotificationTriggerService {
       List<CreateNotificationRequest.ActionRequest> actions,
       Instant expiresAt) {
 
-    try {
-      CreateNotificationRequest request =
-          new CreateNotificationRequest(
-              userId,
-              type,
-              type.getCategory(),
-              priority,
-              title,
-              content,
-              type.getDefaultIcon(),
-              deepLink,
-              expiresAt,
-              null,
-              null,
-              null,
-              metadata,
-              actions);
-
-      return notificationService.createNotification(request);
-    } catch (org.springframework.dao.DataAccessException e) {
-      log.error("Failed to create notification for user {}: {}", userId, e.getMessage(), e);
-      return null;
-    }
+    CreateNotificationRequest request =
+        new CreateNotificationRequest(
+            userId,
+            type,
+            type.getCategory(),
+            priority,
+            title,
+            content,
+            type.getDefaultIcon(),
+            deepLink,
+            expiresAt,
+            null,
+            null,
+            null,
+            metadata,
+            actions);
+
+    return notificationDispatcher.dispatch(request);
   }
 
   private NotificationDto createNotificationWithSender(
@@ -629,29 +596,24 @@ public class NotificationTriggerService {
       String senderName,
       String senderAvatar) {
 
-    try {
-      CreateNotificationRequest request =
-          new CreateNotificationRequest(
-              userId,
-              type,
-              type.getCategory(),
-              priority,
-              title,
-              content,
-              type.getDefaultIcon(),
-              deepLink,
-              null,
-              senderId,
-              senderName,
-              senderAvatar,
-              metadata,
-              null);
-
-      return notificationService.createNotification(request);
-    } catch (org.springframework.dao.DataAccessException e) {
-      log.error("Failed to create notification for user {}: {}", userId, e.getMessage(), e);
-      return null;
-    }
+    CreateNotificationRequest request =
+        new CreateNotificationRequest(
+            userId,
+            type,
+            type.getCategory(),
+            priority,
+            title,
+            content,
+            type.getDefaultIcon(),
+            deepLink,
+            null,
+            senderId,
+            senderName,
+            senderAvatar,
+            metadata,
+            null);
+
+    return notificationDispatcher.dispatch(request);
   }
 
   private String truncate(String text, int maxLength) {
@@ -0,0 +1,354 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.notification.application.dto.CreateNotificationRequest;
+import app.kaiz.notification.domain.DigestMode;
+import app.kaiz.notification.domain.Notification;
+import app.kaiz.notification.domain.NotificationPriority;
+import app.kaiz.notification.domain.NotificationType;
+import app.kaiz.notification.domain.PendingNotification;
+import app.kaiz.notification.domain.PendingReason;
+import app.kaiz.notification.infrastructure.CoalesceWindow;
+import app.kaiz.notification.infrastructure.PendingGroup;
+import app.kaiz.notification.infrastructure.PendingNotificationRepository;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Queue of notifications held back from the inbox until a release time.
+ *
+ * <p>Categories in DAILY or WEEKLY digest mode are parked here and released as one summary
+ * notification per (user, category) at the user's local digest hour. Release runs in bounded
+ * batches on a short fixed delay, so a backlog drains over several ticks instead of one large
+ * transaction. A batch is made of whole groups, so a digest is never split across ticks.
+ *
+ * <p>Bursts held by the {@link NotificationCoalescer} are parked per (user, window key) until the
+ * window closes, then taken out as a whole by {@link NotificationDispatcher}, which aggregates and
+ * delivers each window in a transaction of its own.
+ *
+ * <p>Notifications created during a user's quiet hours are parked until the window ends and then
+ * delivered individually. Release times are spread over a few minutes per user so the end of a
+ * common window (e.g. 08:00) does not turn into one burst of writes, and each tick inserts its
+ * batch with a single batched {@code saveAll}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PendingNotificationService {
+
+  /** Local hour at which digests are delivered. */
+  static final LocalTime DIGEST_TIME = LocalTime.of(8, 0);
+
+  /** Rows released per worker tick; a larger digest group is released alone. */
+  static final int RELEASE_BATCH_SIZE = 500;
+
+  /** Items listed individually in a digest's metadata. */
+  private static final int DIGEST_ITEM_LIMIT = 50;
+
+  /** Quiet-hours releases are spread over this many seconds after the window ends. */
+  static final int QUIET_HOURS_SPREAD_SECONDS = 600;
+
+  private static final EnumSet<PendingReason> DIGEST_REASONS =
+      EnumSet.of(PendingReason.DAILY_DIGEST, PendingReason.WEEKLY_DIGEST);
+
+  private static final EnumSet<PendingReason> QUIET_HOURS_REASONS =
+      EnumSet.of(PendingReason.QUIET_HOURS);
+
+  private static final EnumSet<PendingReason> COALESCE_REASONS =
+      EnumSet.of(PendingReason.COALESCE);
+
+  private final PendingNotificationRepository pendingRepository;
+  private final NotificationService notificationService;
+  private final UserZoneResolver userZoneResolver;
+
+  // ============ Enqueue ============
+
+  @Transactional
+  public void enqueueDigest(CreateNotificationRequest request, DigestMode mode) {
+    ZonedDateTime now = ZonedDateTime.now(userZoneResolver.resolve(request.userId()));
+    pendingRepository.save(
+        toPending(request, PendingReason.forDigest(mode), nextDigestRelease(mode, now)));
+  }
+
+  /** Hold the request until {@code windowEnd}, the end of the user's current quiet hours. */
+  @Transactional
+  public void enqueueQuietHours(CreateNotificationRequest request, ZonedDateTime windowEnd) {
+    pendingRepository.save(
+        toPending(
+            request,
+            PendingReason.QUIET_HOURS,
+            quietHoursRelease(request.userId(), windowEnd.toInstant())));
+  }
+
+  /**
+   * Hold the request in the user's coalescing window {@code key}, opening one that closes after
+   * {@code window} if none is open. A window that reaches {@code maxBatch} items closes now. The
+   * window's lock is held from reading it to adding the item, so concurrent items agree on its
+   * release time and a flush never takes it halfway.
+   */
+  @Transactional
+  public void enqueueCoalesced(
+      CreateNotificationRequest request, String key, Duration window, int maxBatch) {
+    pendingRepository.lockGroup(groupKey(PendingReason.COALESCE, request.userId(), key));
+    Instant now = Instant.now();
+    CoalesceWindow open =
+        pendingRepository.findWindow(request.userId(), PendingReason.COALESCE, key);
+    Instant releaseAt = open.releaseAt() != null ? open.releaseAt() : now.plus(window);
+    if (open.size() + 1 >= maxBatch && releaseAt.isAfter(now)) {
+      releaseAt = now;
+      pendingRepository.rescheduleWindow(request.userId(), PendingReason.COALESCE, key, now);
+    }
+    PendingNotification pending = toPending(request, PendingReason.COALESCE, releaseAt);
+    pending.setCoalesceKey(key);
+    pendingRepository.save(pending);
+  }
+
+  /** Advisory lock key of one digest group or coalescing window. */
+  static String groupKey(PendingReason reason, UUID userId, String group) {
+    return reason + ":" + userId + ":" + group;
+  }
+
+  /**
+   * Release time for a quiet-hours item: the window end plus a stable per-user offset, so all of a
+   * user's held items come out together while different users are spread across the interval.
+   */
+  static Instant quietHoursRelease(UUID userId, Instant windowEnd) {
+    return windowEnd.plusSeconds(Math.floorMod(userId.hashCode(), QUIET_HOURS_SPREAD_SECONDS));
+  }
+
+  /** Next digest delivery strictly after {@code now}, in {@code now}'s zone. */
+  static Instant nextDigestRelease(DigestMode mode, ZonedDateTime now) {
+    ZonedDateTime candidate = now.with(DIGEST_TIME);
+    if (mode == DigestMode.WEEKLY) {
+      candidate = candidate.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+    }
+    if (!candidate.isAfter(now)) {
+      candidate = mode == DigestMode.WEEKLY ? candidate.plusWeeks(1) : candidate.plusDays(1);
+    }
+    return candidate.toInstant();
+  }
+
+  // ============ Release ============
+
+  /** Release due digests. Each (user, category, mode) group becomes one notification. */
+  @Scheduled(fixedDelayString = "${kaiz.notifications.pending-release-ms:60000}")
+  @Transactional
+  public void releaseDueDigests() {
+    Instant now = Instant.now();
+    List<PendingGroup> groups =
+        pendingRepository.findDueGroups(
+            now, DIGEST_REASONS, PageRequest.of(0, RELEASE_BATCH_SIZE));
+
+    List<CreateNotificationRequest> requests = new ArrayList<>(groups.size());
+    List<PendingNotification> released = new ArrayList<>();
+    for (PendingGroup group : groups) {
+      if (!released.isEmpty() && released.size() + group.size() > RELEASE_BATCH_SIZE) {
+        break;
+      }
+      if (!pendingRepository.tryLockGroup(
+          groupKey(group.reason(), group.userId(), group.category().name()))) {
+        continue; // Being released by another replica
+      }
+      List<PendingNotification> items =
+          pendingRepository.findDueInGroup(group.userId(), group.category(), group.reason(), now);
+      if (items.isEmpty()) {
+        continue; // Taken by another replica
+      }
+      requests.add(items.size() == 1 ? toRequest(items.get(0)) : buildDigest(group, items));
+      released.addAll(items);
+    }
+    if (released.isEmpty()) {
+      return;
+    }
+
+    notificationService.createNotifications(requests);
+    pendingRepository.deleteAllInBatch(released);
+
+    log.info(
+        "Released {} pending notifications as {} digests", released.size(), requests.size());
+  }
+
+  /** Coalescing windows that have closed, the longest overdue first. Not locked. */
+  @Transactional(readOnly = true)
+  public List<PendingGroup> findDueCoalesced() {
+    return pendingRepository.findDueGroups(
+        Instant.now(), COALESCE_REASONS, PageRequest.of(0, RELEASE_BATCH_SIZE));
+  }
+
+  /**
+   * Remove one closed coalescing window and return its items in arrival order; empty if another
+   * replica has it. Runs in the caller's transaction, which must deliver the items, so a failed
+   * delivery puts the window back.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<CreateNotificationRequest> takeCoalesced(PendingGroup window) {
+    if (!pendingRepository.tryLockGroup(
+        groupKey(PendingReason.COALESCE, window.userId(), window.coalesceKey()))) {
+      return List.of(); // Being flushed by another replica, or still receiving items
+    }
+    List<PendingNotification> items =
+        pendingRepository.findDueInWindow(
+            window.userId(), PendingReason.COALESCE, window.coalesceKey(), Instant.now());
+    if (!items.isEmpty()) {
+      pendingRepository.deleteAllInBatch(items);
+    }
+    return items.stream().map(PendingNotificationService::toRequest).toList();
+  }
+
+  /** Deliver items whose quiet hours have ended, one notification per held item. */
+  @Scheduled(fixedDelayString = "${kaiz.notifications.pending-release-ms:60000}")
+  @Transactional
+  public void releaseQuietHours() {
+    List<PendingNotification> due =
+        pendingRepository.findDue(
+            Instant.now(), QUIET_HOURS_REASONS, PageRequest.of(0, RELEASE_BATCH_SIZE));
+    if (due.isEmpty()) {
+      return;
+    }
+
+    int created =
+        notificationService.createNotifications(
+            due.stream().map(PendingNotificationService::toRequest).toList());
+    pendingRepository.deleteAllInBatch(due);
+
+    log.info("Released {} notifications held for quiet hours", created);
+  }
+
+  private CreateNotificationRequest buildDigest(
+      PendingGroup group, List<PendingNotification> items) {
+    DigestMode mode =
+        group.reason() == PendingReason.WEEKLY_DIGEST ? DigestMode.WEEKLY : DigestMode.DAILY;
+    String period = mode == DigestMode.WEEKLY ? "Weekly" : "Daily";
+    String title = String.format("Your %s %s Digest", period, group.category().getDisplayName());
+
+    Map<String, Integer> countsByType = new LinkedHashMap<>();
+    List<Map<String, Object>> listed = new ArrayList<>();
+    for (PendingNotification item : items) {
+      countsByType.merge(item.getType().name(), 1, Integer::sum);
+      if (listed.size() < DIGEST_ITEM_LIMIT) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", item.getType().name());
+        entry.put("title", item.getTitle());
+        if (item.getDeepLink() != null) {
+          entry.put("deepLink", item.getDeepLink());
+        }
+        entry.put("createdAt", item.getCreatedAt().toString());
+        listed.add(entry);
+      }
+    }
+
+    StringBuilder content = new StringBuilder();
+    content.append(items.size()).append(" updates");
+    int preview = Math.min(3, items.size());
+    for (int i = 0; i < preview; i++) {
+      content.append(i == 0 ? ": " : "; ").append(items.get(i).getTitle());
+    }
+    if (items.size() > preview) {
+      content.append("; …");
+    }
+
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put("digest", mode.name());
+    metadata.put("count", items.size());
+    metadata.put("countsByType", countsByType);
+    metadata.put("items", listed);
+
+    return new CreateNotificationRequest(
+        group.userId(),
+        NotificationType.DIGEST,
+        group.category(),
+        NotificationPriority.LOW,
+        title,
+        content.toString(),
+        group.category().getIcon(),
+        "/notifications",
+        null,
+        null,
+        null,
+        null,
+        metadata,
+        null);
+  }
+
+  // ============ Mapping ============
+
+  static PendingNotification toPending(
+      CreateNotificationRequest request, PendingReason reason, Instant releaseAt) {
+    List<Notification.NotificationAction> actions =
+        request.actions() == null
+            ? null
+            : request.actions().stream()
+                .map(
+                    a ->
+                        Notification.NotificationAction.builder()
+                            .id(a.id())
+                            .label(a.label())
+                            .action(a.action())
+                            .style(a.style())
+                            .build())
+                .toList();
+
+    return PendingNotification.builder()
+        .userId(request.userId())
+        .type(request.type())
+        .category(request.category() != null ? request.category() : request.type().getCategory())
+        .priority(request.priority() != null ? request.priority() : NotificationPriority.MEDIUM)
+        .reason(reason)
+        .releaseAt(releaseAt)
+        .title(request.title())
+        .content(request.content())
+        .icon(request.icon())
+        .deepLink(request.deepLink())
+        .expiresAt(request.expiresAt())
+        .senderId(request.senderId())
+        .senderName(request.senderName())
+        .senderAvatar(request.senderAvatar())
+        .metadata(request.metadata())
+        .actions(actions)
+        .build();
+  }
+
+  static CreateNotificationRequest toRequest(PendingNotification pending) {
+    List<CreateNotificationRequest.ActionRequest> actions =
+        pending.getActions() == null
+            ? null
+            : pending.getActions().stream()
+                .map(
+                    a ->
+                        new CreateNotificationRequest.ActionRequest(
+                            a.getId(), a.getLabel(), a.getAction(), a.getStyle()))
+                .toList();
+
+    return new CreateNotificationRequest(
+        pending.getUserId(),
+        pending.getType(),
+        pending.getCategory(),
+        pending.getPriority(),
+        pending.getTitle(),
+        pending.getContent(),
+        pending.getIcon(),
+        pending.getDeepLink(),
+        pending.getExpiresAt(),
+        pending.getSenderId(),
+        pending.getSenderName(),
+        pending.getSenderAvatar(),
+        pending.getMetadata(),
+        actions);
+  }
+}
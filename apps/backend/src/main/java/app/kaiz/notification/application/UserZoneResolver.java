@@ -0,0 +1,32 @@
+package app.kaiz.notification.application;
+
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/** Resolves a user's configured time zone, falling back to UTC when unset or invalid. */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserZoneResolver {
+
+  private final UserRepository userRepository;
+
+  public ZoneId resolve(UUID userId) {
+    String timezone = userRepository.findTimezoneById(userId).orElse(null);
+    if (timezone == null || timezone.isBlank()) {
+      return ZoneOffset.UTC;
+    }
+    try {
+      return ZoneId.of(timezone);
+    } catch (DateTimeException e) {
+      log.warn("Invalid timezone '{}' for user {}, falling back to UTC", timezone, userId);
+      return ZoneOffset.UTC;
+    }
+  }
+}
@@ -50,10 +50,18 @@ public record NotificationDto(
       boolean hasNext,
       boolean hasPrevious) {}
 
-  /** Grouped notifications by time period. */
+  /**
+   * Grouped notifications by time period. {@code nextCursors} maps a bucket id to the cursor for
+   * its next page; buckets without more results are absent.
+   */
   public record GroupedNotificationsDto(
       List<NotificationDto> today,
       List<NotificationDto> yesterday,
       List<NotificationDto> thisWeek,
-      List<NotificationDto> older) {}
+      List<NotificationDto> older,
+      Map<String, String> nextCursors) {}
+
+  /** One page of a single inbox bucket. */
+  public record NotificationBucketDto(
+      String bucket, List<NotificationDto> notifications, String nextCursor) {}
 }
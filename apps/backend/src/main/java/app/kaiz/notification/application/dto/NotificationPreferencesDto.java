@@ -1,5 +1,6 @@
 package app.kaiz.notification.application.dto;
 
+import app.kaiz.notification.domain.DigestMode;
 import java.time.LocalTime;
 import java.util.Map;
 
@@ -16,5 +17,5 @@ public record NotificationPreferencesDto(
     Map<String, CategoryPreferenceDto> categorySettings) {
   /** Category preference response. */
   public record CategoryPreferenceDto(
-      boolean enabled, boolean push, boolean email, boolean inApp) {}
+      boolean enabled, boolean push, boolean email, boolean inApp, DigestMode digest) {}
 }
@@ -1,5 +1,6 @@
 package app.kaiz.notification.application.dto;
 
+import app.kaiz.notification.domain.DigestMode;
 import jakarta.validation.constraints.Size;
 import java.time.LocalTime;
 import java.util.Map;
@@ -18,5 +19,5 @@ public record UpdatePreferencesRequest(
         Map<String, CategoryPreferenceRequest> categorySettings) {
   /** Category preference request. */
   public record CategoryPreferenceRequest(
-      Boolean enabled, Boolean push, Boolean email, Boolean inApp) {}
+      Boolean enabled, Boolean push, Boolean email, Boolean inApp, DigestMode digest) {}
 }
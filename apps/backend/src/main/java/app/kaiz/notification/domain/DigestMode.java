@@ -0,0 +1,11 @@
+package app.kaiz.notification.domain;
+
+/** How notifications of a category are delivered to a user. */
+public enum DigestMode {
+  /** Each notification is created as it happens (after short-window coalescing). */
+  IMMEDIATE,
+  /** Collected and delivered as one summary notification each morning. */
+  DAILY,
+  /** Collected and delivered as one summary notification each Monday morning. */
+  WEEKLY
+}
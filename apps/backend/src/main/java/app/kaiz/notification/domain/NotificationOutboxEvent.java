@@ -0,0 +1,56 @@
+package app.kaiz.notification.domain;
+
+import app.kaiz.shared.persistence.BaseEntity;
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * A notification event recorded in the publisher's transaction and delivered later by the outbox
+ * relay. Rows are appended with {@code ON CONFLICT DO NOTHING} on the idempotency key, so a
+ * duplicate publish is a no-op.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class NotificationOutboxEvent extends BaseEntity {
+
+  @Column(name = "event_type", nullable = false, length = 100)
+  private String eventType;
+
+  @Column(name = "user_id", nullable = false)
+  private UUID userId;
+
+  @Column(name = "idempotency_key", nullable = false, length = 200)
+  private String idempotencyKey;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "payload", columnDefinition = "jsonb", nullable = false)
+  private Map<String, Object> payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private OutboxStatus status;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  /** Earliest time the relay may pick the row up; also serves as the claim lease. */
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(name = "processed_at")
+  private Instant processedAt;
+
+  @Column(name = "last_error", columnDefinition = "TEXT")
+  private String lastError;
+}
@@ -4,6 +4,7 @@ import app.kaiz.identity.domain.User;
 import app.kaiz.shared.persistence.BaseEntity;
 import jakarta.persistence.*;
 import java.time.LocalTime;
+import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.*;
@@ -92,21 +93,48 @@ public class NotificationPreferences extends BaseEntity {
     return pref == null || pref.isEmail();
   }
 
-  /** Check if currently in quiet hours. */
+  /** Delivery mode for a category; categories without a stored preference are immediate. */
+  public DigestMode getDigestMode(NotificationCategory category) {
+    CategoryPreference pref = categorySettings.get(category.getId());
+    return pref == null || pref.getDigest() == null ? DigestMode.IMMEDIATE : pref.getDigest();
+  }
+
+  /** Check if currently in quiet hours, using the server clock. */
   public boolean isInQuietHours() {
-    if (!quietHoursEnabled || quietHoursStart == null || quietHoursEnd == null) {
+    return isInQuietHours(LocalTime.now());
+  }
+
+  /**
+   * Check if a local wall-clock time falls in quiet hours. The start is inclusive and the end
+   * exclusive, so a 22:00–08:00 window is quiet at 22:00 and open again at 08:00.
+   */
+  public boolean isInQuietHours(LocalTime time) {
+    if (!quietHoursEnabled
+        || quietHoursStart == null
+        || quietHoursEnd == null
+        || quietHoursStart.equals(quietHoursEnd)) {
       return false;
     }
 
-    LocalTime now = LocalTime.now();
-
     // Handle overnight quiet hours (e.g., 22:00 to 08:00)
     if (quietHoursStart.isAfter(quietHoursEnd)) {
-      return now.isAfter(quietHoursStart) || now.isBefore(quietHoursEnd);
+      return !time.isBefore(quietHoursStart) || time.isBefore(quietHoursEnd);
     }
 
     // Normal quiet hours (e.g., 14:00 to 16:00)
-    return now.isAfter(quietHoursStart) && now.isBefore(quietHoursEnd);
+    return !time.isBefore(quietHoursStart) && time.isBefore(quietHoursEnd);
+  }
+
+  /**
+   * End of the quiet window that contains {@code now} (in the user's zone), or {@code null} if
+   * {@code now} is outside quiet hours.
+   */
+  public ZonedDateTime quietHoursEndAfter(ZonedDateTime now) {
+    if (!isInQuietHours(now.toLocalTime())) {
+      return null;
+    }
+    ZonedDateTime end = now.with(quietHoursEnd);
+    return end.isAfter(now) ? end : end.plusDays(1);
   }
 
   /** Create default preferences for a new user. */
@@ -140,6 +168,7 @@ public class NotificationPreferences extends BaseEntity {
     @Builder.Default private boolean push = true;
     @Builder.Default private boolean email = true;
     @Builder.Default private boolean inApp = true;
+    @Builder.Default private DigestMode digest = DigestMode.IMMEDIATE;
 
     public static CategoryPreference defaultEnabled() {
       return CategoryPreference.builder().enabled(true).push(true).email(true).inApp(true).build();
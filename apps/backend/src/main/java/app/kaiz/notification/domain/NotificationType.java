@@ -90,6 +90,7 @@ public enum NotificationType {
   ACHIEVEMENT_UNLOCKED,
   LEVEL_UP,
   SECURITY_ALERT,
+  DIGEST,
 
   // ==========================================
   // AI notifications
@@ -195,6 +196,7 @@ public enum NotificationType {
               ACHIEVEMENT_UNLOCKED,
               LEVEL_UP,
               SECURITY_ALERT,
+              DIGEST,
               SYSTEM,
               ACHIEVEMENT ->
           NotificationCategory.SYSTEM;
@@ -269,6 +271,7 @@ public enum NotificationType {
       case ACHIEVEMENT_UNLOCKED -> "trophy-award";
       case LEVEL_UP -> "arrow-up-circle";
       case SECURITY_ALERT -> "shield-alert-outline";
+      case DIGEST -> "inbox-multiple-outline";
       case AI_INSIGHT -> "robot-happy-outline";
       case AI_RECOMMENDATION, AI_SUGGESTION -> "lightbulb-on-outline";
       case AI_DAILY_BRIEF -> "weather-sunny";
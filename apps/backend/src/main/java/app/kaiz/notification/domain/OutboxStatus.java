@@ -0,0 +1,10 @@
+package app.kaiz.notification.domain;
+
+/** Lifecycle of a {@link NotificationOutboxEvent}. */
+public enum OutboxStatus {
+  /** Waiting for the relay, or scheduled for a retry at {@code nextAttemptAt}. */
+  PENDING,
+  PROCESSED,
+  /** Gave up after the maximum number of attempts; kept for inspection. */
+  FAILED
+}
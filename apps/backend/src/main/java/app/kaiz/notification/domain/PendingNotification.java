@@ -0,0 +1,84 @@
+package app.kaiz.notification.domain;
+
+import app.kaiz.shared.persistence.BaseEntity;
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * A notification held back from the inbox until {@code releaseAt}. Rows are released in batches by
+ * a worker and deleted once the corresponding {@link Notification} (or digest) is created.
+ */
+@Entity
+@Table(name = "pending_notifications")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class PendingNotification extends BaseEntity {
+
+  @Column(name = "user_id", nullable = false)
+  private UUID userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "type", nullable = false, length = 50)
+  private NotificationType type;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "category", nullable = false, length = 20)
+  private NotificationCategory category;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "priority", nullable = false, length = 10)
+  private NotificationPriority priority;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "reason", nullable = false, length = 20)
+  private PendingReason reason;
+
+  @Column(name = "release_at", nullable = false)
+  private Instant releaseAt;
+
+  /** Coalescing window the row belongs to; only set for {@link PendingReason#COALESCE}. */
+  @Column(name = "coalesce_key", length = 300)
+  private String coalesceKey;
+
+  @Column(name = "title", nullable = false)
+  private String title;
+
+  @Column(name = "content", columnDefinition = "TEXT")
+  private String content;
+
+  @Column(name = "icon", length = 100)
+  private String icon;
+
+  @Column(name = "deep_link", length = 500)
+  private String deepLink;
+
+  @Column(name = "expires_at")
+  private Instant expiresAt;
+
+  @Column(name = "sender_id")
+  private UUID senderId;
+
+  @Column(name = "sender_name", length = 100)
+  private String senderName;
+
+  @Column(name = "sender_avatar", length = 500)
+  private String senderAvatar;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "metadata", columnDefinition = "jsonb")
+  private Map<String, Object> metadata;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "actions", columnDefinition = "jsonb")
+  private List<Notification.NotificationAction> actions;
+}
@@ -0,0 +1,19 @@
+package app.kaiz.notification.domain;
+
+/** Why a notification is waiting in the pending queue instead of being created immediately. */
+public enum PendingReason {
+  DAILY_DIGEST,
+  WEEKLY_DIGEST,
+  /** Created during the user's quiet hours; released individually when the window ends. */
+  QUIET_HOURS,
+  /** Held in a short coalescing window; released with its window as one notification. */
+  COALESCE;
+
+  public static PendingReason forDigest(DigestMode mode) {
+    return switch (mode) {
+      case DAILY -> DAILY_DIGEST;
+      case WEEKLY -> WEEKLY_DIGEST;
+      case IMMEDIATE -> throw new IllegalArgumentException("IMMEDIATE is never queued");
+    };
+  }
+}
@@ -0,0 +1,9 @@
+package app.kaiz.notification.infrastructure;
+
+import java.time.Instant;
+
+/**
+ * A user's open coalescing window for one key: when it closes and how many items it holds. {@code
+ * releaseAt} is null when no window is open.
+ */
+public record CoalesceWindow(Instant releaseAt, long size) {}
@@ -0,0 +1,83 @@
+package app.kaiz.notification.infrastructure;
+
+import app.kaiz.notification.domain.NotificationOutboxEvent;
+import app.kaiz.notification.domain.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, UUID> {
+
+  /** Append an event; returns 0 if an event with the same idempotency key already exists. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO notification_outbox (id, event_type, user_id, idempotency_key, payload,"
+              + " status, attempts, next_attempt_at, created_at, updated_at)"
+              + " VALUES (gen_random_uuid(), :eventType, :userId, :idempotencyKey,"
+              + " CAST(:payload AS jsonb), 'PENDING', 0, :now, :now, :now)"
+              + " ON CONFLICT (idempotency_key) DO NOTHING",
+      nativeQuery = true)
+  int append(
+      @Param("eventType") String eventType,
+      @Param("userId") UUID userId,
+      @Param("idempotencyKey") String idempotencyKey,
+      @Param("payload") String payload,
+      @Param("now") Instant now);
+
+  /**
+   * Pending events that are due, in publish order. Locked with SKIP LOCKED so relays on several
+   * replicas claim disjoint batches.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "SELECT e FROM NotificationOutboxEvent e "
+          + "WHERE e.status = :status AND e.nextAttemptAt <= :now "
+          + "ORDER BY e.createdAt, e.id")
+  List<NotificationOutboxEvent> findDue(
+      @Param("status") OutboxStatus status, @Param("now") Instant now, Pageable pageable);
+
+  /** Lease claimed rows until {@code leaseUntil} and count the attempt. */
+  @Modifying
+  @Query(
+      "UPDATE NotificationOutboxEvent e "
+          + "SET e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 "
+          + "WHERE e.id IN :ids")
+  int lease(@Param("ids") Collection<UUID> ids, @Param("leaseUntil") Instant leaseUntil);
+
+  @Modifying
+  @Query(
+      "UPDATE NotificationOutboxEvent e "
+          + "SET e.status = :processed, e.processedAt = :now, e.lastError = null "
+          + "WHERE e.id = :id AND e.status = :pending")
+  int markProcessed(
+      @Param("id") UUID id,
+      @Param("now") Instant now,
+      @Param("processed") OutboxStatus processed,
+      @Param("pending") OutboxStatus pending);
+
+  long countByStatus(OutboxStatus status);
+
+  Optional<NotificationOutboxEvent> findFirstByStatusOrderByCreatedAtAsc(OutboxStatus status);
+
+  @Modifying
+  @Query(
+      "DELETE FROM NotificationOutboxEvent e "
+          + "WHERE e.status = :status AND e.processedAt < :cutoff")
+  int deleteProcessedBefore(
+      @Param("status") OutboxStatus status, @Param("cutoff") Instant cutoff);
+}
@@ -1,6 +1,8 @@
 package app.kaiz.notification.infrastructure;
 
 import app.kaiz.notification.domain.NotificationPreferences;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,4 +15,6 @@ public interface NotificationPreferencesRepository
   Optional<NotificationPreferences> findByUserId(UUID userId);
 
   boolean existsByUserId(UUID userId);
+
+  List<NotificationPreferences> findByUserIdIn(Collection<UUID> userIds);
 }
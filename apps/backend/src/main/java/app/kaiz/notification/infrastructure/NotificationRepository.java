@@ -66,13 +66,6 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
   // ============ Time-based Queries ============
 
-  @Query(
-      "SELECT n FROM Notification n WHERE n.user.id = :userId "
-          + "AND n.isArchived = false AND n.createdAt >= :since "
-          + "ORDER BY n.isPinned DESC, n.createdAt DESC")
-  List<Notification> findRecentNotifications(
-      @Param("userId") UUID userId, @Param("since") Instant since);
-
   @Query(
       "SELECT n FROM Notification n WHERE n.user.id = :userId "
           + "AND n.isArchived = false AND n.createdAt BETWEEN :start AND :end "
@@ -80,6 +73,32 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
   List<Notification> findByUserIdAndCreatedAtBetween(
       @Param("userId") UUID userId, @Param("start") Instant start, @Param("end") Instant end);
 
+  /** First page of an inbox bucket, newest first. Size the page to limit + 1 to detect more. */
+  @Query(
+      "SELECT n FROM Notification n WHERE n.user.id = :userId "
+          + "AND n.isArchived = false AND n.createdAt >= :start AND n.createdAt < :end "
+          + "ORDER BY n.createdAt DESC, n.id DESC")
+  List<Notification> findInboxBucket(
+      @Param("userId") UUID userId,
+      @Param("start") Instant start,
+      @Param("end") Instant end,
+      Pageable pageable);
+
+  /** Keyset continuation of an inbox bucket strictly after (cursorCreatedAt, cursorId). */
+  @Query(
+      "SELECT n FROM Notification n WHERE n.user.id = :userId "
+          + "AND n.isArchived = false AND n.createdAt >= :start AND n.createdAt < :end "
+          + "AND (n.createdAt < :cursorCreatedAt "
+          + "OR (n.createdAt = :cursorCreatedAt AND n.id < :cursorId)) "
+          + "ORDER BY n.createdAt DESC, n.id DESC")
+  List<Notification> findInboxBucketAfter(
+      @Param("userId") UUID userId,
+      @Param("start") Instant start,
+      @Param("end") Instant end,
+      @Param("cursorCreatedAt") Instant cursorCreatedAt,
+      @Param("cursorId") UUID cursorId,
+      Pageable pageable);
+
   // ============ Expiration Queries ============
 
   @Query(
@@ -167,6 +186,25 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
   Page<Notification> searchNotifications(
       @Param("userId") UUID userId, @Param("query") String query, Pageable pageable);
 
+  /**
+   * Ranked full-text search over the generated {@code search_vector} column. {@code tsQuery} must
+   * already be a valid {@code to_tsquery} expression (see {@code NotificationSearchQuery}).
+   */
+  @Query(
+      value =
+          "SELECT n.* FROM notifications n WHERE n.user_id = :userId "
+              + "AND n.is_archived = false "
+              + "AND n.search_vector @@ to_tsquery('simple', :tsQuery) "
+              + "ORDER BY ts_rank_cd(n.search_vector, to_tsquery('simple', :tsQuery)) DESC, "
+              + "n.created_at DESC",
+      countQuery =
+          "SELECT COUNT(*) FROM notifications n WHERE n.user_id = :userId "
+              + "AND n.is_archived = false "
+              + "AND n.search_vector @@ to_tsquery('simple', :tsQuery)",
+      nativeQuery = true)
+  Page<Notification> searchNotificationsRanked(
+      @Param("userId") UUID userId, @Param("tsQuery") String tsQuery, Pageable pageable);
+
   // ============ Statistics Queries ============
 
   @Query(
@@ -0,0 +1,16 @@
+package app.kaiz.notification.infrastructure;
+
+import app.kaiz.notification.domain.NotificationCategory;
+import app.kaiz.notification.domain.PendingReason;
+import java.util.UUID;
+
+/**
+ * One (user, category, reason, coalescing key) group of due pending notifications and its row
+ * count. The key is null for digests.
+ */
+public record PendingGroup(
+    UUID userId,
+    NotificationCategory category,
+    PendingReason reason,
+    String coalesceKey,
+    long size) {}
@@ -0,0 +1,117 @@
+package app.kaiz.notification.infrastructure;
+
+import app.kaiz.notification.domain.NotificationCategory;
+import app.kaiz.notification.domain.PendingNotification;
+import app.kaiz.notification.domain.PendingReason;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, UUID> {
+
+  /**
+   * Due rows for the given reasons, oldest release first, grouped by user for batching. Rows are
+   * locked with SKIP LOCKED so several replicas can drain the queue without double delivery.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "SELECT p FROM PendingNotification p "
+          + "WHERE p.releaseAt <= :now AND p.reason IN :reasons "
+          + "ORDER BY p.releaseAt, p.userId, p.createdAt")
+  List<PendingNotification> findDue(
+      @Param("now") Instant now,
+      @Param("reasons") Collection<PendingReason> reasons,
+      Pageable pageable);
+
+  /** Groups with due rows for the given reasons, the longest overdue first. Not locked. */
+  @Query(
+      "SELECT new app.kaiz.notification.infrastructure.PendingGroup(p.userId, p.category,"
+          + " p.reason, p.coalesceKey, COUNT(p)) FROM PendingNotification p"
+          + " WHERE p.releaseAt <= :now AND p.reason IN :reasons"
+          + " GROUP BY p.userId, p.category, p.reason, p.coalesceKey ORDER BY MIN(p.releaseAt)")
+  List<PendingGroup> findDueGroups(
+      @Param("now") Instant now,
+      @Param("reasons") Collection<PendingReason> reasons,
+      Pageable pageable);
+
+  /**
+   * Claim one group for the rest of the transaction with a transaction-scoped advisory lock on
+   * {@code groupKey}. Returns false if another transaction holds the group. Row locks alone would
+   * let two replicas each skip the other's rows and split a group between them.
+   */
+  @Query(
+      value =
+          "SELECT pg_try_advisory_xact_lock(hashtext('pending_notifications'),"
+              + " hashtext(:groupKey))",
+      nativeQuery = true)
+  boolean tryLockGroup(@Param("groupKey") String groupKey);
+
+  /** Wait for the advisory lock on {@code groupKey} taken by {@link #tryLockGroup}. */
+  @Query(
+      value =
+          "SELECT 1 FROM pg_advisory_xact_lock(hashtext('pending_notifications'),"
+              + " hashtext(:groupKey))",
+      nativeQuery = true)
+  int lockGroup(@Param("groupKey") String groupKey);
+
+  /**
+   * Every due row of one group, in arrival order, locked for update. Callers claim the group with
+   * {@link #tryLockGroup} first, so the rows are theirs alone and a digest is never split.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+      "SELECT p FROM PendingNotification p "
+          + "WHERE p.userId = :userId AND p.category = :category AND p.reason = :reason "
+          + "AND p.releaseAt <= :now ORDER BY p.createdAt")
+  List<PendingNotification> findDueInGroup(
+      @Param("userId") UUID userId,
+      @Param("category") NotificationCategory category,
+      @Param("reason") PendingReason reason,
+      @Param("now") Instant now);
+
+  /** Every due row of one coalescing window, in arrival order; locked as in findDueInGroup. */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+      "SELECT p FROM PendingNotification p "
+          + "WHERE p.userId = :userId AND p.reason = :reason AND p.coalesceKey = :key "
+          + "AND p.releaseAt <= :now ORDER BY p.createdAt")
+  List<PendingNotification> findDueInWindow(
+      @Param("userId") UUID userId,
+      @Param("reason") PendingReason reason,
+      @Param("key") String key,
+      @Param("now") Instant now);
+
+  /** The user's open window for {@code key}; its release time is null if there is none. */
+  @Query(
+      "SELECT new app.kaiz.notification.infrastructure.CoalesceWindow(MIN(p.releaseAt),"
+          + " COUNT(p)) FROM PendingNotification p"
+          + " WHERE p.userId = :userId AND p.reason = :reason AND p.coalesceKey = :key")
+  CoalesceWindow findWindow(
+      @Param("userId") UUID userId,
+      @Param("reason") PendingReason reason,
+      @Param("key") String key);
+
+  /** Move every item of the user's window for {@code key} to {@code releaseAt}. */
+  @Modifying
+  @Query(
+      "UPDATE PendingNotification p SET p.releaseAt = :releaseAt "
+          + "WHERE p.userId = :userId AND p.reason = :reason AND p.coalesceKey = :key")
+  int rescheduleWindow(
+      @Param("userId") UUID userId,
+      @Param("reason") PendingReason reason,
+      @Param("key") String key,
+      @Param("releaseAt") Instant releaseAt);
+}
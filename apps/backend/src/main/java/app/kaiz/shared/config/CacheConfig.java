@@ -17,8 +17,9 @@ import org.springframework.context.annotation.Configuration;
  *
  * <ul>
  *   <li><b>Static data (30 min)</b> — rarely changes: life wheel areas, quadrants, mindset themes
- *   <li><b>Admin-managed (15 min)</b> — changes via admin panel: site content, FAQs, prompts
+ *   <li><b>Admin-managed (15 min)</b> — changes via admin panel: site content, FAQs, features
  *   <li><b>Per-user (5 min)</b> — user-specific, moderate churn: sprint, preferences
+ *   <li><b>Admin analytics (5 min)</b> — read from rollups refreshed on the same interval
  * </ul>
  */
 @Configuration
@@ -43,12 +44,15 @@ public class CacheConfig {
             buildCache("faqs", 15, 50),
             buildCache("features", 15, 50),
             buildCache("pricing", 15, 50),
-            buildCache("systemPrompts", 15, 50),
             buildCache("knowledgeCategories", 15, 100),
             buildCache("knowledgeItems", 15, 200),
 
             // ── Per-user data (5 min TTL, 500 max entries) ──
-            buildCache("currentSprint", 5, 500)));
+            buildCache("currentSprint", 5, 500),
+
+            // ── Admin analytics (5 min TTL, 50 max entries) ──
+            buildCache("aiFeedbackDashboard", 5, 50),
+            buildCache("aiFeedbackTrends", 5, 50)));
     return cacheManager;
   }
 
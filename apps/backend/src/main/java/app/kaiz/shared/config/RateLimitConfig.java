@@ -1,10 +1,8 @@
 package app.kaiz.shared.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import app.kaiz.shared.ratelimit.RateLimitBucketStore;
+import app.kaiz.shared.ratelimit.RateLimitBuckets;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +11,10 @@ import org.springframework.context.annotation.Configuration;
 /**
  * Rate limiting configuration using Bucket4j. Provides per-user rate-limited buckets for AI
  * endpoints that call external providers (Claude).
+ *
+ * <p>Buckets live in a bounded in-memory cache by default, so each replica enforces the limits on
+ * its own. With {@code rate-limit.store=jdbc} they are shared through Postgres (see {@link
+ * RateLimitBuckets}).
  */
 @Configuration
 @Slf4j
@@ -29,6 +31,10 @@ public class RateLimitConfig {
     private TierConfig auth = new TierConfig(5, 5, 60);
     private TierConfig api = new TierConfig(100, 100, 60);
     private TierConfig ai = new TierConfig(10, 10, 3600); // 10 requests per hour for AI
+    private String store = "local"; // local (per replica) or jdbc (shared)
+    private long maxBuckets = 100_000; // per tier and node
+    private Duration prefetchTtl = Duration.ofSeconds(5); // jdbc: how long prefetched tokens live
+    private boolean filterEnabled = true; // auth/api tiers on every request (RateLimitFilter)
 
     public TierConfig getAuth() {
       return auth;
@@ -53,12 +59,45 @@ public class RateLimitConfig {
     public void setAi(TierConfig ai) {
       this.ai = ai;
     }
+
+    public String getStore() {
+      return store;
+    }
+
+    public void setStore(String store) {
+      this.store = store;
+    }
+
+    public long getMaxBuckets() {
+      return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+      this.maxBuckets = maxBuckets;
+    }
+
+    public Duration getPrefetchTtl() {
+      return prefetchTtl;
+    }
+
+    public void setPrefetchTtl(Duration prefetchTtl) {
+      this.prefetchTtl = prefetchTtl;
+    }
+
+    public boolean isFilterEnabled() {
+      return filterEnabled;
+    }
+
+    public void setFilterEnabled(boolean filterEnabled) {
+      this.filterEnabled = filterEnabled;
+    }
   }
 
   public static class TierConfig {
     private int capacity;
     private int refillTokens;
     private int refillDuration; // seconds
+    private int prefetch = 1; // jdbc store: tokens taken from the shared bucket per round trip
 
     public TierConfig() {}
 
@@ -91,41 +130,34 @@ public class RateLimitConfig {
     public void setRefillDuration(int refillDuration) {
       this.refillDuration = refillDuration;
     }
+
+    public int getPrefetch() {
+      return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+      this.prefetch = prefetch;
+    }
   }
 
   /**
-   * Per-user bucket cache for AI rate limiting. Each user gets their own bucket with the AI tier
-   * limits (default: 10 req/hour).
+   * Per-user buckets for AI rate limiting. Each user gets their own bucket with the AI tier limits
+   * (default: 10 req/hour).
    */
   @Bean
-  public AIRateLimiter aiRateLimiter(RateLimitProperties props) {
-    return new AIRateLimiter(props.getAi());
+  public AIRateLimiter aiRateLimiter(RateLimitBuckets buckets, RateLimitProperties props) {
+    return new AIRateLimiter(buckets.forTier("ai", props.getAi()));
   }
 
   public static class AIRateLimiter {
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
-    private final TierConfig config;
-
-    public AIRateLimiter(TierConfig config) {
-      this.config = config;
-    }
+    private final RateLimitBucketStore buckets;
 
-    public Bucket resolveBucket(String userId) {
-      return buckets.computeIfAbsent(userId, k -> createBucket());
+    public AIRateLimiter(RateLimitBucketStore buckets) {
+      this.buckets = buckets;
     }
 
     public boolean tryConsume(String userId) {
-      return resolveBucket(userId).tryConsume(1);
-    }
-
-    private Bucket createBucket() {
-      Bandwidth limit =
-          Bandwidth.builder()
-              .capacity(config.getCapacity())
-              .refillGreedy(
-                  config.getRefillTokens(), Duration.ofSeconds(config.getRefillDuration()))
-              .build();
-      return Bucket.builder().addLimit(limit).build();
+      return buckets.tryConsume(userId).consumed();
     }
   }
 }
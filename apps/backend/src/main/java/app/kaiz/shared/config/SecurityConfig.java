@@ -2,7 +2,9 @@ package app.kaiz.shared.config;
 
 import app.kaiz.shared.security.JwtAuthenticationEntryPoint;
 import app.kaiz.shared.security.JwtAuthenticationFilter;
+import app.kaiz.shared.security.RateLimitFilter;
 import app.kaiz.shared.security.SwaggerIpFilter;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -35,6 +37,7 @@ public class SecurityConfig {
   private final JwtAuthenticationFilter jwtAuthenticationFilter;
   private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
   private final SwaggerIpFilter swaggerIpFilter;
+  private final RateLimitFilter rateLimitFilter;
 
   @Value(
       "${kaiz.cors.allowed-origins:http://localhost:3000,http://localhost:8081,http://localhost:19006}")
@@ -98,6 +101,8 @@ public class SecurityConfig {
         // Swagger IP filter runs first to block unauthorized swagger access
         .addFilterBefore(swaggerIpFilter, UsernamePasswordAuthenticationFilter.class)
         .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+        // Rate limits need the authenticated user, so they run right after the JWT filter
+        .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
         .headers(
             headers ->
                 headers
@@ -114,7 +119,9 @@ public class SecurityConfig {
     configuration.setAllowedOriginPatterns(allowedOrigins);
     configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
     configuration.setAllowedHeaders(List.of("*"));
-    configuration.setExposedHeaders(List.of("Authorization"));
+    List<String> exposedHeaders = new ArrayList<>(List.of("Authorization"));
+    exposedHeaders.addAll(RateLimitFilter.HEADERS);
+    configuration.setExposedHeaders(exposedHeaders);
     configuration.setAllowCredentials(true);
     configuration.setMaxAge(3600L);
 
@@ -0,0 +1,139 @@
+package app.kaiz.shared.ratelimit;
+
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import app.kaiz.shared.ratelimit.SharedBucketStorage.Grant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Postgres-backed buckets ({@code rate_limit_buckets}), so a key's limit holds across all replicas
+ * instead of once per replica.
+ *
+ * <p>To keep most requests off the database, a node takes up to {@code prefetch} tokens per round
+ * trip and hands them out locally. Prefetched tokens are already gone from the shared bucket, so
+ * the cluster never exceeds the limit; they are held for at most {@code prefetchTtl} and whatever
+ * is left is then given back. Concurrent requests for one key on one node share a round trip; the
+ * per-key lock is a {@link ReentrantLock} so virtual threads waiting on it stay unpinned.
+ *
+ * <p>A rejection is remembered on the lease until the shared bucket will have refilled a token, so
+ * a key hammering an empty bucket costs one round trip per refill or lease, not one per request. A
+ * refund from another node within that time is only seen once the wait is over.
+ *
+ * <p>If the database cannot be reached the request is decided by a per-node {@link
+ * LocalBucketStore} instead, so an outage loosens the limit rather than failing every request.
+ */
+@Slf4j
+public class JdbcBucketStore implements RateLimitBucketStore {
+
+  private final String prefix;
+  private final TierConfig tier;
+  private final double refillPerSecond;
+  private final SharedBucketStorage storage;
+  private final LocalBucketStore fallback;
+  private final Cache<String, Lease> leases;
+
+  /** Tokens this node took from one shared bucket and has not handed out yet. */
+  private static final class Lease {
+    private final ReentrantLock lock = new ReentrantLock();
+    private int tokens; // guarded by lock
+    private long sharedLeft; // guarded by lock
+    private boolean closed; // guarded by lock
+    private long deniedUntil = System.nanoTime(); // guarded by lock
+  }
+
+  public JdbcBucketStore(
+      String name,
+      TierConfig tier,
+      SharedBucketStorage storage,
+      LocalBucketStore fallback,
+      long maxBuckets,
+      Duration prefetchTtl) {
+    this.prefix = name + ":";
+    this.tier = tier;
+    this.refillPerSecond = (double) tier.getRefillTokens() / tier.getRefillDuration();
+    this.storage = storage;
+    this.fallback = fallback;
+    this.leases =
+        Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterWrite(prefetchTtl)
+            .scheduler(Scheduler.systemScheduler())
+            .<String, Lease>removalListener((key, lease, cause) -> close(key, lease))
+            .build();
+  }
+
+  @Override
+  public Probe tryConsume(String key) {
+    while (true) {
+      Lease lease = leases.get(key, k -> new Lease());
+      lease.lock.lock();
+      try {
+        if (!lease.closed) {
+          return consume(key, lease);
+        }
+        // Expired while we waited; its leftovers are being refunded, so start a new lease
+      } finally {
+        lease.lock.unlock();
+      }
+    }
+  }
+
+  private Probe consume(String key, Lease lease) {
+    if (lease.tokens > 0) {
+      lease.tokens--;
+      return new Probe(true, lease.tokens + lease.sharedLeft, 0);
+    }
+    long waitNanos = lease.deniedUntil - System.nanoTime();
+    if (waitNanos > 0) {
+      return new Probe(false, 0, waitNanos);
+    }
+    Grant grant;
+    try {
+      int want = Math.max(1, tier.getPrefetch());
+      grant = storage.take(prefix + key, tier.getCapacity(), refillPerSecond, want);
+    } catch (DataAccessException e) {
+      log.warn("Rate limit store unavailable, limiting {} on this node: {}", key, e.getMessage());
+      return fallback.tryConsume(key);
+    }
+    lease.sharedLeft = (long) grant.tokensLeft();
+    if (grant.granted() == 0) {
+      long nanos = Math.max(1, (long) Math.ceil((1 - grant.tokensLeft()) / refillPerSecond * 1e9));
+      lease.deniedUntil = System.nanoTime() + nanos;
+      return new Probe(false, 0, nanos);
+    }
+    lease.tokens = grant.granted() - 1;
+    return new Probe(true, lease.tokens + lease.sharedLeft, 0);
+  }
+
+  /** Delete this tier's buckets that have been idle long enough to be full again. */
+  int purgeIdle(int limit) {
+    return storage.deleteIdle(prefix, LocalBucketStore.timeToFill(tier), limit);
+  }
+
+  private void close(String key, Lease lease) {
+    if (key == null || lease == null) {
+      return;
+    }
+    int unused;
+    lease.lock.lock();
+    try {
+      lease.closed = true;
+      unused = lease.tokens;
+      lease.tokens = 0;
+    } finally {
+      lease.lock.unlock();
+    }
+    if (unused > 0) {
+      try {
+        storage.refund(prefix + key, tier.getCapacity(), unused);
+      } catch (DataAccessException e) {
+        log.debug("Could not refund {} rate limit tokens for {}: {}", unused, key, e.getMessage());
+      }
+    }
+  }
+}
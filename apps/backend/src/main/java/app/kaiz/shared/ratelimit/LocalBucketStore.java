@@ -0,0 +1,59 @@
+package app.kaiz.shared.ratelimit;
+
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import java.time.Duration;
+
+/**
+ * In-memory Bucket4j buckets, bounded by {@code maxBuckets}.
+ *
+ * <p>A bucket is dropped once it has not been used for its tier's time-to-fill. By then it would
+ * have refilled completely, so recreating it full on the next request changes nothing. Only the
+ * size bound can drop a partly drained bucket early, and it is sized well above the number of
+ * keys active within a refill period.
+ */
+public class LocalBucketStore implements RateLimitBucketStore {
+
+  private final TierConfig tier;
+  private final Cache<String, Bucket> buckets;
+
+  public LocalBucketStore(TierConfig tier, long maxBuckets) {
+    this.tier = tier;
+    this.buckets =
+        Caffeine.newBuilder().maximumSize(maxBuckets).expireAfterAccess(timeToFill(tier)).build();
+  }
+
+  @Override
+  public Probe tryConsume(String key) {
+    ConsumptionProbe probe = buckets.get(key, k -> newBucket()).tryConsumeAndReturnRemaining(1);
+    return new Probe(
+        probe.isConsumed(),
+        probe.getRemainingTokens(),
+        probe.isConsumed() ? 0 : probe.getNanosToWaitForRefill());
+  }
+
+  /** Buckets currently held, including ones due for expiry. */
+  public long size() {
+    return buckets.estimatedSize();
+  }
+
+  /** How long an empty bucket of this tier takes to refill to capacity. */
+  static Duration timeToFill(TierConfig tier) {
+    long periods =
+        Math.max(1, (tier.getCapacity() + tier.getRefillTokens() - 1) / tier.getRefillTokens());
+    return Duration.ofSeconds(periods * tier.getRefillDuration());
+  }
+
+  private Bucket newBucket() {
+    Bandwidth limit =
+        Bandwidth.builder()
+            .capacity(tier.getCapacity())
+            .refillGreedy(tier.getRefillTokens(), Duration.ofSeconds(tier.getRefillDuration()))
+            .build();
+    return Bucket.builder().addLimit(limit).build();
+  }
+}
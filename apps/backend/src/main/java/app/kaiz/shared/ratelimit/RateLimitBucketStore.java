@@ -0,0 +1,22 @@
+package app.kaiz.shared.ratelimit;
+
+/**
+ * Token buckets for one rate-limit tier, one bucket per key (a user id, a client IP, ...).
+ *
+ * <p>Implementations are selected with {@code rate-limit.store}: {@code local} ({@link
+ * LocalBucketStore}, the default, limits each replica separately) or {@code jdbc} ({@link
+ * JdbcBucketStore}, one bucket per key shared by every replica).
+ */
+public interface RateLimitBucketStore {
+
+  /** Take one token from the key's bucket. */
+  Probe tryConsume(String key);
+
+  /**
+   * Outcome of one attempt to take a token.
+   *
+   * @param remainingTokens tokens left after the attempt, as far as this node knows
+   * @param nanosToWaitForRefill when rejected, how long until a token is available; 0 otherwise
+   */
+  record Probe(boolean consumed, long remainingTokens, long nanosToWaitForRefill) {}
+}
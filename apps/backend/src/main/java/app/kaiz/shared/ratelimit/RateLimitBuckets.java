@@ -0,0 +1,70 @@
+package app.kaiz.shared.ratelimit;
+
+import app.kaiz.shared.config.RateLimitConfig.RateLimitProperties;
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@link RateLimitBucketStore} for each tier according to {@code rate-limit.store}, and
+ * purges idle shared buckets when the {@code jdbc} store is in use.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitBuckets {
+
+  private static final int PURGE_BATCH_SIZE = 1000;
+
+  private final RateLimitProperties properties;
+  private final SharedBucketStorage storage;
+  private final List<JdbcBucketStore> sharedStores = new CopyOnWriteArrayList<>();
+
+  /**
+   * Buckets for one tier.
+   *
+   * @param name tier name; keys of different tiers never share a bucket
+   */
+  public RateLimitBucketStore forTier(String name, TierConfig tier) {
+    LocalBucketStore local = new LocalBucketStore(tier, properties.getMaxBuckets());
+    if (!"jdbc".equalsIgnoreCase(properties.getStore())) {
+      return local;
+    }
+    JdbcBucketStore shared =
+        new JdbcBucketStore(
+            name,
+            tier,
+            storage,
+            local,
+            properties.getMaxBuckets(),
+            properties.getPrefetchTtl());
+    sharedStores.add(shared);
+    log.info("Rate limit tier '{}' uses shared buckets (prefetch {})", name, tier.getPrefetch());
+    return shared;
+  }
+
+  /** Delete shared buckets idle long enough to be full again, in bounded batches. */
+  @Scheduled(fixedDelayString = "${rate-limit.purge-ms:600000}")
+  public void purgeIdle() {
+    for (JdbcBucketStore store : sharedStores) {
+      int total = 0;
+      int deleted;
+      try {
+        do {
+          deleted = store.purgeIdle(PURGE_BATCH_SIZE);
+          total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+      } catch (DataAccessException e) {
+        log.warn("Failed to purge idle rate limit buckets: {}", e.getMessage());
+      }
+      if (total > 0) {
+        log.debug("Purged {} idle rate limit buckets", total);
+      }
+    }
+  }
+}
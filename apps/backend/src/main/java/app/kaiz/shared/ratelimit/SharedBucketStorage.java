@@ -0,0 +1,28 @@
+package app.kaiz.shared.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token buckets shared by all replicas, backing {@link JdbcBucketStore}. Implemented in the
+ * infrastructure layer over {@code rate_limit_buckets}.
+ */
+public interface SharedBucketStorage {
+
+  /**
+   * Tokens taken by {@link #take}.
+   *
+   * @param tokensLeft what the shared bucket holds afterwards, including a partial token
+   */
+  record Grant(int granted, double tokensLeft) {}
+
+  /**
+   * Refill the bucket, creating it full if it does not exist, and take up to {@code want} tokens.
+   */
+  Grant take(String key, int capacity, double refillPerSecond, int want);
+
+  /** Give back tokens taken by {@link #take} but never used. */
+  void refund(String key, int capacity, int tokens);
+
+  /** Delete up to {@code limit} buckets under {@code prefix} untouched for {@code idleFor}. */
+  int deleteIdle(String prefix, Duration idleFor, int limit);
+}
@@ -0,0 +1,67 @@
+package app.kaiz.shared.ratelimit.infrastructure;
+
+import app.kaiz.shared.ratelimit.SharedBucketStorage;
+
+import java.time.Duration;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@link SharedBucketStorage} over {@code rate_limit_buckets}. Every operation is one statement, so
+ * buckets need no transaction and no lock is held across a round trip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitBucketRepository implements SharedBucketStorage {
+
+  // Tokens after refilling for the time since refilled_at (the DB clock, shared by all nodes)
+  private static final String AVAILABLE =
+      "LEAST(:capacity, b.tokens + :rate * GREATEST(0, EXTRACT(EPOCH FROM NOW() - b.refilled_at)))";
+
+  private static final String TAKE =
+      "INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, granted, refilled_at)"
+          + " VALUES (:key, :capacity - LEAST(:capacity, :want), LEAST(:capacity, :want), NOW())"
+          + " ON CONFLICT (bucket_key) DO UPDATE SET"
+          + (" granted = LEAST(:want, FLOOR(" + AVAILABLE + ")),")
+          + (" tokens = " + AVAILABLE + " - LEAST(:want, FLOOR(" + AVAILABLE + ")),")
+          + " refilled_at = GREATEST(b.refilled_at, NOW())"
+          + " RETURNING granted, tokens";
+
+  private static final String REFUND =
+      "UPDATE rate_limit_buckets SET tokens = LEAST(:capacity, tokens + :tokens)"
+          + " WHERE bucket_key = :key";
+
+  private static final String DELETE_IDLE =
+      "DELETE FROM rate_limit_buckets WHERE bucket_key IN (SELECT bucket_key FROM"
+          + " rate_limit_buckets WHERE bucket_key LIKE :prefix"
+          + " AND refilled_at < NOW() - make_interval(secs => :idleSeconds) LIMIT :limit)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public Grant take(String key, int capacity, double refillPerSecond, int want) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("key", key)
+            .addValue("capacity", capacity)
+            .addValue("rate", refillPerSecond)
+            .addValue("want", want);
+    return jdbcTemplate.queryForObject(
+        TAKE, params, (rs, i) -> new Grant(rs.getInt("granted"), rs.getDouble("tokens")));
+  }
+
+  @Override
+  public void refund(String key, int capacity, int tokens) {
+    jdbcTemplate.update(REFUND, Map.of("key", key, "capacity", capacity, "tokens", tokens));
+  }
+
+  @Override
+  public int deleteIdle(String prefix, Duration idleFor, int limit) {
+    return jdbcTemplate.update(
+        DELETE_IDLE,
+        Map.of("prefix", prefix + "%", "idleSeconds", idleFor.toSeconds(), "limit", limit));
+  }
+}
@@ -0,0 +1,159 @@
+package app.kaiz.shared.security;
+
+import app.kaiz.shared.config.RateLimitConfig.RateLimitProperties;
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import app.kaiz.shared.ratelimit.RateLimitBucketStore;
+import app.kaiz.shared.ratelimit.RateLimitBucketStore.Probe;
+import app.kaiz.shared.ratelimit.RateLimitBuckets;
+import app.kaiz.shared.util.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Request rate limiting for the {@code auth} and {@code api} tiers of {@link RateLimitProperties}.
+ * Runs right after {@link JwtAuthenticationFilter}, so an over-limit client is turned away before
+ * any controller or database work.
+ *
+ * <p>Authenticated requests use the api tier per user. Anonymous requests to the {@code /auth/}
+ * endpoints (login, registration, token refresh, password reset) use the stricter auth tier per
+ * client IP, and other anonymous requests the api tier per client IP. The client IP is {@link
+ * HttpServletRequest#getRemoteAddr()}: with {@code server.forward-headers-strategy=native} Tomcat
+ * resolves it from {@code X-Forwarded-For} by walking back from the nearest hop and stopping at the
+ * first address that is not a trusted proxy ({@code server.tomcat.remoteip.internal-proxies}).
+ * Entries a client adds itself sit left of that and cannot move its bucket.
+ *
+ * <p>Buckets come from {@link RateLimitBuckets}: bounded Bucket4j buckets, lock-free on the hot
+ * path, or shared ones with {@code rate-limit.store=jdbc}. Every limited response carries {@code
+ * RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset}; a rejection is a 429
+ * with {@code Retry-After}.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  static final String LIMIT_HEADER = "RateLimit-Limit";
+  static final String REMAINING_HEADER = "RateLimit-Remaining";
+  static final String RESET_HEADER = "RateLimit-Reset";
+  static final String RETRY_AFTER_HEADER = "Retry-After";
+
+  /** Headers browser clients need exposed through CORS. */
+  public static final List<String> HEADERS =
+      List.of(LIMIT_HEADER, REMAINING_HEADER, RESET_HEADER, RETRY_AFTER_HEADER);
+
+  private static final List<String> AUTH_PATHS = List.of("/api/v1/auth/", "/api/v1/admin/auth/");
+  private static final List<String> EXEMPT_PATHS =
+      List.of("/actuator/", "/swagger-ui", "/api-docs", "/v3/api-docs");
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  /** One tier's buckets and the figures its headers are derived from. */
+  private record Tier(
+      RateLimitBucketStore buckets, int capacity, String limit, double nanosPerToken) {
+
+    static Tier of(RateLimitBucketStore buckets, TierConfig config) {
+      return new Tier(
+          buckets,
+          config.getCapacity(),
+          Integer.toString(config.getCapacity()),
+          (double) config.getRefillDuration() * NANOS_PER_SECOND / config.getRefillTokens());
+    }
+  }
+
+  private final boolean enabled;
+  private final Tier auth;
+  private final Tier api;
+  private final ObjectMapper objectMapper;
+
+  public RateLimitFilter(
+      RateLimitProperties properties, RateLimitBuckets buckets, ObjectMapper objectMapper) {
+    this.enabled = properties.isFilterEnabled();
+    this.auth = Tier.of(buckets.forTier("auth", properties.getAuth()), properties.getAuth());
+    this.api = Tier.of(buckets.forTier("api", properties.getApi()), properties.getApi());
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    if (!enabled || HttpMethod.OPTIONS.matches(request.getMethod())) {
+      return true;
+    }
+    String uri = request.getRequestURI();
+    for (String path : EXEMPT_PATHS) {
+      if (uri.startsWith(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+
+    Tier tier = api;
+    String key;
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null
+        && authentication.isAuthenticated()
+        && !(authentication instanceof AnonymousAuthenticationToken)) {
+      key = "user:" + authentication.getName();
+    } else {
+      key = "ip:" + request.getRemoteAddr();
+      if (isAuthPath(request.getRequestURI())) {
+        tier = auth;
+      }
+    }
+
+    Probe probe = tier.buckets().tryConsume(key);
+    long remaining = Math.max(0, probe.remainingTokens());
+    long resetNanos = (long) ((tier.capacity() - remaining) * tier.nanosPerToken());
+    response.setHeader(LIMIT_HEADER, tier.limit());
+    response.setHeader(REMAINING_HEADER, Long.toString(remaining));
+    response.setHeader(RESET_HEADER, Long.toString(toSeconds(resetNanos)));
+
+    if (probe.consumed()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long retryAfter = Math.max(1, toSeconds(probe.nanosToWaitForRefill()));
+    log.warn("Rate limit exceeded for {} on {}", key, request.getRequestURI());
+    response.setHeader(RETRY_AFTER_HEADER, Long.toString(retryAfter));
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        ApiResponse.error("Too many requests. Please retry in " + retryAfter + " seconds."));
+  }
+
+  private static boolean isAuthPath(String uri) {
+    for (String path : AUTH_PATHS) {
+      if (uri.startsWith(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long toSeconds(long nanos) {
+    return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+  }
+}
@@ -29,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,6 +45,7 @@ public class SprintService {
   private final VelocityRecordRepository velocityRecordRepository;
   private final SdlcMapper sdlcMapper;
   private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   public List<SprintDto> getAllSprints() {
     return sdlcMapper.toSprintDtoList(sprintRepository.findAll());
@@ -109,7 +111,9 @@ public class SprintService {
             .findById(sprintId)
             .orElseThrow(() -> new ResourceNotFoundException("Sprint", sprintId));
     sprint.setStatus(SprintStatus.ACTIVE);
-    return sdlcMapper.toSprintDto(sprintRepository.save(sprint));
+    Sprint saved = sprintRepository.save(sprint);
+    eventPublisher.publishEvent(new TaskEvents.SprintChanged(sprintId, null));
+    return sdlcMapper.toSprintDto(saved);
   }
 
   /**
@@ -256,6 +260,7 @@ public class SprintService {
         tasks.size(),
         totalPoints,
         activated);
+    eventPublisher.publishEvent(new TaskEvents.SprintChanged(sprintId, userId));
 
     return new SprintCommitResponse(
         sprint.getId(),
@@ -392,6 +397,7 @@ public class SprintService {
         completedPoints,
         sprint.getTotalPoints(),
         carriedOverTaskIds.size());
+    eventPublisher.publishEvent(new TaskEvents.SprintChanged(sprintId, userId));
 
     return new CompleteSprintResponse(
         sprintId,
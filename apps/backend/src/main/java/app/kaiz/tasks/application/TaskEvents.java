@@ -0,0 +1,23 @@
+package app.kaiz.tasks.application;
+
+import java.util.UUID;
+
+/**
+ * Events published by the tasks module when task or sprint data changes. Other modules that keep
+ * derived copies of that data (such as the Command Center context snapshots) listen for them to
+ * invalidate it. Events are published inside the writing transaction, so transactional listeners
+ * only see them once the change has committed.
+ */
+public final class TaskEvents {
+
+  private TaskEvents() {} // Utility class
+
+  /** Tasks owned by the user were created, updated, deleted or restored. */
+  public record TasksChanged(UUID userId) {}
+
+  /**
+   * A sprint changed. {@code userId} is set when the change only affects that user's view (commit,
+   * completion) and null when it affects everyone (activation).
+   */
+  public record SprintChanged(String sprintId, UUID userId) {}
+}
@@ -21,6 +21,7 @@ import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -47,6 +48,7 @@ public class TaskService {
   private final LifeWheelAreaRepository lifeWheelAreaRepository;
   private final EisenhowerQuadrantRepository eisenhowerQuadrantRepository;
   private final SdlcMapper sdlcMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   public List<TaskDto> getTasksByUserId(UUID userId) {
     return sdlcMapper.toTaskDtoListWithoutDetails(
@@ -127,6 +129,13 @@ public class TaskService {
 
   @Transactional
   public TaskDto createTask(UUID userId, TaskDto.CreateTaskRequest request) {
+    TaskDto created = insertTask(userId, request);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
+    return created;
+  }
+
+  /** Create one task without publishing {@link TaskEvents.TasksChanged}; callers publish it. */
+  private TaskDto insertTask(UUID userId, TaskDto.CreateTaskRequest request) {
     User user =
         userRepository
             .findById(userId)
@@ -284,7 +293,7 @@ public class TaskService {
     for (int i = 0; i < request.tasks().size(); i++) {
       TaskDto.CreateTaskRequest taskReq = request.tasks().get(i);
       try {
-        TaskDto dto = createTask(userId, taskReq);
+        TaskDto dto = insertTask(userId, taskReq);
         created.add(dto);
       } catch (Exception e) {
         log.warn(
@@ -301,6 +310,10 @@ public class TaskService {
         userId,
         created.size(),
         errors.size());
+    // One event for the batch: each one makes listeners drop the user's cached context
+    if (!created.isEmpty()) {
+      eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
+    }
 
     return new BulkCreateTaskResponse(created, errors, request.tasks().size());
   }
@@ -438,7 +451,9 @@ public class TaskService {
       task.setTags(newTags);
     }
 
-    return sdlcMapper.toTaskDto(taskRepository.save(task));
+    Task saved = taskRepository.save(task);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
+    return sdlcMapper.toTaskDto(saved);
   }
 
   @Transactional
@@ -463,7 +478,9 @@ public class TaskService {
       }
     }
 
-    return sdlcMapper.toTaskDto(taskRepository.save(task));
+    Task saved = taskRepository.save(task);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
+    return sdlcMapper.toTaskDto(saved);
   }
 
   @Transactional
@@ -482,6 +499,7 @@ public class TaskService {
     taskRepository.save(task);
     recordHistory(task, user, "status", task.getStatus().name(), "DELETED");
     log.info("Task soft-deleted: userId={}, taskId={}", userId, taskId);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
   }
 
   @Transactional
@@ -498,6 +516,7 @@ public class TaskService {
 
     taskRepository.delete(task);
     log.info("Task hard-deleted: userId={}, taskId={}", userId, taskId);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
   }
 
   @Transactional
@@ -520,6 +539,7 @@ public class TaskService {
     taskRepository.save(task);
     recordHistory(task, user, "status", "DELETED", task.getStatus().name());
     log.info("Task restored: userId={}, taskId={}", userId, taskId);
+    eventPublisher.publishEvent(new TaskEvents.TasksChanged(userId));
     return sdlcMapper.toTaskDto(task);
   }
 
@@ -0,0 +1,33 @@
+-- V56_1: Backfill and index notifications.search_vector (see V56)
+-- Runs outside a transaction (see the .conf file) so the backfill can commit
+-- in batches and the index can be built CONCURRENTLY; neither blocks inbox
+-- reads or new notifications. Rows written since V56 already have a vector
+-- from the trigger. The update_notifications_updated_at trigger also touches
+-- updated_at on each backfilled row.
+
+-- Batches walk the primary key, so each one reads only its own id range
+DO $$
+DECLARE
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    batch_end UUID;
+BEGIN
+    LOOP
+        SELECT MAX(id) INTO batch_end FROM (
+            SELECT id FROM notifications WHERE id > last_id ORDER BY id LIMIT 5000
+        ) batch;
+        EXIT WHEN batch_end IS NULL;
+        UPDATE notifications SET search_vector =
+            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(content, '')), 'B')
+        WHERE id > last_id AND id <= batch_end AND search_vector IS NULL;
+        last_id := batch_end;
+        COMMIT;
+    END LOOP;
+END $$;
+
+-- A failed concurrent build leaves an INVALID index behind; drop it so a
+-- retried migration builds it again instead of skipping it
+DROP INDEX CONCURRENTLY IF EXISTS idx_notifications_user_search;
+
+CREATE INDEX CONCURRENTLY idx_notifications_user_search
+    ON notifications USING gin(user_id, search_vector);
@@ -0,0 +1,31 @@
+-- V56: Full-text search for notifications
+-- Replaces the LOWER(title) LIKE '%q%' scan with a tsvector column.
+-- The 'simple' configuration is used because notifications are written in
+-- several languages (en, tr) and prefix matching works on unstemmed tokens.
+-- btree_gin lets user_id and search_vector live in one GIN index so a search
+-- only ever touches the calling user's postings.
+--
+-- The column is a plain one kept current by a trigger rather than a STORED
+-- generated column: adding a generated column rewrites the whole table under
+-- an ACCESS EXCLUSIVE lock, while adding a nullable column is metadata-only.
+-- Existing rows are backfilled and indexed outside a transaction in V56_1.
+
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE notifications
+    ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION notifications_search_vector()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector =
+        setweight(to_tsvector('simple', coalesce(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(NEW.content, '')), 'B');
+    RETURN NEW;
+END;
+$$ LANGUAGE 'plpgsql';
+
+CREATE TRIGGER update_notifications_search_vector
+    BEFORE INSERT OR UPDATE OF title, content ON notifications
+    FOR EACH ROW
+    EXECUTE FUNCTION notifications_search_vector();
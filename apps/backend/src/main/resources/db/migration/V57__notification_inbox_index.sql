@@ -0,0 +1,12 @@
+-- V57: Keyset index for the grouped notification inbox
+-- Each inbox bucket is read as a bounded range scan ordered by (created_at, id)
+-- over the user's non-archived notifications. Runs outside a transaction (see
+-- the .conf file) so the index is built CONCURRENTLY without blocking writes.
+
+-- A failed concurrent build leaves an INVALID index behind; drop it so a
+-- retried migration builds it again instead of skipping it
+DROP INDEX CONCURRENTLY IF EXISTS idx_notifications_user_inbox;
+
+CREATE INDEX CONCURRENTLY idx_notifications_user_inbox
+    ON notifications(user_id, created_at DESC, id DESC)
+    WHERE is_archived = FALSE;
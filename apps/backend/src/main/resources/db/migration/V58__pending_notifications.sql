@@ -0,0 +1,36 @@
+-- V58: Pending notification queue
+-- Holds notifications that must not reach the inbox yet (daily/weekly digests).
+-- A worker releases due rows in batches ordered by release_at, so the queue is
+-- indexed on release time rather than user.
+
+CREATE TABLE IF NOT EXISTS pending_notifications (
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id         UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    type            VARCHAR(50) NOT NULL,
+    category        VARCHAR(20) NOT NULL,
+    priority        VARCHAR(10) NOT NULL DEFAULT 'MEDIUM',
+    reason          VARCHAR(20) NOT NULL
+                    CHECK (reason IN ('DAILY_DIGEST', 'WEEKLY_DIGEST')),
+    release_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    title           VARCHAR(255) NOT NULL,
+    content         TEXT,
+    icon            VARCHAR(100),
+    deep_link       VARCHAR(500),
+    expires_at      TIMESTAMP WITH TIME ZONE,
+    sender_id       UUID,
+    sender_name     VARCHAR(100),
+    sender_avatar   VARCHAR(500),
+    metadata        JSONB,
+    actions         JSONB,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    created_by      VARCHAR(36),
+    updated_by      VARCHAR(36)
+);
+
+CREATE INDEX IF NOT EXISTS idx_pending_notifications_release
+    ON pending_notifications(release_at, reason);
+
+CREATE INDEX IF NOT EXISTS idx_pending_notifications_user
+    ON pending_notifications(user_id);
+
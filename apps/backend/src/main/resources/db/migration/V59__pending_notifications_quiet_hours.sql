@@ -0,0 +1,6 @@
+-- Quiet-hours deferral: notifications created inside a user's quiet hours are held in
+-- pending_notifications until the window ends.
+ALTER TABLE pending_notifications DROP CONSTRAINT IF EXISTS pending_notifications_reason_check;
+ALTER TABLE pending_notifications
+    ADD CONSTRAINT chk_pending_notifications_reason
+        CHECK (reason IN ('DAILY_DIGEST', 'WEEKLY_DIGEST', 'QUIET_HOURS'));
@@ -0,0 +1,37 @@
+-- V60: Transactional outbox for notification events
+-- Events are inserted in the publisher's transaction and drained by a relay in
+-- publish order. The unique idempotency key makes duplicate publishes a no-op.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    event_type      VARCHAR(100) NOT NULL,
+    user_id         UUID NOT NULL,
+    idempotency_key VARCHAR(200) NOT NULL,
+    payload         JSONB NOT NULL,
+    status          VARCHAR(20) NOT NULL DEFAULT 'PENDING'
+                    CHECK (status IN ('PENDING', 'PROCESSED', 'FAILED')),
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    processed_at    TIMESTAMP WITH TIME ZONE,
+    last_error      TEXT,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    created_by      VARCHAR(36),
+    updated_by      VARCHAR(36),
+    CONSTRAINT uq_notification_outbox_idempotency_key UNIQUE (idempotency_key)
+);
+
+-- Relay claim: due pending rows in publish order
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_pending
+    ON notification_outbox(next_attempt_at, created_at)
+    WHERE status = 'PENDING';
+
+-- Backlog age gauge
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_pending_created
+    ON notification_outbox(created_at)
+    WHERE status = 'PENDING';
+
+-- Retention purge
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_processed
+    ON notification_outbox(processed_at)
+    WHERE status = 'PROCESSED';
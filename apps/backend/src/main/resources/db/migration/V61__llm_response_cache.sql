@@ -0,0 +1,16 @@
+-- V61: Persistent tier of the opt-in LLM response cache
+-- Keyed by SHA-256(model, temperature, system message, user message).
+
+CREATE TABLE IF NOT EXISTS llm_response_cache (
+    cache_key       VARCHAR(64) PRIMARY KEY,
+    model_name      VARCHAR(100) NOT NULL,
+    mode            VARCHAR(50) NOT NULL,
+    response_text   TEXT NOT NULL,
+    input_tokens    BIGINT NOT NULL DEFAULT 0,
+    output_tokens   BIGINT NOT NULL DEFAULT 0,
+    expires_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_llm_response_cache_expires
+    ON llm_response_cache(expires_at);
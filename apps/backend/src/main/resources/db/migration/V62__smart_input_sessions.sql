@@ -0,0 +1,16 @@
+-- V62: Shared storage for multi-turn Smart Input sessions
+-- Used by the jdbc ConversationSessionStore so clarification flows work across replicas.
+-- version is bumped on every write and guards concurrent updates (compare-and-set).
+
+CREATE TABLE IF NOT EXISTS smart_input_sessions (
+    session_id  UUID PRIMARY KEY,
+    user_id     UUID NOT NULL,
+    version     BIGINT NOT NULL DEFAULT 0,
+    payload     JSONB NOT NULL,
+    expires_at  TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- TTL index: reads filter on expires_at and the purge job deletes by it
+CREATE INDEX IF NOT EXISTS idx_smart_input_sessions_expires
+    ON smart_input_sessions(expires_at);
@@ -0,0 +1,20 @@
+-- V63: Per-session message sequence counter
+-- ConversationManager allocates sequence numbers by bumping last_sequence_number in the same
+-- statement that inserts a turn, instead of scanning MAX(sequence_number) on every turn.
+
+ALTER TABLE conversation_sessions
+    ADD COLUMN IF NOT EXISTS last_sequence_number INTEGER NOT NULL DEFAULT 0;
+
+UPDATE conversation_sessions s
+SET last_sequence_number = m.max_sequence
+FROM (
+    SELECT session_id, MAX(sequence_number) AS max_sequence
+    FROM conversation_messages
+    GROUP BY session_id
+) m
+WHERE m.session_id = s.id;
+
+-- The cleanup job expires idle active sessions in chunks; closed and expired rows never qualify
+CREATE INDEX IF NOT EXISTS idx_conv_sessions_active_last_message
+    ON conversation_sessions(last_message_at)
+    WHERE status = 'ACTIVE';
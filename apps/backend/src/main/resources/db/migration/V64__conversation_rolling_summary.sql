@@ -0,0 +1,7 @@
+-- V64: Rolling summary of older conversation turns
+-- Prompts carry recent messages verbatim within a per-mode token budget; messages up to
+-- summarized_through are represented only by summary, which is refreshed after each turn.
+
+ALTER TABLE conversation_sessions
+    ADD COLUMN IF NOT EXISTS summary TEXT,
+    ADD COLUMN IF NOT EXISTS summarized_through INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,20 @@
+-- V65: Per-user, per-day LLM token ledger
+-- TokenLedger accumulates provider-reported usage in memory and flushes it here with batched
+-- upserts; pre-flight budget checks read a user's total for the day. Calls that are not made on
+-- behalf of a user are booked under the nil UUID.
+
+CREATE TABLE IF NOT EXISTS llm_token_ledger (
+    user_id           UUID NOT NULL,
+    usage_date        DATE NOT NULL,
+    mode              VARCHAR(50) NOT NULL,
+    model             VARCHAR(100) NOT NULL,
+    calls             BIGINT NOT NULL DEFAULT 0,
+    prompt_tokens     BIGINT NOT NULL DEFAULT 0,
+    completion_tokens BIGINT NOT NULL DEFAULT 0,
+    updated_at        TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, usage_date, mode, model)
+);
+
+-- Admin spend views aggregate by date range
+CREATE INDEX IF NOT EXISTS idx_llm_token_ledger_date
+    ON llm_token_ledger(usage_date);
@@ -0,0 +1,15 @@
+-- V66: Shared token buckets for rate limiting across replicas
+-- Used when rate-limit.store=jdbc. Each row is one bucket ("<tier>:<key>"); a single upsert
+-- refills it for the time elapsed since refilled_at and takes up to the requested tokens,
+-- recording how many it granted. A bucket idle for longer than its time-to-fill is full again
+-- and is purged.
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key  VARCHAR(200) PRIMARY KEY,
+    tokens      DOUBLE PRECISION NOT NULL,
+    granted     INTEGER NOT NULL DEFAULT 0,
+    refilled_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_refilled
+    ON rate_limit_buckets(refilled_at);
@@ -0,0 +1,20 @@
+-- V67_1: Covering indexes on draft_feedback_records for the feedback aggregates (see V67)
+-- Runs outside a transaction (see the .conf file) so the indexes are built
+-- CONCURRENTLY without blocking new feedback. The old created_at index is
+-- dropped only once its replacement exists.
+
+-- A failed concurrent build leaves an INVALID index behind; drop it so a
+-- retried migration builds it again instead of skipping it
+DROP INDEX CONCURRENTLY IF EXISTS idx_draft_feedback_created_action;
+
+CREATE INDEX CONCURRENTLY idx_draft_feedback_created_action
+    ON draft_feedback_records(created_at, action) INCLUDE (time_to_decide_ms);
+
+-- Rejection reasons are only grouped for rejected feedback with a comment
+DROP INDEX CONCURRENTLY IF EXISTS idx_draft_feedback_rejected_created;
+
+CREATE INDEX CONCURRENTLY idx_draft_feedback_rejected_created
+    ON draft_feedback_records(created_at)
+    WHERE action = 'REJECTED' AND user_comment IS NOT NULL;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_draft_feedback_created;
@@ -0,0 +1,45 @@
+-- V67: Indexed aggregates and a daily rollup for draft feedback analytics
+-- RuleEvolutionService answers admin views with GROUP BY queries over a created_at window; the
+-- covering index lets them run from the index alone. The weekly evolution report reads the daily
+-- rollup, which holds one row per day, action, draft type and rejection reason; days that have
+-- been rolled up are listed in draft_feedback_rollup_days, so a day without feedback counts too.
+-- The draft_feedback_records indexes are built in V67_1.
+
+-- Top users by feedback volume
+CREATE INDEX IF NOT EXISTS idx_user_coach_preferences_interactions
+    ON user_coach_preferences(total_interactions DESC);
+
+CREATE TABLE IF NOT EXISTS draft_feedback_daily (
+    day            DATE NOT NULL,
+    action         VARCHAR(20) NOT NULL,
+    draft_type     VARCHAR(30) NOT NULL,
+    -- Trimmed rejection comment (first 200 characters); empty for other actions
+    reason         VARCHAR(200) NOT NULL DEFAULT '',
+    feedback_count BIGINT NOT NULL DEFAULT 0,
+    decided_count  BIGINT NOT NULL DEFAULT 0,
+    decide_ms_sum  BIGINT NOT NULL DEFAULT 0,
+    updated_at     TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (day, action, draft_type, reason)
+);
+
+CREATE TABLE IF NOT EXISTS draft_feedback_rollup_days (
+    day          DATE PRIMARY KEY,
+    rolled_up_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- Backfill: all history, and every day from the first feedback through today as rolled up
+INSERT INTO draft_feedback_daily (day, action, draft_type, reason, feedback_count,
+                                  decided_count, decide_ms_sum)
+SELECT (f.created_at AT TIME ZONE 'UTC')::date AS day, f.action, d.draft_type,
+       CASE WHEN f.action = 'REJECTED' THEN COALESCE(LEFT(BTRIM(f.user_comment), 200), '')
+            ELSE '' END AS reason,
+       COUNT(*), COUNT(f.time_to_decide_ms), COALESCE(SUM(f.time_to_decide_ms), 0)
+FROM draft_feedback_records f
+JOIN command_center_drafts d ON d.id = f.draft_id
+GROUP BY 1, 2, 3, 4;
+
+INSERT INTO draft_feedback_rollup_days (day)
+SELECT generate_series(
+    (SELECT MIN(created_at AT TIME ZONE 'UTC')::date FROM draft_feedback_records),
+    (NOW() AT TIME ZONE 'UTC')::date,
+    INTERVAL '1 day')::date;
@@ -0,0 +1,10 @@
+-- V68_1: Index for reading a user's modifications after the watermark (see V68)
+-- Runs outside a transaction (see the .conf file) so the index is built
+-- CONCURRENTLY without blocking new feedback.
+
+-- A failed concurrent build leaves an INVALID index behind; drop it so a
+-- retried migration builds it again instead of skipping it
+DROP INDEX CONCURRENTLY IF EXISTS idx_draft_feedback_modified;
+
+CREATE INDEX CONCURRENTLY idx_draft_feedback_modified
+    ON draft_feedback_records(user_id, created_at) WHERE action = 'MODIFIED';
@@ -0,0 +1,16 @@
+-- V68: Incremental correction pattern learning
+-- DraftFeedbackCollector flags a user when MODIFIED feedback arrives; UserPreferenceLearner only
+-- visits flagged users, reads their modifications after the watermark and merges them into the
+-- stored per-field value counts instead of re-reading the whole history. The index on
+-- draft_feedback_records is built in V68_1.
+
+ALTER TABLE user_coach_preferences
+    ADD COLUMN IF NOT EXISTS correction_counts JSONB NOT NULL DEFAULT '{}'::jsonb,
+    ADD COLUMN IF NOT EXISTS patterns_learned_through TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN IF NOT EXISTS patterns_pending BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Users with existing modifications learn their full history once
+UPDATE user_coach_preferences SET patterns_pending = TRUE WHERE total_drafts_modified > 0;
+
+CREATE INDEX IF NOT EXISTS idx_user_coach_preferences_pending
+    ON user_coach_preferences(user_id) WHERE patterns_pending;
@@ -0,0 +1,60 @@
+-- V69_1: created_at indexes and backfill for the AI activity rollups (see V69)
+-- Runs outside a transaction (see the .conf file) so the indexes are built
+-- CONCURRENTLY without blocking writes to the source tables, and the backfill
+-- does not hold one transaction open across all of them.
+
+-- A failed concurrent build leaves an INVALID index behind; drop it so a
+-- retried migration builds it again instead of skipping it
+DROP INDEX CONCURRENTLY IF EXISTS idx_conversation_sessions_created;
+
+CREATE INDEX CONCURRENTLY idx_conversation_sessions_created
+    ON conversation_sessions(created_at);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_drafts_created;
+
+CREATE INDEX CONCURRENTLY idx_drafts_created
+    ON command_center_drafts(created_at);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_sensai_interventions_created;
+
+CREATE INDEX CONCURRENTLY idx_sensai_interventions_created
+    ON sensai_interventions(created_at);
+
+-- Backfill: daily rows for all history, hourly rows for the retention window. Each statement
+-- commits on its own; rows already there from an earlier attempt are kept.
+INSERT INTO ai_activity_daily (day, metric, value)
+SELECT day, metric, COUNT(*)
+FROM (
+    SELECT (created_at AT TIME ZONE 'UTC')::date AS day, 'sessions' AS metric
+    FROM conversation_sessions
+    UNION ALL
+    SELECT (created_at AT TIME ZONE 'UTC')::date, 'drafts' FROM command_center_drafts
+    UNION ALL
+    SELECT (created_at AT TIME ZONE 'UTC')::date, 'feedback_' || LOWER(action)
+    FROM draft_feedback_records
+    UNION ALL
+    SELECT (created_at AT TIME ZONE 'UTC')::date, 'interventions'
+    FROM sensai_interventions WHERE created_at IS NOT NULL
+) events
+GROUP BY day, metric
+ON CONFLICT (day, metric) DO NOTHING;
+
+INSERT INTO ai_activity_hourly (hour, metric, value)
+SELECT hour, metric, COUNT(*)
+FROM (
+    SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC' AS hour,
+           'sessions' AS metric
+    FROM conversation_sessions WHERE created_at >= NOW() - INTERVAL '14 days'
+    UNION ALL
+    SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', 'drafts'
+    FROM command_center_drafts WHERE created_at >= NOW() - INTERVAL '14 days'
+    UNION ALL
+    SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC',
+           'feedback_' || LOWER(action)
+    FROM draft_feedback_records WHERE created_at >= NOW() - INTERVAL '14 days'
+    UNION ALL
+    SELECT date_trunc('hour', created_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', 'interventions'
+    FROM sensai_interventions WHERE created_at >= NOW() - INTERVAL '14 days'
+) events
+GROUP BY hour, metric
+ON CONFLICT (hour, metric) DO NOTHING;
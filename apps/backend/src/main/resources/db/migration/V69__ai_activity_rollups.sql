@@ -0,0 +1,23 @@
+-- V69: Hourly and daily AI activity rollups for the admin AI feedback dashboard
+-- AiActivityAggregator recomputes the hourly counts of yesterday and today from the source tables
+-- every few minutes and derives the daily rows from them, so dashboard totals and 52-week trends
+-- read a few hundred pre-aggregated rows instead of counting the source tables.
+-- Metrics: sessions, drafts, interventions, feedback_approved, feedback_modified,
+-- feedback_rejected. Hours and days are UTC. The created_at indexes and the backfill are in
+-- V69_1.
+
+CREATE TABLE IF NOT EXISTS ai_activity_hourly (
+    hour       TIMESTAMP WITH TIME ZONE NOT NULL,
+    metric     VARCHAR(30) NOT NULL,
+    value      BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (hour, metric)
+);
+
+CREATE TABLE IF NOT EXISTS ai_activity_daily (
+    day        DATE NOT NULL,
+    metric     VARCHAR(30) NOT NULL,
+    value      BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (day, metric)
+);
@@ -0,0 +1,14 @@
+-- Coalescing windows are held in pending_notifications instead of memory. The
+-- outbox relay parks an item in the same transaction that closes its event, so a
+-- crash can no longer drop a window of notifications whose events are processed.
+ALTER TABLE pending_notifications ADD COLUMN IF NOT EXISTS coalesce_key VARCHAR(300);
+
+ALTER TABLE pending_notifications DROP CONSTRAINT IF EXISTS chk_pending_notifications_reason;
+ALTER TABLE pending_notifications
+    ADD CONSTRAINT chk_pending_notifications_reason
+        CHECK (reason IN ('DAILY_DIGEST', 'WEEKLY_DIGEST', 'QUIET_HOURS', 'COALESCE'));
+
+-- Looking up a user's open window on every held item
+CREATE INDEX IF NOT EXISTS idx_pending_notifications_coalesce
+    ON pending_notifications(user_id, coalesce_key, release_at)
+    WHERE reason = 'COALESCE';
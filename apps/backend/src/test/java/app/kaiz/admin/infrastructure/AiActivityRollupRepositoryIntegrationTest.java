@@ -0,0 +1,125 @@
+package app.kaiz.admin.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository.MetricCount;
+import app.kaiz.admin.infrastructure.AiActivityRollupRepository.WeeklyFeedback;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class AiActivityRollupRepositoryIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private AiActivityRollupRepository repository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User user;
+  // A day no other test rolls up, so its rows are exact
+  private LocalDate day;
+
+  @BeforeEach
+  void setUp() {
+    user =
+        userRepository.save(
+            User.builder()
+                .email("activity-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .fullName("Activity User")
+                .build());
+    day = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+  }
+
+  private Instant at(String time) {
+    return day.atTime(LocalTime.parse(time)).toInstant(ZoneOffset.UTC);
+  }
+
+  private UUID draft(String time) {
+    UUID id = UUID.randomUUID();
+    jdbcTemplate.update(
+        "INSERT INTO command_center_drafts (id, user_id, draft_type, draft_content, created_at)"
+            + " VALUES (?, ?, 'TASK', '{}'::jsonb, ?)",
+        id,
+        user.getId(),
+        Timestamp.from(at(time)));
+    return id;
+  }
+
+  private UUID feedback(UUID draftId, String action, String time) {
+    UUID id = UUID.randomUUID();
+    jdbcTemplate.update(
+        "INSERT INTO draft_feedback_records (id, draft_id, user_id, action, created_at)"
+            + " VALUES (?, ?, ?, ?, ?)",
+        id,
+        draftId,
+        user.getId(),
+        action,
+        Timestamp.from(at(time)));
+    return id;
+  }
+
+  private long daily(String metric) {
+    Long value =
+        jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(value), 0) FROM ai_activity_daily WHERE day = ? AND metric = ?",
+            Long.class,
+            Date.valueOf(day),
+            metric);
+    return value != null ? value : 0;
+  }
+
+  @Test
+  @DisplayName("should count activity per UTC hour and derive the day from the hours")
+  void shouldRollUpHoursAndDays() {
+    UUID first = draft("10:15");
+    UUID second = draft("10:45");
+    feedback(first, "APPROVED", "11:00");
+    feedback(second, "REJECTED", "23:30");
+
+    repository.rollUp(day, day);
+
+    assertThat(
+            repository.hourly(at("00:00")).stream()
+                .filter(count -> count.bucket().isBefore(at("00:00").plusSeconds(86_400))))
+        .containsExactly(
+            new MetricCount(at("10:00"), AiActivityRollupRepository.DRAFTS, 2),
+            new MetricCount(at("11:00"), AiActivityRollupRepository.FEEDBACK_APPROVED, 1),
+            new MetricCount(at("23:00"), AiActivityRollupRepository.FEEDBACK_REJECTED, 1));
+    assertThat(daily(AiActivityRollupRepository.DRAFTS)).isEqualTo(2);
+    assertThat(repository.weeklyFeedback(day, 1))
+        .containsExactly(new WeeklyFeedback(day.minusDays(6), day, 1, 0, 1));
+    // The same day as the older of two weeks
+    assertThat(repository.weeklyFeedback(day.plusDays(7), 2))
+        .containsExactly(new WeeklyFeedback(day.minusDays(6), day, 1, 0, 1));
+  }
+
+  @Test
+  @DisplayName("should drop counts whose source rows are gone when rolled up again")
+  void shouldRebuildIdempotently() {
+    UUID draftId = draft("08:00");
+    UUID rejected = feedback(draftId, "REJECTED", "09:00");
+    repository.rollUp(day, day);
+    repository.rollUp(day, day);
+    assertThat(daily(AiActivityRollupRepository.FEEDBACK_REJECTED)).isEqualTo(1);
+
+    jdbcTemplate.update("DELETE FROM draft_feedback_records WHERE id = ?", rejected);
+    repository.rollUp(day, day);
+
+    assertThat(daily(AiActivityRollupRepository.FEEDBACK_REJECTED)).isZero();
+    assertThat(daily(AiActivityRollupRepository.DRAFTS)).isEqualTo(1);
+    assertThat(repository.weeklyFeedback(day, 1)).isEmpty();
+  }
+}
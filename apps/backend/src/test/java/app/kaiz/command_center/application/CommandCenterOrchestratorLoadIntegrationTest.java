@@ -0,0 +1,93 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.command_center.application.CommandCenterOrchestrator.OrchestratedResponse;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Concurrent chat load against a small pool. Every request is parked inside the LLM call at the
+ * same time; if any phase still held a connection across the call, more requests than the pool
+ * size could never get there.
+ */
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=4")
+class CommandCenterOrchestratorLoadIntegrationTest extends IntegrationTestBase {
+
+  private static final int POOL_SIZE = 4;
+  private static final int CONCURRENT_CHATS = 24;
+
+  @Autowired private CommandCenterOrchestrator orchestrator;
+  @Autowired private UserRepository userRepository;
+  @Autowired private DataSource dataSource;
+
+  @MockitoBean private LlmGateway llmGateway;
+
+  @Test
+  @DisplayName("should not hold pooled connections while waiting on the LLM")
+  void shouldKeepPoolOccupancyFlatDuringLlmCalls() throws Exception {
+    List<UUID> users = new ArrayList<>();
+    for (int i = 0; i < CONCURRENT_CHATS; i++) {
+      users.add(
+          userRepository
+              .save(
+                  User.builder()
+                      .email("load-" + UUID.randomUUID() + "@example.com")
+                      .passwordHash("x")
+                      .fullName("Load User " + i)
+                      .build())
+              .getId());
+    }
+
+    CountDownLatch allInLlm = new CountDownLatch(CONCURRENT_CHATS);
+    CountDownLatch releaseLlm = new CountDownLatch(1);
+    when(llmGateway.call(any(UUID.class), anyList(), any(Message.class), any()))
+        .thenAnswer(
+            invocation -> {
+              allInLlm.countDown();
+              releaseLlm.await(30, TimeUnit.SECONDS);
+              return "Sounds good, let's keep going.";
+            });
+
+    HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+    assertThat(hikari.getMaximumPoolSize()).isEqualTo(POOL_SIZE);
+
+    List<Future<OrchestratedResponse>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (UUID userId : users) {
+        results.add(executor.submit(() -> orchestrator.process(userId, "hello there", "FREEFORM")));
+      }
+
+      assertThat(allInLlm.await(30, TimeUnit.SECONDS))
+          .as("all chats reached the LLM phase concurrently")
+          .isTrue();
+      assertThat(hikari.getHikariPoolMXBean().getActiveConnections()).isZero();
+      assertThat(hikari.getHikariPoolMXBean().getThreadsAwaitingConnection()).isZero();
+
+      releaseLlm.countDown();
+      for (Future<OrchestratedResponse> result : results) {
+        assertThat(result.get(30, TimeUnit.SECONDS).denialReason()).isNull();
+      }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.infrastructure.UserCoachPreferenceRepository;
+import app.kaiz.sensai.application.CeremonyService;
+import app.kaiz.sensai.application.StandupService;
+import app.kaiz.sensai.application.VelocityService;
+import app.kaiz.tasks.application.SprintService;
+import app.kaiz.tasks.application.TaskEvents;
+import app.kaiz.tasks.application.TaskService;
+import app.kaiz.tasks.application.dto.SprintDto;
+import app.kaiz.tasks.domain.SprintStatus;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+class ContextAssemblerTest {
+
+  private static final String SPRINT_ID = "2026-W42";
+
+  private final SprintService sprintService = mock(SprintService.class);
+  private final UserPreferenceLearner preferenceLearner = mock(UserPreferenceLearner.class);
+  private final PlatformTransactionManager transactionManager =
+      mock(PlatformTransactionManager.class);
+  private final UUID userId = UUID.randomUUID();
+  private ContextAssembler assembler;
+
+  @BeforeEach
+  void setUp() {
+    when(preferenceLearner.getCorrectionPatternsText(any())).thenReturn("");
+    assembler = assembler(4);
+  }
+
+  private ContextAssembler assembler(int maxConcurrentLoads) {
+    return new ContextAssembler(
+        sprintService,
+        mock(TaskService.class),
+        mock(VelocityService.class),
+        mock(StandupService.class),
+        mock(CeremonyService.class),
+        preferenceLearner,
+        mock(UserCoachPreferenceRepository.class),
+        transactionManager,
+        Duration.ofMillis(200),
+        Duration.ofMillis(150),
+        maxConcurrentLoads,
+        Duration.ofMinutes(1),
+        100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    assembler.shutdown();
+  }
+
+  private static SprintDto sprint() {
+    LocalDate start = LocalDate.of(2026, 10, 12);
+    return new SprintDto(
+        SPRINT_ID, 42, 2026, start, start.plusDays(6), SprintStatus.ACTIVE, 20, 5, null, "Ship");
+  }
+
+  @Test
+  @DisplayName("should reuse the snapshot until the user's tasks change")
+  void shouldReuseSnapshotUntilTasksChange() {
+    when(sprintService.getSprintById(SPRINT_ID)).thenReturn(sprint());
+
+    Map<String, String> first = assembler.assemble("CAPTURE", userId, SPRINT_ID);
+    Map<String, String> second = assembler.assemble("CAPTURE", userId, SPRINT_ID);
+
+    assertThat(second).isEqualTo(first).containsEntry("sprint_goal", "Ship");
+    assertThat(first.keySet()).startsWith("today", "sprint_name");
+    verify(sprintService, times(1)).getSprintById(SPRINT_ID);
+
+    assembler.onTasksChanged(new TaskEvents.TasksChanged(userId));
+    assembler.assemble("CAPTURE", userId, SPRINT_ID);
+    verify(sprintService, times(2)).getSprintById(SPRINT_ID);
+  }
+
+  @Test
+  @DisplayName("should fall back to partial context when a source times out, without caching it")
+  void shouldReturnPartialContextOnTimeout() {
+    when(sprintService.getSprintById(SPRINT_ID))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(1_000);
+              return sprint();
+            });
+
+    long start = System.nanoTime();
+    Map<String, String> ctx = assembler.assemble("CAPTURE", userId, SPRINT_ID);
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+    assertThat(ctx).containsKey("today").doesNotContainKey("sprint_name");
+
+    assembler.assemble("CAPTURE", userId, SPRINT_ID);
+    verify(sprintService, times(2)).getSprintById(SPRINT_ID);
+  }
+
+  @Test
+  @DisplayName("should let a timed-out source run to its query timeout instead of interrupting it")
+  void shouldNotInterruptTimedOutSource() throws Exception {
+    assembler.shutdown();
+    assembler = assembler(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    CountDownLatch finished = new CountDownLatch(1);
+    when(sprintService.getSprintById(SPRINT_ID))
+        .thenAnswer(
+            invocation -> {
+              try {
+                Thread.sleep(400);
+              } catch (InterruptedException e) {
+                interrupted.set(true);
+              }
+              finished.countDown();
+              return sprint();
+            })
+        .thenReturn(sprint());
+
+    assertThat(assembler.assemble("CAPTURE", userId, SPRINT_ID)).doesNotContainKey("sprint_name");
+    assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    // The finished load gave its permit back
+    Map<String, String> ctx = assembler.assemble("CAPTURE", userId, SPRINT_ID);
+
+    assertThat(interrupted).isFalse();
+    assertThat(ctx).containsKeys("today", "sprint_name");
+    ArgumentCaptor<TransactionDefinition> definition =
+        ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager, atLeastOnce()).getTransaction(definition.capture());
+    assertThat(definition.getValue().isReadOnly()).isTrue();
+    assertThat(definition.getValue().getTimeout()).isEqualTo(1);
+  }
+}
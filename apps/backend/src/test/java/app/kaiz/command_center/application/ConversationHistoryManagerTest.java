@@ -0,0 +1,174 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.domain.ConversationMessage;
+import app.kaiz.command_center.domain.ConversationMessage.MessageRole;
+import app.kaiz.command_center.domain.ConversationSession;
+import app.kaiz.command_center.infrastructure.ConversationMessageRepository;
+import app.kaiz.command_center.infrastructure.ConversationSessionRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ConversationHistoryManagerTest {
+
+  // "User: " and "Assistant: " cost 2 and 4 tokens; padded so that every line is 12 tokens
+  private static final String USER_CONTENT = "abcd ".repeat(10).strip();
+  private static final String ASSISTANT_CONTENT = "abcd ".repeat(8).strip();
+
+  private final ConversationSessionRepository sessionRepository =
+      mock(ConversationSessionRepository.class);
+  private final ConversationMessageRepository messageRepository =
+      mock(ConversationMessageRepository.class);
+  private final LlmGateway llmGateway = mock(LlmGateway.class);
+  private final UUID sessionId = UUID.randomUUID();
+  private ConversationHistoryManager manager;
+
+  @BeforeEach
+  void setUp() {
+    manager =
+        new ConversationHistoryManager(
+            sessionRepository,
+            messageRepository,
+            llmGateway,
+            new ConversationHistoryProperties(100, Map.of("CAPTURE", 30), 20, 40, 2, 40),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+  }
+
+  private static ConversationMessage message(int sequence) {
+    return ConversationMessage.builder()
+        .role(sequence % 2 == 1 ? MessageRole.USER : MessageRole.ASSISTANT)
+        .content(sequence % 2 == 1 ? USER_CONTENT : ASSISTANT_CONTENT)
+        .sequenceNumber(sequence)
+        .build();
+  }
+
+  /** Messages {@code from..to}, newest first, as the repository returns them. */
+  private static List<ConversationMessage> newestFirst(int from, int to) {
+    return IntStream.rangeClosed(from, to)
+        .map(i -> to - i + from)
+        .mapToObj(ConversationHistoryManagerTest::message)
+        .toList();
+  }
+
+  private ConversationSession session(String summary, int summarizedThrough) {
+    ConversationSession session =
+        ConversationSession.builder().summary(summary).summarizedThrough(summarizedThrough).build();
+    session.setId(sessionId);
+    return session;
+  }
+
+  @Test
+  @DisplayName("should estimate word runs, symbols and ideographs as tokens")
+  void shouldEstimateTokens() {
+    assertThat(TokenEstimator.estimate(null)).isZero();
+    assertThat(TokenEstimator.estimate("  ")).isZero();
+    assertThat(TokenEstimator.estimate("User: " + USER_CONTENT)).isEqualTo(12);
+    assertThat(TokenEstimator.estimate("Assistant: " + ASSISTANT_CONTENT)).isEqualTo(12);
+    assertThat(TokenEstimator.estimate("internationalization")).isEqualTo(5);
+    assertThat(TokenEstimator.estimate("会议 ok?")).isEqualTo(4);
+
+    String cut = TokenEstimator.truncate("internationalization and more", 3);
+    assertThat(cut).isEqualTo("internat…");
+    assertThat(TokenEstimator.estimate(cut)).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("should keep the newest messages verbatim within the mode's budget")
+  void shouldRenderNewestMessagesWithinBudget() {
+    when(messageRepository.findRecentMessagesAfter(eq(sessionId), eq(0), any(Pageable.class)))
+        .thenReturn(newestFirst(1, 12));
+
+    String history = manager.render(session(null, 0), "FREEFORM");
+
+    List<String> lines = history.lines().toList();
+    assertThat(lines).hasSize(8).allMatch(line -> line.endsWith("abcd"));
+    assertThat(lines.getFirst()).startsWith("User: ");
+    assertThat(lines.getLast()).startsWith("Assistant: ");
+    assertThat(TokenEstimator.estimate(history)).isLessThanOrEqualTo(100);
+
+    assertThat(manager.render(session(null, 0), "CAPTURE").lines()).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("should lead with the summary and spend only the rest of the budget on messages")
+  void shouldRenderSummaryFirst() {
+    String summary = "wxyz ".repeat(20).strip();
+    when(messageRepository.findRecentMessagesAfter(eq(sessionId), eq(4), any(Pageable.class)))
+        .thenReturn(newestFirst(5, 16));
+
+    String history = manager.render(session(summary, 4), "FREEFORM");
+
+    assertThat(history).startsWith("Summary of earlier conversation: " + summary + "\n\n");
+    assertThat(history.lines().filter(line -> line.endsWith("abcd"))).hasSize(6);
+  }
+
+  @Test
+  @DisplayName("should cut the newest message rather than send no history")
+  void shouldTruncateOversizedNewestMessage() {
+    ConversationMessage huge =
+        ConversationMessage.builder()
+            .role(MessageRole.ASSISTANT)
+            .content("word ".repeat(500))
+            .sequenceNumber(2)
+            .build();
+
+    List<String> lines = ConversationHistoryManager.verbatim(List.of(huge, message(1)), 50);
+
+    assertThat(lines).singleElement().asString().startsWith("Assistant: word").endsWith("…");
+    assertThat(TokenEstimator.estimate(lines.getFirst())).isLessThanOrEqualTo(50);
+  }
+
+  @Test
+  @DisplayName("should fold messages that left the verbatim window into the summary")
+  void shouldFoldOlderMessagesIntoSummary() {
+    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session(null, 0)));
+    when(messageRepository.findRecentMessagesAfter(eq(sessionId), eq(0), any(Pageable.class)))
+        .thenReturn(newestFirst(1, 12));
+    // A window of 100 - 20 tokens keeps messages 7..12
+    when(messageRepository.findMessagesBetween(eq(sessionId), eq(0), eq(7), any(Pageable.class)))
+        .thenReturn(newestFirst(1, 6).reversed());
+    when(llmGateway.call(
+            any(),
+            any(Message.class),
+            any(Message.class),
+            eq(ConversationHistoryManager.SUMMARY_MODE)))
+        .thenReturn("  The user planned three tasks.\n");
+
+    manager.refreshSummary(sessionId, "FREEFORM");
+
+    verify(sessionRepository).updateSummary(sessionId, 0, "The user planned three tasks.", 6);
+  }
+
+  @Test
+  @DisplayName("should not call the LLM while too few messages are waiting to be folded")
+  void shouldSkipRefreshBelowFoldThreshold() {
+    when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session(null, 0)));
+    when(messageRepository.findRecentMessagesAfter(eq(sessionId), eq(0), any(Pageable.class)))
+        .thenReturn(newestFirst(1, 7));
+
+    manager.refreshSummary(sessionId, "FREEFORM");
+
+    verify(llmGateway, never())
+        .call(any(), any(Message.class), any(Message.class), anyString());
+    verify(sessionRepository, never()).updateSummary(any(), anyInt(), anyString(), anyInt());
+  }
+}
@@ -0,0 +1,147 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.command_center.domain.ConversationMessage;
+import app.kaiz.command_center.domain.ConversationMessage.MessageRole;
+import app.kaiz.command_center.domain.ConversationSession;
+import app.kaiz.command_center.domain.ConversationSession.ChatMode;
+import app.kaiz.command_center.domain.ConversationSession.SessionStatus;
+import app.kaiz.command_center.infrastructure.ConversationMessageRepository;
+import app.kaiz.command_center.infrastructure.ConversationSessionRepository;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ConversationManagerIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private ConversationManager conversationManager;
+  @Autowired private ConversationSessionRepository sessionRepository;
+  @Autowired private ConversationMessageRepository messageRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    user =
+        userRepository.save(
+            User.builder()
+                .email("turns-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .fullName("Turn User")
+                .build());
+  }
+
+  @Test
+  @DisplayName("should hand out unique, gap-free sequence numbers to concurrent turns")
+  void shouldAllocateSequenceNumbersUnderConcurrency() throws Exception {
+    ConversationSession session =
+        conversationManager.getOrCreateSession(user.getId(), ChatMode.CAPTURE.name());
+    int turns = 40;
+
+    List<Future<?>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+      for (int i = 0; i < turns; i++) {
+        int turn = i;
+        results.add(
+            executor.submit(
+                () ->
+                    conversationManager.addTurn(
+                        session, "question " + turn, "answer " + turn, "CREATE_TASK")));
+      }
+      for (Future<?> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+    }
+
+    List<ConversationMessage> messages =
+        messageRepository.findBySessionIdOrderBySequenceNumber(session.getId());
+    assertThat(messages)
+        .extracting(ConversationMessage::getSequenceNumber)
+        .containsExactlyElementsOf(IntStream.rangeClosed(1, 2 * turns).boxed().toList());
+    for (int i = 0; i < messages.size(); i += 2) {
+      ConversationMessage question = messages.get(i);
+      ConversationMessage answer = messages.get(i + 1);
+      assertThat(question.getRole()).isEqualTo(MessageRole.USER);
+      assertThat(question.getIntent()).isEqualTo("CREATE_TASK");
+      assertThat(answer.getRole()).isEqualTo(MessageRole.ASSISTANT);
+      assertThat(answer.getContent())
+          .isEqualTo(question.getContent().replace("question", "answer"));
+    }
+
+    ConversationSession stored = sessionRepository.findById(session.getId()).orElseThrow();
+    assertThat(stored.getMessageCount()).isEqualTo(2 * turns);
+    assertThat(stored.getLastSequenceNumber()).isEqualTo(2 * turns);
+    assertThat(conversationManager.getRecentHistory(session.getId(), 2))
+        .extracting(ConversationMessage::getSequenceNumber)
+        .containsExactly(2 * turns - 1, 2 * turns);
+  }
+
+  @Test
+  @DisplayName("should keep the turn counters and summary when an older copy is saved")
+  void shouldNotWriteBackStaleCounters() {
+    ConversationSession stale =
+        conversationManager.getOrCreateSession(user.getId(), ChatMode.PLANNING.name());
+    conversationManager.addTurn(stale, "question", "answer", null);
+    transactionTemplate.executeWithoutResult(
+        status -> sessionRepository.updateSummary(stale.getId(), 0, "Planned the week.", 2));
+
+    stale.close();
+    sessionRepository.save(stale);
+
+    ConversationSession stored = sessionRepository.findById(stale.getId()).orElseThrow();
+    assertThat(stored.getStatus()).isEqualTo(SessionStatus.CLOSED);
+    assertThat(stored.getMessageCount()).isEqualTo(2);
+    assertThat(stored.getLastSequenceNumber()).isEqualTo(2);
+    assertThat(stored.getSummary()).isEqualTo("Planned the week.");
+    assertThat(stored.getSummarizedThrough()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should expire idle sessions across several cleanup chunks")
+  void shouldExpireIdleSessionsInChunks() {
+    Instant idleSince = Instant.now().minusSeconds(3 * 3600);
+    List<ConversationSession> idle = new ArrayList<>();
+    for (int i = 0; i < 1_100; i++) {
+      idle.add(
+          ConversationSession.builder()
+              .user(user)
+              .mode(ChatMode.FREEFORM)
+              .lastMessageAt(idleSince)
+              .build());
+    }
+    sessionRepository.saveAll(idle);
+    ConversationSession recent =
+        sessionRepository.save(
+            ConversationSession.builder().user(user).mode(ChatMode.STANDUP).build());
+
+    conversationManager.cleanupExpiredSessions();
+
+    assertThat(
+            sessionRepository.findByUserIdAndStatusOrderByLastMessageAtDesc(
+                user.getId(), SessionStatus.ACTIVE))
+        .extracting(ConversationSession::getId)
+        .containsExactly(recent.getId());
+    assertThat(
+            sessionRepository.findByUserIdAndStatusOrderByLastMessageAtDesc(
+                user.getId(), SessionStatus.EXPIRED))
+        .hasSize(1_100)
+        .allSatisfy(session -> assertThat(session.getEndedAt()).isNotNull());
+  }
+}
@@ -0,0 +1,206 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.command_center.application.IntentClassifier.Intent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CueScannerTest {
+
+  /** The regexes IntentClassifier and ModeDetector used before the automaton, in priority order. */
+  private static final Map<Intent, Pattern> LEGACY_INTENTS = new LinkedHashMap<>();
+
+  private static final Map<String, Pattern> LEGACY_MODES = new LinkedHashMap<>();
+
+  private static final Pattern LEGACY_EXPLICIT_CREATE =
+      legacy("\\b(add|create|new|make|schedule|log|write)\\b");
+
+  static {
+    String ceremonies = "(retro|planning|review|standup|refinement|ceremony)\\b";
+    LEGACY_INTENTS.put(
+        Intent.CREATE_TASK,
+        legacy("\\b(add|create|new|make)\\s+(a\\s+)?task\\b|\\btask:\\s|\\btodo:\\s"));
+    LEGACY_INTENTS.put(
+        Intent.CREATE_EPIC,
+        legacy("\\b(add|create|new|make)\\s+(a\\s+|an\\s+)?epic\\b|\\bepic:\\s"));
+    LEGACY_INTENTS.put(
+        Intent.CREATE_CHALLENGE,
+        legacy("\\b(add|create|new|start)\\s+(a\\s+)?challenge\\b|\\bchallenge:\\s"));
+    LEGACY_INTENTS.put(
+        Intent.CREATE_EVENT,
+        legacy(
+            "\\b(add|create|schedule|new)\\s+(a\\s+|an\\s+)?event\\b|\\bevent:\\s|\\bmeeting:\\s"));
+    LEGACY_INTENTS.put(
+        Intent.CREATE_BILL,
+        legacy("\\b(add|create|new|log)\\s+(a\\s+)?bill\\b|\\bbill:\\s|\\bexpense:\\s"));
+    LEGACY_INTENTS.put(
+        Intent.CREATE_NOTE,
+        legacy("\\b(add|create|write|new)\\s+(a\\s+)?note\\b|\\bnote:\\s|\\bjot\\b"));
+    LEGACY_INTENTS.put(
+        Intent.UPDATE_TASK, legacy("\\b(update|edit|change|modify|move)\\s+(the\\s+)?task\\b"));
+    LEGACY_INTENTS.put(
+        Intent.COMPLETE_TASK,
+        legacy(
+            "\\b(complete|finish|done|close|check.?off)\\s+(the\\s+)?task\\b"
+                + "|\\bmark.*(done|complete)"));
+    LEGACY_INTENTS.put(
+        Intent.START_CEREMONY,
+        legacy("\\b(start|begin|kick.?off|open)\\s+(the\\s+)?" + ceremonies));
+    LEGACY_INTENTS.put(
+        Intent.END_CEREMONY,
+        legacy("\\b(end|finish|close|wrap.?up|complete)\\s+(the\\s+)?" + ceremonies));
+    LEGACY_INTENTS.put(
+        Intent.STANDUP_REPORT,
+        legacy(
+            "\\b(standup|stand.?up|daily|check.?in)\\b|\\byesterday.*today|\\bwhat.*(did|done)"));
+    LEGACY_INTENTS.put(
+        Intent.SPRINT_STATUS,
+        legacy("\\b(sprint|iteration)\\s+(status|progress|health|report)\\b|\\bhow.*sprint"));
+    LEGACY_INTENTS.put(
+        Intent.VELOCITY_CHECK,
+        legacy("\\b(velocity|burndown|throughput|capacity|story.?points?)\\b"));
+    LEGACY_INTENTS.put(
+        Intent.ASK_QUESTION,
+        legacy("\\b(what|how|why|when|where|should|can|could|would|is|are|do|does)\\b.*\\?"));
+
+    LEGACY_MODES.put(
+        "STANDUP",
+        legacy("\\b(standup|stand-up|daily|check.?in|yesterday|today.?plan|blocker)\\b"));
+    LEGACY_MODES.put(
+        "PLANNING",
+        legacy("\\b(plan|planning|sprint.?plan|commit|capacity|next.?sprint|backlog)\\b"));
+    LEGACY_MODES.put(
+        "RETROSPECTIVE",
+        legacy("\\b(retro|retrospective|went.?well|improve|action.?item|review)\\b"));
+    LEGACY_MODES.put("CAPTURE", legacy("\\b(add|create|new|quick|capture|task|todo|remind)\\b"));
+  }
+
+  private static Pattern legacy(String regex) {
+    return Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+  }
+
+  /** Input, expected top intent, expected keyword mode. */
+  private static final String[][] GOLDEN = {
+    {"add a task to call mom tomorrow", "CREATE_TASK", "CAPTURE"},
+    {"Create task: buy groceries", "CREATE_TASK", "CAPTURE"},
+    {"todo: renew passport", "CREATE_TASK", "CAPTURE"},
+    {"make an epic for Q3 launch", "CREATE_EPIC", "FREEFORM"},
+    {"start a challenge to run every day", "CREATE_CHALLENGE", "FREEFORM"},
+    {"schedule an event with Sam on Friday", "CREATE_EVENT", "FREEFORM"},
+    {"meeting: design review at 3pm", "CREATE_EVENT", "RETROSPECTIVE"},
+    {"log a bill for electricity $80", "CREATE_BILL", "FREEFORM"},
+    {"expense: lunch 12.50", "CREATE_BILL", "FREEFORM"},
+    {"jot this down: ideas for blog", "CREATE_NOTE", "FREEFORM"},
+    {"move the task to next sprint", "UPDATE_TASK", "PLANNING"},
+    {"mark the gym task as done", "COMPLETE_TASK", "CAPTURE"},
+    {"check off task laundry", "COMPLETE_TASK", "CAPTURE"},
+    {"kick off the planning", "START_CEREMONY", "PLANNING"},
+    {"wrap up the review", "END_CEREMONY", "RETROSPECTIVE"},
+    {"end standup", "END_CEREMONY", "STANDUP"},
+    {"yesterday I finished the API, today I'm on tests", "STANDUP_REPORT", "STANDUP"},
+    {"daily check-in", "STANDUP_REPORT", "STANDUP"},
+    {"what did I get done this week", "STANDUP_REPORT", "FREEFORM"},
+    {"sprint status please", "SPRINT_STATUS", "FREEFORM"},
+    {"how is my sprint going?", "SPRINT_STATUS", "FREEFORM"},
+    {"how many story points left?", "VELOCITY_CHECK", "FREEFORM"},
+    {"should I take on more work?", "ASK_QUESTION", "FREEFORM"},
+    {"is it too late to plan?", "ASK_QUESTION", "PLANNING"},
+    {"hello there", "GENERAL_CHAT", "FREEFORM"},
+    {"remind me to water the plants", "GENERAL_CHAT", "CAPTURE"},
+    {"what went well this week", "GENERAL_CHAT", "RETROSPECTIVE"},
+    {"TODAY PLAN: deep work", "GENERAL_CHAT", "STANDUP"},
+    {"markdown is undone", "COMPLETE_TASK", "FREEFORM"},
+    {"Check in with the team\nthen add a task", "CREATE_TASK", "STANDUP"},
+    {"yesterday was rough\ntoday is better", "GENERAL_CHAT", "STANDUP"},
+    {"how about lunch\nsprint later?", "GENERAL_CHAT", "FREEFORM"},
+  };
+
+  @Test
+  @DisplayName("should classify the golden corpus as the legacy regexes did")
+  void shouldClassifyGoldenCorpus() {
+    SoftAssertions softly = new SoftAssertions();
+    for (String[] golden : GOLDEN) {
+      CueScanner.Scan scan = CueScanner.scan(golden[0]);
+      Intent intent = scan.topIntent() != null ? scan.topIntent() : Intent.GENERAL_CHAT;
+      String mode = scan.topMode() != null ? scan.topMode() : "FREEFORM";
+
+      softly.assertThat(intent.name()).as("intent of %s", golden[0]).isEqualTo(golden[1]);
+      softly.assertThat(mode).as("mode of %s", golden[0]).isEqualTo(golden[2]);
+      assertParity(softly, golden[0], scan);
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  @DisplayName("should match exactly the legacy regexes on generated inputs")
+  void shouldMatchLegacyRegexesOnGeneratedInputs() {
+    String[] words = {
+      "add", "Create", "new", "make", "task", "todo:", "TASK:", "epic", "an", "a", "the",
+      "challenge", "start", "event", "meeting:", "log", "bill", "note", "jot", "move", "done",
+      "close", "check", "off", "in", "mark", "kick", "retro", "planning", "standup", "wrap", "up",
+      "stand", "daily", "yesterday", "today", "what", "did", "how", "sprint", "status", "story",
+      "points", "is", "plan", "next", "went", "well", "action", "item", "blocker", "quick", "foo",
+      "é", "😀"
+    };
+    String[] separators = {
+      " ", "  ", "", "-", "_", "\n", "\t", ":", "?", ". ", "x", "\r\n", "\u2028", "😀"
+    };
+    Random random = new Random(41);
+    SoftAssertions softly = new SoftAssertions();
+    for (int i = 0; i < 20_000; i++) {
+      StringBuilder input = new StringBuilder();
+      for (int w = 1 + random.nextInt(6); w > 0; w--) {
+        input.append(words[random.nextInt(words.length)]);
+        input.append(separators[random.nextInt(separators.length)]);
+      }
+      assertParity(softly, input.toString(), CueScanner.scan(input.toString()));
+    }
+    softly.assertAll();
+  }
+
+  @Test
+  @DisplayName("should bias toward STANDUP_REPORT in standup mode unless the user asks to create")
+  void shouldApplyStandupModeBias() {
+    IntentClassifier classifier = new IntentClassifier();
+
+    assertThat(classifier.classify("mark the gym task as done", "STANDUP"))
+        .isEqualTo(Intent.STANDUP_REPORT);
+    assertThat(classifier.classify("add a task for the blocker", "STANDUP"))
+        .isEqualTo(Intent.CREATE_TASK);
+    assertThat(classifier.classify("  ", "CAPTURE")).isEqualTo(Intent.GENERAL_CHAT);
+  }
+
+  private static void assertParity(SoftAssertions softly, String input, CueScanner.Scan scan) {
+    List<Intent> intents = new ArrayList<>();
+    LEGACY_INTENTS.forEach((intent, p) -> addIfFound(intents, intent, p, input));
+    List<String> modes = new ArrayList<>();
+    LEGACY_MODES.forEach((mode, p) -> addIfFound(modes, mode, p, input));
+
+    softly
+        .assertThat(scan.intents().stream().map(CueScanner.Candidate::label).toList())
+        .as("intents of %s", input)
+        .isEqualTo(intents);
+    softly
+        .assertThat(scan.modes().stream().map(CueScanner.Candidate::label).toList())
+        .as("modes of %s", input)
+        .isEqualTo(modes);
+    softly
+        .assertThat(scan.explicitCreate())
+        .as("explicit create in %s", input)
+        .isEqualTo(LEGACY_EXPLICIT_CREATE.matcher(input).find());
+  }
+
+  private static <L> void addIfFound(List<L> found, L label, Pattern pattern, String input) {
+    if (pattern.matcher(input).find()) {
+      found.add(label);
+    }
+  }
+}
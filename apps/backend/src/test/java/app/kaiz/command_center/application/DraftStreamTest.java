@@ -0,0 +1,80 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.command_center.application.DraftExtractor.ExtractedDraft;
+import app.kaiz.command_center.domain.DraftType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class DraftStreamTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final DraftExtractor extractor =
+      new DraftExtractor(new AIResponseParser(objectMapper), objectMapper);
+
+  private List<ExtractedDraft> streamed(String output, int chunkSize) {
+    DraftStream stream = extractor.newStream();
+    List<ExtractedDraft> drafts = new ArrayList<>();
+    for (int i = 0; i < output.length(); i += chunkSize) {
+      drafts.addAll(stream.accept(output.substring(i, Math.min(output.length(), i + chunkSize))));
+    }
+    return drafts;
+  }
+
+  @Test
+  @DisplayName("should extract the same fenced drafts as the batch extractor at any chunking")
+  void shouldMatchBatchExtractionAtAnyChunking() {
+    List<String> outputs =
+        List.of(
+            "Sure.\n>>>DRAFT\n{\"type\":\"task\",\"title\":\"Pay rent\",\"confidence\":0.9}\n"
+                + "<<<DRAFT\nand\n>>>DRAFT  \n```json\n{\"type\":\"note\",\"title\":\"Ideas é😀\"}"
+                + "\n```\n<<<DRAFT done",
+            ">>>>DRAFT\n{\"type\":\"bill\",\"vendorName\":\"<<Power>>\"}<<<<DRAFT");
+
+    for (String output : outputs) {
+      List<ExtractedDraft> batch = extractor.extract(output).drafts();
+      assertThat(batch).isNotEmpty();
+      for (int chunkSize = 1; chunkSize <= 9; chunkSize++) {
+        assertThat(streamed(output, chunkSize))
+            .as("%s in chunks of %d", output, chunkSize)
+            .isEqualTo(batch);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("should yield nothing for malformed or unclosed blocks")
+  void shouldIgnoreMalformedBlocks() {
+    List<String> outputs =
+        List.of(
+            ">>>DRAFT {\"type\":\"task\"}<<<DRAFT no line break after the marker",
+            ">>>DRAFT\n{\"type\": \"task\", \"title\": broken}\n<<<DRAFT",
+            ">>>DRAFT\n[{\"type\":\"task\"}]\n<<<DRAFT",
+            ">>>DRAFT\n{\"type\":\"task\",\"title\":\"never closed\"}");
+
+    for (String output : outputs) {
+      for (int chunkSize = 1; chunkSize <= 9; chunkSize++) {
+        assertThat(streamed(output, chunkSize))
+            .as("%s in chunks of %d", output, chunkSize)
+            .isEmpty();
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("should return a draft from the chunk that closes its block")
+  void shouldReturnDraftFromClosingChunk() {
+    DraftStream stream = extractor.newStream();
+
+    assertThat(stream.accept("Here you go >>>DRAFT\n{\"type\":\"event\",")).isEmpty();
+    assertThat(stream.accept("\"title\":\"Dentist\"}\n<<<DRA")).isEmpty();
+    assertThat(stream.accept("FT and more text"))
+        .singleElement()
+        .satisfies(draft -> assertThat(draft.type()).isEqualTo(DraftType.EVENT));
+    assertThat(stream.blocks()).isEqualTo(1);
+  }
+}
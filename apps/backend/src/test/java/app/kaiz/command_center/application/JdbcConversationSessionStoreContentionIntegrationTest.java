@@ -0,0 +1,156 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.command_center.application.ConversationSessionStore.ConversationSession;
+import app.kaiz.command_center.application.ConversationSessionStore.SessionConflictException;
+import app.kaiz.command_center.application.dto.SmartInputResponse.OriginalInput;
+import app.kaiz.command_center.domain.Draft;
+import app.kaiz.command_center.domain.DraftType;
+import app.kaiz.command_center.infrastructure.SmartInputSessionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Two store instances over one database stand in for two replicas, each with its own near-cache.
+ */
+class JdbcConversationSessionStoreContentionIntegrationTest extends IntegrationTestBase {
+
+  private static final int THREADS_PER_NODE = 4;
+  private static final int INCREMENTS_PER_THREAD = 25;
+
+  @Autowired private SmartInputSessionRepository repository;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private JdbcConversationSessionStore nodeA;
+  private JdbcConversationSessionStore nodeB;
+
+  @BeforeEach
+  void setUp() {
+    nodeA = node();
+    nodeB = node();
+  }
+
+  private JdbcConversationSessionStore node() {
+    return new JdbcConversationSessionStore(
+        repository, objectMapper, transactionManager, 100, Duration.ofMinutes(5));
+  }
+
+  private static ConversationSession newSession() {
+    UUID sessionId = UUID.randomUUID();
+    return new ConversationSession(
+        sessionId,
+        UUID.randomUUID(),
+        DraftType.NOTE,
+        new Draft.NoteDraft("Plan trip", null, null, List.of("travel"), null),
+        new OriginalInput("plan a trip", List.of(), null),
+        0,
+        Instant.now().plus(Duration.ofHours(1)));
+  }
+
+  @Test
+  @DisplayName("should serve another node's write despite a warm near-cache")
+  void shouldNotServeStaleNearCacheEntry() {
+    ConversationSession session = newSession();
+    nodeA.put(session.sessionId(), session);
+    assertThat(nodeA.get(session.sessionId()).questionCount()).isZero();
+
+    ConversationSession onB = nodeB.get(session.sessionId());
+    onB.questionCount(3);
+    nodeB.update(onB);
+
+    ConversationSession onA = nodeA.get(session.sessionId());
+    assertThat(onA.questionCount()).isEqualTo(3);
+    assertThat(onA.version()).isEqualTo(1);
+    assertThat(onA.partialDraft()).isEqualTo(session.partialDraft());
+  }
+
+  @Test
+  @DisplayName("should reject a stale update from the other node")
+  void shouldRejectStaleUpdate() {
+    ConversationSession session = newSession();
+    nodeA.put(session.sessionId(), session);
+
+    ConversationSession onA = nodeA.get(session.sessionId());
+    ConversationSession onB = nodeB.get(session.sessionId());
+    onA.questionCount(1);
+    nodeA.update(onA);
+    onB.questionCount(2);
+
+    assertThatThrownBy(() -> nodeB.update(onB)).isInstanceOf(SessionConflictException.class);
+    assertThat(nodeB.get(session.sessionId()).questionCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should not lose updates when both nodes hammer one session")
+  void shouldNotLoseUpdatesUnderContention() throws Exception {
+    ConversationSession session = newSession();
+    nodeA.put(session.sessionId(), session);
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS_PER_NODE * 2);
+    List<Future<?>> workers = new ArrayList<>();
+    for (JdbcConversationSessionStore node : List.of(nodeA, nodeB)) {
+      for (int t = 0; t < THREADS_PER_NODE; t++) {
+        workers.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    while (true) {
+                      ConversationSession current = node.get(session.sessionId());
+                      current.questionCount(current.questionCount() + 1);
+                      try {
+                        node.update(current);
+                        break;
+                      } catch (SessionConflictException e) {
+                        // Lost the race to the other node or a sibling thread; re-read and retry
+                      }
+                    }
+                  }
+                  return null;
+                }));
+      }
+    }
+    start.countDown();
+    for (Future<?> worker : workers) {
+      worker.get(60, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    int expected = THREADS_PER_NODE * 2 * INCREMENTS_PER_THREAD;
+    ConversationSession result = nodeB.get(session.sessionId());
+    assertThat(result.questionCount()).isEqualTo(expected);
+    assertThat(result.version()).isEqualTo(expected);
+    assertThat(nodeA.get(session.sessionId()).questionCount()).isEqualTo(expected);
+  }
+
+  @Test
+  @DisplayName("should hide a session removed on the other node")
+  void shouldHideRemovedSession() {
+    ConversationSession session = newSession();
+    nodeA.put(session.sessionId(), session);
+    assertThat(nodeA.get(session.sessionId())).isNotNull();
+
+    nodeB.remove(session.sessionId());
+
+    assertThat(nodeA.get(session.sessionId())).isNull();
+  }
+}
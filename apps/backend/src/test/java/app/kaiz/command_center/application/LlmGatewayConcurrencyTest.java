@@ -0,0 +1,248 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.application.LlmGateway.LlmCapacityException;
+import app.kaiz.command_center.application.TokenLedger.Decision;
+import app.kaiz.command_center.infrastructure.LlmResponseCacheRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+class LlmGatewayConcurrencyTest {
+
+  /** ChatModel whose n-th call (1-based) is answered by the given function. */
+  private static final class ScriptedChatModel implements ChatModel {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final IntFunction<String> script;
+
+    private ScriptedChatModel(IntFunction<String> script) {
+      this.script = script;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      String text = script.apply(calls.incrementAndGet());
+      return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+  }
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private LlmGateway gateway;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    if (gateway != null) {
+      gateway.shutdown();
+    }
+  }
+
+  private LlmGateway gateway(
+      ChatModel chatModel,
+      LlmGatewayProperties.Concurrency concurrency,
+      LlmGatewayProperties.Hedging hedging) {
+    return gateway(chatModel, null, concurrency, hedging, mock(TokenLedger.class));
+  }
+
+  private LlmGateway gateway(
+      ChatModel chatModel,
+      LlmGatewayProperties.ResponseCache responseCache,
+      LlmGatewayProperties.Concurrency concurrency,
+      LlmGatewayProperties.Hedging hedging,
+      TokenLedger tokenLedger) {
+    ChatModelProvider provider = mock(ChatModelProvider.class);
+    when(provider.getChatModel()).thenReturn(chatModel);
+    when(provider.getModelName()).thenReturn("fake-model");
+    when(provider.getProviderName()).thenReturn("fake");
+    when(provider.buildPrompt(anyList(), any(Message.class))).thenCallRealMethod();
+
+    LlmGatewayProperties properties =
+        new LlmGatewayProperties(
+            responseCache,
+            concurrency,
+            new LlmGatewayProperties.Retry(
+                3, Duration.ofMillis(10), Duration.ofMillis(20), Duration.ofSeconds(10)),
+            hedging,
+            null);
+    gateway =
+        new LlmGateway(
+            provider,
+            new LlmResponseCache(properties, mock(LlmResponseCacheRepository.class)),
+            properties,
+            new LlmMetrics(registry),
+            tokenLedger);
+    return gateway;
+  }
+
+  private CompletableFuture<String> callAsync(String mode) {
+    return gateway.callAsync(
+        List.of(new SystemMessage("system")), new UserMessage("hello"), mode);
+  }
+
+  private String awaitRelease() {
+    try {
+      release.await();
+      return "released";
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Test
+  @DisplayName("should reject calls beyond the mode limit without blocking the caller")
+  void shouldRejectBeyondModeLimit() {
+    gateway(
+        new ScriptedChatModel(n -> awaitRelease()),
+        new LlmGatewayProperties.Concurrency(
+            16, 8, Map.of("CAPTURE", 2), 0, Duration.ofSeconds(1), Duration.ofSeconds(10)),
+        null);
+
+    CompletableFuture<String> first = callAsync("CAPTURE");
+    CompletableFuture<String> second = callAsync("CAPTURE");
+    CompletableFuture<String> third = callAsync("CAPTURE");
+
+    assertThatThrownBy(() -> third.get(1, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(LlmCapacityException.class);
+    assertThat(callAsync("FREEFORM")).isNotDone();
+
+    release.countDown();
+    assertThat(first.join()).isEqualTo("released");
+    assertThat(second.join()).isEqualTo("released");
+    assertThat(gateway.getMetrics().rejectedCalls()).isEqualTo(1);
+    assertThat(gateway.getMetrics().circuitOpen()).isFalse();
+  }
+
+  @Test
+  @DisplayName("should give the provider wait only what the mode wait left of the queue timeout")
+  void shouldShareQueueTimeoutAcrossBulkheads() throws Exception {
+    LlmBulkhead bulkhead =
+        new LlmBulkhead(
+            new LlmGatewayProperties.Concurrency(
+                1, 1, Map.of(), 4, Duration.ofMillis(500), Duration.ofSeconds(10)));
+    LlmBulkhead.Lease held = bulkhead.acquire("anthropic", "CAPTURE").join();
+    CompletableFuture<LlmBulkhead.Lease> waiting = bulkhead.acquire("anthropic", "CAPTURE");
+
+    Thread.sleep(300);
+    // The waiter now has the mode permit and queues for the provider with ~200ms left
+    held.mode().release();
+    Thread.sleep(400);
+    // Within a second full queue timeout, but past the shared one
+    held.provider().release();
+
+    assertThatThrownBy(waiting::join).hasCauseInstanceOf(LlmCapacityException.class);
+    assertThat(bulkhead.tryAcquireProvider("anthropic")).isTrue();
+  }
+
+  @Test
+  @DisplayName("should retry failed attempts with scheduled backoff")
+  void shouldRetryWithBackoff() {
+    gateway(
+        new ScriptedChatModel(
+            n -> {
+              if (n < 3) {
+                throw new IllegalStateException("overloaded");
+              }
+              return "ok";
+            }),
+        null,
+        null);
+
+    assertThat(gateway.call(new SystemMessage("system"), new UserMessage("hi"), "CAPTURE"))
+        .isEqualTo("ok");
+    assertThat(gateway.getMetrics().retries()).isEqualTo(2);
+    assertThat(gateway.getMetrics().totalFailures()).isZero();
+  }
+
+  @Test
+  @DisplayName("should hedge a request that outlives the mode's latency percentile")
+  void shouldHedgeSlowRequest() throws Exception {
+    gateway(
+        new ScriptedChatModel(n -> n == 2 ? awaitRelease() : "fast-" + n),
+        null,
+        new LlmGatewayProperties.Hedging(true, 0.95, 1, Duration.ofMillis(50)));
+
+    // Seed the latency window, then the second request hangs and the hedge answers
+    assertThat(callAsync("CAPTURE").get(5, TimeUnit.SECONDS)).isEqualTo("fast-1");
+    assertThat(callAsync("CAPTURE").get(5, TimeUnit.SECONDS)).isEqualTo("fast-3");
+    assertThat(gateway.getMetrics().hedgedRequests()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should publish per-mode call timers and rebase the admin snapshot on reset")
+  void shouldPublishMetersAndRebaseSnapshot() {
+    gateway(new ScriptedChatModel(n -> "ok"), null, null);
+
+    gateway.call(new SystemMessage("system"), new UserMessage("hi"), "CAPTURE");
+    gateway.call(new SystemMessage("system"), new UserMessage("hi"), "CAPTURE");
+
+    Timer timer =
+        registry
+            .get(LlmMetrics.CALL)
+            .tags("model", "fake-model", "mode", "CAPTURE", "outcome", "success")
+            .timer();
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(gateway.getMetrics().totalCalls()).isEqualTo(2);
+
+    gateway.resetMetrics();
+    gateway.call(new SystemMessage("system"), new UserMessage("hi"), "CAPTURE");
+
+    assertThat(timer.count()).isEqualTo(3);
+    assertThat(gateway.getMetrics().totalCalls()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should not cache an answer whose output was capped by the token budget")
+  void shouldNotCacheDowngradedCalls() throws Exception {
+    TokenLedger ledger = mock(TokenLedger.class);
+    gateway(
+        new ScriptedChatModel(n -> "ok-" + n),
+        new LlmGatewayProperties.ResponseCache(true, 100, Duration.ofHours(1), Map.of(), false),
+        null,
+        null,
+        ledger);
+    UUID userId = UUID.randomUUID();
+    List<Message> system = List.of(new SystemMessage("system"));
+
+    when(ledger.preflight(any(UUID.class), any(Prompt.class), anyInt()))
+        .thenReturn(new TokenLedger.Preflight(Decision.DOWNGRADE, 100, 200));
+    assertThat(gateway.callAsync(userId, system, new UserMessage("hi"), "CAPTURE").get())
+        .isEqualTo("ok-1");
+    assertThat(gateway.callAsync(userId, system, new UserMessage("hi"), "CAPTURE").get())
+        .isEqualTo("ok-2");
+
+    when(ledger.preflight(any(UUID.class), any(Prompt.class), anyInt()))
+        .thenReturn(TokenLedger.Preflight.UNLIMITED);
+    assertThat(gateway.callAsync(userId, system, new UserMessage("hi"), "CAPTURE").get())
+        .isEqualTo("ok-3");
+    assertThat(gateway.callAsync(userId, system, new UserMessage("hi"), "CAPTURE").get())
+        .isEqualTo("ok-3");
+  }
+}
@@ -0,0 +1,63 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import app.kaiz.command_center.infrastructure.LlmResponseCacheRepository;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LlmResponseCacheTest {
+
+  private final LlmResponseCacheRepository repository = mock(LlmResponseCacheRepository.class);
+
+  private LlmResponseCache cache(boolean enabled) {
+    return new LlmResponseCache(
+        new LlmGatewayProperties(
+            new LlmGatewayProperties.ResponseCache(
+                enabled, 100, Duration.ZERO, Map.of("CAPTURE", Duration.ofMinutes(5)), false),
+            null,
+            null,
+            null,
+            null),
+        repository);
+  }
+
+  @Test
+  @DisplayName("should serve an identical request from memory")
+  void shouldHitOnIdenticalRequest() {
+    LlmResponseCache cache = cache(true);
+    var key = cache.keyFor("CAPTURE", "model", 0.7, "system", "buy milk").orElseThrow();
+    cache.put(key, "{\"title\":\"Buy milk\"}", 1200, 40);
+
+    var again = cache.keyFor("CAPTURE", "model", 0.7, "system", "buy milk").orElseThrow();
+    assertThat(cache.get(again))
+        .hasValueSatisfying(r -> assertThat(r.inputTokens()).isEqualTo(1200));
+    verifyNoInteractions(repository);
+  }
+
+  @Test
+  @DisplayName("should key on every part of the request")
+  void shouldMissWhenAnyPartDiffers() {
+    LlmResponseCache cache = cache(true);
+    cache.put(cache.keyFor("CAPTURE", "model", 0.7, "system", "buy milk").orElseThrow(), "x", 1, 1);
+
+    assertThat(cache.get(cache.keyFor("CAPTURE", "model", 0.2, "system", "buy milk").orElseThrow()))
+        .isEmpty();
+    assertThat(cache.get(cache.keyFor("CAPTURE", "other", 0.7, "system", "buy milk").orElseThrow()))
+        .isEmpty();
+    assertThat(cache.get(cache.keyFor("CAPTURE", "model", 0.7, "system", "buy eggs").orElseThrow()))
+        .isEmpty();
+  }
+
+  @Test
+  @DisplayName("should not cache modes without a TTL or when disabled")
+  void shouldSkipUnconfiguredModes() {
+    assertThat(cache(true).keyFor("STANDUP", "model", 0.7, "s", "u")).isEmpty();
+    assertThat(cache(false).keyFor("CAPTURE", "model", 0.7, "s", "u")).isEmpty();
+    assertThat(cache(true).keyFor(null, "model", 0.7, "s", "u")).isEmpty();
+  }
+}
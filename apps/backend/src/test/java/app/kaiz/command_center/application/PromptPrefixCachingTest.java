@@ -0,0 +1,108 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.infrastructure.LlmResponseCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+class PromptPrefixCachingTest {
+
+  /** Local ChatModel that records prompts and reports a warm prompt cache. */
+  private static final class RecordingChatModel implements ChatModel {
+    private final List<Prompt> prompts = new ArrayList<>();
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      prompts.add(prompt);
+      Map<String, Object> nativeUsage =
+          Map.of("input_tokens", 40, "output_tokens", 10, "cache_read_input_tokens", 3500);
+      return new ChatResponse(
+          List.of(new Generation(new AssistantMessage("ok"))),
+          ChatResponseMetadata.builder().usage(new DefaultUsage(40, 10, 50, nativeUsage)).build());
+    }
+  }
+
+  private final RecordingChatModel chatModel = new RecordingChatModel();
+  private PromptAssembler promptAssembler;
+  private LlmGateway gateway;
+
+  @BeforeEach
+  void setUp() {
+    SystemPromptService prompts = mock(SystemPromptService.class);
+    when(prompts.getTemplate(anyString(), anyString()))
+        .thenAnswer(
+            inv -> {
+              String key = inv.getArgument(0);
+              return PromptTemplate.compile(key, 1, "Prompt for " + key);
+            });
+    promptAssembler = new PromptAssembler(prompts);
+
+    ChatModelProvider provider = mock(ChatModelProvider.class);
+    when(provider.getChatModel()).thenReturn(chatModel);
+    when(provider.getModelName()).thenReturn("fake-model");
+    when(provider.getProviderName()).thenReturn("fake");
+    when(provider.buildPrompt(anyList(), any(Message.class))).thenCallRealMethod();
+
+    LlmGatewayProperties properties = new LlmGatewayProperties(null, null, null, null, null);
+    gateway =
+        new LlmGateway(
+            provider,
+            new LlmResponseCache(properties, mock(LlmResponseCacheRepository.class)),
+            properties,
+            new LlmMetrics(new SimpleMeterRegistry()),
+            mock(TokenLedger.class));
+  }
+
+  @Test
+  @DisplayName("should send an identical leading prefix for different contexts")
+  void shouldSendStableCacheMarkedPrefix() {
+    gateway.call(
+        promptAssembler.assembleSystemMessages("CAPTURE", Map.of("user_name", "Ana")),
+        new UserMessage("buy milk"),
+        "CAPTURE");
+    gateway.call(
+        promptAssembler.assembleSystemMessages("CAPTURE", Map.of("user_name", "Ben")),
+        new UserMessage("call mom"),
+        "CAPTURE");
+
+    Message first = chatModel.prompts.get(0).getInstructions().get(0);
+    Message second = chatModel.prompts.get(1).getInstructions().get(0);
+    assertThat(first.getText()).isEqualTo(second.getText()).doesNotContain("Ana");
+    assertThat(chatModel.prompts.get(0).getInstructions().get(1).getText()).contains("Ana");
+    assertThat(chatModel.prompts.get(1).getInstructions().get(1).getText()).contains("Ben");
+  }
+
+  @Test
+  @DisplayName("should track cached and uncached input tokens separately")
+  void shouldTrackCachedInputTokens() {
+    gateway.call(
+        promptAssembler.assembleSystemMessages("FREEFORM", Map.of()),
+        new UserMessage("hi"),
+        "FREEFORM");
+
+    LlmGateway.GatewayMetrics metrics = gateway.getMetrics();
+    assertThat(metrics.totalInputTokens()).isEqualTo(40);
+    assertThat(metrics.cachedInputTokens()).isEqualTo(3500);
+    assertThat(metrics.promptCacheRate()).isGreaterThan(0.9);
+  }
+}
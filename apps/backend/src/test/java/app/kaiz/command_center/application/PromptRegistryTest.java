@@ -0,0 +1,91 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.admin.application.SystemPromptsChanged;
+import app.kaiz.admin.domain.SystemPrompt;
+import app.kaiz.admin.infrastructure.SystemPromptRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class PromptRegistryTest {
+
+  private final SystemPromptRepository repository = mock(SystemPromptRepository.class);
+  private PromptRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new PromptRegistry(repository, new ObjectMapper());
+  }
+
+  private static SystemPrompt prompt(String key, int version, String content) {
+    return SystemPrompt.builder()
+        .promptKey(key)
+        .promptContent(content)
+        .version(version)
+        .variables("[\"today\"]")
+        .active(true)
+        .build();
+  }
+
+  @Test
+  @DisplayName("should swap in the new version after a change and reuse unchanged templates")
+  void shouldSwapOnChangeAndReuseUnchangedTemplates() {
+    when(repository.findStateFingerprint()).thenReturn("2:2:t1");
+    when(repository.findByActiveTrue())
+        .thenReturn(List.of(prompt("a", 1, "A {{today}}"), prompt("b", 1, "B v1")));
+    registry.onStartup();
+    PromptTemplate unchanged = registry.find("a");
+
+    when(repository.findStateFingerprint()).thenReturn("2:3:t2");
+    when(repository.findByActiveTrue())
+        .thenReturn(List.of(prompt("a", 1, "A {{today}}"), prompt("b", 2, "B v2")));
+    registry.onPromptsChanged(new SystemPromptsChanged("b"));
+
+    assertThat(registry.find("a")).isSameAs(unchanged);
+    assertThat(registry.find("b").version()).isEqualTo(2);
+    assertThat(registry.find("b").render(k -> null)).isEqualTo("B v2");
+    assertThat(registry.find("missing")).isNull();
+  }
+
+  @Test
+  @DisplayName("should reload on poll only when the table fingerprint changed")
+  void shouldReloadOnPollOnlyWhenFingerprintChanged() {
+    when(repository.findStateFingerprint()).thenReturn("1:1:t1");
+    when(repository.findByActiveTrue()).thenReturn(List.of(prompt("a", 1, "A")));
+    registry.onStartup();
+
+    registry.pollForChanges();
+    verify(repository, times(1)).findByActiveTrue();
+
+    when(repository.findStateFingerprint()).thenReturn("1:2:t2");
+    when(repository.findByActiveTrue()).thenReturn(List.of(prompt("a", 2, "A2")));
+    registry.pollForChanges();
+
+    verify(repository, times(2)).findByActiveTrue();
+    assertThat(registry.find("a").version()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("should keep serving the current snapshot when a reload fails")
+  void shouldKeepSnapshotWhenReloadFails() {
+    when(repository.findStateFingerprint()).thenReturn("1:1:t1");
+    when(repository.findByActiveTrue()).thenReturn(List.of(prompt("a", 1, "A")));
+    registry.onStartup();
+
+    when(repository.findByActiveTrue())
+        .thenThrow(new DataAccessResourceFailureException("connection refused"));
+    registry.refresh();
+
+    assertThat(registry.find("a").render(k -> null)).isEqualTo("A");
+    assertThat(registry.size()).isEqualTo(1);
+  }
+}
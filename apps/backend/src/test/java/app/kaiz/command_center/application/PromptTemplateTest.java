@@ -0,0 +1,84 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PromptTemplateTest {
+
+  /** The string-replacement loop PromptAssembler used before templates were compiled. */
+  private static String replaceLoop(String template, Map<String, String> context) {
+    String result = template;
+    for (var entry : context.entrySet()) {
+      String placeholder = "{{" + entry.getKey() + "}}";
+      if (result.contains(placeholder)) {
+        result = result.replace(placeholder, entry.getValue());
+      }
+    }
+    return result;
+  }
+
+  @Test
+  @DisplayName("should render like the replace loop, leaving unknown placeholders in place")
+  void shouldMatchReplaceLoop() {
+    String source =
+        "You are a coach.\nTODAY: {{today}}\nTone: {{preferredTone}} {{preferredTone}}\n"
+            + "Unknown: {{missing}} {{ spaced }} {{}} and a stray {{ brace";
+    Map<String, String> context = new LinkedHashMap<>();
+    context.put("today", "2026-10-18");
+    context.put("preferredTone", "DIRECT");
+    context.put("unused", "x");
+
+    PromptTemplate template = PromptTemplate.compile("persona", 3, source);
+
+    assertThat(template.render(context)).isEqualTo(replaceLoop(source, context));
+    StringBuilder out = new StringBuilder("> ");
+    template.renderTo(out, context::get);
+    assertThat(out.toString()).isEqualTo("> " + replaceLoop(source, context));
+  }
+
+  @Test
+  @DisplayName("should report undeclared variables and unterminated placeholders at compile time")
+  void shouldReportDiagnosticsAtCompileTime() {
+    PromptTemplate template =
+        PromptTemplate.compile(
+            "mode", 1, "Hi {{today}}, {{velocity}} then {{oops", Set.of("today", "TODAY_DATE"));
+
+    assertThat(template.variables()).containsExactlyInAnyOrder("today", "velocity");
+    assertThat(template.diagnostics())
+        .containsExactlyInAnyOrder(
+            "Undeclared variable {{velocity}}", "Unterminated placeholder at offset 32");
+    assertThat(template.render(Map.of("today", "Mon", "velocity", "12")))
+        .isEqualTo("Hi Mon, 12 then {{oops");
+  }
+
+  @Test
+  @DisplayName("should keep the Smart Input user prompt byte-identical to the old builder")
+  void shouldKeepSmartInputUserPromptFormat() {
+    UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    String prompt =
+        SmartInputPrompts.userPrompt(
+            userId,
+            "pay rent",
+            List.of(
+                SmartInputPrompts.attachmentLine("image/png", "RENT $900", null),
+                SmartInputPrompts.attachmentLine("application/pdf", null, Map.of("pages", 2))),
+            "pay the rent tomorrow");
+
+    assertThat(prompt)
+        .startsWith(
+            "User input: \"pay rent\"\n\nAttachments:"
+                + "\n- Type: image/png, Extracted text: \"RENT $900\""
+                + "\n- Type: application/pdf, Metadata: {pages=2}"
+                + "\n\nVoice transcription: \"pay the rent tomorrow\""
+                + "\n\nContext: User ID="
+                + userId
+                + ", Current time=");
+  }
+}
@@ -0,0 +1,245 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.application.dto.SmartInputRequest;
+import app.kaiz.command_center.domain.DraftType;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository;
+import app.kaiz.identity.infrastructure.UserRepository;
+import app.kaiz.shared.exception.ApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+
+class StreamingAIServiceTest {
+
+  /** ChatModel whose stream is supplied by the test. */
+  private static final class FluxChatModel implements ChatModel {
+    private final Flux<ChatResponse> responses;
+
+    private FluxChatModel(Flux<ChatResponse> responses) {
+      this.responses = responses;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+      return responses;
+    }
+  }
+
+  /** Emitter that records sent events and lets the test fire the container callbacks. */
+  private static final class RecordingEmitter extends SseEmitter {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final CountDownLatch draftSent = new CountDownLatch(1);
+    private Runnable completionCallback;
+    private Runnable timeoutCallback;
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      String event =
+          builder.build().stream().map(d -> d.getData().toString()).collect(Collectors.joining());
+      events.add(event);
+      if (event.startsWith("event:draft\n")) {
+        draftSent.countDown();
+      }
+    }
+
+    @Override
+    public void complete() {
+      finished.countDown();
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      finished.countDown();
+    }
+
+    @Override
+    public void onCompletion(Runnable callback) {
+      this.completionCallback = callback;
+    }
+
+    @Override
+    public void onTimeout(Runnable callback) {
+      this.timeoutCallback = callback;
+    }
+
+    @Override
+    public void onError(Consumer<Throwable> callback) {}
+
+    List<String> named(String name) {
+      return events.stream().filter(e -> e.startsWith("event:" + name + "\n")).toList();
+    }
+  }
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+  private TokenLedger ledger;
+
+  private StreamingAIService service(Flux<ChatResponse> responses, int maxConcurrent) {
+    ChatModelProvider provider = mock(ChatModelProvider.class);
+    when(provider.getChatModel()).thenReturn(new FluxChatModel(responses));
+    when(provider.getModelName()).thenReturn("fake-model");
+    SystemPromptService prompts = mock(SystemPromptService.class);
+    when(prompts.getPromptForInputType(anyBoolean(), anyBoolean())).thenReturn("system");
+
+    LlmGatewayProperties properties =
+        new LlmGatewayProperties(
+            null,
+            null,
+            null,
+            null,
+            new LlmGatewayProperties.Streaming(
+                maxConcurrent, Duration.ofMinutes(1), 4, Duration.ofSeconds(5)));
+    ObjectMapper objectMapper = new ObjectMapper();
+    DraftExtractor drafts = new DraftExtractor(new AIResponseParser(objectMapper), objectMapper);
+    ledger =
+        new TokenLedger(
+            mock(TokenLedgerRepository.class),
+            mock(UserRepository.class),
+            new TokenBudgetProperties(false, 0, null, 0, 0, null, null));
+    return new StreamingAIService(
+        provider, prompts, new LlmMetrics(registry), drafts, ledger, properties) {
+      @Override
+      SseEmitter newEmitter(Duration timeout) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        return emitter;
+      }
+    };
+  }
+
+  private static ChatResponse chunk(String text) {
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+  }
+
+  private static SmartInputRequest request() {
+    return new SmartInputRequest("buy milk", null, null, null, null, null);
+  }
+
+  @Test
+  @DisplayName("should coalesce chunks into frames and finish with the full response")
+  void shouldCoalesceChunksIntoFrames() throws Exception {
+    List<ChatResponse> chunks =
+        List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j").stream()
+            .map(StreamingAIServiceTest::chunk)
+            .toList();
+    StreamingAIService service = service(Flux.fromIterable(chunks), 4);
+
+    service.streamSmartInput(UUID.randomUUID(), request());
+    RecordingEmitter emitter = emitters.getFirst();
+
+    assertThat(emitter.finished.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(emitter.named("token")).hasSize(3);
+    assertThat(emitter.named("done")).singleElement().asString().contains("abcdefghij");
+    assertThat(service.activeStreams()).isZero();
+  }
+
+  @Test
+  @DisplayName("should send a draft event as soon as its block closes, before the response ends")
+  void shouldSendDraftEventBeforeResponseEnds() throws Exception {
+    // Fences and JSON split across chunks; 8 chunks make two full frames
+    List<ChatResponse> chunks =
+        List.of(
+                "On it! >>",
+                ">DRAFT\n{\"type\": \"task\", \"ti",
+                "tle\": \"Pay rent\", \"confidence\": 0.9",
+                "}\n<<",
+                "<DRAFT",
+                "\nAnything else",
+                " for ",
+                "today?")
+            .stream()
+            .map(StreamingAIServiceTest::chunk)
+            .toList();
+    Flux<ChatResponse> unfinished = Flux.concat(Flux.fromIterable(chunks), Flux.never());
+    StreamingAIService service = service(unfinished, 4);
+
+    service.streamSmartInput(UUID.randomUUID(), request());
+    RecordingEmitter emitter = emitters.getFirst();
+
+    assertThat(emitter.draftSent.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(emitter.named("draft"))
+        .singleElement()
+        .asString()
+        .contains("type=" + DraftType.TASK, "title=Pay rent", "confidence=0.9");
+    assertThat(emitter.named("done")).isEmpty();
+    emitter.completionCallback.run();
+  }
+
+  @Test
+  @DisplayName("should cancel the provider stream when the client goes away")
+  void shouldCancelUpstreamOnClientDisconnect() throws Exception {
+    AtomicBoolean cancelled = new AtomicBoolean();
+    CountDownLatch firstChunk = new CountDownLatch(1);
+    Flux<ChatResponse> endless =
+        Flux.concat(Flux.just(chunk("hello")), Flux.<ChatResponse>never())
+            .doOnNext(r -> firstChunk.countDown())
+            .doOnCancel(() -> cancelled.set(true));
+    StreamingAIService service = service(endless, 4);
+    UUID userId = UUID.randomUUID();
+
+    service.streamSmartInput(userId, request());
+    assertThat(firstChunk.await(5, TimeUnit.SECONDS)).isTrue();
+    RecordingEmitter emitter = emitters.getFirst();
+    emitter.timeoutCallback.run();
+    emitter.completionCallback.run();
+
+    assertThat(cancelled).isTrue();
+    assertThat(service.activeStreams()).isZero();
+    assertThat(
+            registry
+                .get(LlmMetrics.STREAM_ABORTED)
+                .tags("reason", "timeout")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    // No usage was reported, so the prompt estimate plus the one chunk is booked
+    assertThat(ledger.spentToday(userId)).isGreaterThan(1);
+  }
+
+  @Test
+  @DisplayName("should reject streams beyond the cap with 429 until one finishes")
+  void shouldRejectBeyondStreamCap() {
+    StreamingAIService service = service(Flux.never(), 1);
+
+    service.streamSmartInput(UUID.randomUUID(), request());
+
+    assertThatThrownBy(() -> service.streamSmartInput(UUID.randomUUID(), request()))
+        .isInstanceOfSatisfying(
+            ApiException.class,
+            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+    emitters.getFirst().completionCallback.run();
+    service.streamSmartInput(UUID.randomUUID(), request());
+    assertThat(service.activeStreams()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,219 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import app.kaiz.command_center.application.TokenLedger.Decision;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository;
+import app.kaiz.command_center.infrastructure.TokenLedgerRepository.Delta;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.anthropic.AnthropicChatOptions;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class TokenLedgerTest {
+
+  private static final UUID USER = UUID.randomUUID();
+
+  private final TokenLedgerRepository repository = mock(TokenLedgerRepository.class);
+  private final UserRepository userRepository = mock(UserRepository.class);
+
+  /** What the mocked repository has stored, per user. */
+  private final Map<UUID, LongAdder> stored = new ConcurrentHashMap<>();
+
+  /** Runs before each batch is stored; may block or throw. */
+  private volatile Runnable beforeWrite = () -> {};
+
+  private TokenLedger ledger(long freeDailyTokens) {
+    doAnswer(
+            invocation -> {
+              beforeWrite.run();
+              List<Delta> deltas = invocation.getArgument(0);
+              for (Delta delta : deltas) {
+                stored
+                    .computeIfAbsent(delta.userId(), k -> new LongAdder())
+                    .add(delta.promptTokens() + delta.completionTokens());
+              }
+              return null;
+            })
+        .when(repository)
+        .upsert(anyList());
+    when(repository.totalTokens(any(UUID.class), any(LocalDate.class)))
+        .thenAnswer(
+            invocation -> {
+              LongAdder total = stored.get(invocation.<UUID>getArgument(0));
+              return total != null ? total.sum() : 0L;
+            });
+    when(userRepository.findSubscriptionTierById(USER))
+        .thenReturn(Optional.of(User.SubscriptionTier.FREE));
+    return new TokenLedger(
+        repository,
+        userRepository,
+        new TokenBudgetProperties(
+            true, 0, Map.of("FREE", freeDailyTokens), 256, 0, null, null));
+  }
+
+  @Test
+  @DisplayName("should not block recorders on a slow flush and book every token exactly once")
+  void shouldRecordWithoutBlockingOnFlush() throws Exception {
+    TokenLedger ledger = ledger(0);
+    CountDownLatch flushStarted = new CountDownLatch(1);
+    CountDownLatch releaseFlush = new CountDownLatch(1);
+    AtomicBoolean firstFlush = new AtomicBoolean(true);
+    beforeWrite =
+        () -> {
+          if (firstFlush.getAndSet(false)) {
+            flushStarted.countDown();
+            try {
+              releaseFlush.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        };
+
+    int threads = 16;
+    int callsPerThread = 5_000;
+    List<UUID> users = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      users.add(UUID.randomUUID());
+    }
+    ledger.record(users.get(0), "CAPTURE", "model", 1, 1);
+    CompletableFuture<Void> flush = CompletableFuture.runAsync(ledger::flush);
+    assertThat(flushStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // The flush is stuck in the database; recording must carry on regardless
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<CompletableFuture<Void>> recorders = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int seed = t;
+        recorders.add(
+            CompletableFuture.runAsync(
+                () -> {
+                  for (int i = 0; i < callsPerThread; i++) {
+                    UUID user = users.get((seed + i) % users.size());
+                    String mode = i % 2 == 0 ? "CAPTURE" : "PLANNING";
+                    ledger.record(user, mode, "model", 3, 2);
+                  }
+                },
+                pool));
+      }
+      CompletableFuture.allOf(recorders.toArray(CompletableFuture[]::new))
+          .get(10, TimeUnit.SECONDS);
+    } finally {
+      pool.shutdown();
+    }
+    assertThat(flush).isNotDone();
+
+    releaseFlush.countDown();
+    flush.get(5, TimeUnit.SECONDS);
+    ledger.flush();
+
+    long expected = 2 + (long) threads * callsPerThread * 5;
+    long total = stored.values().stream().mapToLong(LongAdder::sum).sum();
+    assertThat(total).isEqualTo(expected);
+    for (UUID user : users) {
+      assertThat(ledger.spentToday(user)).isEqualTo(stored.get(user).sum());
+    }
+  }
+
+  @Test
+  @DisplayName("should keep usage for the next flush when a flush fails")
+  void shouldRestoreUsageAfterFailedFlush() {
+    TokenLedger ledger = ledger(0);
+    ledger.record(USER, "CAPTURE", "model", 100, 50);
+
+    beforeWrite =
+        () -> {
+          throw new DataAccessResourceFailureException("down");
+        };
+    ledger.flush();
+    assertThat(stored).isEmpty();
+    assertThat(ledger.spentToday(USER)).isEqualTo(150);
+
+    ledger.record(USER, "CAPTURE", "model", 10, 5);
+    beforeWrite = () -> {};
+    ledger.flush();
+    assertThat(stored.get(USER).sum()).isEqualTo(165);
+    assertThat(ledger.spentToday(USER)).isEqualTo(165);
+  }
+
+  @Test
+  @DisplayName("should allow, cap the output, or reject against the remaining daily budget")
+  void shouldDecideAgainstRemainingBudget() {
+    TokenLedger ledger = ledger(10_000);
+
+    assertThat(ledger.preflight(USER, 1_000, 4_096).decision()).isEqualTo(Decision.ALLOW);
+
+    ledger.record(USER, "CAPTURE", "model", 4_000, 2_000);
+    TokenLedger.Preflight capped = ledger.preflight(USER, 1_000, 4_096);
+    assertThat(capped.decision()).isEqualTo(Decision.DOWNGRADE);
+    assertThat(capped.maxCompletionTokens()).isEqualTo(3_000);
+    assertThat(capped.remainingTokens()).isEqualTo(4_000);
+
+    ledger.record(USER, "CAPTURE", "model", 3_000, 800);
+    assertThat(ledger.preflight(USER, 100, 4_096).decision()).isEqualTo(Decision.REJECT);
+
+    // Calls not made for a user are never limited
+    assertThat(ledger.preflight(null, 100, 4_096)).isEqualTo(TokenLedger.Preflight.UNLIMITED);
+  }
+
+  @Test
+  @DisplayName("should allow the call when the ledger cannot be read")
+  void shouldFailOpen() {
+    TokenLedger ledger = ledger(10_000);
+    doThrow(new DataAccessResourceFailureException("down"))
+        .when(repository)
+        .totalTokens(any(UUID.class), any(LocalDate.class));
+
+    assertThat(ledger.preflight(USER, 1_000, 4_096).decision()).isEqualTo(Decision.ALLOW);
+  }
+
+  @Test
+  @DisplayName("should keep the caller's options when capping the output of a downgraded call")
+  void shouldKeepOptionsWhenDowngrading() {
+    Prompt prompt =
+        new Prompt(
+            List.of(new UserMessage("hi")),
+            AnthropicChatOptions.builder()
+                .model("claude-test")
+                .temperature(0.2)
+                .maxTokens(4_096)
+                .stopSequences(List.of("END"))
+                .build());
+
+    Prompt capped = LlmGateway.withMaxTokens(prompt, 1_000);
+
+    assertThat(capped.getInstructions()).isEqualTo(prompt.getInstructions());
+    assertThat(capped.getOptions()).isInstanceOf(AnthropicChatOptions.class);
+    assertThat(capped.getOptions().getMaxTokens()).isEqualTo(1_000);
+    assertThat(capped.getOptions().getModel()).isEqualTo("claude-test");
+    assertThat(capped.getOptions().getTemperature()).isEqualTo(0.2);
+    assertThat(capped.getOptions().getStopSequences()).containsExactly("END");
+    assertThat(prompt.getOptions().getMaxTokens()).isEqualTo(4_096);
+  }
+}
@@ -0,0 +1,106 @@
+package app.kaiz.command_center.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.command_center.domain.UserCoachPreference;
+import app.kaiz.command_center.infrastructure.PreferenceLearningRepository;
+import app.kaiz.command_center.infrastructure.UserCoachPreferenceRepository;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class UserPreferenceLearnerIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private UserPreferenceLearner learner;
+  @Autowired private PreferenceLearningRepository learningRepository;
+  @Autowired private UserCoachPreferenceRepository preferenceRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    user =
+        userRepository.save(
+            User.builder()
+                .email("learner-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .fullName("Learner User")
+                .build());
+    preferenceRepository.save(UserCoachPreference.builder().user(user).build());
+  }
+
+  private void modification(String priority, Duration age) {
+    UUID draftId = UUID.randomUUID();
+    jdbcTemplate.update(
+        "INSERT INTO command_center_drafts (id, user_id, draft_type, draft_content)"
+            + " VALUES (?, ?, 'TASK', '{}'::jsonb)",
+        draftId,
+        user.getId());
+    jdbcTemplate.update(
+        "INSERT INTO draft_feedback_records (draft_id, user_id, action, original_draft_json,"
+            + " modified_draft_json, created_at) VALUES (?, ?, 'MODIFIED', ?::jsonb, ?::jsonb, ?)",
+        draftId,
+        user.getId(),
+        "{\"title\":\"Gym\",\"priority\":\"LOW\"}",
+        "{\"title\":\"Gym\",\"priority\":\"" + priority + "\"}",
+        Timestamp.from(Instant.now().minus(age)));
+    learningRepository.markPending(user.getId());
+  }
+
+  private boolean pending() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(
+            "SELECT patterns_pending FROM user_coach_preferences WHERE user_id = ?",
+            Boolean.class,
+            user.getId()));
+  }
+
+  @Test
+  @DisplayName("should merge only new modifications into the stored counts")
+  void shouldLearnIncrementally() {
+    for (int i = 0; i < 3; i++) {
+      modification("HIGH", Duration.ofMinutes(10));
+    }
+    modification("MEDIUM", Duration.ofMinutes(10));
+
+    learner.learnPendingUsers();
+
+    assertThat(learner.getCorrectionPatternsText(user.getId()))
+        .isEqualTo("- Field 'priority': user usually changes to 'HIGH' (3x)");
+    assertThat(pending()).isFalse();
+
+    // Already merged modifications are not counted again
+    learner.learnPendingUsers();
+    modification("HIGH", Duration.ofMinutes(5));
+    modification("HIGH", Duration.ZERO);
+
+    learner.learnPendingUsers();
+
+    assertThat(learner.getCorrectionPatternsText(user.getId()))
+        .isEqualTo("- Field 'priority': user usually changes to 'HIGH' (4x)");
+    // The modification younger than the settle delay waits for a later run
+    assertThat(pending()).isTrue();
+  }
+
+  @Test
+  @DisplayName("should skip users without new modifications")
+  void shouldClearQueuedUserWithoutModifications() {
+    learningRepository.markPending(user.getId());
+
+    learner.learnPendingUsers();
+
+    assertThat(pending()).isFalse();
+    assertThat(learner.getCorrectionPatternsText(user.getId())).isEmpty();
+  }
+}
@@ -0,0 +1,122 @@
+package app.kaiz.command_center.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.command_center.domain.DraftFeedbackRecord.FeedbackAction;
+import app.kaiz.command_center.infrastructure.DraftFeedbackRollupRepository.DraftTypeCount;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class DraftFeedbackRollupRepositoryIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private DraftFeedbackRollupRepository rollupRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User user;
+  // A day no other test writes feedback for, so totals are exact
+  private LocalDate day;
+
+  @BeforeEach
+  void setUp() {
+    user =
+        userRepository.save(
+            User.builder()
+                .email("rollup-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .fullName("Rollup User")
+                .build());
+    day = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+  }
+
+  private UUID feedback(
+      String draftType, FeedbackAction action, String comment, Long ms, int hour) {
+    UUID draftId = UUID.randomUUID();
+    jdbcTemplate.update(
+        "INSERT INTO command_center_drafts (id, user_id, draft_type, draft_content)"
+            + " VALUES (?, ?, ?, '{}'::jsonb)",
+        draftId,
+        user.getId(),
+        draftType);
+    UUID id = UUID.randomUUID();
+    Instant at = day.atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(hour * 3600L);
+    jdbcTemplate.update(
+        "INSERT INTO draft_feedback_records (id, draft_id, user_id, action, user_comment,"
+            + " time_to_decide_ms, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+        id,
+        draftId,
+        user.getId(),
+        action.name(),
+        comment,
+        ms,
+        Timestamp.from(at));
+    return id;
+  }
+
+  @Test
+  @DisplayName("should roll a day up per action, draft type and trimmed rejection reason")
+  void shouldRollUpOneDay() {
+    feedback("TASK", FeedbackAction.APPROVED, "looks good", 1000L, 1);
+    feedback("TASK", FeedbackAction.APPROVED, null, 3000L, 5);
+    feedback("EVENT", FeedbackAction.MODIFIED, null, null, 9);
+    feedback("TASK", FeedbackAction.REJECTED, "Too vague", 2000L, 12);
+    feedback("EVENT", FeedbackAction.REJECTED, "  Too vague ", null, 23);
+    feedback("TASK", FeedbackAction.REJECTED, "Wrong date", null, 23);
+    // The next day belongs to the next rollup
+    feedback("TASK", FeedbackAction.REJECTED, "Wrong date", null, 24);
+
+    rollupRepository.rollUp(day);
+
+    assertThat(rollupRepository.hasDay(day)).isTrue();
+    assertThat(rollupRepository.countByAction(day, day))
+        .containsExactlyInAnyOrder(
+            new FeedbackActionCount(FeedbackAction.APPROVED, 2, 2, 4000),
+            new FeedbackActionCount(FeedbackAction.MODIFIED, 1, 0, 0),
+            new FeedbackActionCount(FeedbackAction.REJECTED, 3, 1, 2000));
+    assertThat(rollupRepository.topRejectionReasons(day, day, 10))
+        .containsExactly(
+            new FeedbackReasonCount("Too vague", 2), new FeedbackReasonCount("Wrong date", 1));
+    assertThat(rollupRepository.countByDraftType(day, day))
+        .containsExactly(new DraftTypeCount("TASK", 2, 0, 2), new DraftTypeCount("EVENT", 0, 1, 1));
+  }
+
+  @Test
+  @DisplayName("should drop rollup rows whose feedback is gone when a day is rolled up again")
+  void shouldRebuildDayIdempotently() {
+    feedback("TASK", FeedbackAction.APPROVED, null, 1000L, 3);
+    UUID rejected = feedback("NOTE", FeedbackAction.REJECTED, "Duplicate", null, 4);
+    rollupRepository.rollUp(day);
+    rollupRepository.rollUp(day);
+    assertThat(rollupRepository.countByAction(day, day)).hasSize(2);
+
+    jdbcTemplate.update("DELETE FROM draft_feedback_records WHERE id = ?", rejected);
+    rollupRepository.rollUp(day);
+
+    assertThat(rollupRepository.countByAction(day, day))
+        .containsExactly(new FeedbackActionCount(FeedbackAction.APPROVED, 1, 1, 1000));
+    assertThat(rollupRepository.topRejectionReasons(day, day, 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("should remember a day without feedback as rolled up")
+  void shouldMarkEmptyDayRolledUp() {
+    assertThat(rollupRepository.hasDay(day)).isFalse();
+
+    assertThat(rollupRepository.rollUp(day)).isZero();
+
+    assertThat(rollupRepository.hasDay(day)).isTrue();
+    assertThat(rollupRepository.countByAction(day, day)).isEmpty();
+  }
+}
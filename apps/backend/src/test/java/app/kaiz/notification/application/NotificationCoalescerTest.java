@@ -0,0 +1,120 @@
+package app.kaiz.notification.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.notification.application.dto.CreateNotificationRequest;
+import app.kaiz.notification.domain.NotificationCategory;
+import app.kaiz.notification.domain.NotificationPriority;
+import app.kaiz.notification.domain.NotificationType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NotificationCoalescerTest {
+
+  private final UUID userId = UUID.randomUUID();
+  private NotificationCoalescer coalescer;
+
+  @BeforeEach
+  void setUp() {
+    coalescer = new NotificationCoalescer(30, 100);
+  }
+
+  @Test
+  @DisplayName("should aggregate a burst of task creations into one notification")
+  void shouldAggregateBurst() {
+    List<CreateNotificationRequest> burst = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      burst.add(taskCreated("Task " + i));
+    }
+    assertThat(burst.stream().map(coalescer::windowKey).distinct()).containsExactly("TASK_CREATED");
+
+    CreateNotificationRequest aggregated =
+        NotificationCoalescer.aggregate(NotificationType.TASK_CREATED, burst);
+
+    assertThat(aggregated.title()).isEqualTo("12 Tasks Created");
+    assertThat(aggregated.deepLink()).isEqualTo("/tasks");
+    assertThat(aggregated.metadata()).containsEntry("coalescedCount", 12);
+    assertThat((List<?>) aggregated.metadata().get("taskId")).hasSize(12);
+    assertThat(aggregated.content()).endsWith("…and 9 more");
+  }
+
+  @Test
+  @DisplayName("should pass a single held notification through unchanged")
+  void shouldPassSingleThrough() {
+    CreateNotificationRequest request = taskCreated("Only one");
+
+    assertThat(NotificationCoalescer.aggregate(request.type(), List.of(request)))
+        .isSameAs(request);
+  }
+
+  @Test
+  @DisplayName("should keep only the latest streak per challenge")
+  void shouldKeepLatestStreak() {
+    UUID challengeId = UUID.randomUUID();
+    CreateNotificationRequest third = streak(challengeId, 3);
+    CreateNotificationRequest fourth = streak(challengeId, 4);
+
+    assertThat(coalescer.windowKey(third))
+        .isEqualTo(coalescer.windowKey(fourth))
+        .isNotEqualTo(coalescer.windowKey(streak(UUID.randomUUID(), 9)));
+    CreateNotificationRequest aggregated =
+        NotificationCoalescer.aggregate(NotificationType.CHALLENGE_STREAK, List.of(third, fourth));
+    assertThat(aggregated.metadata()).containsEntry("streakDays", 4);
+    assertThat(aggregated.metadata()).containsEntry("coalescedCount", 2);
+  }
+
+  @Test
+  @DisplayName("should not hold urgent or unlisted types")
+  void shouldNotHoldUrgent() {
+    CreateNotificationRequest overdue =
+        request(NotificationType.TASK_OVERDUE, NotificationPriority.URGENT, "Overdue", Map.of());
+    CreateNotificationRequest urgentCreation =
+        request(NotificationType.TASK_CREATED, NotificationPriority.URGENT, "Now", Map.of());
+
+    assertThat(coalescer.windowKey(overdue)).isNull();
+    assertThat(coalescer.windowKey(urgentCreation)).isNull();
+  }
+
+  private CreateNotificationRequest taskCreated(String title) {
+    return request(
+        NotificationType.TASK_CREATED,
+        NotificationPriority.LOW,
+        "New task \"" + title + "\" has been created",
+        Map.of("taskId", UUID.randomUUID().toString()));
+  }
+
+  private CreateNotificationRequest streak(UUID challengeId, int days) {
+    return request(
+        NotificationType.CHALLENGE_STREAK,
+        NotificationPriority.MEDIUM,
+        days + " day streak",
+        Map.of("challengeId", challengeId.toString(), "streakDays", days));
+  }
+
+  private CreateNotificationRequest request(
+      NotificationType type,
+      NotificationPriority priority,
+      String content,
+      Map<String, Object> metadata) {
+    return new CreateNotificationRequest(
+        userId,
+        type,
+        NotificationCategory.TASKS,
+        priority,
+        type.name(),
+        content,
+        null,
+        "/tasks/" + UUID.randomUUID(),
+        null,
+        null,
+        null,
+        null,
+        metadata,
+        null);
+  }
+}
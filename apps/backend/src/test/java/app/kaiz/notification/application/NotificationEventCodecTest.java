@@ -0,0 +1,60 @@
+package app.kaiz.notification.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.notification.application.NotificationEvents.BaseNotificationEvent;
+import app.kaiz.notification.application.NotificationEvents.LevelUp;
+import app.kaiz.notification.application.NotificationEvents.TaskCompleted;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NotificationEventCodecTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final NotificationEventCodec codec = new NotificationEventCodec(objectMapper);
+
+  @Test
+  @DisplayName("should round-trip an event through its JSON payload")
+  void shouldRoundTrip() throws Exception {
+    UUID userId = UUID.randomUUID();
+    UUID taskId = UUID.randomUUID();
+    TaskCompleted event = new TaskCompleted(this, userId, taskId, "Write report", 50);
+
+    String json = objectMapper.writeValueAsString(codec.encode(event));
+    Map<String, Object> payload = objectMapper.readValue(json, new TypeReference<>() {});
+    BaseNotificationEvent decoded = codec.decode(codec.typeOf(event), payload, this);
+
+    assertThat(decoded).isInstanceOf(TaskCompleted.class);
+    TaskCompleted restored = (TaskCompleted) decoded;
+    assertThat(restored.getUserId()).isEqualTo(userId);
+    assertThat(restored.getTaskId()).isEqualTo(taskId);
+    assertThat(restored.getTaskTitle()).isEqualTo("Write report");
+    assertThat(restored.getXpEarned()).isEqualTo(50);
+  }
+
+  @Test
+  @DisplayName("should not store the event source")
+  void shouldNotStoreSource() {
+    Map<String, Object> payload =
+        codec.encode(new LevelUp(this, UUID.randomUUID(), 5, List.of("Sprints")));
+
+    assertThat(payload).containsOnlyKeys("userId", "newLevel", "unlockedFeatures");
+  }
+
+  @Test
+  @DisplayName("should give one-time events a natural idempotency key")
+  void shouldUseNaturalKeys() {
+    UUID userId = UUID.randomUUID();
+
+    assertThat(new LevelUp(this, userId, 5, List.of()).getIdempotencyKey())
+        .isEqualTo(new LevelUp(this, userId, 5, List.of()).getIdempotencyKey());
+    assertThat(new TaskCompleted(this, userId, UUID.randomUUID(), "a", 1).getIdempotencyKey())
+        .isNotEqualTo(
+            new TaskCompleted(this, userId, UUID.randomUUID(), "a", 1).getIdempotencyKey());
+  }
+}
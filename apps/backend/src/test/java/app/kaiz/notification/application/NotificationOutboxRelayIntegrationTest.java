@@ -0,0 +1,188 @@
+package app.kaiz.notification.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import app.kaiz.notification.application.NotificationEvents.TaskAssigned;
+import app.kaiz.notification.application.NotificationEvents.TaskCreated;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+/** The relay is driven by the test; its schedules are pushed out of the way. */
+@TestPropertySource(
+    properties = {
+      "kaiz.notifications.outbox.poll-ms=3600000",
+      "kaiz.notifications.coalesce-flush-ms=3600000"
+    })
+class NotificationOutboxRelayIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private NotificationOutboxRelay relay;
+  @Autowired private NotificationDispatcher dispatcher;
+  @Autowired private ApplicationEventPublisher eventPublisher;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @MockitoSpyBean private NotificationEventListener listener;
+
+  private UUID userId;
+
+  @BeforeEach
+  void setUp() {
+    userId =
+        userRepository
+            .save(
+                User.builder()
+                    .email("outbox-" + UUID.randomUUID() + "@example.com")
+                    .passwordHash("x")
+                    .fullName("Outbox User")
+                    .build())
+            .getId();
+  }
+
+  private void publishAssignment() {
+    eventPublisher.publishEvent(
+        new TaskAssigned(this, userId, UUID.randomUUID(), "Write report", "Sam"));
+  }
+
+  private Map<String, Object> outboxRow() {
+    return jdbcTemplate.queryForMap(
+        "SELECT status, attempts, last_error, next_attempt_at > NOW() AS deferred"
+            + " FROM notification_outbox WHERE user_id = ?",
+        userId);
+  }
+
+  private int notifications(String type) {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND type = ?",
+            Integer.class,
+            userId,
+            type);
+    return count != null ? count : 0;
+  }
+
+  @Test
+  @DisplayName("should claim a published event, create its notification and close the row")
+  void shouldDeliverClaimedEvent() {
+    publishAssignment();
+    assertThat(outboxRow()).containsEntry("status", "PENDING").containsEntry("attempts", 0);
+
+    relay.drain();
+
+    assertThat(outboxRow()).containsEntry("status", "PROCESSED").containsEntry("attempts", 1);
+    assertThat(notifications("TASK_ASSIGNED")).isEqualTo(1);
+
+    // A processed row is never claimed again
+    relay.drain();
+    assertThat(notifications("TASK_ASSIGNED")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should keep a failed event pending with backoff and deliver it on retry")
+  void shouldRetryFailedEvent() {
+    doThrow(new DataAccessResourceFailureException("database unavailable"))
+        .doCallRealMethod()
+        .when(listener)
+        .handle(any());
+    publishAssignment();
+
+    relay.drain();
+
+    assertThat(outboxRow())
+        .containsEntry("status", "PENDING")
+        .containsEntry("attempts", 1)
+        .containsEntry("last_error", "database unavailable")
+        .containsEntry("deferred", true);
+    assertThat(notifications("TASK_ASSIGNED")).isZero();
+
+    // Backoff elapsed
+    jdbcTemplate.update(
+        "UPDATE notification_outbox SET next_attempt_at = NOW() WHERE user_id = ?", userId);
+    relay.drain();
+
+    assertThat(outboxRow()).containsEntry("status", "PROCESSED").containsEntry("attempts", 2);
+    assertThat(notifications("TASK_ASSIGNED")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should redeliver an event whose relay died after claiming it, once the lease ends")
+  void shouldRedeliverAfterLeaseExpires() {
+    publishAssignment();
+    // A relay claimed the row and crashed before handling it
+    jdbcTemplate.update(
+        "UPDATE notification_outbox SET attempts = 1,"
+            + " next_attempt_at = NOW() + INTERVAL '60 seconds' WHERE user_id = ?",
+        userId);
+
+    relay.drain();
+    assertThat(outboxRow()).containsEntry("status", "PENDING").containsEntry("attempts", 1);
+    assertThat(notifications("TASK_ASSIGNED")).isZero();
+
+    jdbcTemplate.update(
+        "UPDATE notification_outbox SET next_attempt_at = NOW() - INTERVAL '1 second'"
+            + " WHERE user_id = ?",
+        userId);
+    relay.drain();
+
+    assertThat(outboxRow()).containsEntry("status", "PROCESSED").containsEntry("attempts", 2);
+    assertThat(notifications("TASK_ASSIGNED")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("should park coalesced events durably before closing their outbox rows")
+  void shouldPersistCoalescingWindow() {
+    for (int i = 0; i < 3; i++) {
+      eventPublisher.publishEvent(new TaskCreated(this, userId, UUID.randomUUID(), "Task " + i));
+    }
+
+    relay.drain();
+
+    Integer closed =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM notification_outbox WHERE user_id = ? AND status = 'PROCESSED'",
+            Integer.class,
+            userId);
+    assertThat(closed).isEqualTo(3);
+    // Held in the database rather than in this node's memory
+    Integer held =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pending_notifications WHERE user_id = ? AND reason = 'COALESCE'",
+            Integer.class,
+            userId);
+    assertThat(held).isEqualTo(3);
+    assertThat(notifications("TASK_CREATED")).isZero();
+
+    // The window closes
+    jdbcTemplate.update(
+        "UPDATE pending_notifications SET release_at = NOW() - INTERVAL '1 second'"
+            + " WHERE user_id = ?",
+        userId);
+    dispatcher.flushCoalesced();
+
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT title FROM notifications WHERE user_id = ? AND type = 'TASK_CREATED'",
+                String.class,
+                userId))
+        .isEqualTo("3 Tasks Created");
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pending_notifications WHERE user_id = ?",
+                Integer.class,
+                userId))
+        .isZero();
+  }
+}
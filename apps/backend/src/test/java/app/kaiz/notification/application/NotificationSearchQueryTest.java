@@ -0,0 +1,44 @@
+package app.kaiz.notification.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NotificationSearchQueryTest {
+
+  @Test
+  @DisplayName("should AND prefix-matched terms")
+  void shouldBuildPrefixQuery() {
+    assertThat(NotificationSearchQuery.toPrefixTsQuery("Sprint rev"))
+        .isEqualTo("sprint:* & rev:*");
+  }
+
+  @Test
+  @DisplayName("should strip tsquery operators from user input")
+  void shouldStripOperators() {
+    assertThat(NotificationSearchQuery.toPrefixTsQuery("budget) | !task:* & 'x"))
+        .isEqualTo("budget:* & task:* & x:*");
+  }
+
+  @Test
+  @DisplayName("should keep non-ASCII letters")
+  void shouldKeepUnicodeLetters() {
+    assertThat(NotificationSearchQuery.toPrefixTsQuery("görev")).isEqualTo("görev:*");
+  }
+
+  @Test
+  @DisplayName("should return null when nothing searchable remains")
+  void shouldReturnNullForEmptyInput() {
+    assertThat(NotificationSearchQuery.toPrefixTsQuery("  ")).isNull();
+    assertThat(NotificationSearchQuery.toPrefixTsQuery("&|!")).isNull();
+    assertThat(NotificationSearchQuery.toPrefixTsQuery(null)).isNull();
+  }
+
+  @Test
+  @DisplayName("should cap the number of terms")
+  void shouldCapTerms() {
+    String query = NotificationSearchQuery.toPrefixTsQuery("a b c d e f g h i j k");
+    assertThat(query.split(" & ")).hasSize(NotificationSearchQuery.MAX_TERMS);
+  }
+}
@@ -0,0 +1,126 @@
+package app.kaiz.notification.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import app.kaiz.notification.domain.PendingReason;
+import app.kaiz.notification.infrastructure.PendingNotificationRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class PendingNotificationServiceIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private PendingNotificationService pendingNotificationService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PendingNotificationRepository pendingRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private UUID user(String name) {
+    return userRepository
+        .save(
+            User.builder()
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .fullName(name)
+                .build())
+        .getId();
+  }
+
+  private void park(UUID userId, int count, Instant releaseAt) {
+    List<Object[]> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(new Object[] {userId, Timestamp.from(releaseAt), "Task " + i});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO pending_notifications (user_id, type, category, reason, release_at, title)"
+            + " VALUES (?, 'TASK_CREATED', 'TASKS', 'DAILY_DIGEST', ?, ?)",
+        rows);
+  }
+
+  private List<Integer> digestCounts(UUID userId) {
+    return jdbcTemplate.queryForList(
+        "SELECT (metadata->>'count')::int FROM notifications"
+            + " WHERE user_id = ? AND type = 'DIGEST'",
+        Integer.class,
+        userId);
+  }
+
+  private int parked(UUID userId) {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pending_notifications WHERE user_id = ?", Integer.class, userId);
+    return count != null ? count : 0;
+  }
+
+  @Test
+  @DisplayName("should release each digest group whole, even across ticks and past the batch size")
+  void shouldNeverSplitDigestGroups() {
+    UUID large = user("Large Digest");
+    UUID small = user("Small Digest");
+    Instant due = Instant.now().minus(Duration.ofMinutes(5));
+    // Larger than one tick's budget, and together with the second group well over it
+    park(large, PendingNotificationService.RELEASE_BATCH_SIZE + 100, due.minusSeconds(60));
+    park(small, PendingNotificationService.RELEASE_BATCH_SIZE - 200, due);
+
+    for (int tick = 0; tick < 4 && parked(large) + parked(small) > 0; tick++) {
+      pendingNotificationService.releaseDueDigests();
+    }
+
+    assertThat(parked(large)).isZero();
+    assertThat(parked(small)).isZero();
+    assertThat(digestCounts(large))
+        .containsExactly(PendingNotificationService.RELEASE_BATCH_SIZE + 100);
+    assertThat(digestCounts(small))
+        .containsExactly(PendingNotificationService.RELEASE_BATCH_SIZE - 200);
+  }
+
+  @Test
+  @DisplayName("should leave a group alone while another replica holds it, then release it whole")
+  void shouldSkipGroupClaimedElsewhere() throws Exception {
+    UUID userId = user("Claimed Digest");
+    park(userId, 3, Instant.now().minus(Duration.ofMinutes(5)));
+    String groupKey =
+        PendingNotificationService.groupKey(PendingReason.DAILY_DIGEST, userId, "TASKS");
+    CountDownLatch claimed = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(1);
+
+    CompletableFuture<Void> otherReplica =
+        CompletableFuture.runAsync(
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status -> {
+                      pendingRepository.lockGroup(groupKey);
+                      claimed.countDown();
+                      try {
+                        done.await(10, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                    }));
+    assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+    pendingNotificationService.releaseDueDigests();
+    assertThat(parked(userId)).isEqualTo(3);
+
+    done.countDown();
+    otherReplica.get(10, TimeUnit.SECONDS);
+    pendingNotificationService.releaseDueDigests();
+
+    assertThat(parked(userId)).isZero();
+    assertThat(digestCounts(userId)).containsExactly(3);
+  }
+}
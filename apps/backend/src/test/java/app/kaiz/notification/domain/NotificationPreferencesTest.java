@@ -0,0 +1,106 @@
+package app.kaiz.notification.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NotificationPreferencesTest {
+
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+
+  private static NotificationPreferences quiet(String start, String end) {
+    return NotificationPreferences.builder()
+        .quietHoursEnabled(true)
+        .quietHoursStart(LocalTime.parse(start))
+        .quietHoursEnd(LocalTime.parse(end))
+        .build();
+  }
+
+  private static ZonedDateTime at(String localDateTime, ZoneId zone) {
+    return ZonedDateTime.of(LocalDateTime.parse(localDateTime), zone);
+  }
+
+  @Test
+  @DisplayName("should treat a window crossing midnight as quiet on both sides of it")
+  void shouldHandleWindowAcrossMidnight() {
+    NotificationPreferences prefs = quiet("22:00", "08:00");
+
+    assertThat(prefs.isInQuietHours(LocalTime.of(21, 59, 59))).isFalse();
+    assertThat(prefs.isInQuietHours(LocalTime.of(22, 0))).isTrue();
+    assertThat(prefs.isInQuietHours(LocalTime.MIDNIGHT)).isTrue();
+    assertThat(prefs.isInQuietHours(LocalTime.of(7, 59, 59))).isTrue();
+    assertThat(prefs.isInQuietHours(LocalTime.of(8, 0))).isFalse();
+    assertThat(prefs.isInQuietHours(LocalTime.NOON)).isFalse();
+  }
+
+  @Test
+  @DisplayName("should treat a same-day window as start-inclusive and end-exclusive")
+  void shouldHandleSameDayWindow() {
+    NotificationPreferences prefs = quiet("14:00", "16:00");
+
+    assertThat(prefs.isInQuietHours(LocalTime.of(13, 59, 59))).isFalse();
+    assertThat(prefs.isInQuietHours(LocalTime.of(14, 0))).isTrue();
+    assertThat(prefs.isInQuietHours(LocalTime.of(15, 59, 59))).isTrue();
+    assertThat(prefs.isInQuietHours(LocalTime.of(16, 0))).isFalse();
+    assertThat(prefs.isInQuietHours(LocalTime.MIDNIGHT)).isFalse();
+  }
+
+  @Test
+  @DisplayName("should never be quiet when start equals end or quiet hours are off")
+  void shouldIgnoreEmptyOrDisabledWindow() {
+    NotificationPreferences empty = quiet("08:00", "08:00");
+    assertThat(empty.isInQuietHours(LocalTime.of(8, 0))).isFalse();
+    assertThat(empty.isInQuietHours(LocalTime.of(3, 0))).isFalse();
+    assertThat(empty.quietHoursEndAfter(at("2024-03-10T08:00", NEW_YORK))).isNull();
+
+    NotificationPreferences disabled = quiet("22:00", "08:00");
+    disabled.setQuietHoursEnabled(false);
+    assertThat(disabled.isInQuietHours(LocalTime.MIDNIGHT)).isFalse();
+    assertThat(disabled.quietHoursEndAfter(at("2024-03-10T23:00", NEW_YORK))).isNull();
+  }
+
+  @Test
+  @DisplayName("should end a midnight-crossing window on the next morning when it starts tonight")
+  void shouldFindEndAcrossMidnight() {
+    NotificationPreferences prefs = quiet("22:00", "08:00");
+
+    assertThat(prefs.quietHoursEndAfter(at("2024-01-15T22:00", TOKYO)))
+        .isEqualTo(at("2024-01-16T08:00", TOKYO));
+    assertThat(prefs.quietHoursEndAfter(at("2024-01-16T03:00", TOKYO)))
+        .isEqualTo(at("2024-01-16T08:00", TOKYO));
+    assertThat(prefs.quietHoursEndAfter(at("2024-01-16T07:59:59", TOKYO)))
+        .isEqualTo(at("2024-01-16T08:00", TOKYO));
+    assertThat(prefs.quietHoursEndAfter(at("2024-01-16T08:00", TOKYO))).isNull();
+    assertThat(prefs.quietHoursEndAfter(at("2024-01-15T21:59:59", TOKYO))).isNull();
+  }
+
+  @Test
+  @DisplayName("should judge the same instant by each user's own wall clock")
+  void shouldEvaluateInstantInUserZone() {
+    NotificationPreferences prefs = quiet("22:00", "08:00");
+    // 13:00 UTC is 08:00 in New York (EST) and 22:00 in Tokyo
+    Instant instant = Instant.parse("2024-01-15T13:00:00Z");
+
+    assertThat(prefs.quietHoursEndAfter(instant.atZone(NEW_YORK))).isNull();
+    assertThat(prefs.quietHoursEndAfter(instant.atZone(TOKYO)).toInstant())
+        .isEqualTo(Instant.parse("2024-01-15T23:00:00Z"));
+  }
+
+  @Test
+  @DisplayName("should end at the local end time across a daylight saving change")
+  void shouldFollowLocalTimeAcrossDaylightSaving() {
+    NotificationPreferences prefs = quiet("22:00", "08:00");
+
+    // New York springs forward at 02:00 on 2024-03-10, so this night is one hour shorter
+    ZonedDateTime end = prefs.quietHoursEndAfter(at("2024-03-09T23:00", NEW_YORK));
+    assertThat(end).isEqualTo(at("2024-03-10T08:00", NEW_YORK));
+    assertThat(end.toInstant()).isEqualTo(Instant.parse("2024-03-10T12:00:00Z"));
+  }
+}
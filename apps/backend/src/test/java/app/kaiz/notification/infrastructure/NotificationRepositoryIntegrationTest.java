@@ -0,0 +1,108 @@
+package app.kaiz.notification.infrastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.identity.domain.User;
+import app.kaiz.identity.infrastructure.UserRepository;
+import app.kaiz.notification.domain.Notification;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class NotificationRepositoryIntegrationTest extends IntegrationTestBase {
+
+  private static final Instant START = Instant.parse("2024-03-10T00:00:00Z");
+  private static final Instant END = Instant.parse("2024-03-11T00:00:00Z");
+
+  @Autowired private NotificationRepository repository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    user = user();
+  }
+
+  private User user() {
+    return userRepository.save(
+        User.builder()
+            .email("inbox-" + UUID.randomUUID() + "@example.com")
+            .passwordHash("x")
+            .fullName("Inbox User")
+            .build());
+  }
+
+  private UUID notification(User owner, UUID id, Instant createdAt, boolean archived) {
+    jdbcTemplate.update(
+        "INSERT INTO notifications (id, user_id, type, title, is_archived, created_at)"
+            + " VALUES (?, ?, 'TASK_CREATED', 'Inbox', ?, ?)",
+        id,
+        owner.getId(),
+        archived,
+        Timestamp.from(createdAt));
+    return id;
+  }
+
+  private UUID notification(Instant createdAt) {
+    return notification(user, UUID.randomUUID(), createdAt, false);
+  }
+
+  private static List<UUID> ids(List<Notification> notifications) {
+    return notifications.stream().map(Notification::getId).toList();
+  }
+
+  @Test
+  @DisplayName("should return the user's unarchived notifications in [start, end), newest first")
+  void shouldReadBucketRange() {
+    UUID atStart = notification(START);
+    UUID middle = notification(START.plusSeconds(3_600));
+    UUID latest = notification(END.minusMillis(1));
+    notification(END);
+    notification(START.minusMillis(1));
+    notification(user, UUID.randomUUID(), START.plusSeconds(60), true);
+    notification(user(), UUID.randomUUID(), START.plusSeconds(120), false);
+
+    assertThat(ids(repository.findInboxBucket(user.getId(), START, END, PageRequest.of(0, 10))))
+        .containsExactly(latest, middle, atStart);
+    assertThat(ids(repository.findInboxBucket(user.getId(), START, END, PageRequest.of(0, 2))))
+        .containsExactly(latest, middle);
+  }
+
+  @Test
+  @DisplayName("should page through ties on created_at by id without skipping or repeating rows")
+  void shouldContinueAfterCursorAcrossTies() {
+    Instant tied = START.plusSeconds(7_200);
+    // Same high bits, so the ids order by their low bits
+    long prefix = UUID.randomUUID().getMostSignificantBits();
+    UUID newest = notification(tied.plusSeconds(1));
+    UUID high = notification(user, new UUID(prefix, 3), tied, false);
+    UUID mid = notification(user, new UUID(prefix, 2), tied, false);
+    UUID low = notification(user, new UUID(prefix, 1), tied, false);
+    UUID oldest = notification(tied.minusSeconds(1));
+    notification(user, new UUID(prefix, 0), tied, true);
+
+    List<UUID> seen = new ArrayList<>();
+    List<Notification> page =
+        repository.findInboxBucket(user.getId(), START, END, PageRequest.of(0, 2));
+    while (!page.isEmpty()) {
+      seen.addAll(ids(page));
+      Notification last = page.getLast();
+      page =
+          repository.findInboxBucketAfter(
+              user.getId(), START, END, last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+    }
+
+    assertThat(seen).containsExactly(newest, high, mid, low, oldest);
+  }
+}
@@ -0,0 +1,133 @@
+package app.kaiz.shared.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.kaiz.IntegrationTestBase;
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import app.kaiz.shared.ratelimit.RateLimitBucketStore.Probe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Runs {@link JdbcBucketStore} against {@code rate_limit_buckets}. Each store instance plays one
+ * replica; round trips are counted through a wrapper around the real storage.
+ */
+class JdbcBucketStoreIntegrationTest extends IntegrationTestBase {
+
+  @Autowired private SharedBucketStorage storage;
+
+  private final AtomicInteger takes = new AtomicInteger();
+
+  private final SharedBucketStorage countingStorage =
+      new SharedBucketStorage() {
+        @Override
+        public Grant take(String key, int capacity, double refillPerSecond, int want) {
+          takes.incrementAndGet();
+          return storage.take(key, capacity, refillPerSecond, want);
+        }
+
+        @Override
+        public void refund(String key, int capacity, int tokens) {
+          storage.refund(key, capacity, tokens);
+        }
+
+        @Override
+        public int deleteIdle(String prefix, Duration idleFor, int limit) {
+          return storage.deleteIdle(prefix, idleFor, limit);
+        }
+      };
+
+  private JdbcBucketStore replica(TierConfig tier, Duration prefetchTtl) {
+    return new JdbcBucketStore(
+        "it", tier, countingStorage, new LocalBucketStore(tier, 100), 100, prefetchTtl);
+  }
+
+  /** One token a day after the initial capacity, so nothing refills during a test. */
+  private static TierConfig dailyTier(int capacity, int prefetch) {
+    TierConfig tier = new TierConfig(capacity, 1, 86_400);
+    tier.setPrefetch(prefetch);
+    return tier;
+  }
+
+  @Test
+  @DisplayName("should hand out exactly the shared capacity when two replicas drain one key")
+  void shouldShareCapacityAcrossReplicas() throws Exception {
+    TierConfig tier = dailyTier(30, 4);
+    List<JdbcBucketStore> replicas =
+        List.of(replica(tier, Duration.ofMinutes(1)), replica(tier, Duration.ofMinutes(1)));
+    String key = UUID.randomUUID().toString();
+
+    List<Callable<Boolean>> requests = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      JdbcBucketStore replica = replicas.get(i % 2);
+      requests.add(() -> replica.tryConsume(key).consumed());
+    }
+    int granted = 0;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (Future<Boolean> outcome : executor.invokeAll(requests)) {
+        granted += outcome.get() ? 1 : 0;
+      }
+    }
+
+    assertThat(granted).isEqualTo(30);
+  }
+
+  @Test
+  @DisplayName("should answer repeated requests for an empty bucket without a round trip each")
+  void shouldRememberDenialUntilRefill() {
+    JdbcBucketStore replica = replica(dailyTier(2, 1), Duration.ofMinutes(1));
+    String key = UUID.randomUUID().toString();
+
+    assertThat(replica.tryConsume(key).consumed()).isTrue();
+    assertThat(replica.tryConsume(key).consumed()).isTrue();
+    Probe first = replica.tryConsume(key);
+    int roundTrips = takes.get();
+    Probe last = first;
+    for (int i = 0; i < 50; i++) {
+      last = replica.tryConsume(key);
+      assertThat(last.consumed()).isFalse();
+    }
+
+    assertThat(first.consumed()).isFalse();
+    assertThat(takes).hasValue(roundTrips);
+    assertThat(last.nanosToWaitForRefill())
+        .isPositive()
+        .isLessThanOrEqualTo(first.nanosToWaitForRefill());
+  }
+
+  @Test
+  @DisplayName("should return a replica's unused prefetch to the bucket when its lease expires")
+  void shouldRefundUnusedPrefetch() throws Exception {
+    TierConfig tier = dailyTier(5, 5);
+    JdbcBucketStore holder = replica(tier, Duration.ofMillis(200));
+    JdbcBucketStore other = replica(tier, Duration.ofMillis(200));
+    String key = UUID.randomUUID().toString();
+
+    assertThat(holder.tryConsume(key).consumed()).isTrue();
+    // The holder's lease keeps the other four tokens for now
+    assertThat(other.tryConsume(key).consumed()).isFalse();
+
+    int granted = 0;
+    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (granted < 4 && System.nanoTime() < deadline) {
+      if (other.tryConsume(key).consumed()) {
+        granted++;
+      } else {
+        Thread.sleep(50);
+      }
+    }
+
+    assertThat(granted).isEqualTo(4);
+    assertThat(other.tryConsume(key).consumed()).isFalse();
+  }
+}
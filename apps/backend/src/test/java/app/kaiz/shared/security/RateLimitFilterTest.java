@@ -0,0 +1,238 @@
+package app.kaiz.shared.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import app.kaiz.shared.config.RateLimitConfig.RateLimitProperties;
+import app.kaiz.shared.config.RateLimitConfig.TierConfig;
+import app.kaiz.shared.ratelimit.SharedBucketStorage;
+import app.kaiz.shared.ratelimit.RateLimitBuckets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.apache.catalina.valves.ValveBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@Slf4j
+class RateLimitFilterTest {
+
+  private final AtomicInteger passed = new AtomicInteger();
+  private final FilterChain chain = (request, response) -> passed.incrementAndGet();
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private static RateLimitFilter filter(TierConfig auth, TierConfig api) {
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.setAuth(auth);
+    properties.setApi(api);
+    return new RateLimitFilter(
+        properties,
+        new RateLimitBuckets(properties, mock(SharedBucketStorage.class)),
+        new ObjectMapper());
+  }
+
+  private static MockHttpServletRequest request(String uri, String ip) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+    request.setRemoteAddr(ip);
+    return request;
+  }
+
+  private static void authenticate(String userId) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(
+                userId, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+  }
+
+  @Test
+  @DisplayName("should reject the sixth login from one IP with 429 and rate limit headers")
+  void shouldLimitAuthTierPerIp() throws Exception {
+    RateLimitFilter filter = filter(new TierConfig(5, 5, 60), new TierConfig(100, 100, 60));
+
+    for (int i = 0; i < 5; i++) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      filter.doFilter(request("/api/v1/auth/login", "10.0.0.1"), response, chain);
+      assertThat(response.getStatus()).isEqualTo(200);
+      assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("5");
+      assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER))
+          .isEqualTo(Integer.toString(4 - i));
+    }
+
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    filter.doFilter(request("/api/v1/auth/login", "10.0.0.1"), rejected, chain);
+    assertThat(rejected.getStatus()).isEqualTo(429);
+    assertThat(rejected.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+    assertThat(rejected.getHeader(RateLimitFilter.RETRY_AFTER_HEADER)).isEqualTo("12");
+    assertThat(rejected.getHeader(RateLimitFilter.RESET_HEADER)).isEqualTo("60");
+    assertThat(rejected.getContentAsString()).contains("\"success\":false");
+    assertThat(passed).hasValue(5);
+
+    // Another client is unaffected
+    MockHttpServletResponse other = new MockHttpServletResponse();
+    filter.doFilter(request("/api/v1/auth/login", "10.0.0.2"), other, chain);
+    assertThat(other.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("should limit authenticated callers per user on the api tier")
+  void shouldLimitApiTierPerUser() throws Exception {
+    RateLimitFilter filter = filter(new TierConfig(1, 1, 60), new TierConfig(2, 2, 60));
+
+    authenticate("user-a");
+    for (int i = 0; i < 3; i++) {
+      filter.doFilter(
+          request("/api/v1/tasks", "10.0.0." + i), new MockHttpServletResponse(), chain);
+    }
+    assertThat(passed).hasValue(2);
+
+    // Auth endpoints called with a token count against the user, not the auth tier
+    authenticate("user-b");
+    for (int i = 0; i < 2; i++) {
+      filter.doFilter(request("/api/v1/auth/me", "10.0.0.9"), new MockHttpServletResponse(), chain);
+    }
+    assertThat(passed).hasValue(4);
+  }
+
+  @Test
+  @DisplayName("should not limit health checks or CORS preflight")
+  void shouldSkipExemptRequests() throws Exception {
+    RateLimitFilter filter = filter(new TierConfig(1, 1, 60), new TierConfig(1, 1, 60));
+
+    for (int i = 0; i < 3; i++) {
+      filter.doFilter(
+          new MockHttpServletRequest("GET", "/actuator/health/liveness"),
+          new MockHttpServletResponse(),
+          chain);
+      filter.doFilter(
+          new MockHttpServletRequest("OPTIONS", "/api/v1/tasks"),
+          new MockHttpServletResponse(),
+          chain);
+    }
+    assertThat(passed).hasValue(6);
+  }
+
+  /** The RemoteIpValve Spring Boot builds from application.yml. */
+  private static RemoteIpValve configuredRemoteIpValve() throws Exception {
+    StandardEnvironment environment = new StandardEnvironment();
+    new YamlPropertySourceLoader()
+        .load("application", new ClassPathResource("application.yml"))
+        .forEach(environment.getPropertySources()::addLast);
+    ServerProperties server = Binder.get(environment).bind("server", ServerProperties.class).get();
+    TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+    new TomcatWebServerFactoryCustomizer(environment, server).customize(factory);
+    return factory.getEngineValves().stream()
+        .filter(RemoteIpValve.class::isInstance)
+        .map(RemoteIpValve.class::cast)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  /** Send a login attempt from {@code peer} through the valve, then through the filter. */
+  private static int loginThroughValve(
+      RemoteIpValve valve, RateLimitFilter filter, String peer, String forwardedFor)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    valve.setNext(
+        new ValveBase() {
+          @Override
+          public void invoke(Request request, Response ignored) {
+            try {
+              filter.doFilter(
+                  RateLimitFilterTest.request("/api/v1/auth/login", request.getRemoteAddr()),
+                  response,
+                  (req, res) -> {});
+            } catch (Exception e) {
+              throw new IllegalStateException(e);
+            }
+          }
+        });
+    Request request = new Request(new Connector());
+    request.setCoyoteRequest(new org.apache.coyote.Request());
+    request.setRemoteAddr(peer);
+    request.setRemoteHost(peer);
+    request.getCoyoteRequest().getMimeHeaders().addValue("X-Forwarded-For").setString(forwardedFor);
+    valve.invoke(request, null);
+    return response.getStatus();
+  }
+
+  @Test
+  @DisplayName("should key anonymous callers on the client behind a trusted proxy only")
+  void shouldHonorForwardedForOnlyFromTrustedProxies() throws Exception {
+    RemoteIpValve valve = configuredRemoteIpValve();
+    RateLimitFilter filter = filter(new TierConfig(2, 2, 60), new TierConfig(100, 100, 60));
+
+    // Behind the Cloud Run front end and a Google proxy, each client gets its own bucket
+    for (int i = 0; i < 5; i++) {
+      assertThat(
+              loginThroughValve(
+                  valve, filter, "169.254.1.1", "198.51.100." + i + ", 35.191.0.10"))
+          .isEqualTo(200);
+    }
+
+    // A direct caller cannot pick a fresh bucket by rotating X-Forwarded-For
+    List<Integer> statuses = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      statuses.add(loginThroughValve(valve, filter, "203.0.113.7", "192.0.2." + i));
+    }
+    assertThat(statuses).containsExactly(200, 200, 429, 429);
+  }
+
+  /**
+   * Microbenchmark of the allowed path (context lookup, bucket lookup and consume, three headers)
+   * against a no-op chain. Best of several rounds, to keep GC pauses and JIT out of the figure. The
+   * figure depends on the machine, so it is logged rather than asserted, and the default build
+   * skips it (see {@code test.excludedGroups} in the pom).
+   */
+  @Test
+  @Tag("benchmark")
+  @DisplayName("should report the cost per allowed request")
+  void benchmarkAllowedRequest() throws Exception {
+    TierConfig unlimited = new TierConfig(1_000_000_000, 1_000_000_000, 1);
+    RateLimitFilter filter = filter(unlimited, unlimited);
+    authenticate("bench-user");
+    MockHttpServletRequest request = request("/api/v1/tasks", "10.0.0.1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    int iterations = 200_000;
+    for (int i = 0; i < iterations * 2; i++) {
+      filter.doFilter(request, response, chain);
+    }
+    double best = Double.MAX_VALUE;
+    for (int round = 0; round < 5; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        filter.doFilter(request, response, chain);
+      }
+      best = Math.min(best, (double) (System.nanoTime() - start) / iterations);
+    }
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(passed).hasValue(iterations * 7);
+    log.info("RateLimitFilter allowed path: {} ns per request", Math.round(best));
+  }
+}